@@ -21,6 +21,9 @@ package org.apache.plc4x.java;
 import org.apache.plc4x.java.api.Experimental;
 import org.apache.plc4x.java.api.PlcConnection;
 import org.apache.plc4x.java.api.authentication.PlcAuthentication;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryItem;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryItemHandler;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryRequest;
 import org.apache.plc4x.java.api.exceptions.PlcConnectionException;
 import org.apache.plc4x.java.api.PlcDriver;
 import org.slf4j.Logger;
@@ -28,9 +31,15 @@ import org.slf4j.LoggerFactory;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PlcDriverManager {
 
@@ -38,8 +47,16 @@ public class PlcDriverManager {
 
     protected ClassLoader classLoader;
 
+    // How long discovered devices are remembered.
+    public static final Duration DEFAULT_DISCOVERY_CACHE_TTL = Duration.ofMinutes(5);
+
     private Map<String, PlcDriver> driverMap;
 
+    // Discovered devices by their connection url.
+    private final Map<String, DiscoveredItem> discoveryCache = new ConcurrentHashMap<>();
+
+    private volatile Duration discoveryCacheTtl = DEFAULT_DISCOVERY_CACHE_TTL;
+
     public PlcDriverManager() {
         this(Thread.currentThread().getContextClassLoader());
     }
@@ -111,4 +128,85 @@ public class PlcDriverManager {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Runs the discovery of all drivers supporting it (and being requested) in parallel. Every device is passed to
+     * the handler as soon as it's found and remembered for the discovery cache TTL.
+     *
+     * @param discoveryRequest where and how long to look for devices.
+     * @param handler          called for every device found (Once per device, even if found by more than one probe).
+     * @return future completed with all devices found, as soon as the discovery of all drivers is finished.
+     */
+    @Experimental
+    public CompletableFuture<List<PlcDiscoveryItem>> discover(PlcDiscoveryRequest discoveryRequest,
+                                                              PlcDiscoveryItemHandler handler) {
+        evictExpiredDiscoveryItems();
+        final Map<String, PlcDiscoveryItem> discoveredItems = new ConcurrentHashMap<>();
+        final PlcDiscoveryItemHandler cachingHandler = discoveryItem -> {
+            final String connectionUrl = discoveryItem.getConnectionUrl();
+            discoveryCache.put(connectionUrl, new DiscoveredItem(discoveryItem, Instant.now()));
+            if (discoveredItems.putIfAbsent(connectionUrl, discoveryItem) == null) {
+                handler.handle(discoveryItem);
+            }
+        };
+        List<CompletableFuture<Void>> discoveries = new ArrayList<>();
+        for (PlcDriver driver : driverMap.values()) {
+            if (!driver.canDiscover() || !discoveryRequest.isProtocolRequested(driver.getProtocolCode())) {
+                continue;
+            }
+            LOGGER.debug("Starting discovery for protocol {}", driver.getProtocolCode());
+            CompletableFuture<Void> discovery;
+            try {
+                discovery = driver.discover(discoveryRequest, cachingHandler);
+            } catch (RuntimeException e) {
+                discovery = new CompletableFuture<>();
+                discovery.completeExceptionally(e);
+            }
+            // A failing driver doesn't affect the results of the others.
+            discoveries.add(discovery.exceptionally(throwable -> {
+                LOGGER.warn("Discovery for protocol {} failed", driver.getProtocolCode(), throwable);
+                return null;
+            }));
+        }
+        return CompletableFuture.allOf(discoveries.toArray(new CompletableFuture[0]))
+            .thenApply(ignore -> new ArrayList<>(discoveredItems.values()));
+    }
+
+    /**
+     * @return all devices discovered within the discovery cache TTL.
+     */
+    @Experimental
+    public List<PlcDiscoveryItem> getDiscoveredItems() {
+        evictExpiredDiscoveryItems();
+        List<PlcDiscoveryItem> discoveredItems = new ArrayList<>(discoveryCache.size());
+        for (DiscoveredItem discoveredItem : discoveryCache.values()) {
+            discoveredItems.add(discoveredItem.item);
+        }
+        return discoveredItems;
+    }
+
+    public Duration getDiscoveryCacheTtl() {
+        return discoveryCacheTtl;
+    }
+
+    public void setDiscoveryCacheTtl(Duration discoveryCacheTtl) {
+        this.discoveryCacheTtl = discoveryCacheTtl;
+    }
+
+    private void evictExpiredDiscoveryItems() {
+        final Instant oldestValid = Instant.now().minus(discoveryCacheTtl);
+        discoveryCache.values().removeIf(discoveredItem -> !discoveredItem.discovered.isAfter(oldestValid));
+    }
+
+    private static class DiscoveredItem {
+
+        private final PlcDiscoveryItem item;
+        private final Instant discovered;
+
+        private DiscoveredItem(PlcDiscoveryItem item, Instant discovered) {
+            this.item = item;
+            this.discovered = discovered;
+        }
+
+    }
+
+}
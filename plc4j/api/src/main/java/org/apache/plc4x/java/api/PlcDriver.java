@@ -19,10 +19,14 @@
 package org.apache.plc4x.java.api;
 
 import org.apache.plc4x.java.api.authentication.PlcAuthentication;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryItemHandler;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryRequest;
 import org.apache.plc4x.java.api.exceptions.PlcConnectionException;
 import org.apache.plc4x.java.api.exceptions.PlcNotImplementedException;
 import org.apache.plc4x.java.api.model.PlcField;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * General interface defining the minimal methods required for adding a new type of driver to the PLC4J system.
  *
@@ -62,4 +66,21 @@ public interface PlcDriver {
     default PlcField prepareField(String query){
         throw new PlcNotImplementedException("Not implemented for "+getProtocolName());
     }
+
+    /**
+     * @return true, if the driver is able to find devices speaking its protocol.
+     */
+    default boolean canDiscover() {
+        return false;
+    }
+
+    /**
+     * Looks for devices speaking the protocol of this driver.
+     * @param discoveryRequest where and how long to look for devices.
+     * @param handler called for every device as soon as it's found.
+     * @return future completed as soon as the discovery is finished.
+     */
+    default CompletableFuture<Void> discover(PlcDiscoveryRequest discoveryRequest, PlcDiscoveryItemHandler handler) {
+        throw new PlcNotImplementedException("Discovery not implemented for " + getProtocolName());
+    }
 }
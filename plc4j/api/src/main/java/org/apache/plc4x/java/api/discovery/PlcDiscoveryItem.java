@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.plc4x.java.api.discovery;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * A device found by a discovery, containing everything needed to connect to it.
+ */
+public class PlcDiscoveryItem {
+
+    private final String protocolCode;
+    private final String transportCode;
+    private final String transportUrl;
+    private final Map<String, String> options;
+    private final String name;
+
+    public PlcDiscoveryItem(String protocolCode, String transportCode, String transportUrl,
+                            Map<String, String> options, String name) {
+        this.protocolCode = Objects.requireNonNull(protocolCode);
+        this.transportCode = Objects.requireNonNull(transportCode);
+        this.transportUrl = Objects.requireNonNull(transportUrl);
+        // Sorted, so the connection url of an item is always the same.
+        this.options = (options != null) ? Collections.unmodifiableMap(new TreeMap<>(options)) : Collections.emptyMap();
+        this.name = name;
+    }
+
+    public String getProtocolCode() {
+        return protocolCode;
+    }
+
+    public String getTransportCode() {
+        return transportCode;
+    }
+
+    /**
+     * @return address of the device in the format of the transport (For example "192.168.23.42:502").
+     */
+    public String getTransportUrl() {
+        return transportUrl;
+    }
+
+    public Map<String, String> getOptions() {
+        return options;
+    }
+
+    /**
+     * @return name the device reported about itself (null, if the discovery doesn't provide one).
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return plc connection string to connect to the device with the PlcDriverManager.
+     */
+    public String getConnectionUrl() {
+        StringBuilder connectionUrl = new StringBuilder()
+            .append(protocolCode).append(':').append(transportCode).append("://").append(transportUrl);
+        if (!options.isEmpty()) {
+            connectionUrl.append('?').append(options.entrySet().stream()
+                .map(option -> option.getKey() + "=" + option.getValue())
+                .collect(Collectors.joining("&")));
+        }
+        return connectionUrl.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PlcDiscoveryItem)) {
+            return false;
+        }
+        PlcDiscoveryItem that = (PlcDiscoveryItem) o;
+        return protocolCode.equals(that.protocolCode) &&
+            transportCode.equals(that.transportCode) &&
+            transportUrl.equals(that.transportUrl) &&
+            options.equals(that.options) &&
+            Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(protocolCode, transportCode, transportUrl, options, name);
+    }
+
+    @Override
+    public String toString() {
+        return "PlcDiscoveryItem{" +
+            "connectionUrl='" + getConnectionUrl() + '\'' +
+            ", name='" + name + '\'' +
+            '}';
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.plc4x.java.api.discovery;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Describes where and how long to look for devices:
+ * <ul>
+ *     <li>Drivers supporting broadcast discovery send their broadcasts and wait the broadcast timeout for responses.</li>
+ *     <li>Drivers supporting active discovery probe every host of the given subnets. At most max concurrent probes
+ *     are running at the same time and every one of them is given up after the probe timeout.</li>
+ * </ul>
+ */
+public class PlcDiscoveryRequest {
+
+    public static final Duration DEFAULT_PROBE_TIMEOUT = Duration.ofMillis(500);
+    public static final Duration DEFAULT_BROADCAST_TIMEOUT = Duration.ofSeconds(3);
+    public static final int DEFAULT_MAX_CONCURRENT_PROBES = 256;
+
+    private final Set<String> protocolCodes;
+    private final List<String> subnets;
+    private final Duration probeTimeout;
+    private final Duration broadcastTimeout;
+    private final int maxConcurrentProbes;
+
+    private PlcDiscoveryRequest(Set<String> protocolCodes, List<String> subnets, Duration probeTimeout,
+                                Duration broadcastTimeout, int maxConcurrentProbes) {
+        this.protocolCodes = Collections.unmodifiableSet(protocolCodes);
+        this.subnets = Collections.unmodifiableList(subnets);
+        this.probeTimeout = probeTimeout;
+        this.broadcastTimeout = broadcastTimeout;
+        this.maxConcurrentProbes = maxConcurrentProbes;
+    }
+
+    /**
+     * @return codes of the protocols to discover (All protocols, if empty).
+     */
+    public Set<String> getProtocolCodes() {
+        return protocolCodes;
+    }
+
+    public boolean isProtocolRequested(String protocolCode) {
+        return protocolCodes.isEmpty() || protocolCodes.contains(protocolCode);
+    }
+
+    /**
+     * @return subnets to probe in CIDR notation (For example "192.168.23.0/24").
+     */
+    public List<String> getSubnets() {
+        return subnets;
+    }
+
+    public Duration getProbeTimeout() {
+        return probeTimeout;
+    }
+
+    public Duration getBroadcastTimeout() {
+        return broadcastTimeout;
+    }
+
+    public int getMaxConcurrentProbes() {
+        return maxConcurrentProbes;
+    }
+
+    @Override
+    public String toString() {
+        return "PlcDiscoveryRequest{" +
+            "protocolCodes=" + protocolCodes +
+            ", subnets=" + subnets +
+            ", probeTimeout=" + probeTimeout +
+            ", broadcastTimeout=" + broadcastTimeout +
+            ", maxConcurrentProbes=" + maxConcurrentProbes +
+            '}';
+    }
+
+    public static class Builder {
+
+        private final Set<String> protocolCodes = new LinkedHashSet<>();
+        private final List<String> subnets = new ArrayList<>();
+        private Duration probeTimeout = DEFAULT_PROBE_TIMEOUT;
+        private Duration broadcastTimeout = DEFAULT_BROADCAST_TIMEOUT;
+        private int maxConcurrentProbes = DEFAULT_MAX_CONCURRENT_PROBES;
+
+        public Builder addProtocolCode(String protocolCode) {
+            protocolCodes.add(Objects.requireNonNull(protocolCode));
+            return this;
+        }
+
+        public Builder addSubnet(String subnet) {
+            subnets.add(Objects.requireNonNull(subnet));
+            return this;
+        }
+
+        public Builder withProbeTimeout(Duration probeTimeout) {
+            this.probeTimeout = Objects.requireNonNull(probeTimeout);
+            return this;
+        }
+
+        public Builder withBroadcastTimeout(Duration broadcastTimeout) {
+            this.broadcastTimeout = Objects.requireNonNull(broadcastTimeout);
+            return this;
+        }
+
+        public Builder withMaxConcurrentProbes(int maxConcurrentProbes) {
+            if (maxConcurrentProbes < 1) {
+                throw new IllegalArgumentException("At least one probe has to be allowed");
+            }
+            this.maxConcurrentProbes = maxConcurrentProbes;
+            return this;
+        }
+
+        public PlcDiscoveryRequest build() {
+            return new PlcDiscoveryRequest(new LinkedHashSet<>(protocolCodes), new ArrayList<>(subnets),
+                probeTimeout, broadcastTimeout, maxConcurrentProbes);
+        }
+
+    }
+
+}
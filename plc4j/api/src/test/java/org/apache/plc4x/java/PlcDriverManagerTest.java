@@ -19,6 +19,8 @@
 package org.apache.plc4x.java;
 
 import org.apache.plc4x.java.api.authentication.PlcUsernamePasswordAuthentication;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryItem;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryRequest;
 import org.apache.plc4x.java.api.exceptions.PlcConnectionException;
 import org.apache.plc4x.java.api.exceptions.PlcException;
 import org.apache.plc4x.java.mock.MockPlcConnection;
@@ -28,8 +30,14 @@ import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsInstanceOf.instanceOf;
 import static org.hamcrest.core.IsNull.notNullValue;
@@ -111,4 +119,45 @@ public class PlcDriverManagerTest {
             () -> new PlcDriverManager(fakeClassLoader).getConnection("api-mock://some-cool-url"));
     }
 
+    /**
+     * Every device is reported once and remembered in the discovery cache.
+     *
+     * @throws Exception something went wrong
+     */
+    @Test
+    public void discoverTest() throws Exception {
+        PlcDriverManager driverManager = new PlcDriverManager();
+        PlcDiscoveryRequest discoveryRequest = new PlcDiscoveryRequest.Builder()
+            .addProtocolCode("api-mock")
+            .addSubnet("10.0.0.1/32")
+            .addSubnet("10.0.1.1/32")
+            .build();
+        List<PlcDiscoveryItem> handledItems = new CopyOnWriteArrayList<>();
+        List<PlcDiscoveryItem> discoveredItems = driverManager.discover(discoveryRequest, handledItems::add).get();
+
+        assertThat(discoveredItems, hasSize(2));
+        assertThat(handledItems, containsInAnyOrder(discoveredItems.toArray()));
+        assertThat(driverManager.getDiscoveredItems(), containsInAnyOrder(discoveredItems.toArray()));
+        assertThat(discoveredItems.get(0).getConnectionUrl().startsWith("api-mock:tcp://10.0."), is(true));
+    }
+
+    /**
+     * Devices are forgotten after the discovery cache TTL and drivers not requested aren't asked at all.
+     *
+     * @throws Exception something went wrong
+     */
+    @Test
+    public void discoveryCacheTtlTest() throws Exception {
+        PlcDriverManager driverManager = new PlcDriverManager();
+        driverManager.discover(new PlcDiscoveryRequest.Builder().addSubnet("10.0.0.1/32").build(), item -> {}).get();
+        assertThat(driverManager.getDiscoveredItems(), hasSize(1));
+
+        driverManager.setDiscoveryCacheTtl(Duration.ZERO);
+        assertThat(driverManager.getDiscoveredItems(), empty());
+
+        List<PlcDiscoveryItem> discoveredItems = driverManager.discover(new PlcDiscoveryRequest.Builder()
+            .addProtocolCode("other").addSubnet("10.0.0.1/32").build(), item -> {}).get();
+        assertThat(discoveredItems, empty());
+    }
+
 }
@@ -21,6 +21,11 @@ package org.apache.plc4x.java.mock;
 import org.apache.plc4x.java.api.PlcConnection;
 import org.apache.plc4x.java.api.authentication.PlcAuthentication;
 import org.apache.plc4x.java.api.PlcDriver;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryItem;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryItemHandler;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryRequest;
+
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -52,4 +57,23 @@ public class ApiMockDriver implements PlcDriver {
         return connection;
     }
 
+    @Override
+    public boolean canDiscover() {
+        return true;
+    }
+
+    /**
+     * Finds one device per subnet (Twice, like devices reachable by more than one probe).
+     */
+    @Override
+    public CompletableFuture<Void> discover(PlcDiscoveryRequest discoveryRequest, PlcDiscoveryItemHandler handler) {
+        return CompletableFuture.runAsync(() -> {
+            for (String subnet : discoveryRequest.getSubnets()) {
+                String host = subnet.substring(0, subnet.indexOf('/'));
+                handler.handle(new PlcDiscoveryItem(getProtocolCode(), "tcp", host + ":1234", null, subnet));
+                handler.handle(new PlcDiscoveryItem(getProtocolCode(), "tcp", host + ":1234", null, subnet));
+            }
+        });
+    }
+
 }
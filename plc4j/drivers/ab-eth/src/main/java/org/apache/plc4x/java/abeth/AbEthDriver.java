@@ -20,8 +20,10 @@ package org.apache.plc4x.java.abeth;
 
 import io.netty.buffer.ByteBuf;
 import org.apache.plc4x.java.abeth.configuration.AbEthConfiguration;
+import org.apache.plc4x.java.abeth.context.AbEthDriverContext;
 import org.apache.plc4x.java.abeth.field.AbEthField;
 import org.apache.plc4x.java.abeth.field.AbEthFieldHandler;
+import org.apache.plc4x.java.abeth.optimizer.AbEthOptimizer;
 import org.apache.plc4x.java.abeth.protocol.AbEthProtocolLogic;
 import org.apache.plc4x.java.abeth.readwrite.CIPEncapsulationPacket;
 import org.apache.plc4x.java.abeth.readwrite.io.CIPEncapsulationPacketIO;
@@ -30,6 +32,7 @@ import org.apache.plc4x.java.spi.configuration.Configuration;
 import org.apache.plc4x.java.spi.connection.GeneratedDriverBase;
 import org.apache.plc4x.java.spi.connection.ProtocolStackConfigurer;
 import org.apache.plc4x.java.spi.connection.SingleProtocolStackConfigurer;
+import org.apache.plc4x.java.spi.optimizer.BaseOptimizer;
 
 import java.util.function.ToIntFunction;
 
@@ -58,6 +61,16 @@ public class AbEthDriver extends GeneratedDriverBase<CIPEncapsulationPacket> {
         return "raw";
     }
 
+    @Override
+    protected boolean canRead() {
+        return true;
+    }
+
+    @Override
+    protected BaseOptimizer getOptimizer() {
+        return new AbEthOptimizer();
+    }
+
     @Override
     protected AbEthFieldHandler getFieldHandler() {
         return new AbEthFieldHandler();
@@ -67,6 +80,7 @@ public class AbEthDriver extends GeneratedDriverBase<CIPEncapsulationPacket> {
     protected ProtocolStackConfigurer<CIPEncapsulationPacket> getStackConfigurer() {
         return SingleProtocolStackConfigurer.builder(CIPEncapsulationPacket.class, CIPEncapsulationPacketIO.class)
             .withProtocol(AbEthProtocolLogic.class)
+            .withDriverContext(AbEthDriverContext.class)
             .withPacketSizeEstimator(ByteLengthEstimator.class)
             .build();
     }
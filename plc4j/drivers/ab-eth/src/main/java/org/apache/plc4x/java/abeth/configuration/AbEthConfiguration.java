@@ -21,6 +21,7 @@ package org.apache.plc4x.java.abeth.configuration;
 import org.apache.plc4x.java.abeth.AbEthDriver;
 import org.apache.plc4x.java.spi.configuration.Configuration;
 import org.apache.plc4x.java.spi.configuration.annotations.ConfigurationParameter;
+import org.apache.plc4x.java.spi.configuration.annotations.defaults.IntDefaultValue;
 import org.apache.plc4x.java.transport.tcp.TcpTransportConfiguration;
 
 public class AbEthConfiguration implements Configuration, TcpTransportConfiguration {
@@ -28,6 +29,15 @@ public class AbEthConfiguration implements Configuration, TcpTransportConfigurat
     @ConfigurationParameter
     private int station;
 
+    @ConfigurationParameter("max-reply-size")
+    @IntDefaultValue(236)
+    private int maxReplySize;
+
+    // Time (in ms) to wait for the response to a request.
+    @ConfigurationParameter("request-timeout")
+    @IntDefaultValue(10000)
+    private int requestTimeout;
+
     public int getStation() {
         return station;
     }
@@ -36,6 +46,22 @@ public class AbEthConfiguration implements Configuration, TcpTransportConfigurat
         this.station = station;
     }
 
+    public int getMaxReplySize() {
+        return maxReplySize;
+    }
+
+    public void setMaxReplySize(int maxReplySize) {
+        this.maxReplySize = maxReplySize;
+    }
+
+    public int getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(int requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
     @Override
     public int getDefaultPort() {
         return AbEthDriver.AB_ETH_PORT;
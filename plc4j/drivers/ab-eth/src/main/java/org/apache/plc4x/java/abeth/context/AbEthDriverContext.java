@@ -0,0 +1,45 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.abeth.context;
+
+import org.apache.plc4x.java.abeth.configuration.AbEthConfiguration;
+import org.apache.plc4x.java.spi.configuration.HasConfiguration;
+import org.apache.plc4x.java.spi.context.DriverContext;
+
+public class AbEthDriverContext implements DriverContext, HasConfiguration<AbEthConfiguration> {
+
+    // Largest data payload a SLC 5/05 returns for one PCCC protected typed logical read.
+    public static final int MAX_REPLY_SIZE = 236;
+
+    private int maxReplySize = MAX_REPLY_SIZE;
+
+    @Override
+    public void setConfiguration(AbEthConfiguration configuration) {
+        // Some devices support less than this, but the 'byteSize' of the request is limited to one byte anyway.
+        this.maxReplySize = Math.max(2, Math.min(configuration.getMaxReplySize(), MAX_REPLY_SIZE));
+    }
+
+    /**
+     * @return maximum number of bytes to read with one single protected typed logical read.
+     */
+    public int getMaxReplySize() {
+        return maxReplySize;
+    }
+
+}
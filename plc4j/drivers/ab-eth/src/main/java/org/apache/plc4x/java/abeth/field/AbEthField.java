@@ -73,6 +73,14 @@ public class AbEthField implements PlcField {
         return bitNumber;
     }
 
+    /**
+     * @return true if the field is located in an integer file, in which every element is one 16 bit word.
+     * Only fields of this kind can be merged with others into one single read.
+     */
+    public boolean isIntegerFileField() {
+        return fileType.getTypeCode() == FileType.INTEGER.getTypeCode();
+    }
+
     public static boolean matches(String fieldString) {
         return ADDRESS_PATTERN.matcher(fieldString).matches();
     }
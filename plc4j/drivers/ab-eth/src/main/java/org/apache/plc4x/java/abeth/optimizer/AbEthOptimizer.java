@@ -0,0 +1,65 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.abeth.optimizer;
+
+import org.apache.plc4x.java.abeth.context.AbEthDriverContext;
+import org.apache.plc4x.java.abeth.field.AbEthField;
+import org.apache.plc4x.java.api.model.PlcField;
+import org.apache.plc4x.java.spi.context.DriverContext;
+import org.apache.plc4x.java.spi.optimizer.RangeMergingOptimizer;
+
+/**
+ * Merges fields of one integer file with contiguous (or overlapping) elements into one sub-request, as long as
+ * the resulting range still fits into the reply of one single PCCC protected typed logical read. The
+ * AbEthProtocolLogic then reads the range covering all fields of a sub-request and slices the result back up
+ * per field.
+ *
+ * Only fields in integer files (INTEGER, WORD, DWORD and SINGLEBIT) are merged, all others are still read
+ * one field at a time, as are write requests.
+ */
+public class AbEthOptimizer extends RangeMergingOptimizer {
+
+    @Override
+    protected int getMaxRangeSize(DriverContext driverContext) {
+        if (driverContext instanceof AbEthDriverContext) {
+            return ((AbEthDriverContext) driverContext).getMaxReplySize();
+        }
+        return AbEthDriverContext.MAX_REPLY_SIZE;
+    }
+
+    @Override
+    protected Object getArea(PlcField field) {
+        AbEthField abEthField = (AbEthField) field;
+        return abEthField.isIntegerFileField() ? abEthField.getFileNumber() : null;
+    }
+
+    /**
+     * @return offset of the first byte of the field within its (integer) data file.
+     */
+    @Override
+    protected int getStartOffset(PlcField field) {
+        return ((AbEthField) field).getElementNumber() * 2;
+    }
+
+    @Override
+    protected int getSize(PlcField field) {
+        return ((AbEthField) field).getByteSize();
+    }
+
+}
@@ -19,11 +19,12 @@ under the License.
 package org.apache.plc4x.java.abeth.protocol;
 
 import org.apache.plc4x.java.abeth.configuration.AbEthConfiguration;
+import org.apache.plc4x.java.abeth.context.AbEthDriverContext;
 import org.apache.plc4x.java.abeth.field.AbEthField;
 import org.apache.plc4x.java.abeth.readwrite.*;
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
 import org.apache.plc4x.java.api.messages.PlcReadRequest;
 import org.apache.plc4x.java.api.messages.PlcReadResponse;
-import org.apache.plc4x.java.api.messages.PlcResponse;
 import org.apache.plc4x.java.api.model.PlcField;
 import org.apache.plc4x.java.api.types.PlcResponseCode;
 import org.apache.plc4x.java.api.value.PlcInteger;
@@ -33,29 +34,32 @@ import org.apache.plc4x.java.api.value.PlcValues;
 import org.apache.plc4x.java.spi.ConversationContext;
 import org.apache.plc4x.java.spi.Plc4xProtocolBase;
 import org.apache.plc4x.java.spi.configuration.HasConfiguration;
+import org.apache.plc4x.java.spi.context.DriverContext;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
 import org.apache.plc4x.java.spi.messages.DefaultPlcReadResponse;
-import org.apache.plc4x.java.spi.messages.InternalPlcReadRequest;
 import org.apache.plc4x.java.spi.messages.utils.ResponseItem;
 import org.apache.plc4x.java.spi.transaction.RequestTransactionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class AbEthProtocolLogic extends Plc4xProtocolBase<CIPEncapsulationPacket> implements HasConfiguration<AbEthConfiguration> {
 
     private static final Logger logger = LoggerFactory.getLogger(AbEthProtocolLogic.class);
-    public static final Duration REQUEST_TIMEOUT = Duration.ofMillis(10000);
 
     private static final short[] emptySenderContext = new short[] {(short) 0x00 ,(short) 0x00 ,(short) 0x00,
         (short) 0x00,(short) 0x00,(short) 0x00, (short) 0x00,(short) 0x00};
 
     private AbEthConfiguration configuration;
+    private AbEthDriverContext abEthDriverContext;
 
     private final AtomicInteger transactionCounterGenerator = new AtomicInteger(10);
     private RequestTransactionManager tm;
@@ -68,13 +72,19 @@ public class AbEthProtocolLogic extends Plc4xProtocolBase<CIPEncapsulationPacket
         this.tm = new RequestTransactionManager(1);
     }
 
+    @Override
+    public void setDriverContext(DriverContext driverContext) {
+        super.setDriverContext(driverContext);
+        this.abEthDriverContext = (AbEthDriverContext) driverContext;
+    }
+
     @Override
     public void onConnect(ConversationContext<CIPEncapsulationPacket> context) {
         logger.debug("Sending COTP Connection Request");
         CIPEncapsulationConnectionRequest connectionRequest =
             new CIPEncapsulationConnectionRequest(0L, 0L, emptySenderContext, 0L);
         context.sendRequest(connectionRequest)
-            .expectResponse(CIPEncapsulationPacket.class, REQUEST_TIMEOUT)
+            .expectResponse(CIPEncapsulationPacket.class, Duration.ofMillis(configuration.getRequestTimeout()))
             .check(p -> p instanceof CIPEncapsulationConnectionResponse)
             .unwrap(p -> (CIPEncapsulationConnectionResponse) p)
             .handle(cipEncapsulationConnectionResponse -> {
@@ -86,51 +96,53 @@ public class AbEthProtocolLogic extends Plc4xProtocolBase<CIPEncapsulationPacket
 
     @Override
     public CompletableFuture<PlcReadResponse> read(PlcReadRequest readRequest) {
-        // TODO: Warning ... we are senging one request per field ... the result has to be merged back together ...
-        for (String fieldName : readRequest.getFieldNames()) {
-            PlcField field = readRequest.getField(fieldName);
-            if (!(field instanceof AbEthField)) {
-                logger.error("The field should have been of type AbEthField");
-            }
-            AbEthField abEthField = (AbEthField) field;
-
-            DF1RequestProtectedTypedLogicalRead logicalRead = new DF1RequestProtectedTypedLogicalRead(
-                abEthField.getByteSize(), abEthField.getFileNumber(), abEthField.getFileType().getTypeCode(),
-                abEthField.getElementNumber(), (short) 0); // Subelementnumber default to zero
-
-            final int transactionCounter = transactionCounterGenerator.incrementAndGet();
-            // origin/sender: constant = 5
-            DF1RequestMessage requestMessage = new DF1CommandRequestMessage(
-                (short) configuration.getStation(), (short) 5, (short) 0,
-                transactionCounter, logicalRead);
-            CIPEncapsulationReadRequest read = new CIPEncapsulationReadRequest(
-                sessionHandle, 0, emptySenderContext, 0, requestMessage);
-
-            CompletableFuture<PlcReadResponse> future = new CompletableFuture<>();
-            RequestTransactionManager.RequestTransaction transaction = tm.startRequest();
-            transaction.submit(() -> context.sendRequest(read)
-                .expectResponse(CIPEncapsulationPacket.class, REQUEST_TIMEOUT)
-                .onTimeout(future::completeExceptionally)
-                .onError((p, e) -> future.completeExceptionally(e))
-                .check(p -> p instanceof CIPEncapsulationReadResponse)
-                .unwrap(p -> (CIPEncapsulationReadResponse) p)
-                .check(p -> p.getResponse().getTransactionCounter() == transactionCounter)
-                .handle(p -> {
-                    PlcResponse response = decodeReadResponse(p, readRequest);
-
-                    // TODO: Not sure how to merge things back together ...
-
-                    //future.complete(response);
-                    // Finish the request-transaction.
-                    transaction.endRequest();
-//                    future.complete(((PlcReadResponse) decodeReadResponse(p, ((InternalPlcReadRequest) readRequest))));
-                }));
-
-            // TODO: This aborts reading other fields after sending the first fields request ... refactor.
+        CompletableFuture<PlcReadResponse> future = new CompletableFuture<>();
+        DefaultPlcReadRequest request = (DefaultPlcReadRequest) readRequest;
+
+        // The AbEthOptimizer has already split up the original request into sub-requests, which either contain
+        // one single field or only fields of one integer file which can be read with one single request.
+        final DF1RequestProtectedTypedLogicalRead logicalRead;
+        try {
+            logicalRead = getLogicalRead(request);
+        } catch (PlcRuntimeException e) {
+            future.completeExceptionally(e);
             return future;
         }
-        // TODO: Should return an aggregated future ....
-        return null;
+
+        // The transaction counter is transferred as uint 16, so it has to wrap around.
+        final int transactionCounter = transactionCounterGenerator.updateAndGet(value -> (value + 1) & 0xFFFF);
+        // origin/sender: constant = 5
+        DF1RequestMessage requestMessage = new DF1CommandRequestMessage(
+            (short) configuration.getStation(), (short) 5, (short) 0,
+            transactionCounter, logicalRead);
+        CIPEncapsulationReadRequest read = new CIPEncapsulationReadRequest(
+            sessionHandle, 0, emptySenderContext, 0, requestMessage);
+
+        // Start a new request-transaction (Is ended as soon as the response arrives or the request times out)
+        RequestTransactionManager.RequestTransaction transaction = tm.startRequest();
+        transaction.submit(() -> context.sendRequest(read)
+            .expectResponse(CIPEncapsulationPacket.class, Duration.ofMillis(configuration.getRequestTimeout()))
+            .onTimeout(e -> {
+                transaction.endRequest();
+                future.completeExceptionally(new TimeoutException("No response for transaction " + transactionCounter));
+            })
+            .onError((p, e) -> {
+                transaction.endRequest();
+                future.completeExceptionally(e);
+            })
+            .only(CIPEncapsulationReadResponse.class)
+            .check(p -> p.getResponse().getTransactionCounter() == transactionCounter)
+            .handle(p -> {
+                // Finish the request-transaction.
+                transaction.endRequest();
+                try {
+                    // Prepare the response and pass it back to the application.
+                    future.complete(decodeReadResponse(p, request, logicalRead.getElementNumber()));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }));
+        return future;
     }
 
     @Override
@@ -138,76 +150,119 @@ public class AbEthProtocolLogic extends Plc4xProtocolBase<CIPEncapsulationPacket
 
     }
 
-    private PlcResponse decodeReadResponse(
-        CIPEncapsulationReadResponse plcReadResponse, PlcReadRequest plcReadRequest) {
+    /**
+     * Build one protected typed logical read, which covers the data of all fields of the given request.
+     */
+    private DF1RequestProtectedTypedLogicalRead getLogicalRead(DefaultPlcReadRequest request) {
+        List<AbEthField> fields = new ArrayList<>(request.getNumberOfFields());
+        for (PlcField field : request.getFields()) {
+            if (!(field instanceof AbEthField)) {
+                throw new PlcRuntimeException("The field should have been of type AbEthField");
+            }
+            fields.add((AbEthField) field);
+        }
+        if (fields.isEmpty()) {
+            throw new PlcRuntimeException("The read request doesn't contain any fields");
+        }
+        AbEthField firstField = fields.get(0);
+        if (fields.size() == 1) {
+            return new DF1RequestProtectedTypedLogicalRead(
+                firstField.getByteSize(), firstField.getFileNumber(), firstField.getFileType().getTypeCode(),
+                firstField.getElementNumber(), (short) 0); // Subelementnumber default to zero
+        }
+
+        // Every element of an integer file is one 16 bit word.
+        int startElement = Integer.MAX_VALUE;
+        int endByte = 0;
+        for (AbEthField field : fields) {
+            if (!field.isIntegerFileField() || (field.getFileNumber() != firstField.getFileNumber())) {
+                throw new PlcRuntimeException("Only fields of the same integer file can be read in one request");
+            }
+            startElement = Math.min(startElement, field.getElementNumber());
+            endByte = Math.max(endByte, (field.getElementNumber() * 2) + field.getByteSize());
+        }
+        int byteSize = endByte - (startElement * 2);
+        if (byteSize > abEthDriverContext.getMaxReplySize()) {
+            throw new PlcRuntimeException("The fields of the read request span more than " +
+                abEthDriverContext.getMaxReplySize() + " bytes");
+        }
+        return new DF1RequestProtectedTypedLogicalRead((short) byteSize, firstField.getFileNumber(),
+            firstField.getFileType().getTypeCode(), (short) startElement, (short) 0);
+    }
+
+    /**
+     * Slice the data of one protected typed logical read back up into the values of the individual fields.
+     *
+     * @param startElement number of the first element, which was read.
+     */
+    private PlcReadResponse decodeReadResponse(
+        CIPEncapsulationReadResponse plcReadResponse, DefaultPlcReadRequest plcReadRequest, short startElement) {
+        PlcResponseCode responseCode = decodeResponseCode(plcReadResponse.getResponse().getStatus());
+        short[] data = null;
+        if (plcReadResponse.getResponse() instanceof DF1CommandResponseMessageProtectedTypedLogicalRead) {
+            data = ((DF1CommandResponseMessageProtectedTypedLogicalRead) plcReadResponse.getResponse()).getData();
+        } else if (responseCode == PlcResponseCode.OK) {
+            responseCode = PlcResponseCode.INTERNAL_ERROR;
+        }
+
         Map<String, ResponseItem<PlcValue>> values = new HashMap<>();
         for (String fieldName : plcReadRequest.getFieldNames()) {
             AbEthField field = (AbEthField) plcReadRequest.getField(fieldName);
-            PlcResponseCode responseCode = decodeResponseCode(plcReadResponse.getResponse().getStatus());
+            // Fields, which aren't part of an integer file, are always read on their own.
+            int offset = field.isIntegerFileField() ? (field.getElementNumber() - startElement) * 2 : 0;
 
+            PlcResponseCode fieldResponseCode = responseCode;
             PlcValue plcValue = null;
-            if (responseCode == PlcResponseCode.OK) {
+            if ((fieldResponseCode == PlcResponseCode.OK) && (data.length < offset + field.getByteSize())) {
+                logger.warn("Problem during decoding of field {}: Response too short; FieldInformation: {}",
+                    fieldName, field);
+                fieldResponseCode = PlcResponseCode.INTERNAL_ERROR;
+            }
+            if (fieldResponseCode == PlcResponseCode.OK) {
                 try {
-                    switch (field.getFileType()) {
-                        case INTEGER: // output as single bytes
-                            if(plcReadResponse.getResponse() instanceof DF1CommandResponseMessageProtectedTypedLogicalRead) {
-                                DF1CommandResponseMessageProtectedTypedLogicalRead df1PTLR = (DF1CommandResponseMessageProtectedTypedLogicalRead) plcReadResponse.getResponse();
-                                short[] data = df1PTLR.getData();
-                                if(data.length == 1) {
-                                    plcValue = new PlcInteger(data[0]);
-                                } else {
-                                    plcValue = new PlcList(Arrays.asList(data));
-                                }
-                            }
-                            break;
-                        case WORD:
-                            if(plcReadResponse.getResponse() instanceof DF1CommandResponseMessageProtectedTypedLogicalRead) {
-                                DF1CommandResponseMessageProtectedTypedLogicalRead df1PTLR = (DF1CommandResponseMessageProtectedTypedLogicalRead) plcReadResponse.getResponse();
-                                short[] data = df1PTLR.getData();
-                                if (((data[1]>> 7) & 1) == 0)  {
-                                    plcValue = PlcValues.of((data[1] << 8) + data[0]);  // positive number
-                                } else {
-                                    plcValue = PlcValues.of((((~data[1] & 0b01111111) << 8) + (~(data[0]-1) & 0b11111111))  * -1);  // negative number
-                                }
-                            }
-                            break;
-                        case DWORD:
-                            if(plcReadResponse.getResponse() instanceof DF1CommandResponseMessageProtectedTypedLogicalRead) {
-                                DF1CommandResponseMessageProtectedTypedLogicalRead df1PTLR = (DF1CommandResponseMessageProtectedTypedLogicalRead) plcReadResponse.getResponse();
-                                short[] data = df1PTLR.getData();
-                                if (((data[3]>> 7) & 1) == 0)  {
-                                    plcValue = PlcValues.of((data[3] << 24) + (data[2] << 16) + (data[1] << 8) + data[0]);  // positive number
-                                } else {
-                                    plcValue = PlcValues.of((((~data[3] & 0b01111111) << 24) + ((~(data[2]-1) & 0b11111111) << 16)+ ((~(data[1]-1) & 0b11111111) << 8) + (~(data[0]-1) & 0b11111111))  * -1);  // negative number
-                                }
-                            }
-                            break;
-                        case SINGLEBIT:
-                            if(plcReadResponse.getResponse() instanceof DF1CommandResponseMessageProtectedTypedLogicalRead) {
-                                DF1CommandResponseMessageProtectedTypedLogicalRead df1PTLR = (DF1CommandResponseMessageProtectedTypedLogicalRead) plcReadResponse.getResponse();
-                                short[] data = df1PTLR.getData();
-                                if (field.getBitNumber() < 8) {
-                                    plcValue = PlcValues.of((data[0] & (1 <<  field.getBitNumber())) != 0);         // read from first byte
-                                } else {
-                                    plcValue = PlcValues.of((data[1] & (1 << (field.getBitNumber() - 8) )) != 0);   // read from second byte
-                                }
-                            }
-                            break;
-                        default:
-                            logger.warn("Problem during decoding of field {}: Decoding of file type not implemented; " +
-                                "FieldInformation: {}", fieldName, field);
+                    plcValue = decodeValue(field, data, offset);
+                    if (plcValue == null) {
+                        logger.warn("Problem during decoding of field {}: Decoding of file type not implemented; " +
+                            "FieldInformation: {}", fieldName, field);
                     }
                 }
                 catch (Exception e) {
                     logger.warn("Some other error occurred casting field {}, FieldInformation: {}",fieldName, field,e);
                 }
             }
-            ResponseItem<PlcValue> result = new ResponseItem<>(responseCode, plcValue);
-            values.put(fieldName, result);
+            values.put(fieldName, new ResponseItem<>(fieldResponseCode, plcValue));
         }
+        return new DefaultPlcReadResponse(plcReadRequest, values);
+    }
 
-        // TODO: Double check if it's really a InternalPlcReadRequest ...
-        return new DefaultPlcReadResponse((InternalPlcReadRequest) plcReadRequest, values);
+    /**
+     * Decode the value of one field starting at the given offset of the read data (All values are little endian).
+     */
+    private PlcValue decodeValue(AbEthField field, short[] data, int offset) {
+        switch (field.getFileType()) {
+            case INTEGER: // output as single bytes
+                if (field.getByteSize() == 1) {
+                    return new PlcInteger(data[offset]);
+                }
+                List<PlcValue> items = new ArrayList<>(field.getByteSize());
+                for (int i = 0; i < field.getByteSize(); i++) {
+                    items.add(new PlcInteger(data[offset + i]));
+                }
+                return new PlcList(items);
+            case WORD:
+                return PlcValues.of((int) (short) ((data[offset + 1] << 8) | data[offset]));
+            case DWORD:
+                return PlcValues.of((data[offset + 3] << 24) | (data[offset + 2] << 16) |
+                    (data[offset + 1] << 8) | data[offset]);
+            case SINGLEBIT:
+                if (field.getBitNumber() < 8) {
+                    return PlcValues.of((data[offset] & (1 << field.getBitNumber())) != 0);         // read from first byte
+                } else {
+                    return PlcValues.of((data[offset + 1] & (1 << (field.getBitNumber() - 8))) != 0);   // read from second byte
+                }
+            default:
+                return null;
+        }
     }
 
     private PlcResponseCode decodeResponseCode(short status) {
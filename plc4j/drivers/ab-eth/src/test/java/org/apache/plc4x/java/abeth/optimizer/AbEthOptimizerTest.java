@@ -0,0 +1,55 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.abeth.optimizer;
+
+import org.apache.plc4x.java.abeth.context.AbEthDriverContext;
+import org.apache.plc4x.java.abeth.field.AbEthField;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The merging itself is covered by the RangeMergingOptimizerTest, this only checks the ranges of the AB-ETH fields.
+ */
+public class AbEthOptimizerTest {
+
+    private final AbEthOptimizer optimizer = new AbEthOptimizer();
+
+    @Test
+    public void fieldsAreMergedPerIntegerFile() {
+        assertEquals(optimizer.getArea(AbEthField.of("N7:0:WORD")), optimizer.getArea(AbEthField.of("N7:3/4:SINGLEBIT")));
+        assertEquals(optimizer.getArea(AbEthField.of("N7:0:WORD")), optimizer.getArea(AbEthField.of("N7:4:INTEGER[6]")));
+        assertNotEquals(optimizer.getArea(AbEthField.of("N7:0:WORD")), optimizer.getArea(AbEthField.of("N8:0:WORD")));
+        // Fields of other files are read on their own.
+        assertNull(optimizer.getArea(AbEthField.of("N7:0:FLOAT[4]")));
+    }
+
+    @Test
+    public void rangesAreMeasuredInBytes() {
+        assertEquals(6, optimizer.getStartOffset(AbEthField.of("N7:3:WORD")));
+        assertEquals(2, optimizer.getSize(AbEthField.of("N7:3:WORD")));
+        assertEquals(4, optimizer.getSize(AbEthField.of("N7:3:DWORD")));
+        assertEquals(2, optimizer.getSize(AbEthField.of("N7:3/9:SINGLEBIT")));
+        assertEquals(6, optimizer.getSize(AbEthField.of("N7:3:INTEGER[6]")));
+        assertEquals(AbEthDriverContext.MAX_REPLY_SIZE, optimizer.getMaxRangeSize(null));
+    }
+
+}
@@ -0,0 +1,214 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.abeth.protocol;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultEventLoop;
+import io.netty.channel.local.LocalChannel;
+import org.apache.plc4x.java.abeth.configuration.AbEthConfiguration;
+import org.apache.plc4x.java.abeth.context.AbEthDriverContext;
+import org.apache.plc4x.java.abeth.field.AbEthFieldHandler;
+import org.apache.plc4x.java.abeth.readwrite.*;
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.apache.plc4x.java.api.messages.PlcReadResponse;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.spi.Plc4xNettyWrapper;
+import org.apache.plc4x.java.spi.events.ConnectEvent;
+import org.apache.plc4x.java.spi.events.ConnectedEvent;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AbEthProtocolLogicTest {
+
+    private static final long SESSION_HANDLE = 1L;
+    private static final short[] SENDER_CONTEXT = new short[8];
+
+    private DefaultEventLoop eventLoop;
+    private LocalChannel channel;
+    private BlockingQueue<CIPEncapsulationPacket> sent;
+    private AbEthProtocolLogic logic;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        // The requests are sent from the threads of the request-transaction manager, so the pipeline
+        // needs an event loop of its own.
+        eventLoop = new DefaultEventLoop();
+        channel = new LocalChannel();
+        eventLoop.register(channel).syncUninterruptibly();
+        sent = new LinkedBlockingQueue<>();
+        connect();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        eventLoop.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void mergedReplyIsSlicedIntoTheFields() throws Exception {
+        // The AbEthOptimizer merges these fields into one read of the elements N7:0 to N7:6.
+        CompletableFuture<PlcReadResponse> future = logic.read(readRequest(
+            "first", "N7:0:INTEGER[1]",
+            "word", "N7:1:WORD",
+            "dword", "N7:2:DWORD",
+            "lowBit", "N7:4/3:SINGLEBIT",
+            "highBit", "N7:4/9:SINGLEBIT",
+            "clearedBit", "N7:4/10:SINGLEBIT",
+            "bytes", "N7:5:INTEGER[3]"));
+        DF1RequestMessage request = ((CIPEncapsulationReadRequest) sent.poll(1, TimeUnit.SECONDS)).getRequest();
+        DF1RequestProtectedTypedLogicalRead logicalRead =
+            (DF1RequestProtectedTypedLogicalRead) ((DF1CommandRequestMessage) request).getCommand();
+        assertEquals(0, logicalRead.getElementNumber());
+        assertEquals(13, logicalRead.getByteSize());
+
+        receive(readResponse(request.getTransactionCounter(), (short) 0, new short[]{
+            0x7F, 0x00,                 // N7:0
+            0xFE, 0xFF,                 // N7:1 = -2
+            0x60, 0x79, 0xFE, 0xFF,     // N7:2 and N7:3 = -100000
+            0x08, 0x02,                 // N7:4 with the bits 3 and 9 set
+            0x01, 0x02, 0x03}));        // N7:5 and the low byte of N7:6
+
+        PlcReadResponse response = future.get(1, TimeUnit.SECONDS);
+        for (String fieldName : response.getFieldNames()) {
+            assertEquals(PlcResponseCode.OK, response.getResponseCode(fieldName), fieldName);
+        }
+        assertEquals(127, response.getInteger("first"));
+        assertEquals(-2, response.getInteger("word"));
+        assertEquals(-100000, response.getInteger("dword"));
+        assertTrue(response.getBoolean("lowBit"));
+        assertTrue(response.getBoolean("highBit"));
+        assertFalse(response.getBoolean("clearedBit"));
+        assertEquals(3, response.getNumberOfValues("bytes"));
+        assertEquals(1, response.getInteger("bytes", 0));
+        assertEquals(2, response.getInteger("bytes", 1));
+        assertEquals(3, response.getInteger("bytes", 2));
+    }
+
+    @Test
+    public void errorStatusFailsAllFields() throws Exception {
+        CompletableFuture<PlcReadResponse> future = logic.read(readRequest(
+            "word", "N7:1:WORD",
+            "bit", "N7:2/1:SINGLEBIT"));
+        DF1RequestMessage request = ((CIPEncapsulationReadRequest) sent.poll(1, TimeUnit.SECONDS)).getRequest();
+        receive(readResponse(request.getTransactionCounter(), (short) 0x10, new short[0]));
+
+        PlcReadResponse response = future.get(1, TimeUnit.SECONDS);
+        assertEquals(PlcResponseCode.NOT_FOUND, response.getResponseCode("word"));
+        assertEquals(PlcResponseCode.NOT_FOUND, response.getResponseCode("bit"));
+    }
+
+    @Test
+    public void readSpanningMoreThanTheMaxReplySizeFails() throws Exception {
+        // N7:0 to N7:8 are 18 bytes, but the device only replies with up to 16 bytes.
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> logic.read(readRequest(
+            "first", "N7:0:WORD",
+            "last", "N7:8:WORD")).get(1, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof PlcRuntimeException);
+        assertNull(sent.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void unansweredReadTimesOut() throws Exception {
+        CompletableFuture<PlcReadResponse> first = logic.read(readRequest("value", "N7:0:WORD"));
+        DF1RequestMessage firstRequest = ((CIPEncapsulationReadRequest) sent.poll(1, TimeUnit.SECONDS)).getRequest();
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> first.get(2, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof TimeoutException);
+
+        // The timed out read must not keep blocking the connection ...
+        CompletableFuture<PlcReadResponse> second = logic.read(readRequest("value", "N7:0:WORD"));
+        DF1RequestMessage secondRequest = ((CIPEncapsulationReadRequest) sent.poll(1, TimeUnit.SECONDS)).getRequest();
+        assertNotEquals(firstRequest.getTransactionCounter(), secondRequest.getTransactionCounter());
+
+        // ... and its late response must not be taken for the response of the next one.
+        receive(readResponse(firstRequest.getTransactionCounter(), (short) 0, new short[]{0x01, 0x00}));
+        assertFalse(second.isDone());
+        receive(readResponse(secondRequest.getTransactionCounter(), (short) 0, new short[]{0x02, 0x00}));
+        assertEquals(2, second.get(1, TimeUnit.SECONDS).getInteger("value"));
+    }
+
+    private void connect() throws Exception {
+        AbEthConfiguration configuration = new AbEthConfiguration();
+        configuration.setStation(1);
+        configuration.setRequestTimeout(200);
+        configuration.setMaxReplySize(16);
+        AbEthDriverContext driverContext = new AbEthDriverContext();
+        driverContext.setConfiguration(configuration);
+        logic = new AbEthProtocolLogic();
+        logic.setConfiguration(configuration);
+        logic.setDriverContext(driverContext);
+        CompletableFuture<Void> connected = new CompletableFuture<>();
+        channel.pipeline().addLast(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                sent.add((CIPEncapsulationPacket) msg);
+                promise.setSuccess();
+            }
+        });
+        channel.pipeline().addLast(
+            new Plc4xNettyWrapper<>(channel.pipeline(), false, logic, CIPEncapsulationPacket.class));
+        channel.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+            @Override
+            public void userEventTriggered(ChannelHandlerContext ctx, Object evt) {
+                if (evt instanceof ConnectedEvent) {
+                    connected.complete(null);
+                }
+            }
+        });
+        channel.pipeline().fireUserEventTriggered(new ConnectEvent());
+
+        // Answer the connection request.
+        assertTrue(sent.poll(1, TimeUnit.SECONDS) instanceof CIPEncapsulationConnectionRequest);
+        receive(new CIPEncapsulationConnectionResponse(SESSION_HANDLE, 0L, SENDER_CONTEXT, 0L));
+        connected.get(1, TimeUnit.SECONDS);
+    }
+
+    private void receive(CIPEncapsulationPacket response) throws Exception {
+        eventLoop.submit(() -> channel.pipeline().fireChannelRead(response)).get(1, TimeUnit.SECONDS);
+    }
+
+    private PlcReadRequest readRequest(String... namesAndAddresses) {
+        DefaultPlcReadRequest.Builder builder = new DefaultPlcReadRequest.Builder(null, new AbEthFieldHandler());
+        for (int i = 0; i < namesAndAddresses.length; i += 2) {
+            builder.addItem(namesAndAddresses[i], namesAndAddresses[i + 1]);
+        }
+        return builder.build();
+    }
+
+    private CIPEncapsulationReadResponse readResponse(int transactionCounter, short status, short[] data) {
+        return new CIPEncapsulationReadResponse(SESSION_HANDLE, 0L, SENDER_CONTEXT, 0L,
+            new DF1CommandResponseMessageProtectedTypedLogicalRead((short) 5, (short) 1, status,
+                transactionCounter, data));
+    }
+
+}
@@ -23,10 +23,17 @@ import org.apache.plc4x.java.ads.field.AdsFieldHandler;
 import org.apache.plc4x.java.ads.protocol.AdsProtocolLogic;
 import org.apache.plc4x.java.ads.readwrite.AmsTCPPacket;
 import org.apache.plc4x.java.ads.readwrite.io.AmsTCPPacketIO;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryItem;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryItemHandler;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryRequest;
 import org.apache.plc4x.java.spi.configuration.Configuration;
 import org.apache.plc4x.java.spi.connection.GeneratedDriverBase;
 import org.apache.plc4x.java.spi.connection.ProtocolStackConfigurer;
 import org.apache.plc4x.java.spi.connection.SingleProtocolStackConfigurer;
+import org.apache.plc4x.java.spi.discovery.ActiveDiscovery;
+import org.apache.plc4x.java.spi.discovery.TcpPortScanner;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Implementation of the ADS protocol, based on:
@@ -34,7 +41,7 @@ import org.apache.plc4x.java.spi.connection.SingleProtocolStackConfigurer;
  * - TCP
  * - Serial
  */
-public class ADSPlcDriver extends GeneratedDriverBase<AmsTCPPacket> {
+public class ADSPlcDriver extends GeneratedDriverBase<AmsTCPPacket> implements ActiveDiscovery {
 
     public static final int TCP_PORT = 48898;
 
@@ -58,6 +65,11 @@ public class ADSPlcDriver extends GeneratedDriverBase<AmsTCPPacket> {
         return true;
     }
 
+    @Override
+    protected boolean canSubscribe() {
+        return true;
+    }
+
     @Override
     protected Class<? extends Configuration> getConfigurationType() {
         return AdsConfiguration.class;
@@ -73,6 +85,22 @@ public class ADSPlcDriver extends GeneratedDriverBase<AmsTCPPacket> {
         return new AdsFieldHandler();
     }
 
+    /**
+     * ADS devices are found by probing the AMS/TCP port of all hosts of the requested subnets. The AMS net ids
+     * and ports can't be found out that way, so they still have to be added to the connection url.
+     */
+    @Override
+    public boolean canDiscover() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Void> discover(PlcDiscoveryRequest discoveryRequest, PlcDiscoveryItemHandler handler) {
+        return TcpPortScanner.scan(discoveryRequest, TCP_PORT, address ->
+            handler.handle(new PlcDiscoveryItem(getProtocolCode(), getDefaultTransport(),
+                address.getAddress().getHostAddress() + ":" + address.getPort(), null, null)));
+    }
+
     @Override
     protected ProtocolStackConfigurer<AmsTCPPacket> getStackConfigurer() {
         return SingleProtocolStackConfigurer.builder(AmsTCPPacket.class, AmsTCPPacketIO.class)
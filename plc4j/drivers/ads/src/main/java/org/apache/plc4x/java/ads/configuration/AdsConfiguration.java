@@ -26,6 +26,7 @@ import org.apache.plc4x.java.spi.configuration.ConfigurationParameterConverter;
 import org.apache.plc4x.java.spi.configuration.annotations.ConfigurationParameter;
 import org.apache.plc4x.java.spi.configuration.annotations.ParameterConverter;
 import org.apache.plc4x.java.spi.configuration.annotations.Required;
+import org.apache.plc4x.java.spi.configuration.annotations.defaults.BooleanDefaultValue;
 import org.apache.plc4x.java.spi.configuration.annotations.defaults.IntDefaultValue;
 import org.apache.plc4x.java.transport.serial.SerialTransportConfiguration;
 import org.apache.plc4x.java.transport.tcp.TcpTransportConfiguration;
@@ -64,6 +65,25 @@ public class AdsConfiguration implements Configuration, TcpTransportConfiguratio
     @IntDefaultValue(2000)
     protected int timeoutRequest;
 
+    @ConfigurationParameter("max-in-flight")
+    @IntDefaultValue(4)
+    protected int maxInFlight;
+
+    @ConfigurationParameter("handle-cache-size")
+    @IntDefaultValue(1000)
+    protected int handleCacheSize;
+
+    @ConfigurationParameter("handle-cache-idle-timeout")
+    @IntDefaultValue(600000)
+    protected int handleCacheIdleTimeout;
+
+    @ConfigurationParameter("load-symbol-table")
+    @BooleanDefaultValue(false)
+    protected boolean loadSymbolTable;
+
+    @ConfigurationParameter("symbol-table-cache-directory")
+    protected String symbolTableCacheDirectory;
+
     public AmsNetId getTargetAmsNetId() {
         return targetAmsNetId;
     }
@@ -112,6 +132,46 @@ public class AdsConfiguration implements Configuration, TcpTransportConfiguratio
         this.timeoutRequest = timeoutRequest;
     }
 
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getHandleCacheSize() {
+        return handleCacheSize;
+    }
+
+    public void setHandleCacheSize(int handleCacheSize) {
+        this.handleCacheSize = handleCacheSize;
+    }
+
+    public int getHandleCacheIdleTimeout() {
+        return handleCacheIdleTimeout;
+    }
+
+    public void setHandleCacheIdleTimeout(int handleCacheIdleTimeout) {
+        this.handleCacheIdleTimeout = handleCacheIdleTimeout;
+    }
+
+    public boolean isLoadSymbolTable() {
+        return loadSymbolTable;
+    }
+
+    public void setLoadSymbolTable(boolean loadSymbolTable) {
+        this.loadSymbolTable = loadSymbolTable;
+    }
+
+    public String getSymbolTableCacheDirectory() {
+        return symbolTableCacheDirectory;
+    }
+
+    public void setSymbolTableCacheDirectory(String symbolTableCacheDirectory) {
+        this.symbolTableCacheDirectory = symbolTableCacheDirectory;
+    }
+
     @Override
     public int getDefaultPort() {
         return ADSPlcDriver.TCP_PORT;
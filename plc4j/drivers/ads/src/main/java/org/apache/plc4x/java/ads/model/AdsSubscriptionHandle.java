@@ -30,12 +30,19 @@ public class AdsSubscriptionHandle extends DefaultPlcSubscriptionHandle {
 
     private final AdsDataType adsDataType;
 
+    private final int numberOfElements;
+
     private final Long notificationHandle;
 
     public AdsSubscriptionHandle(PlcSubscriber plcSubscriber, String plcFieldName, AdsDataType adsDataType, Long notificationHandle) {
+        this(plcSubscriber, plcFieldName, adsDataType, 1, notificationHandle);
+    }
+
+    public AdsSubscriptionHandle(PlcSubscriber plcSubscriber, String plcFieldName, AdsDataType adsDataType, int numberOfElements, Long notificationHandle) {
         super(plcSubscriber);
         this.plcFieldName = plcFieldName;
         this.adsDataType = adsDataType;
+        this.numberOfElements = numberOfElements;
         this.notificationHandle = notificationHandle;
     }
 
@@ -47,6 +54,10 @@ public class AdsSubscriptionHandle extends DefaultPlcSubscriptionHandle {
         return adsDataType;
     }
 
+    public int getNumberOfElements() {
+        return numberOfElements;
+    }
+
     public Long getNotificationHandle() {
         return notificationHandle;
     }
@@ -65,12 +76,13 @@ public class AdsSubscriptionHandle extends DefaultPlcSubscriptionHandle {
         AdsSubscriptionHandle that = (AdsSubscriptionHandle) o;
         return Objects.equals(plcFieldName, that.plcFieldName) &&
             adsDataType == that.adsDataType &&
+            numberOfElements == that.numberOfElements &&
             Objects.equals(notificationHandle, that.notificationHandle);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), plcFieldName, adsDataType, notificationHandle);
+        return Objects.hash(super.hashCode(), plcFieldName, adsDataType, numberOfElements, notificationHandle);
     }
 
     @Override
@@ -78,6 +90,7 @@ public class AdsSubscriptionHandle extends DefaultPlcSubscriptionHandle {
         return "AdsSubscriptionHandle{" +
             "plcFieldName='" + plcFieldName + '\'' +
             ", adsDataType=" + adsDataType +
+            ", numberOfElements=" + numberOfElements +
             ", notificationHandle=" + notificationHandle +
             "} " + super.toString();
     }
@@ -0,0 +1,264 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.ads.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Index of all symbols of a PLC, as uploaded using ADSIGRP_SYM_UPLOAD. It allows addressing symbols
+ * directly by their index group and offset instead of having to acquire a handle for every symbol first.
+ * <p>
+ * As the upload of the symbol table of a big PLC program can take a while, it can be saved to disk. It stays valid
+ * as long as the symbol version and the size of the symbol table of the PLC don't change (Which is the case with
+ * every download or online change).
+ */
+public class AdsSymbolTable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdsSymbolTable.class);
+
+    // Increment this as soon as the format of the persisted file changes.
+    private static final int FILE_FORMAT_VERSION = 1;
+    private static final int FILE_MAGIC = 0x41445354; // "ADST"
+
+    // TwinCAT uses Windows-1252 for symbol names.
+    private static final Charset SYMBOL_CHARSET = Charset.forName("windows-1252");
+
+    // Fixed part of every entry: entryLength, indexGroup, indexOffset, size, dataType, flags (uint 32 each)
+    // and the lengths of the name, type and comment (uint 16 each).
+    private static final int ENTRY_HEADER_LENGTH = 30;
+
+    private final int symbolVersion;
+    private final long numSymbols;
+    private final long symbolTableLength;
+    private final Map<String, AdsSymbol> symbols;
+
+    public AdsSymbolTable(int symbolVersion, long numSymbols, long symbolTableLength, Collection<AdsSymbol> symbols) {
+        this.symbolVersion = symbolVersion;
+        this.numSymbols = numSymbols;
+        this.symbolTableLength = symbolTableLength;
+        Map<String, AdsSymbol> symbolMap = new HashMap<>(symbols.size() * 4 / 3 + 1);
+        for (AdsSymbol symbol : symbols) {
+            symbolMap.put(getKey(symbol.getName()), symbol);
+        }
+        this.symbols = Collections.unmodifiableMap(symbolMap);
+    }
+
+    /**
+     * Parse the symbol table as returned by reading ADSIGRP_SYM_UPLOAD.
+     *
+     * @param symbolVersion     symbol version of the PLC (ADSIGRP_SYM_VERSION)
+     * @param numSymbols        number of symbols (as returned by ADSIGRP_SYM_UPLOADINFO)
+     * @param symbolTableLength length of the symbol table (as returned by ADSIGRP_SYM_UPLOADINFO)
+     * @param data              raw symbol table
+     * @return parsed symbol table
+     */
+    public static AdsSymbolTable parse(int symbolVersion, long numSymbols, long symbolTableLength, byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        Map<String, AdsSymbol> symbols = new HashMap<>();
+        while (buffer.remaining() >= ENTRY_HEADER_LENGTH) {
+            int entryStart = buffer.position();
+            long entryLength = buffer.getInt() & 0xFFFFFFFFL;
+            if ((entryLength < ENTRY_HEADER_LENGTH) || (entryLength > (data.length - entryStart))) {
+                throw new IllegalArgumentException("Invalid symbol entry length " + entryLength + " at " + entryStart);
+            }
+            long indexGroup = buffer.getInt() & 0xFFFFFFFFL;
+            long indexOffset = buffer.getInt() & 0xFFFFFFFFL;
+            long size = buffer.getInt() & 0xFFFFFFFFL;
+            // Data-type id and flags.
+            buffer.getInt();
+            buffer.getInt();
+            int nameLength = buffer.getShort() & 0xFFFF;
+            int typeLength = buffer.getShort() & 0xFFFF;
+            // The name and type are followed by a comment we're not interested in.
+            buffer.getShort();
+            int nameOffset = buffer.position();
+            // Name and type are null-terminated.
+            int typeOffset = nameOffset + nameLength + 1;
+            if ((typeOffset + typeLength) > (entryStart + entryLength)) {
+                throw new IllegalArgumentException("Invalid symbol entry at " + entryStart);
+            }
+            String name = new String(data, nameOffset, nameLength, SYMBOL_CHARSET);
+            String type = new String(data, typeOffset, typeLength, SYMBOL_CHARSET);
+            symbols.put(getKey(name), new AdsSymbol(name, indexGroup, indexOffset, size, type));
+            buffer.position((int) (entryStart + entryLength));
+        }
+        return new AdsSymbolTable(symbolVersion, numSymbols, symbolTableLength, symbols.values());
+    }
+
+    /**
+     * Load a symbol table saved with {@link #save(File)}.
+     *
+     * @param file file to load the symbol table from
+     * @return the symbol table or null, if the file doesn't exist or can't be read.
+     */
+    public static AdsSymbolTable load(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if ((in.readInt() != FILE_MAGIC) || (in.readInt() != FILE_FORMAT_VERSION)) {
+                LOGGER.info("Ignoring symbol table cache {} written in an unknown format", file);
+                return null;
+            }
+            int symbolVersion = in.readInt();
+            long numSymbols = in.readLong();
+            long symbolTableLength = in.readLong();
+            int numEntries = in.readInt();
+            Map<String, AdsSymbol> symbols = new HashMap<>(numEntries * 4 / 3 + 1);
+            for (int i = 0; i < numEntries; i++) {
+                AdsSymbol symbol = new AdsSymbol(in.readUTF(), in.readLong(), in.readLong(), in.readLong(), in.readUTF());
+                symbols.put(getKey(symbol.getName()), symbol);
+            }
+            return new AdsSymbolTable(symbolVersion, numSymbols, symbolTableLength, symbols.values());
+        } catch (IOException e) {
+            LOGGER.warn("Error reading symbol table cache {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Save the symbol table to the given file. The file is replaced atomically, so concurrent readers never see
+     * partially written files.
+     *
+     * @param file file to save the symbol table to
+     * @throws IOException something went wrong
+     */
+    public void save(File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create directory " + directory);
+        }
+        File tempFile = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(FILE_FORMAT_VERSION);
+                out.writeInt(symbolVersion);
+                out.writeLong(numSymbols);
+                out.writeLong(symbolTableLength);
+                out.writeInt(symbols.size());
+                for (AdsSymbol symbol : symbols.values()) {
+                    out.writeUTF(symbol.getName());
+                    out.writeLong(symbol.getIndexGroup());
+                    out.writeLong(symbol.getIndexOffset());
+                    out.writeLong(symbol.getSize());
+                    out.writeUTF(symbol.getDataTypeName());
+                }
+            }
+            Files.move(tempFile.toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * @param symbolVersion     current symbol version of the PLC
+     * @param numSymbols        current number of symbols of the PLC
+     * @param symbolTableLength current length of the symbol table of the PLC
+     * @return true if this symbol table still matches the one of the PLC.
+     */
+    public boolean isValidFor(int symbolVersion, long numSymbols, long symbolTableLength) {
+        return (this.symbolVersion == symbolVersion) && (this.numSymbols == numSymbols) &&
+            (this.symbolTableLength == symbolTableLength);
+    }
+
+    /**
+     * @param name name of the symbol (TwinCAT handles symbol names case-insensitive)
+     * @return the symbol or null, if there is no such symbol.
+     */
+    public AdsSymbol getSymbol(String name) {
+        return symbols.get(getKey(name));
+    }
+
+    public int getSymbolVersion() {
+        return symbolVersion;
+    }
+
+    public int getNumberOfSymbols() {
+        return symbols.size();
+    }
+
+    private static String getKey(String name) {
+        return name.toUpperCase(Locale.ROOT);
+    }
+
+    public static class AdsSymbol {
+
+        private final String name;
+        private final long indexGroup;
+        private final long indexOffset;
+        private final long size;
+        private final String dataTypeName;
+
+        public AdsSymbol(String name, long indexGroup, long indexOffset, long size, String dataTypeName) {
+            this.name = name;
+            this.indexGroup = indexGroup;
+            this.indexOffset = indexOffset;
+            this.size = size;
+            this.dataTypeName = dataTypeName;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getIndexGroup() {
+            return indexGroup;
+        }
+
+        public long getIndexOffset() {
+            return indexOffset;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public String getDataTypeName() {
+            return dataTypeName;
+        }
+
+        @Override
+        public String toString() {
+            return "AdsSymbol{" +
+                "name='" + name + '\'' +
+                ", indexGroup=" + indexGroup +
+                ", indexOffset=" + indexOffset +
+                ", size=" + size +
+                ", dataTypeName='" + dataTypeName + '\'' +
+                '}';
+        }
+
+    }
+
+}
@@ -0,0 +1,275 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.ads.protocol;
+
+import org.apache.plc4x.java.ads.field.DirectAdsField;
+import org.apache.plc4x.java.ads.field.SymbolicAdsField;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of the direct addresses symbolic addresses were resolved to. As every handle acquired for a symbol occupies
+ * resources on the PLC, the number of entries is limited and entries not used for a given time are dropped.
+ * <p>
+ * The cache itself doesn't communicate with the PLC. All methods removing entries return the removed entries, so the
+ * caller is able to release the corresponding handles. Requests still using a direct address keep a reference to it,
+ * entries removed while being referenced are only returned as soon as their last reference is released.
+ */
+public class AdsHandleCache {
+
+    private final int maxSize;
+    private final long maxIdleNanos;
+    private final LongSupplier nanoClock;
+
+    // Access-ordered, so the first entry is always the least recently used one.
+    private final LinkedHashMap<SymbolicAdsField, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Number of references to each direct address currently used by requests.
+    private final Map<DirectAdsField, Integer> references = new HashMap<>();
+    // Direct addresses removed from the cache while they were still referenced.
+    private final Set<DirectAdsField> removedInUse = new HashSet<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * @param maxSize       maximum number of entries (0 = unlimited)
+     * @param maxIdleMillis time after which entries, that haven't been used, are dropped (0 = never)
+     */
+    public AdsHandleCache(int maxSize, long maxIdleMillis) {
+        this(maxSize, maxIdleMillis, System::nanoTime);
+    }
+
+    AdsHandleCache(int maxSize, long maxIdleMillis, LongSupplier nanoClock) {
+        this.maxSize = maxSize;
+        this.maxIdleNanos = TimeUnit.MILLISECONDS.toNanos(maxIdleMillis);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @param symbolicAdsField symbolic address
+     * @return the direct address the symbolic address was resolved to or null, if it's not contained in the cache.
+     */
+    public synchronized DirectAdsField get(SymbolicAdsField symbolicAdsField) {
+        Entry entry = entries.get(symbolicAdsField);
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        entry.lastAccess = nanoClock.getAsLong();
+        return entry.directAdsField;
+    }
+
+    /**
+     * Same as {@link #get(SymbolicAdsField)}, but additionally adds a reference to the returned direct address.
+     *
+     * @param symbolicAdsField symbolic address
+     * @return the direct address the symbolic address was resolved to or null, if it's not contained in the cache.
+     */
+    public synchronized DirectAdsField acquire(SymbolicAdsField symbolicAdsField) {
+        DirectAdsField directAdsField = get(symbolicAdsField);
+        if (directAdsField != null) {
+            retain(directAdsField);
+        }
+        return directAdsField;
+    }
+
+    /**
+     * Adds a reference to a direct address, so it's not returned as removed before the reference is released again.
+     *
+     * @param directAdsField direct address
+     */
+    public synchronized void retain(DirectAdsField directAdsField) {
+        references.merge(directAdsField, 1, Integer::sum);
+    }
+
+    /**
+     * Releases one reference to each of the given direct addresses. Addresses which were never referenced are ignored.
+     *
+     * @param directAdsFields direct addresses
+     * @return entries which were removed from the cache before and now aren't referenced anymore.
+     */
+    public synchronized List<DirectAdsField> release(Collection<DirectAdsField> directAdsFields) {
+        List<DirectAdsField> removed = new ArrayList<>();
+        for (DirectAdsField directAdsField : directAdsFields) {
+            Integer count = references.get(directAdsField);
+            if (count == null) {
+                continue;
+            }
+            if (count > 1) {
+                references.put(directAdsField, count - 1);
+            } else {
+                references.remove(directAdsField);
+                if (removedInUse.remove(directAdsField)) {
+                    removed.add(directAdsField);
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Adds an entry to the cache. If the cache is full, the least recently used entries are removed.
+     *
+     * @param symbolicAdsField symbolic address
+     * @param directAdsField   direct address the symbolic address was resolved to
+     * @return unreferenced entries which were removed from the cache (including a previous mapping of the same symbol).
+     */
+    public synchronized List<DirectAdsField> put(SymbolicAdsField symbolicAdsField, DirectAdsField directAdsField) {
+        List<DirectAdsField> removed = new ArrayList<>();
+        removedInUse.remove(directAdsField);
+        Entry previous = entries.put(symbolicAdsField, new Entry(directAdsField, nanoClock.getAsLong()));
+        if ((previous != null) && !previous.directAdsField.equals(directAdsField)) {
+            removed.add(previous.directAdsField);
+        }
+        if (maxSize > 0) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while ((entries.size() > maxSize) && iterator.hasNext()) {
+                removed.add(iterator.next().directAdsField);
+                iterator.remove();
+                evictionCount.incrementAndGet();
+            }
+        }
+        return unreferenced(removed);
+    }
+
+    /**
+     * Removes all entries which haven't been used for longer than the maximum idle time.
+     *
+     * @return unreferenced entries which were removed from the cache.
+     */
+    public synchronized List<DirectAdsField> evictIdle() {
+        if (maxIdleNanos <= 0) {
+            return Collections.emptyList();
+        }
+        List<DirectAdsField> removed = new ArrayList<>();
+        long now = nanoClock.getAsLong();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            // As the entries are ordered by access, all following entries have been used more recently.
+            if ((now - entry.lastAccess) <= maxIdleNanos) {
+                break;
+            }
+            removed.add(entry.directAdsField);
+            iterator.remove();
+            evictionCount.incrementAndGet();
+        }
+        return unreferenced(removed);
+    }
+
+    /**
+     * Removes all entries and forgets all references (e.g. as the connection is closed).
+     *
+     * @return entries which were removed from the cache, no matter if they were referenced or not.
+     */
+    public synchronized List<DirectAdsField> clear() {
+        List<DirectAdsField> removed = new ArrayList<>(entries.size() + removedInUse.size());
+        for (Entry entry : entries.values()) {
+            removed.add(entry.directAdsField);
+        }
+        removed.addAll(removedInUse);
+        entries.clear();
+        references.clear();
+        removedInUse.clear();
+        return removed;
+    }
+
+    /**
+     * Keeps back all removed entries which are still referenced, they are returned by
+     * {@link #release(Collection)} as soon as their last reference is released.
+     */
+    private List<DirectAdsField> unreferenced(List<DirectAdsField> removed) {
+        Iterator<DirectAdsField> iterator = removed.iterator();
+        while (iterator.hasNext()) {
+            DirectAdsField directAdsField = iterator.next();
+            if (references.containsKey(directAdsField)) {
+                removedInUse.add(directAdsField);
+                iterator.remove();
+            }
+        }
+        return removed;
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * @return ratio of lookups which could be served from the cache (0 if there were no lookups yet).
+     */
+    public double getHitRate() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return (total == 0) ? 0.0 : ((double) hits / total);
+    }
+
+    @Override
+    public String toString() {
+        return "AdsHandleCache{" +
+            "size=" + getSize() +
+            ", maxSize=" + maxSize +
+            ", hitCount=" + getHitCount() +
+            ", missCount=" + getMissCount() +
+            ", evictionCount=" + getEvictionCount() +
+            '}';
+    }
+
+    private static class Entry {
+
+        private final DirectAdsField directAdsField;
+        private long lastAccess;
+
+        private Entry(DirectAdsField directAdsField, long lastAccess) {
+            this.directAdsField = directAdsField;
+            this.lastAccess = lastAccess;
+        }
+
+    }
+
+}
@@ -18,22 +18,34 @@ under the License.
 */
 package org.apache.plc4x.java.ads.protocol;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.plc4x.java.ads.readwrite.types.ReturnCode;
 import org.apache.plc4x.java.ads.configuration.AdsConfiguration;
 import org.apache.plc4x.java.ads.field.AdsField;
 import org.apache.plc4x.java.ads.field.DirectAdsField;
 import org.apache.plc4x.java.ads.field.SymbolicAdsField;
+import org.apache.plc4x.java.ads.model.AdsSubscriptionHandle;
+import org.apache.plc4x.java.ads.model.AdsSymbolTable;
 import org.apache.plc4x.java.ads.readwrite.*;
 import org.apache.plc4x.java.ads.readwrite.io.DataItemIO;
+import org.apache.plc4x.java.ads.readwrite.types.AdsDataType;
 import org.apache.plc4x.java.ads.readwrite.types.CommandId;
 import org.apache.plc4x.java.ads.readwrite.types.ReservedIndexGroups;
 import org.apache.plc4x.java.api.exceptions.PlcException;
+import org.apache.plc4x.java.api.exceptions.PlcProtocolException;
 import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
 import org.apache.plc4x.java.api.messages.PlcReadRequest;
 import org.apache.plc4x.java.api.messages.PlcReadResponse;
+import org.apache.plc4x.java.api.messages.PlcSubscriptionEvent;
+import org.apache.plc4x.java.api.messages.PlcSubscriptionRequest;
+import org.apache.plc4x.java.api.messages.PlcSubscriptionResponse;
+import org.apache.plc4x.java.api.messages.PlcUnsubscriptionRequest;
+import org.apache.plc4x.java.api.messages.PlcUnsubscriptionResponse;
 import org.apache.plc4x.java.api.messages.PlcWriteRequest;
 import org.apache.plc4x.java.api.messages.PlcWriteResponse;
+import org.apache.plc4x.java.api.model.PlcConsumerRegistration;
 import org.apache.plc4x.java.api.model.PlcField;
+import org.apache.plc4x.java.api.model.PlcSubscriptionHandle;
 import org.apache.plc4x.java.api.types.PlcResponseCode;
 import org.apache.plc4x.java.api.value.*;
 import org.apache.plc4x.java.spi.ConversationContext;
@@ -42,23 +54,42 @@ import org.apache.plc4x.java.spi.configuration.HasConfiguration;
 import org.apache.plc4x.java.spi.generation.ParseException;
 import org.apache.plc4x.java.spi.generation.ReadBuffer;
 import org.apache.plc4x.java.spi.generation.WriteBuffer;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
 import org.apache.plc4x.java.spi.messages.DefaultPlcReadResponse;
+import org.apache.plc4x.java.spi.messages.DefaultPlcSubscriptionEvent;
+import org.apache.plc4x.java.spi.messages.DefaultPlcSubscriptionResponse;
+import org.apache.plc4x.java.spi.messages.DefaultPlcUnsubscriptionResponse;
+import org.apache.plc4x.java.spi.messages.DefaultPlcWriteRequest;
 import org.apache.plc4x.java.spi.messages.DefaultPlcWriteResponse;
 import org.apache.plc4x.java.spi.messages.InternalPlcReadRequest;
+import org.apache.plc4x.java.spi.messages.InternalPlcSubscriptionRequest;
+import org.apache.plc4x.java.spi.messages.InternalPlcUnsubscriptionRequest;
 import org.apache.plc4x.java.spi.messages.InternalPlcWriteRequest;
+import org.apache.plc4x.java.spi.messages.PlcSubscriber;
+import org.apache.plc4x.java.spi.messages.utils.FieldValueItem;
 import org.apache.plc4x.java.spi.messages.utils.ResponseItem;
+import org.apache.plc4x.java.spi.model.DefaultPlcConsumerRegistration;
+import org.apache.plc4x.java.spi.model.InternalPlcSubscriptionHandle;
+import org.apache.plc4x.java.spi.model.SubscriptionPlcField;
 import org.apache.plc4x.java.spi.transaction.RequestTransactionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-public class AdsProtocolLogic extends Plc4xProtocolBase<AmsTCPPacket> implements HasConfiguration<AdsConfiguration> {
+public class AdsProtocolLogic extends Plc4xProtocolBase<AmsTCPPacket> implements HasConfiguration<AdsConfiguration>, PlcSubscriber {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AdsProtocolLogic.class);
 
@@ -66,28 +97,58 @@ public class AdsProtocolLogic extends Plc4xProtocolBase<AmsTCPPacket> implements
     public static final State DEFAULT_COMMAND_STATE = new State(
         false, false, false, false, false, true, false, false, false);
 
+    // Transmission modes as defined by the ADSTRANSMODE structure of the ADS-DLL.
+    private static final long ADSTRANS_SERVERCYCLE = 3;
+    private static final long ADSTRANS_SERVERONCHA = 4;
+
+    // Maximum number of sub-requests an ADS-Sum request may contain.
+    private static final int MAX_SUM_REQUEST_ITEMS = 500;
+
+    // Seconds between the start of the Windows FILETIME (1601-01-01) and the unix epoch.
+    private static final long FILETIME_EPOCH_OFFSET_SECONDS = 11_644_473_600L;
+
     private ConversationContext<AmsTCPPacket> adsDriverContext;
     private final AtomicLong invokeIdGenerator = new AtomicLong(1);
     private RequestTransactionManager tm;
 
-    private ConcurrentHashMap<SymbolicAdsField, DirectAdsField> symbolicFieldMapping;
-    private ConcurrentHashMap<SymbolicAdsField, CompletableFuture<Void>> pendingResolutionRequests;
+    private AdsHandleCache handleCache;
+    private ConcurrentHashMap<SymbolicAdsField, CompletableFuture<DirectAdsField>> pendingResolutionRequests;
+    private ScheduledFuture<?> idleHandleSweep;
+    // Guards completing resolution requests against requests starting to wait for them.
+    private final Object resolutionLock = new Object();
+
+    // If loaded, symbols contained in here are addressed directly without acquiring a handle first.
+    private volatile AdsSymbolTable symbolTable;
+
+    // Device notifications only contain the notification handle, so all lookups are done by it.
+    private final Map<Long, AdsSubscriptionHandle> subscriptions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<DefaultPlcConsumerRegistration>> consumerRegistrations = new ConcurrentHashMap<>();
+    private final Map<DefaultPlcConsumerRegistration, Consumer<PlcSubscriptionEvent>> consumers = new ConcurrentHashMap<>();
+    // Direct addresses of the symbols notifications were added for, by notification handle.
+    private final Map<Long, DirectAdsField> notificationAddresses = new ConcurrentHashMap<>();
 
     public AdsProtocolLogic() {
-        symbolicFieldMapping = new ConcurrentHashMap<>();
         pendingResolutionRequests = new ConcurrentHashMap<>();
 
         // Initialize Transaction Manager.
-        // Until the number of concurrent requests is successfully negotiated we set it to a
-        // maximum of only one request being able to be sent at a time. During the login process
-        // No concurrent requests can be sent anyway. It will be updated when receiving the
-        // S7ParameterSetupCommunication response.
+        // The number of concurrent requests is updated as soon as the configuration is set.
         this.tm = new RequestTransactionManager(1);
     }
 
     @Override
     public void setConfiguration(AdsConfiguration configuration) {
         this.configuration = configuration;
+        // Responses are correlated to their requests by the invoke id, so multiple requests can be in flight.
+        this.tm.setNumberOfConcurrentRequests(Math.max(1, configuration.getMaxInFlight()));
+        this.handleCache = new AdsHandleCache(
+            configuration.getHandleCacheSize(), configuration.getHandleCacheIdleTimeout());
+    }
+
+    /**
+     * @return cache of resolved symbolic addresses (e.g. for monitoring its hit rate).
+     */
+    public AdsHandleCache getHandleCache() {
+        return handleCache;
     }
 
     @Override
@@ -98,19 +159,153 @@ public class AdsProtocolLogic extends Plc4xProtocolBase<AmsTCPPacket> implements
 
     @Override
     public void close(ConversationContext<AmsTCPPacket> context) {
-
+        stopIdleHandleSweep();
+        // Release all handles acquired by this connection. As the connection is closed right after this,
+        // we don't wait for the responses.
+        for (AmsTCPPacket amsTCPPacket : createReleaseHandlesPackets(handleCache.clear())) {
+            context.sendToWire(amsTCPPacket);
+        }
     }
 
     @Override
     public void onConnect(ConversationContext<AmsTCPPacket> context) {
         // AMS/ADS doesn't know a concept of a connect.
-        context.fireConnected();
+        startIdleHandleSweep(context);
+        if (!configuration.isLoadSymbolTable()) {
+            context.fireConnected();
+            return;
+        }
+        // If configured, load the symbol table before reporting the connection as established.
+        // If this fails, we can still fall back to resolving symbols using handles.
+        loadSymbolTable().whenComplete((loadedSymbolTable, throwable) -> {
+            if (throwable != null) {
+                LOGGER.warn("Error loading the symbol table, falling back to resolving symbols using handles",
+                    throwable);
+            } else {
+                symbolTable = loadedSymbolTable;
+                LOGGER.debug("Loaded symbol table containing {} symbols", loadedSymbolTable.getNumberOfSymbols());
+            }
+            context.fireConnected();
+        });
     }
 
     @Override
     public void onDisconnect(ConversationContext<AmsTCPPacket> context) {
         super.onDisconnect(context);
-        // TODO: Here we have to clean up all of the handles this connection acquired.
+        stopIdleHandleSweep();
+        // Without a connection the handles can't be released anymore, so we just forget them.
+        handleCache.clear();
+        pendingResolutionRequests.clear();
+        // The PLC removes the notifications of a connection as soon as it's closed.
+        subscriptions.clear();
+        consumerRegistrations.clear();
+        notificationAddresses.clear();
+        symbolTable = null;
+    }
+
+    /**
+     * Periodically releases the handles of all symbols which haven't been used for the configured idle timeout.
+     */
+    protected void startIdleHandleSweep(ConversationContext<AmsTCPPacket> context) {
+        final long idleTimeout = configuration.getHandleCacheIdleTimeout();
+        if (idleTimeout <= 0) {
+            return;
+        }
+        idleHandleSweep = context.getChannel().eventLoop().scheduleAtFixedRate(() -> {
+            List<DirectAdsField> idleFields = handleCache.evictIdle();
+            if (!idleFields.isEmpty()) {
+                releaseHandles(idleFields);
+            }
+            LOGGER.debug("Handle cache: {} (hit rate {})", handleCache, handleCache.getHitRate());
+        }, idleTimeout, idleTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    protected void stopIdleHandleSweep() {
+        if (idleHandleSweep != null) {
+            idleHandleSweep.cancel(false);
+            idleHandleSweep = null;
+        }
+    }
+
+    /**
+     * Loads the symbol table of the PLC. If a cache directory is configured and it contains a symbol table, which is
+     * still valid for the current PLC program, this is used instead of uploading the symbol table again.
+     *
+     * @return future which is completed with the symbol table.
+     */
+    protected CompletableFuture<AdsSymbolTable> loadSymbolTable() {
+        return readData(ReservedIndexGroups.ADSIGRP_SYM_VERSION.getValue(), 0, 1).thenCompose(versionData -> {
+            int symbolVersion = versionData[0] & 0xFF;
+            return readData(ReservedIndexGroups.ADSIGRP_SYM_UPLOADINFO.getValue(), 0, 8).thenCompose(infoData -> {
+                ByteBuffer info = ByteBuffer.wrap(infoData).order(ByteOrder.LITTLE_ENDIAN);
+                long numSymbols = info.getInt() & 0xFFFFFFFFL;
+                long symbolTableLength = info.getInt() & 0xFFFFFFFFL;
+
+                File cacheFile = getSymbolTableCacheFile();
+                if (cacheFile != null) {
+                    AdsSymbolTable cachedSymbolTable = AdsSymbolTable.load(cacheFile);
+                    if ((cachedSymbolTable != null) &&
+                        cachedSymbolTable.isValidFor(symbolVersion, numSymbols, symbolTableLength)) {
+                        LOGGER.debug("Using cached symbol table {}", cacheFile);
+                        return CompletableFuture.completedFuture(cachedSymbolTable);
+                    }
+                }
+
+                return readData(ReservedIndexGroups.ADSIGRP_SYM_UPLOAD.getValue(), 0, symbolTableLength)
+                    .thenApply(symbolData -> {
+                        AdsSymbolTable uploadedSymbolTable =
+                            AdsSymbolTable.parse(symbolVersion, numSymbols, symbolTableLength, symbolData);
+                        if (cacheFile != null) {
+                            try {
+                                uploadedSymbolTable.save(cacheFile);
+                            } catch (IOException e) {
+                                LOGGER.warn("Error saving symbol table cache {}", cacheFile, e);
+                            }
+                        }
+                        return uploadedSymbolTable;
+                    });
+            });
+        });
+    }
+
+    protected File getSymbolTableCacheFile() {
+        if (configuration.getSymbolTableCacheDirectory() == null) {
+            return null;
+        }
+        AmsNetId netId = configuration.getTargetAmsNetId();
+        String fileName = String.format("%d.%d.%d.%d.%d.%d_%d.symbols", netId.getOctet1(), netId.getOctet2(),
+            netId.getOctet3(), netId.getOctet4(), netId.getOctet5(), netId.getOctet6(),
+            configuration.getTargetAmsPort());
+        return new File(configuration.getSymbolTableCacheDirectory(), fileName);
+    }
+
+    /**
+     * Reads a raw block of data from the PLC.
+     *
+     * @param indexGroup  index group to read from
+     * @param indexOffset index offset to read from
+     * @param length      number of bytes to read
+     * @return future which is completed with the data returned by the PLC.
+     */
+    protected CompletableFuture<byte[]> readData(long indexGroup, long indexOffset, long length) {
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+
+        AdsData adsData = new AdsReadRequest(indexGroup, indexOffset, length);
+        AmsPacket amsPacket = new AmsPacket(configuration.getTargetAmsNetId(), configuration.getTargetAmsPort(),
+            configuration.getSourceAmsNetId(), configuration.getSourceAmsPort(),
+            CommandId.ADS_READ, DEFAULT_COMMAND_STATE, 0, getNextInvokeId(), adsData);
+        AmsTCPPacket amsTCPPacket = new AmsTCPPacket(amsPacket);
+
+        sendAmsRequest(amsTCPPacket, AdsReadResponse.class, future::completeExceptionally, responseAdsData -> {
+            if (responseAdsData.getResult() == ReturnCode.OK) {
+                future.complete(responseAdsData.getData());
+            } else {
+                future.completeExceptionally(new PlcException(String.format(
+                    "Error reading index group 0x%X offset 0x%X: %s",
+                    indexGroup, indexOffset, responseAdsData.getResult())));
+            }
+        });
+        return future;
     }
 
     @Override
@@ -123,7 +318,8 @@ public class AdsProtocolLogic extends Plc4xProtocolBase<AmsTCPPacket> implements
         if(directAdsFieldsFuture.isDone()) {
             final List<DirectAdsField> fields = directAdsFieldsFuture.getNow(null);
             if(fields != null) {
-                return executeRead(readRequest, fields);
+                return executeRead(readRequest, fields).whenComplete((response, throwable) ->
+                    releaseDirectAddresses(readRequest.getFields(), fields));
             } else {
                 final CompletableFuture<PlcReadResponse> errorFuture = new CompletableFuture<>();
                 errorFuture.completeExceptionally(new PlcException("Error"));
@@ -142,7 +338,8 @@ public class AdsProtocolLogic extends Plc4xProtocolBase<AmsTCPPacket> implements
             directAdsFieldsFuture.handle((directAdsFields, throwable) -> {
                 if(directAdsFields != null) {
                     final CompletableFuture<PlcReadResponse> delayedResponse =
-                        executeRead(readRequest, directAdsFields);
+                        executeRead(readRequest, directAdsFields).whenComplete((response, throwable1) ->
+                            releaseDirectAddresses(readRequest.getFields(), directAdsFields));
                     delayedResponse.handle((plcReadResponse, throwable1) -> {
                         if (plcReadResponse != null) {
                             delayedRead.complete(plcReadResponse);
@@ -162,6 +359,33 @@ public class AdsProtocolLogic extends Plc4xProtocolBase<AmsTCPPacket> implements
 
     protected CompletableFuture<PlcReadResponse> executeRead(PlcReadRequest readRequest,
                                                              List<DirectAdsField> directAdsFields) {
+        // Symbolic addresses which couldn't be resolved are answered with INVALID_ADDRESS,
+        // only the remaining fields are read from the PLC.
+        if (directAdsFields.contains(null)) {
+            LinkedHashMap<String, PlcField> resolvedFields = new LinkedHashMap<>();
+            List<DirectAdsField> resolvedDirectAdsFields = new ArrayList<>(directAdsFields.size());
+            Map<String, ResponseItem<PlcValue>> values = new HashMap<>();
+            Iterator<DirectAdsField> directAdsFieldIterator = directAdsFields.iterator();
+            for (String fieldName : readRequest.getFieldNames()) {
+                DirectAdsField directAdsField = directAdsFieldIterator.next();
+                if (directAdsField != null) {
+                    resolvedFields.put(fieldName, readRequest.getField(fieldName));
+                    resolvedDirectAdsFields.add(directAdsField);
+                } else {
+                    values.put(fieldName, new ResponseItem<>(PlcResponseCode.INVALID_ADDRESS, null));
+                }
+            }
+            if (resolvedFields.isEmpty()) {
+                return CompletableFuture.completedFuture(
+                    new DefaultPlcReadResponse((InternalPlcReadRequest) readRequest, values));
+            }
+            PlcReadRequest resolvedRequest = new DefaultPlcReadRequest(
+                ((DefaultPlcReadRequest) readRequest).getReader(), resolvedFields);
+            return executeRead(resolvedRequest, resolvedDirectAdsFields).thenApply(readResponse -> {
+                values.putAll(((DefaultPlcReadResponse) readResponse).getValues());
+                return new DefaultPlcReadResponse((InternalPlcReadRequest) readRequest, values);
+            });
+        }
         // Depending on the number of fields, use a single item request or a sum-request
         if (directAdsFields.size() == 1) {
             // Do a normal (single item) ADS Read Request
@@ -180,29 +404,19 @@ public class AdsProtocolLogic extends Plc4xProtocolBase<AmsTCPPacket> implements
         AdsData adsData = new AdsReadRequest(directAdsField.getIndexGroup(), directAdsField.getIndexOffset(), size);
         AmsPacket amsPacket = new AmsPacket(configuration.getTargetAmsNetId(), configuration.getTargetAmsPort(),
             configuration.getSourceAmsNetId(), configuration.getSourceAmsPort(),
-            CommandId.ADS_READ, DEFAULT_COMMAND_STATE, 0, invokeIdGenerator.getAndIncrement(), adsData);
+            CommandId.ADS_READ, DEFAULT_COMMAND_STATE, 0, getNextInvokeId(), adsData);
         AmsTCPPacket amsTCPPacket = new AmsTCPPacket(amsPacket);
 
-        // Start a new request-transaction (Is ended in the response-handler)
-        RequestTransactionManager.RequestTransaction transaction = tm.startRequest();
-        transaction.submit(() -> context.sendRequest(amsTCPPacket)
-            .expectResponse(AmsTCPPacket.class, Duration.ofMillis(configuration.getTimeoutRequest()))
-            .onTimeout(future::completeExceptionally)
-            .onError((p, e) -> future.completeExceptionally(e))
-            .check(responseAmsPacket -> responseAmsPacket.getUserdata().getInvokeId() == amsPacket.getInvokeId())
-            .unwrap(response -> (AdsReadResponse) response.getUserdata().getData())
-            .handle(responseAdsData -> {
-                if(responseAdsData.getResult() == ReturnCode.OK) {
-                    final PlcReadResponse plcReadResponse = convertToPlc4xReadResponse(readRequest, responseAdsData);
-                    // Convert the response from the PLC into a PLC4X Response ...
-                    future.complete(plcReadResponse);
-                } else {
-                    // TODO: Implement this correctly.
-                    future.completeExceptionally(new PlcException("Error"));
-                }
-                // Finish the request-transaction.
-                transaction.endRequest();
-            }));
+        sendAmsRequest(amsTCPPacket, AdsReadResponse.class, future::completeExceptionally, responseAdsData -> {
+            if(responseAdsData.getResult() == ReturnCode.OK) {
+                final PlcReadResponse plcReadResponse = convertToPlc4xReadResponse(readRequest, responseAdsData);
+                // Convert the response from the PLC into a PLC4X Response ...
+                future.complete(plcReadResponse);
+            } else {
+                // The whole request failed, so all fields share the same response code.
+                future.complete(createErrorReadResponse(readRequest, responseAdsData.getResult()));
+            }
+        });
         return future;
     }
 
@@ -224,29 +438,19 @@ public class AdsProtocolLogic extends Plc4xProtocolBase<AmsTCPPacket> implements
 
         AmsPacket amsPacket = new AmsPacket(configuration.getTargetAmsNetId(), configuration.getTargetAmsPort(),
             configuration.getSourceAmsNetId(), configuration.getSourceAmsPort(),
-            CommandId.ADS_READ_WRITE, DEFAULT_COMMAND_STATE, 0, invokeIdGenerator.getAndIncrement(), adsData);
+            CommandId.ADS_READ_WRITE, DEFAULT_COMMAND_STATE, 0, getNextInvokeId(), adsData);
         AmsTCPPacket amsTCPPacket = new AmsTCPPacket(amsPacket);
 
-        // Start a new request-transaction (Is ended in the response-handler)
-        RequestTransactionManager.RequestTransaction transaction = tm.startRequest();
-        transaction.submit(() -> context.sendRequest(amsTCPPacket)
-            .expectResponse(AmsTCPPacket.class, Duration.ofMillis(configuration.getTimeoutRequest()))
-            .onTimeout(future::completeExceptionally)
-            .onError((p, e) -> future.completeExceptionally(e))
-            .check(responseAmsPacket -> responseAmsPacket.getUserdata().getInvokeId() == amsPacket.getInvokeId())
-            .unwrap(response -> (AdsReadWriteResponse) response.getUserdata().getData())
-            .handle(responseAdsData -> {
-                if(responseAdsData.getResult() == ReturnCode.OK) {
-                    final PlcReadResponse plcReadResponse = convertToPlc4xReadResponse(readRequest, responseAdsData);
-                    // Convert the response from the PLC into a PLC4X Response ...
-                    future.complete(plcReadResponse);
-                } else {
-                    // TODO: Implement this correctly.
-                    future.completeExceptionally(new PlcException("Error"));
-                }
-                // Finish the request-transaction.
-                transaction.endRequest();
-            }));
+        sendAmsRequest(amsTCPPacket, AdsReadWriteResponse.class, future::completeExceptionally, responseAdsData -> {
+            if(responseAdsData.getResult() == ReturnCode.OK) {
+                final PlcReadResponse plcReadResponse = convertToPlc4xReadResponse(readRequest, responseAdsData);
+                // Convert the response from the PLC into a PLC4X Response ...
+                future.complete(plcReadResponse);
+            } else {
+                // The whole request failed, so all fields share the same response code.
+                future.complete(createErrorReadResponse(readRequest, responseAdsData.getResult()));
+            }
+        });
         return future;
     }
 
@@ -290,34 +494,84 @@ public class AdsProtocolLogic extends Plc4xProtocolBase<AmsTCPPacket> implements
         return null;
     }
 
-    private PlcResponseCode parsePlcResponseCode(ReturnCode adsResult) {
-        if (adsResult == ReturnCode.OK) {
-            return PlcResponseCode.OK;
-        } else {
-            // TODO: Implement this a little more ...
-            return PlcResponseCode.INTERNAL_ERROR;
+    private PlcReadResponse createErrorReadResponse(PlcReadRequest readRequest, ReturnCode adsResult) {
+        PlcResponseCode responseCode = parsePlcResponseCode(adsResult);
+        Map<String, ResponseItem<PlcValue>> values = new HashMap<>();
+        for (String fieldName : readRequest.getFieldNames()) {
+            values.put(fieldName, new ResponseItem<>(responseCode, null));
+        }
+        return new DefaultPlcReadResponse((InternalPlcReadRequest) readRequest, values);
+    }
+
+    private PlcWriteResponse createErrorWriteResponse(PlcWriteRequest writeRequest, ReturnCode adsResult) {
+        PlcResponseCode responseCode = parsePlcResponseCode(adsResult);
+        Map<String, PlcResponseCode> responseCodes = new HashMap<>();
+        for (String fieldName : writeRequest.getFieldNames()) {
+            responseCodes.put(fieldName, responseCode);
+        }
+        return new DefaultPlcWriteResponse((InternalPlcWriteRequest) writeRequest, responseCodes);
+    }
+
+    protected static PlcResponseCode parsePlcResponseCode(ReturnCode adsResult) {
+        if (adsResult == null) {
+            // Return code not known to us.
+            return PlcResponseCode.REMOTE_ERROR;
+        }
+        switch (adsResult) {
+            case OK:
+                return PlcResponseCode.OK;
+            case ADSERR_DEVICE_NOTFOUND:
+            case ADSERR_DEVICE_SYMBOLNOTFOUND:
+                return PlcResponseCode.NOT_FOUND;
+            case ADSERR_DEVICE_INVALIDGRP:
+            case ADSERR_DEVICE_INVALIDOFFSET:
+            case ADSERR_DEVICE_INVALIDARRAYIDX:
+            case ADSERR_DEVICE_SYMBOLNOTACTIVE:
+            case ADSERR_DEVICE_SYMBOLVERSIONINVALID:
+            case ADSERR_DEVICE_NOTIFYHNDINVALID:
+                return PlcResponseCode.INVALID_ADDRESS;
+            case ADSERR_DEVICE_INVALIDSIZE:
+                return PlcResponseCode.INVALID_DATATYPE;
+            case ADSERR_DEVICE_INVALIDDATA:
+            case ADSERR_DEVICE_INVALIDPARM:
+                return PlcResponseCode.INVALID_DATA;
+            case ADSERR_DEVICE_INVALIDACCESS:
+            case ADSERR_DEVICE_ACCESSDENIED:
+                return PlcResponseCode.ACCESS_DENIED;
+            case ADSERR_DEVICE_BUSY:
+            case ADSERR_DEVICE_NOTREADY:
+                return PlcResponseCode.REMOTE_BUSY;
+            case ADSERR_DEVICE_SRVNOTSUPP:
+            case ADSERR_DEVICE_TRANSMODENOTSUPP:
+                return PlcResponseCode.UNSUPPORTED;
+            default:
+                return PlcResponseCode.REMOTE_ERROR;
         }
     }
 
     private ResponseItem<PlcValue> parsePlcValue(AdsField field, ReadBuffer readBuffer) {
+        return parsePlcValue(field.getAdsDataType(), field.getNumberOfElements(), readBuffer);
+    }
+
+    private ResponseItem<PlcValue> parsePlcValue(AdsDataType adsDataType, int numberOfElements, ReadBuffer readBuffer) {
         try {
-            if (field.getNumberOfElements() == 1) {
+            if (numberOfElements == 1) {
                 return new ResponseItem<>(PlcResponseCode.OK,
-                    DataItemIO.staticParse(readBuffer, field.getAdsDataType()));
+                    DataItemIO.staticParse(readBuffer, adsDataType));
             } else {
                 // Fetch all
-                final PlcValue[] resultItems = IntStream.range(0, field.getNumberOfElements()).mapToObj(i -> {
+                final PlcValue[] resultItems = IntStream.range(0, numberOfElements).mapToObj(i -> {
                     try {
-                        return DataItemIO.staticParse(readBuffer, field.getAdsDataType());
+                        return DataItemIO.staticParse(readBuffer, adsDataType);
                     } catch (ParseException e) {
-                        LOGGER.warn("Error parsing field item of type: '{}' (at position {}})", field.getAdsDataType(), i, e);
+                        LOGGER.warn("Error parsing field item of type: '{}' (at position {}})", adsDataType, i, e);
                     }
                     return null;
                 }).toArray(PlcValue[]::new);
                 return new ResponseItem<>(PlcResponseCode.OK, PlcValues.of(resultItems));
             }
         } catch (ParseException e) {
-            LOGGER.warn(String.format("Error parsing field item of type: '%s'", field.getAdsDataType()), e);
+            LOGGER.warn(String.format("Error parsing field item of type: '%s'", adsDataType), e);
             return new ResponseItem<>(PlcResponseCode.INTERNAL_ERROR, null);
         }
     }
@@ -332,7 +586,8 @@ public class AdsProtocolLogic extends Plc4xProtocolBase<AmsTCPPacket> implements
         if(directAdsFieldsFuture.isDone()) {
             final List<DirectAdsField> fields = directAdsFieldsFuture.getNow(null);
             if(fields != null) {
-                return executeWrite((InternalPlcWriteRequest) writeRequest, fields);
+                return executeWrite((InternalPlcWriteRequest) writeRequest, fields).whenComplete((response, throwable) ->
+                    releaseDirectAddresses(writeRequest.getFields(), fields));
             } else {
                 final CompletableFuture<PlcWriteResponse> errorFuture = new CompletableFuture<>();
                 errorFuture.completeExceptionally(new PlcException("Error"));
@@ -351,7 +606,8 @@ public class AdsProtocolLogic extends Plc4xProtocolBase<AmsTCPPacket> implements
             directAdsFieldsFuture.handle((directAdsFields, throwable) -> {
                 if(directAdsFields != null) {
                     final CompletableFuture<PlcWriteResponse> delayedResponse =
-                        executeWrite((InternalPlcWriteRequest) writeRequest, directAdsFields);
+                        executeWrite((InternalPlcWriteRequest) writeRequest, directAdsFields).whenComplete((response, throwable1) ->
+                            releaseDirectAddresses(writeRequest.getFields(), directAdsFields));
                     delayedResponse.handle((plcReadResponse, throwable1) -> {
                         if (plcReadResponse != null) {
                             delayedWrite.complete(plcReadResponse);
@@ -371,6 +627,33 @@ public class AdsProtocolLogic extends Plc4xProtocolBase<AmsTCPPacket> implements
 
     protected CompletableFuture<PlcWriteResponse> executeWrite(InternalPlcWriteRequest writeRequest,
                                                              List<DirectAdsField> directAdsFields) {
+        // Symbolic addresses which couldn't be resolved are answered with INVALID_ADDRESS,
+        // only the remaining fields are written to the PLC.
+        if (directAdsFields.contains(null)) {
+            LinkedHashMap<String, FieldValueItem> resolvedFields = new LinkedHashMap<>();
+            List<DirectAdsField> resolvedDirectAdsFields = new ArrayList<>(directAdsFields.size());
+            Map<String, PlcResponseCode> responseCodes = new HashMap<>();
+            Iterator<DirectAdsField> directAdsFieldIterator = directAdsFields.iterator();
+            for (String fieldName : writeRequest.getFieldNames()) {
+                DirectAdsField directAdsField = directAdsFieldIterator.next();
+                if (directAdsField != null) {
+                    resolvedFields.put(fieldName, new FieldValueItem(
+                        writeRequest.getField(fieldName), writeRequest.getPlcValue(fieldName)));
+                    resolvedDirectAdsFields.add(directAdsField);
+                } else {
+                    responseCodes.put(fieldName, PlcResponseCode.INVALID_ADDRESS);
+                }
+            }
+            if (resolvedFields.isEmpty()) {
+                return CompletableFuture.completedFuture(new DefaultPlcWriteResponse(writeRequest, responseCodes));
+            }
+            InternalPlcWriteRequest resolvedRequest = new DefaultPlcWriteRequest(
+                ((DefaultPlcWriteRequest) writeRequest).getWriter(), resolvedFields);
+            return executeWrite(resolvedRequest, resolvedDirectAdsFields).thenApply(writeResponse -> {
+                responseCodes.putAll(((DefaultPlcWriteResponse) writeResponse).getValues());
+                return new DefaultPlcWriteResponse(writeRequest, responseCodes);
+            });
+        }
         // Depending on the number of fields, use a single item request or a sum-request
         if (directAdsFields.size() == 1) {
             // Do a normal (single item) ADS Write Request
@@ -394,31 +677,20 @@ public class AdsProtocolLogic extends Plc4xProtocolBase<AmsTCPPacket> implements
                 directAdsField.getIndexGroup(), directAdsField.getIndexOffset(), writeBuffer.getData());
             AmsPacket amsPacket = new AmsPacket(configuration.getTargetAmsNetId(), configuration.getTargetAmsPort(),
                 configuration.getSourceAmsNetId(), configuration.getSourceAmsPort(),
-                CommandId.ADS_WRITE, DEFAULT_COMMAND_STATE, 0, invokeIdGenerator.getAndIncrement(), adsData);
+                CommandId.ADS_WRITE, DEFAULT_COMMAND_STATE, 0, getNextInvokeId(), adsData);
             AmsTCPPacket amsTCPPacket = new AmsTCPPacket(amsPacket);
 
-            // Start a new request-transaction (Is ended in the response-handler)
-            RequestTransactionManager.RequestTransaction transaction = tm.startRequest();
-            transaction.submit(() -> context.sendRequest(amsTCPPacket)
-                .expectResponse(AmsTCPPacket.class, Duration.ofMillis(configuration.getTimeoutRequest()))
-                .onTimeout(future::completeExceptionally)
-                .onError((p, e) -> future.completeExceptionally(e))
-                .check(responseAmsPacket -> responseAmsPacket.getUserdata().getInvokeId() == amsPacket.getInvokeId())
-                .unwrap(response -> (AdsWriteResponse) response.getUserdata().getData())
-                .handle(responseAdsData -> {
-                    if (responseAdsData.getResult() == ReturnCode.OK) {
-                        final PlcWriteResponse plcWriteResponse = convertToPlc4xWriteResponse(writeRequest, responseAdsData);
-                        // Convert the response from the PLC into a PLC4X Response ...
-                        future.complete(plcWriteResponse);
-                    } else {
-                        // TODO: Implement this correctly.
-                        future.completeExceptionally(new PlcException("Error"));
-                    }
-                    // Finish the request-transaction.
-                    transaction.endRequest();
-                }));
+            sendAmsRequest(amsTCPPacket, AdsWriteResponse.class, future::completeExceptionally, responseAdsData -> {
+                if (responseAdsData.getResult() == ReturnCode.OK) {
+                    final PlcWriteResponse plcWriteResponse = convertToPlc4xWriteResponse(writeRequest, responseAdsData);
+                    // Convert the response from the PLC into a PLC4X Response ...
+                    future.complete(plcWriteResponse);
+                } else {
+                    future.complete(createErrorWriteResponse(writeRequest, responseAdsData.getResult()));
+                }
+            });
         } catch (Exception e) {
-            future.completeExceptionally(new PlcException("Error"));
+            future.completeExceptionally(new PlcException("Error serializing the value of field " + fieldName, e));
         }
         return future;
     }
@@ -455,29 +727,19 @@ public class AdsProtocolLogic extends Plc4xProtocolBase<AmsTCPPacket> implements
 
         AmsPacket amsPacket = new AmsPacket(configuration.getTargetAmsNetId(), configuration.getTargetAmsPort(),
             configuration.getSourceAmsNetId(), configuration.getSourceAmsPort(),
-            CommandId.ADS_READ_WRITE, DEFAULT_COMMAND_STATE, 0, invokeIdGenerator.getAndIncrement(), adsData);
+            CommandId.ADS_READ_WRITE, DEFAULT_COMMAND_STATE, 0, getNextInvokeId(), adsData);
         AmsTCPPacket amsTCPPacket = new AmsTCPPacket(amsPacket);
 
-        // Start a new request-transaction (Is ended in the response-handler)
-        RequestTransactionManager.RequestTransaction transaction = tm.startRequest();
-        transaction.submit(() -> context.sendRequest(amsTCPPacket)
-            .expectResponse(AmsTCPPacket.class, Duration.ofMillis(configuration.getTimeoutRequest()))
-            .onTimeout(future::completeExceptionally)
-            .onError((p, e) -> future.completeExceptionally(e))
-            .check(responseAmsPacket -> responseAmsPacket.getUserdata().getInvokeId() == amsPacket.getInvokeId())
-            .unwrap(response -> (AdsReadWriteResponse) response.getUserdata().getData())
-            .handle(responseAdsData -> {
-                if(responseAdsData.getResult() == ReturnCode.OK) {
-                    final PlcWriteResponse plcWriteResponse = convertToPlc4xWriteResponse(writeRequest, responseAdsData);
-                    // Convert the response from the PLC into a PLC4X Response ...
-                    future.complete(plcWriteResponse);
-                } else {
-                    // TODO: Implement this correctly.
-                    future.completeExceptionally(new PlcException("Error"));
-                }
-                // Finish the request-transaction.
-                transaction.endRequest();
-            }));
+        sendAmsRequest(amsTCPPacket, AdsReadWriteResponse.class, future::completeExceptionally, responseAdsData -> {
+            if(responseAdsData.getResult() == ReturnCode.OK) {
+                final PlcWriteResponse plcWriteResponse = convertToPlc4xWriteResponse(writeRequest, responseAdsData);
+                // Convert the response from the PLC into a PLC4X Response ...
+                future.complete(plcWriteResponse);
+            } else {
+                // The whole request failed, so all fields share the same response code.
+                future.complete(createErrorWriteResponse(writeRequest, responseAdsData.getResult()));
+            }
+        });
         return future;
     }
 
@@ -505,27 +767,318 @@ public class AdsProtocolLogic extends Plc4xProtocolBase<AmsTCPPacket> implements
         return new DefaultPlcWriteResponse((InternalPlcWriteRequest) writeRequest, responseCodes);
     }
 
+    @Override
+    public CompletableFuture<PlcSubscriptionResponse> subscribe(PlcSubscriptionRequest subscriptionRequest) {
+        InternalPlcSubscriptionRequest internalPlcSubscriptionRequest = (InternalPlcSubscriptionRequest) subscriptionRequest;
+
+        // Get all ADS addresses in their resolved state.
+        return getDirectAddresses(subscriptionRequest.getFields()).thenCompose(directAdsFields -> {
+            // Add one device notification for every field, the PLC then pushes the values of all of them.
+            Map<String, CompletableFuture<ResponseItem<PlcSubscriptionHandle>>> notificationFutures = new LinkedHashMap<>();
+            Iterator<DirectAdsField> directAdsFieldIterator = directAdsFields.iterator();
+            for (Pair<String, SubscriptionPlcField> namedSubscriptionField : internalPlcSubscriptionRequest.getNamedSubscriptionFields()) {
+                DirectAdsField directAdsField = directAdsFieldIterator.next();
+                CompletableFuture<ResponseItem<PlcSubscriptionHandle>> notificationFuture = addDeviceNotification(
+                    namedSubscriptionField.getKey(), namedSubscriptionField.getValue(), directAdsField);
+                // The handle of a symbol stays in use for as long as the notification exists.
+                if ((directAdsField != null) &&
+                    (namedSubscriptionField.getValue().getPlcField() instanceof SymbolicAdsField)) {
+                    notificationFuture.whenComplete((responseItem, throwable) -> {
+                        if ((responseItem != null) && (responseItem.getValue() instanceof AdsSubscriptionHandle)) {
+                            notificationAddresses.put(
+                                ((AdsSubscriptionHandle) responseItem.getValue()).getNotificationHandle(), directAdsField);
+                        } else {
+                            releaseDirectAddresses(Collections.singletonList(directAdsField));
+                        }
+                    });
+                }
+                notificationFutures.put(namedSubscriptionField.getKey(), notificationFuture);
+            }
+            return CompletableFuture.allOf(notificationFutures.values().toArray(new CompletableFuture[0]))
+                .thenApply(unused -> {
+                    Map<String, ResponseItem<PlcSubscriptionHandle>> values = new HashMap<>();
+                    notificationFutures.forEach((fieldName, notificationFuture) ->
+                        values.put(fieldName, notificationFuture.join()));
+                    return new DefaultPlcSubscriptionResponse(internalPlcSubscriptionRequest, values);
+                });
+        });
+    }
+
+    protected CompletableFuture<ResponseItem<PlcSubscriptionHandle>> addDeviceNotification(
+        String fieldName, SubscriptionPlcField subscriptionPlcField, DirectAdsField directAdsField) {
+        CompletableFuture<ResponseItem<PlcSubscriptionHandle>> future = new CompletableFuture<>();
+
+        // If the symbolic address couldn't be resolved, there's nothing to subscribe to.
+        if (directAdsField == null) {
+            future.complete(new ResponseItem<>(PlcResponseCode.INVALID_ADDRESS, null));
+            return future;
+        }
+        final long transmissionMode;
+        switch (subscriptionPlcField.getPlcSubscriptionType()) {
+            case CYCLIC:
+                transmissionMode = ADSTRANS_SERVERCYCLE;
+                break;
+            case CHANGE_OF_STATE:
+                transmissionMode = ADSTRANS_SERVERONCHA;
+                break;
+            default:
+                future.complete(new ResponseItem<>(PlcResponseCode.UNSUPPORTED, null));
+                return future;
+        }
+        // For cyclic notifications this is the interval in which the value is sent, for on-change notifications
+        // the interval in which the PLC checks for changes (0 = every cycle of the PLC task).
+        // The times are transferred in units of 100ns.
+        long cycleTime = subscriptionPlcField.getDuration().map(duration -> duration.toNanos() / 100).orElse(0L);
+
+        int size = directAdsField.getAdsDataType().getNumBytes() * directAdsField.getNumberOfElements();
+        AdsData adsData = new AdsAddDeviceNotificationRequest(directAdsField.getIndexGroup(),
+            directAdsField.getIndexOffset(), size, transmissionMode, cycleTime, cycleTime);
+        AmsPacket amsPacket = new AmsPacket(configuration.getTargetAmsNetId(), configuration.getTargetAmsPort(),
+            configuration.getSourceAmsNetId(), configuration.getSourceAmsPort(),
+            CommandId.ADS_ADD_DEVICE_NOTIFICATION, DEFAULT_COMMAND_STATE, 0, getNextInvokeId(), adsData);
+        AmsTCPPacket amsTCPPacket = new AmsTCPPacket(amsPacket);
+
+        sendAmsRequest(amsTCPPacket, AdsAddDeviceNotificationResponse.class, future::completeExceptionally, responseAdsData -> {
+            if (responseAdsData.getResult() == ReturnCode.OK) {
+                AdsSubscriptionHandle subscriptionHandle = new AdsSubscriptionHandle(this, fieldName,
+                    directAdsField.getAdsDataType(), directAdsField.getNumberOfElements(),
+                    responseAdsData.getNotificationHandle());
+                subscriptions.put(subscriptionHandle.getNotificationHandle(), subscriptionHandle);
+                future.complete(new ResponseItem<>(PlcResponseCode.OK, subscriptionHandle));
+            } else {
+                future.complete(new ResponseItem<>(parsePlcResponseCode(responseAdsData.getResult()), null));
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<PlcUnsubscriptionResponse> unsubscribe(PlcUnsubscriptionRequest unsubscriptionRequest) {
+        InternalPlcUnsubscriptionRequest internalPlcUnsubscriptionRequest = (InternalPlcUnsubscriptionRequest) unsubscriptionRequest;
+        List<CompletableFuture<Void>> deleteFutures = new ArrayList<>();
+        for (InternalPlcSubscriptionHandle handle : internalPlcUnsubscriptionRequest.getInternalPlcSubscriptionHandles()) {
+            if (handle instanceof AdsSubscriptionHandle) {
+                Long notificationHandle = ((AdsSubscriptionHandle) handle).getNotificationHandle();
+                // Stop dispatching right away, notifications still in transit are dropped.
+                subscriptions.remove(notificationHandle);
+                consumerRegistrations.remove(notificationHandle);
+                final DirectAdsField directAdsField = notificationAddresses.remove(notificationHandle);
+                deleteFutures.add(deleteDeviceNotification(notificationHandle).whenComplete((unused, throwable) -> {
+                    if (directAdsField != null) {
+                        releaseDirectAddresses(Collections.singletonList(directAdsField));
+                    }
+                }));
+            }
+        }
+        return CompletableFuture.allOf(deleteFutures.toArray(new CompletableFuture[0]))
+            .thenApply(unused -> new DefaultPlcUnsubscriptionResponse(internalPlcUnsubscriptionRequest));
+    }
+
+    protected CompletableFuture<Void> deleteDeviceNotification(long notificationHandle) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        AdsData adsData = new AdsDeleteDeviceNotificationRequest(notificationHandle);
+        AmsPacket amsPacket = new AmsPacket(configuration.getTargetAmsNetId(), configuration.getTargetAmsPort(),
+            configuration.getSourceAmsNetId(), configuration.getSourceAmsPort(),
+            CommandId.ADS_DELETE_DEVICE_NOTIFICATION, DEFAULT_COMMAND_STATE, 0, getNextInvokeId(), adsData);
+        AmsTCPPacket amsTCPPacket = new AmsTCPPacket(amsPacket);
+
+        sendAmsRequest(amsTCPPacket, AdsDeleteDeviceNotificationResponse.class, future::completeExceptionally, responseAdsData -> {
+            if (responseAdsData.getResult() == ReturnCode.OK) {
+                future.complete(null);
+            } else {
+                future.completeExceptionally(new PlcRuntimeException(
+                    "Error deleting device notification " + notificationHandle + ": " + responseAdsData.getResult()));
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public PlcConsumerRegistration register(Consumer<PlcSubscriptionEvent> consumer, Collection<PlcSubscriptionHandle> handles) {
+        final DefaultPlcConsumerRegistration consumerRegistration =
+            new DefaultPlcConsumerRegistration(this, consumer, handles.toArray(new InternalPlcSubscriptionHandle[0]));
+        consumers.put(consumerRegistration, consumer);
+        for (PlcSubscriptionHandle handle : handles) {
+            if (handle instanceof AdsSubscriptionHandle) {
+                consumerRegistrations.computeIfAbsent(((AdsSubscriptionHandle) handle).getNotificationHandle(),
+                    notificationHandle -> ConcurrentHashMap.newKeySet()).add(consumerRegistration);
+            }
+        }
+        return consumerRegistration;
+    }
+
+    @Override
+    public void unregister(PlcConsumerRegistration plcConsumerRegistration) {
+        DefaultPlcConsumerRegistration consumerRegistration = (DefaultPlcConsumerRegistration) plcConsumerRegistration;
+        consumers.remove(consumerRegistration);
+        for (InternalPlcSubscriptionHandle handle : consumerRegistration.getAssociatedHandles()) {
+            if (handle instanceof AdsSubscriptionHandle) {
+                final Set<DefaultPlcConsumerRegistration> registrations =
+                    consumerRegistrations.get(((AdsSubscriptionHandle) handle).getNotificationHandle());
+                if (registrations != null) {
+                    registrations.remove(consumerRegistration);
+                }
+            }
+        }
+    }
+
     @Override
     protected void decode(ConversationContext<AmsTCPPacket> context, AmsTCPPacket msg) throws Exception {
+        final AmsPacket amsPacket = msg.getUserdata();
+        // Device notifications are sent by the PLC without being requested.
+        if (amsPacket.getData() instanceof AdsDeviceNotificationRequest) {
+            handleDeviceNotification((AdsDeviceNotificationRequest) amsPacket.getData());
+            return;
+        }
         super.decode(context, msg);
     }
 
+    /**
+     * Sends a request to the PLC and passes the response to the given handler. Responses are correlated to their
+     * requests by the invoke id, so up to max-in-flight requests are sent without waiting for the previous ones.
+     *
+     * @param amsTCPPacket    request
+     * @param responseType    expected type of the response data
+     * @param errorHandler    called if the request fails or times out
+     * @param responseHandler called with the response data
+     * @param <T>             type of the response data
+     */
+    protected <T extends AdsData> void sendAmsRequest(AmsTCPPacket amsTCPPacket, Class<T> responseType,
+                                                     Consumer<Throwable> errorHandler, Consumer<T> responseHandler) {
+        final long invokeId = amsTCPPacket.getUserdata().getInvokeId();
+        // Start a new request-transaction (Is ended as soon as the response arrives or the request fails)
+        RequestTransactionManager.RequestTransaction transaction = tm.startRequest();
+        transaction.submit(() -> context.sendRequest(amsTCPPacket)
+            .expectResponse(AmsTCPPacket.class, Duration.ofMillis(configuration.getTimeoutRequest()))
+            .onTimeout(e -> {
+                transaction.endRequest();
+                errorHandler.accept(new TimeoutException("No response for invocation " + invokeId));
+            })
+            .onError((p, e) -> {
+                transaction.endRequest();
+                errorHandler.accept(e);
+            })
+            .check(responseAmsTcpPacket -> responseAmsTcpPacket.getUserdata().getState().getResponse())
+            .check(responseAmsTcpPacket -> responseAmsTcpPacket.getUserdata().getInvokeId() == invokeId)
+            .unwrap(AmsTCPPacket::getUserdata)
+            .handle(responsePacket -> {
+                // Finish the request-transaction.
+                transaction.endRequest();
+                if (!responseType.isInstance(responsePacket.getData())) {
+                    errorHandler.accept(new PlcProtocolException(String.format(
+                        "Expected %s for invocation %d, but got %s (error code 0x%X)",
+                        responseType.getSimpleName(), invokeId,
+                        (responsePacket.getData() != null) ? responsePacket.getData().getClass().getSimpleName() : null,
+                        responsePacket.getErrorCode())));
+                    return;
+                }
+                try {
+                    responseHandler.accept(responseType.cast(responsePacket.getData()));
+                } catch (RuntimeException e) {
+                    errorHandler.accept(e);
+                }
+            }));
+    }
+
+    private long getNextInvokeId() {
+        // The invoke id is transferred as uint 32, so it has to wrap around.
+        return invokeIdGenerator.getAndUpdate(value -> (value + 1) & 0xFFFFFFFFL);
+    }
+
+    protected void handleDeviceNotification(AdsDeviceNotificationRequest deviceNotificationRequest) {
+        for (AdsStampHeader stampHeader : deviceNotificationRequest.getAdsStampHeaders()) {
+            final Instant timestamp = getInstant(stampHeader.getTimestamp());
+            // All samples of one stamp share the same timestamp, so every consumer gets one event per stamp.
+            Map<DefaultPlcConsumerRegistration, Map<String, ResponseItem<PlcValue>>> events = new HashMap<>();
+            for (AdsNotificationSample sample : stampHeader.getAdsNotificationSamples()) {
+                final AdsSubscriptionHandle subscriptionHandle = subscriptions.get(sample.getNotificationHandle());
+                final Set<DefaultPlcConsumerRegistration> registrations =
+                    consumerRegistrations.get(sample.getNotificationHandle());
+                if ((subscriptionHandle == null) || (registrations == null) || registrations.isEmpty()) {
+                    LOGGER.trace("No consumer registered for notification handle {}", sample.getNotificationHandle());
+                    continue;
+                }
+                final ResponseItem<PlcValue> value = parsePlcValue(subscriptionHandle.getAdsDataType(),
+                    subscriptionHandle.getNumberOfElements(), new ReadBuffer(sample.getData(), true));
+                for (DefaultPlcConsumerRegistration registration : registrations) {
+                    events.computeIfAbsent(registration, key -> new HashMap<>())
+                        .put(subscriptionHandle.getPlcFieldName(), value);
+                }
+            }
+            events.forEach((registration, values) -> {
+                final Consumer<PlcSubscriptionEvent> consumer = consumers.get(registration);
+                if (consumer == null) {
+                    return;
+                }
+                try {
+                    consumer.accept(new DefaultPlcSubscriptionEvent(timestamp, values));
+                } catch (RuntimeException e) {
+                    LOGGER.error("Error dispatching device notification", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * @param fileTime Windows FILETIME (100ns intervals since 1601-01-01 UTC) as used in the stamp headers.
+     * @return the same point in time as Instant.
+     */
+    protected static Instant getInstant(BigInteger fileTime) {
+        long ticks = fileTime.longValue();
+        return Instant.ofEpochSecond((ticks / 10_000_000L) - FILETIME_EPOCH_OFFSET_SECONDS,
+            (ticks % 10_000_000L) * 100);
+    }
+
     protected CompletableFuture<List<DirectAdsField>> getDirectAddresses(List<PlcField> fields) {
         CompletableFuture<List<DirectAdsField>> future = new CompletableFuture<>();
 
-        // Get all symbolic fields from the current request.
-        // These potentially need to be resolved to direct addresses, if this has not been done before.
-        final List<SymbolicAdsField> referencedSymbolicFields = fields.stream()
-            .filter(plcField -> plcField instanceof SymbolicAdsField)
-            .map(plcField -> (SymbolicAdsField) plcField).collect(Collectors.toList());
+        // Direct addresses of all symbolic fields of this request. These are collected here and not looked up in the
+        // cache again later on, as parallel requests might evict them from the cache in the meantime. Handles are
+        // referenced as soon as they are added to this, so they aren't released while this request still uses them.
+        final Map<SymbolicAdsField, DirectAdsField> resolvedFields = Collections.synchronizedMap(new HashMap<>());
+        // Symbolic fields of this request, which still need to be resolved to direct addresses.
+        final List<SymbolicAdsField> symbolicFieldsNeedingResolution = new ArrayList<>();
+        final AdsSymbolTable currentSymbolTable = symbolTable;
+        for (PlcField plcField : fields) {
+            if (!(plcField instanceof SymbolicAdsField)) {
+                continue;
+            }
+            SymbolicAdsField symbolicAdsField = (SymbolicAdsField) plcField;
+            if (resolvedFields.containsKey(symbolicAdsField) ||
+                symbolicFieldsNeedingResolution.contains(symbolicAdsField)) {
+                continue;
+            }
+            DirectAdsField directAdsField = null;
+            // Symbols contained in the symbol table can be addressed directly, without acquiring a handle.
+            // As there's no handle to release, these don't take up any space in the handle cache.
+            if (currentSymbolTable != null) {
+                AdsSymbolTable.AdsSymbol symbol = currentSymbolTable.getSymbol(symbolicAdsField.getSymbolicField());
+                if (symbol != null) {
+                    directAdsField = new DirectAdsField(symbol.getIndexGroup(), symbol.getIndexOffset(),
+                        symbolicAdsField.getAdsDataType(), symbolicAdsField.getNumberOfElements());
+                }
+            }
+            if (directAdsField == null) {
+                directAdsField = handleCache.acquire(symbolicAdsField);
+            }
+            if (directAdsField != null) {
+                resolvedFields.put(symbolicAdsField, directAdsField);
+            } else {
+                symbolicFieldsNeedingResolution.add(symbolicAdsField);
+            }
+        }
 
-        // Find out for which of these symbolic addresses no resolution has been initiated.
-        final List<SymbolicAdsField> symbolicFieldsNeedingResolution = referencedSymbolicFields.stream()
-            .filter(symbolicAdsField -> !symbolicFieldMapping.containsKey(symbolicAdsField))
-            .collect(Collectors.toList());
+        // If all fields were resolved, we can continue instantly.
+        if (symbolicFieldsNeedingResolution.isEmpty()) {
+            future.complete(toDirectAddresses(fields, resolvedFields));
+            return future;
+        }
 
-        // If there are unresolved symbolic addresses, initiate the resolution
-        if (!symbolicFieldsNeedingResolution.isEmpty()) {
+        // Resolutions can't be completed while this request starts waiting for them, so it's able to reference the
+        // handles before the resolution releases its own references to them.
+        final List<CompletableFuture<Void>> resolutionFutures = new ArrayList<>();
+        synchronized (resolutionLock) {
             // Get a list of symbolic addresses for which no resolution request has been sent yet
             // (A parallel request initiated a bit earlier might have already initiated a resolution
             // which has not yet been completed)
@@ -534,93 +1087,157 @@ public class AdsProtocolLogic extends Plc4xProtocolBase<AmsTCPPacket> implements
                     !pendingResolutionRequests.containsKey(symbolicAdsField)).collect(Collectors.toList());
             // If there are fields for which no resolution request has been sent yet,
             // send a request.
-            if (!requiredResolutionFields.isEmpty()) {
-                CompletableFuture<Void> resolutionFuture;
-                // Create a future which will be completed as soon as the
-                // resolution result has been added to the map.
-                if (requiredResolutionFields.size() == 1) {
-                    SymbolicAdsField symbolicAdsField = requiredResolutionFields.get(0);
-                    resolutionFuture = resolveSingleSymbolicAddress(requiredResolutionFields.get(0));
-                    pendingResolutionRequests.put(symbolicAdsField, resolutionFuture);
-                } else {
-                    resolutionFuture = resolveMultipleSymbolicAddresses(requiredResolutionFields);
-                    for (SymbolicAdsField symbolicAdsField : requiredResolutionFields) {
-                        pendingResolutionRequests.put(symbolicAdsField, resolutionFuture);
-                    }
+            if (requiredResolutionFields.size() == 1) {
+                SymbolicAdsField symbolicAdsField = requiredResolutionFields.get(0);
+                addPendingResolutionRequest(symbolicAdsField, resolveSingleSymbolicAddress(symbolicAdsField));
+            } else if (!requiredResolutionFields.isEmpty()) {
+                CompletableFuture<Map<SymbolicAdsField, DirectAdsField>> resolutionFuture =
+                    resolveMultipleSymbolicAddresses(requiredResolutionFields);
+                for (SymbolicAdsField symbolicAdsField : requiredResolutionFields) {
+                    addPendingResolutionRequest(symbolicAdsField,
+                        resolutionFuture.thenApply(directAdsFields -> directAdsFields.get(symbolicAdsField)));
                 }
             }
 
-            // Create a global future which is completed as soon as all sub-futures for this request are completed.
-            final CompletableFuture<Void> resolutionComplete =
-                CompletableFuture.allOf(symbolicFieldsNeedingResolution.stream()
-                    .map(symbolicAdsField -> pendingResolutionRequests.get(symbolicAdsField))
-                    .toArray(CompletableFuture[]::new));
-
-            // Complete the future asynchronously as soon as all fields are resolved.
-            resolutionComplete.handleAsync((unused, throwable) -> {
-                return future.complete(fields.stream().map(plcField -> {
-                    if (plcField instanceof SymbolicAdsField) {
-                        return symbolicFieldMapping.get(plcField);
-                    } else {
-                        return (DirectAdsField) plcField;
-                    }
-                }).collect(Collectors.toList()));
-            });
-        } else {
-            // If all fields were resolved, we can continue instantly.
-            future.complete(fields.stream().map(plcField -> {
-                if (plcField instanceof SymbolicAdsField) {
-                    return symbolicFieldMapping.get(plcField);
+            // Wait for the resolutions of all symbols of this request.
+            for (SymbolicAdsField symbolicAdsField : symbolicFieldsNeedingResolution) {
+                CompletableFuture<DirectAdsField> resolutionFuture = pendingResolutionRequests.get(symbolicAdsField);
+                if ((resolutionFuture != null) && !resolutionFuture.isDone()) {
+                    resolutionFutures.add(resolutionFuture.thenAccept(directAdsField -> {
+                        if (directAdsField != null) {
+                            handleCache.retain(directAdsField);
+                        }
+                        resolvedFields.put(symbolicAdsField, directAdsField);
+                    }));
                 } else {
-                    return (DirectAdsField) plcField;
+                    // The resolution has been completed in the meantime.
+                    resolvedFields.put(symbolicAdsField, handleCache.acquire(symbolicAdsField));
                 }
-            }).collect(Collectors.toList()));
+            }
         }
+        final CompletableFuture<Void> resolutionComplete =
+            CompletableFuture.allOf(resolutionFutures.toArray(new CompletableFuture[0]));
+
+        // Complete the future asynchronously as soon as all fields are resolved.
+        resolutionComplete.handleAsync((unused, throwable) -> {
+            if (throwable != null) {
+                releaseDirectAddresses(new ArrayList<>(resolvedFields.values()));
+                return future.completeExceptionally(throwable);
+            }
+            return future.complete(toDirectAddresses(fields, resolvedFields));
+        });
         return future;
     }
 
-    protected CompletableFuture<Void> resolveSingleSymbolicAddress(SymbolicAdsField symbolicAdsField) {
-        CompletableFuture<Void> future = new CompletableFuture<>();
+    /**
+     * As the direct addresses are released for every symbolic field of the request, symbols used by multiple fields
+     * are referenced once more for every additional field.
+     */
+    private List<DirectAdsField> toDirectAddresses(List<PlcField> fields,
+                                                   Map<SymbolicAdsField, DirectAdsField> resolvedFields) {
+        final Set<PlcField> referencedFields = new HashSet<>();
+        return fields.stream().map(plcField -> {
+            if (plcField instanceof SymbolicAdsField) {
+                DirectAdsField directAdsField = resolvedFields.get(plcField);
+                if ((directAdsField != null) && !referencedFields.add(plcField)) {
+                    handleCache.retain(directAdsField);
+                }
+                return directAdsField;
+            } else {
+                return (DirectAdsField) plcField;
+            }
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * Releases the references a request took to the direct addresses of its symbolic fields and releases the handles
+     * of all of them, which were evicted from the cache in the meantime.
+     *
+     * @param fields          fields of the request
+     * @param directAdsFields direct addresses the fields were resolved to (as returned by getDirectAddresses)
+     */
+    protected void releaseDirectAddresses(List<PlcField> fields, List<DirectAdsField> directAdsFields) {
+        List<DirectAdsField> symbolicDirectAdsFields = new ArrayList<>(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            if ((fields.get(i) instanceof SymbolicAdsField) && (directAdsFields.get(i) != null)) {
+                symbolicDirectAdsFields.add(directAdsFields.get(i));
+            }
+        }
+        releaseDirectAddresses(symbolicDirectAdsFields);
+    }
+
+    private void releaseDirectAddresses(List<DirectAdsField> directAdsFields) {
+        List<DirectAdsField> unusedFields = handleCache.release(directAdsFields);
+        if (!unusedFields.isEmpty()) {
+            releaseHandles(unusedFields);
+        }
+    }
+
+    private void addPendingResolutionRequest(SymbolicAdsField symbolicAdsField,
+                                             CompletableFuture<DirectAdsField> resolutionFuture) {
+        pendingResolutionRequests.put(symbolicAdsField, resolutionFuture);
+        // As soon as the resolution is finished, the result is available from the cache (or failed and
+        // has to be retried by the next request referencing the symbol).
+        resolutionFuture.whenComplete((directAdsField, throwable) ->
+            pendingResolutionRequests.remove(symbolicAdsField, resolutionFuture));
+    }
+
+    /**
+     * Adds a resolved symbolic address to the cache and releases the handles of all entries evicted by this, which
+     * aren't used by any request anymore.
+     */
+    protected void cacheDirectAddress(SymbolicAdsField symbolicAdsField, DirectAdsField directAdsField) {
+        List<DirectAdsField> evictedFields = handleCache.put(symbolicAdsField, directAdsField);
+        if (!evictedFields.isEmpty()) {
+            releaseHandles(evictedFields);
+        }
+    }
+
+    protected CompletableFuture<DirectAdsField> resolveSingleSymbolicAddress(SymbolicAdsField symbolicAdsField) {
+        CompletableFuture<DirectAdsField> future = new CompletableFuture<>();
 
         AdsData adsData = new AdsReadWriteRequest(ReservedIndexGroups.ADSIGRP_SYM_HNDBYNAME.getValue(), 0,
             4, null,
             getNullByteTerminatedArray(symbolicAdsField.getSymbolicField()));
         AmsPacket amsPacket = new AmsPacket(configuration.getTargetAmsNetId(), configuration.getTargetAmsPort(),
             configuration.getSourceAmsNetId(), configuration.getSourceAmsPort(),
-            CommandId.ADS_READ_WRITE, DEFAULT_COMMAND_STATE, 0, invokeIdGenerator.getAndIncrement(), adsData);
+            CommandId.ADS_READ_WRITE, DEFAULT_COMMAND_STATE, 0, getNextInvokeId(), adsData);
         AmsTCPPacket amsTCPPacket = new AmsTCPPacket(amsPacket);
 
-        // Start a new request-transaction (Is ended in the response-handler)
-        RequestTransactionManager.RequestTransaction transaction = tm.startRequest();
-        transaction.submit(() -> context.sendRequest(amsTCPPacket)
-            .expectResponse(AmsTCPPacket.class, Duration.ofMillis(configuration.getTimeoutRequest()))
-            .onTimeout(future::completeExceptionally)
-            .onError((p, e) -> future.completeExceptionally(e))
-            .check(responseAmsPacket -> responseAmsPacket.getUserdata().getInvokeId() == amsPacket.getInvokeId())
-            .unwrap(response -> response.getUserdata().getData())
-            .check(adsDataResponse -> adsDataResponse instanceof AdsReadWriteResponse)
-            .unwrap(adsDataResponse -> (AdsReadWriteResponse) adsDataResponse)
-            .handle(responseAdsData -> {
-                ReadBuffer readBuffer = new ReadBuffer(responseAdsData.getData(), true);
-                try {
-                    // Read the handle.
-                    long handle = readBuffer.readUnsignedLong(32);
+        // A symbol which can't be resolved is completed with null, so the field is answered with INVALID_ADDRESS.
+        sendAmsRequest(amsTCPPacket, AdsReadWriteResponse.class, future::completeExceptionally, responseAdsData -> {
+            if (responseAdsData.getResult() != ReturnCode.OK) {
+                LOGGER.warn("Error resolving symbolic address {}: {}",
+                    symbolicAdsField.getSymbolicField(), responseAdsData.getResult());
+                future.complete(null);
+                return;
+            }
+            ReadBuffer readBuffer = new ReadBuffer(responseAdsData.getData(), true);
+            try {
+                // Read the handle.
+                long handle = readBuffer.readUnsignedLong(32);
 
-                    DirectAdsField directAdsField = new DirectAdsField(
-                        ReservedIndexGroups.ADSIGRP_SYM_VALBYHND.getValue(), handle,
-                        symbolicAdsField.getAdsDataType(), symbolicAdsField.getNumberOfElements());
-                    symbolicFieldMapping.put(symbolicAdsField, directAdsField);
-                    future.complete(null);
-                } catch (ParseException e) {
-                    future.completeExceptionally(e);
+                DirectAdsField directAdsField = new DirectAdsField(
+                    ReservedIndexGroups.ADSIGRP_SYM_VALBYHND.getValue(), handle,
+                    symbolicAdsField.getAdsDataType(), symbolicAdsField.getNumberOfElements());
+                // Keep the handle until all requests waiting for it referenced it themselves.
+                handleCache.retain(directAdsField);
+                cacheDirectAddress(symbolicAdsField, directAdsField);
+                synchronized (resolutionLock) {
+                    future.complete(directAdsField);
                 }
-                transaction.endRequest();
-            }));
+                releaseDirectAddresses(Collections.singletonList(directAdsField));
+            } catch (ParseException e) {
+                LOGGER.warn("Error parsing the handle of symbolic address {}", symbolicAdsField.getSymbolicField(), e);
+                future.complete(null);
+            }
+        });
         return future;
     }
 
-    protected CompletableFuture<Void> resolveMultipleSymbolicAddresses(List<SymbolicAdsField> symbolicAdsFields) {
-        CompletableFuture<Void> future = new CompletableFuture<>();
+    protected CompletableFuture<Map<SymbolicAdsField, DirectAdsField>> resolveMultipleSymbolicAddresses(
+        List<SymbolicAdsField> symbolicAdsFields) {
+        CompletableFuture<Map<SymbolicAdsField, DirectAdsField>> future = new CompletableFuture<>();
 
         // The expected response for every symbolic address is 12 bytes (8 bytes header and 4 bytes for the handle)
         long expectedResponseDataSize = symbolicAdsFields.size() * 12;
@@ -634,59 +1251,122 @@ public class AdsProtocolLogic extends Plc4xProtocolBase<AmsTCPPacket> implements
         ).toArray(AdsMultiRequestItem[]::new), addressData);
         AmsPacket amsPacket = new AmsPacket(configuration.getTargetAmsNetId(), configuration.getTargetAmsPort(),
             configuration.getSourceAmsNetId(), configuration.getSourceAmsPort(),
-            CommandId.ADS_READ_WRITE, DEFAULT_COMMAND_STATE, 0, invokeIdGenerator.getAndIncrement(), adsData);
+            CommandId.ADS_READ_WRITE, DEFAULT_COMMAND_STATE, 0, getNextInvokeId(), adsData);
         AmsTCPPacket amsTCPPacket = new AmsTCPPacket(amsPacket);
 
-        // Start a new request-transaction (Is ended in the response-handler)
-        RequestTransactionManager.RequestTransaction transaction = tm.startRequest();
-        transaction.submit(() -> context.sendRequest(amsTCPPacket)
-            .expectResponse(AmsTCPPacket.class, Duration.ofMillis(configuration.getTimeoutRequest()))
-            .onTimeout(future::completeExceptionally)
-            .onError((p, e) -> future.completeExceptionally(e))
-            .check(responseAmsPacket -> responseAmsPacket.getUserdata().getInvokeId() == amsPacket.getInvokeId())
-            .unwrap(response -> response.getUserdata().getData())
-            .check(adsDataResponse -> adsDataResponse instanceof AdsReadWriteResponse)
-            .unwrap(adsDataResponse -> (AdsReadWriteResponse) adsDataResponse)
-            .handle(responseAdsData -> {
-                ReadBuffer readBuffer = new ReadBuffer(responseAdsData.getData(), true);
-                Map<SymbolicAdsField, Long> returnCodes = new HashMap<>();
+        // Symbols which can't be resolved are missing in the result, so these fields are answered with INVALID_ADDRESS.
+        sendAmsRequest(amsTCPPacket, AdsReadWriteResponse.class, future::completeExceptionally, responseAdsData -> {
+            Map<SymbolicAdsField, DirectAdsField> directAdsFields = new HashMap<>();
+            if (responseAdsData.getResult() != ReturnCode.OK) {
+                LOGGER.warn("Error resolving symbolic addresses {}: {}", symbolicAdsFields, responseAdsData.getResult());
+                future.complete(directAdsFields);
+                return;
+            }
+            ReadBuffer readBuffer = new ReadBuffer(responseAdsData.getData(), true);
+            try {
                 // In the response first come the return codes and the data-lengths for each item.
-                symbolicAdsFields.forEach(symbolicAdsField -> {
-                    try {
-                        // This should be 0 in the success case.
-                        long returnCode = readBuffer.readUnsignedLong(32);
-                        // This is always 4
-                        long itemLength = readBuffer.readUnsignedLong(32);
+                long[] returnCodes = new long[symbolicAdsFields.size()];
+                long[] itemLengths = new long[symbolicAdsFields.size()];
+                for (int i = 0; i < symbolicAdsFields.size(); i++) {
+                    returnCodes[i] = readBuffer.readUnsignedLong(32);
+                    itemLengths[i] = readBuffer.readUnsignedLong(32);
+                }
+                // After reading the header-information, comes the data itself.
+                for (int i = 0; i < symbolicAdsFields.size(); i++) {
+                    SymbolicAdsField symbolicAdsField = symbolicAdsFields.get(i);
+                    long remainingLength = itemLengths[i];
+                    if (returnCodes[i] == ReturnCode.OK.getValue()) {
+                        // Read the handle.
+                        long handle = readBuffer.readUnsignedLong(32);
+                        remainingLength -= 4;
 
-                        returnCodes.put(symbolicAdsField, returnCode);
-                    } catch (ParseException e) {
-                        e.printStackTrace();
+                        DirectAdsField directAdsField = new DirectAdsField(
+                            ReservedIndexGroups.ADSIGRP_SYM_VALBYHND.getValue(), handle,
+                            symbolicAdsField.getAdsDataType(), symbolicAdsField.getNumberOfElements());
+                        // Keep the handle until all requests waiting for it referenced it themselves.
+                        handleCache.retain(directAdsField);
+                        cacheDirectAddress(symbolicAdsField, directAdsField);
+                        directAdsFields.put(symbolicAdsField, directAdsField);
+                    } else {
+                        LOGGER.warn("Error resolving symbolic address {}: {}", symbolicAdsField.getSymbolicField(),
+                            ReturnCode.valueOf(returnCodes[i]));
                     }
-                });
-                // After reading the header-information, comes the data itself.
-                symbolicAdsFields.forEach(symbolicAdsField -> {
-                    try {
-                        if (returnCodes.get(symbolicAdsField) == 0) {
-                            // Read the handle.
-                            long handle = readBuffer.readUnsignedLong(32);
-
-                            DirectAdsField directAdsField = new DirectAdsField(
-                                ReservedIndexGroups.ADSIGRP_SYM_VALBYHND.getValue(), handle,
-                                symbolicAdsField.getAdsDataType(), symbolicAdsField.getNumberOfElements());
-                            symbolicFieldMapping.put(symbolicAdsField, directAdsField);
-                        } else {
-                            // TODO: Handle the case of unsuccessful resolution ..
-                        }
-                    } catch (ParseException e) {
-                        e.printStackTrace();
+                    // Skip whatever data is left for this item.
+                    for (long j = 0; j < remainingLength; j++) {
+                        readBuffer.readUnsignedShort(8);
                     }
-                });
-                future.complete(null);
-                transaction.endRequest();
-            }));
+                }
+            } catch (ParseException e) {
+                LOGGER.warn("Error parsing the response resolving symbolic addresses {}", symbolicAdsFields, e);
+            }
+            synchronized (resolutionLock) {
+                future.complete(directAdsFields);
+            }
+            releaseDirectAddresses(new ArrayList<>(directAdsFields.values()));
+        });
+        return future;
+    }
+
+    /**
+     * Releases the handles of the given fields on the PLC. Fields which don't address a symbol by handle are ignored.
+     *
+     * @param directAdsFields fields whose handles are no longer needed
+     * @return future which is completed as soon as all handles are released.
+     */
+    protected CompletableFuture<Void> releaseHandles(List<DirectAdsField> directAdsFields) {
+        return CompletableFuture.allOf(createReleaseHandlesPackets(directAdsFields).stream()
+            .map(this::sendReleaseHandles).toArray(CompletableFuture[]::new));
+    }
+
+    private CompletableFuture<Void> sendReleaseHandles(AmsTCPPacket amsTCPPacket) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        sendAmsRequest(amsTCPPacket, AdsData.class, future::completeExceptionally, responseAdsData -> {
+            // If releasing a handle fails, there's nothing we could do about it anyway.
+            future.complete(null);
+        });
         return future;
     }
 
+    /**
+     * Creates the requests for releasing the handles of the given fields. Multiple handles are released using
+     * ADS-Sum write requests (containing at most MAX_SUM_REQUEST_ITEMS handles each).
+     */
+    protected List<AmsTCPPacket> createReleaseHandlesPackets(List<DirectAdsField> directAdsFields) {
+        final List<Long> handles = directAdsFields.stream()
+            .filter(directAdsField ->
+                directAdsField.getIndexGroup() == ReservedIndexGroups.ADSIGRP_SYM_VALBYHND.getValue())
+            .map(DirectAdsField::getIndexOffset)
+            .distinct()
+            .collect(Collectors.toList());
+        List<AmsTCPPacket> packets = new ArrayList<>();
+        for (int i = 0; i < handles.size(); i += MAX_SUM_REQUEST_ITEMS) {
+            List<Long> batch = handles.subList(i, Math.min(i + MAX_SUM_REQUEST_ITEMS, handles.size()));
+            ByteBuffer handleData = ByteBuffer.allocate(batch.size() * 4).order(ByteOrder.LITTLE_ENDIAN);
+            batch.forEach(handle -> handleData.putInt(handle.intValue()));
+
+            AdsData adsData;
+            CommandId commandId;
+            if (batch.size() == 1) {
+                adsData = new AdsWriteRequest(
+                    ReservedIndexGroups.ADSIGRP_SYM_RELEASEHND.getValue(), 0, handleData.array());
+                commandId = CommandId.ADS_WRITE;
+            } else {
+                // The response contains one return code for every handle.
+                adsData = new AdsReadWriteRequest(ReservedIndexGroups.ADSIGRP_MULTIPLE_WRITE.getValue(),
+                    batch.size(), batch.size() * 4L, batch.stream().map(handle ->
+                    new AdsMultiRequestItemWrite(ReservedIndexGroups.ADSIGRP_SYM_RELEASEHND.getValue(), 0, 4)
+                ).toArray(AdsMultiRequestItem[]::new), handleData.array());
+                commandId = CommandId.ADS_READ_WRITE;
+            }
+            AmsPacket amsPacket = new AmsPacket(configuration.getTargetAmsNetId(), configuration.getTargetAmsPort(),
+                configuration.getSourceAmsNetId(), configuration.getSourceAmsPort(),
+                commandId, DEFAULT_COMMAND_STATE, 0, getNextInvokeId(), adsData);
+            packets.add(new AmsTCPPacket(amsPacket));
+        }
+        return packets;
+    }
+
     protected byte[] getNullByteTerminatedArray(String value) {
         byte[] valueBytes = value.getBytes();
         byte[] nullTerminatedBytes = new byte[valueBytes.length + 1];
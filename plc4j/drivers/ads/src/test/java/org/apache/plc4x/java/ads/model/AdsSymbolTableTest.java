@@ -0,0 +1,104 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.ads.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdsSymbolTableTest {
+
+    @Test
+    public void parseSymbolTable() {
+        byte[] data = symbolTable(
+            symbol("MAIN.bTest", 0x4020, 0x10, 1, "BOOL", "Some comment"),
+            symbol("GVL.nCounter", 0x4040, 0x20, 4, "DINT", ""));
+
+        AdsSymbolTable symbolTable = AdsSymbolTable.parse(1, 2, data.length, data);
+
+        assertEquals(2, symbolTable.getNumberOfSymbols());
+        AdsSymbolTable.AdsSymbol symbol = symbolTable.getSymbol("main.btest");
+        assertNotNull(symbol);
+        assertEquals("MAIN.bTest", symbol.getName());
+        assertEquals(0x4020, symbol.getIndexGroup());
+        assertEquals(0x10, symbol.getIndexOffset());
+        assertEquals(1, symbol.getSize());
+        assertEquals("BOOL", symbol.getDataTypeName());
+        assertEquals(0x4040, symbolTable.getSymbol("GVL.nCounter").getIndexGroup());
+        assertNull(symbolTable.getSymbol("GVL.nUnknown"));
+    }
+
+    @Test
+    public void saveAndLoadSymbolTable() throws Exception {
+        byte[] data = symbolTable(symbol("MAIN.fValue", 0x4020, 0x08, 8, "LREAL", ""));
+        AdsSymbolTable symbolTable = AdsSymbolTable.parse(3, 1, data.length, data);
+
+        File file = Files.createTempFile("ads", ".symbols").toFile();
+        try {
+            symbolTable.save(file);
+            AdsSymbolTable loaded = AdsSymbolTable.load(file);
+
+            assertNotNull(loaded);
+            assertTrue(loaded.isValidFor(3, 1, data.length));
+            assertFalse(loaded.isValidFor(4, 1, data.length));
+            assertEquals(0x08, loaded.getSymbol("MAIN.fValue").getIndexOffset());
+            assertEquals("LREAL", loaded.getSymbol("MAIN.fValue").getDataTypeName());
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    private static byte[] symbolTable(byte[]... entries) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] entry : entries) {
+            out.write(entry, 0, entry.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] symbol(String name, long indexGroup, long indexOffset, long size, String type, String comment) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.US_ASCII);
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        byte[] commentBytes = comment.getBytes(StandardCharsets.US_ASCII);
+        // The PLC pads the entries, so add some bytes at the end.
+        int length = 30 + nameBytes.length + typeBytes.length + commentBytes.length + 3 + 4;
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(length);
+        buffer.putInt((int) indexGroup);
+        buffer.putInt((int) indexOffset);
+        buffer.putInt((int) size);
+        buffer.putInt(0);
+        buffer.putInt(0);
+        buffer.putShort((short) nameBytes.length);
+        buffer.putShort((short) typeBytes.length);
+        buffer.putShort((short) commentBytes.length);
+        buffer.put(nameBytes).put((byte) 0);
+        buffer.put(typeBytes).put((byte) 0);
+        buffer.put(commentBytes).put((byte) 0);
+        return buffer.array();
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.ads.protocol;
+
+import org.apache.plc4x.java.ads.field.DirectAdsField;
+import org.apache.plc4x.java.ads.field.SymbolicAdsField;
+import org.apache.plc4x.java.ads.readwrite.types.AdsDataType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdsHandleCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    public void leastRecentlyUsedEntriesAreEvicted() {
+        AdsHandleCache cache = new AdsHandleCache(2, 0, now::get);
+        cache.put(symbol("MAIN.a"), handle(1));
+        cache.put(symbol("MAIN.b"), handle(2));
+        // Use "a", so "b" is the least recently used entry.
+        assertEquals(handle(1), cache.get(symbol("MAIN.a")));
+
+        List<DirectAdsField> evicted = cache.put(symbol("MAIN.c"), handle(3));
+
+        assertEquals(Collections.singletonList(handle(2)), evicted);
+        assertNull(cache.get(symbol("MAIN.b")));
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    public void idleEntriesAreEvicted() {
+        AdsHandleCache cache = new AdsHandleCache(0, 1000, now::get);
+        cache.put(symbol("MAIN.a"), handle(1));
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+        cache.put(symbol("MAIN.b"), handle(2));
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+
+        assertEquals(Collections.singletonList(handle(1)), cache.evictIdle());
+        assertEquals(1, cache.getSize());
+        assertEquals(Collections.singletonList(handle(2)), cache.clear());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void referencedEntriesAreReturnedWithTheirLastReference() {
+        AdsHandleCache cache = new AdsHandleCache(1, 0, now::get);
+        cache.put(symbol("MAIN.a"), handle(1));
+        assertEquals(handle(1), cache.acquire(symbol("MAIN.a")));
+        cache.retain(handle(1));
+
+        // The handle is still used, so it must not be released yet.
+        assertTrue(cache.put(symbol("MAIN.b"), handle(2)).isEmpty());
+        assertNull(cache.get(symbol("MAIN.a")));
+
+        assertTrue(cache.release(Collections.singletonList(handle(1))).isEmpty());
+        assertEquals(Collections.singletonList(handle(1)), cache.release(Collections.singletonList(handle(1))));
+        // Releasing entries which still are in the cache doesn't remove them.
+        cache.retain(handle(2));
+        assertTrue(cache.release(Collections.singletonList(handle(2))).isEmpty());
+        assertEquals(handle(2), cache.get(symbol("MAIN.b")));
+    }
+
+    @Test
+    public void clearReturnsReferencedEntries() {
+        AdsHandleCache cache = new AdsHandleCache(1, 0, now::get);
+        cache.put(symbol("MAIN.a"), handle(1));
+        cache.acquire(symbol("MAIN.a"));
+        cache.put(symbol("MAIN.b"), handle(2));
+
+        assertEquals(Arrays.asList(handle(2), handle(1)), cache.clear());
+        // All references are forgotten with the entries.
+        assertTrue(cache.release(Collections.singletonList(handle(1))).isEmpty());
+    }
+
+    private static SymbolicAdsField symbol(String name) {
+        return SymbolicAdsField.of(name + ":DINT");
+    }
+
+    private static DirectAdsField handle(long handle) {
+        return new DirectAdsField(0xF005, handle, AdsDataType.DINT, 1);
+    }
+
+}
@@ -0,0 +1,190 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.ads.protocol;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultEventLoop;
+import io.netty.channel.local.LocalChannel;
+import org.apache.plc4x.java.ads.configuration.AdsConfiguration;
+import org.apache.plc4x.java.ads.field.AdsFieldHandler;
+import org.apache.plc4x.java.ads.readwrite.*;
+import org.apache.plc4x.java.ads.readwrite.types.ReservedIndexGroups;
+import org.apache.plc4x.java.ads.readwrite.types.ReturnCode;
+import org.apache.plc4x.java.api.messages.PlcReadResponse;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.spi.Plc4xNettyWrapper;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdsProtocolLogicTest {
+
+    private static final State RESPONSE_STATE = new State(false, false, false, false, false, true, false, true, false);
+
+    private DefaultEventLoop eventLoop;
+    private LocalChannel channel;
+    private BlockingQueue<AmsTCPPacket> sent;
+    private AdsConfiguration configuration;
+    private AdsProtocolLogic logic;
+
+    @BeforeEach
+    public void setUp() {
+        // The requests are sent from the threads of the request-transaction manager, so the pipeline
+        // needs an event loop of its own.
+        eventLoop = new DefaultEventLoop();
+        channel = new LocalChannel();
+        eventLoop.register(channel).syncUninterruptibly();
+        sent = new LinkedBlockingQueue<>();
+        channel.pipeline().addLast(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                sent.add((AmsTCPPacket) msg);
+                promise.setSuccess();
+            }
+        });
+
+        configuration = new AdsConfiguration();
+        configuration.setTimeoutRequest(1000);
+        configuration.setMaxInFlight(4);
+        configuration.setHandleCacheSize(100);
+        configuration.setHandleCacheIdleTimeout(600000);
+        logic = new AdsProtocolLogic();
+        logic.setConfiguration(configuration);
+        channel.pipeline().addLast(new Plc4xNettyWrapper<>(channel.pipeline(), false, logic, AmsTCPPacket.class));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        eventLoop.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void unresolvableSymbolsAreInvalidAddresses() throws Exception {
+        CompletableFuture<PlcReadResponse> future = logic.read(
+            new DefaultPlcReadRequest.Builder(null, new AdsFieldHandler())
+                .addItem("a", "MAIN.a:BOOL")
+                .addItem("b", "MAIN.missing:BOOL")
+                .build());
+
+        // Both symbols are resolved with one sum-request, only the first one exists.
+        AmsTCPPacket resolutionRequest = sent.poll(1, TimeUnit.SECONDS);
+        assertNotNull(resolutionRequest);
+        byte[] resolutionData = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(0).putInt(4)
+            .putInt((int) ReturnCode.ADSERR_DEVICE_SYMBOLNOTFOUND.getValue()).putInt(0)
+            .putInt(0x1234)
+            .array();
+        receive(response(resolutionRequest, new AdsReadWriteResponse(ReturnCode.OK, resolutionData)));
+
+        // Only the resolved symbol is read.
+        AmsTCPPacket readRequest = sent.poll(1, TimeUnit.SECONDS);
+        assertNotNull(readRequest);
+        AdsReadRequest adsReadRequest = (AdsReadRequest) readRequest.getUserdata().getData();
+        assertEquals(0x1234, adsReadRequest.getIndexOffset());
+        receive(response(readRequest, new AdsReadResponse(ReturnCode.OK, new byte[] {0x01})));
+
+        PlcReadResponse readResponse = future.get(1, TimeUnit.SECONDS);
+        assertEquals(PlcResponseCode.OK, readResponse.getResponseCode("a"));
+        assertEquals(PlcResponseCode.INVALID_ADDRESS, readResponse.getResponseCode("b"));
+    }
+
+    @Test
+    public void errorReturnCodesAreMappedToResponseCodes() throws Exception {
+        CompletableFuture<PlcReadResponse> future = logic.read(
+            new DefaultPlcReadRequest.Builder(null, new AdsFieldHandler())
+                .addItem("a", "0x4020/0:BOOL")
+                .build());
+
+        AmsTCPPacket readRequest = sent.poll(1, TimeUnit.SECONDS);
+        assertNotNull(readRequest);
+        receive(response(readRequest,
+            new AdsReadResponse(ReturnCode.ADSERR_DEVICE_INVALIDOFFSET, new byte[0])));
+
+        assertEquals(PlcResponseCode.INVALID_ADDRESS, future.get(1, TimeUnit.SECONDS).getResponseCode("a"));
+        assertEquals(PlcResponseCode.ACCESS_DENIED,
+            AdsProtocolLogic.parsePlcResponseCode(ReturnCode.ADSERR_DEVICE_ACCESSDENIED));
+        assertEquals(PlcResponseCode.REMOTE_BUSY, AdsProtocolLogic.parsePlcResponseCode(ReturnCode.ADSERR_DEVICE_BUSY));
+        assertEquals(PlcResponseCode.REMOTE_ERROR, AdsProtocolLogic.parsePlcResponseCode(ReturnCode.RTERR_INTERNAL));
+    }
+
+    @Test
+    public void evictedHandlesAreReleasedAfterTheRequestsUsingThem() throws Exception {
+        configuration.setHandleCacheSize(1);
+        logic.setConfiguration(configuration);
+        CompletableFuture<PlcReadResponse> future = logic.read(
+            new DefaultPlcReadRequest.Builder(null, new AdsFieldHandler())
+                .addItem("a", "MAIN.a:BOOL")
+                .addItem("b", "MAIN.b:BOOL")
+                .build());
+
+        AmsTCPPacket resolutionRequest = sent.poll(1, TimeUnit.SECONDS);
+        assertNotNull(resolutionRequest);
+        byte[] resolutionData = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(0).putInt(4)
+            .putInt(0).putInt(4)
+            .putInt(0x11)
+            .putInt(0x12)
+            .array();
+        receive(response(resolutionRequest, new AdsReadWriteResponse(ReturnCode.OK, resolutionData)));
+
+        // Caching the second handle evicts the first one, but it's only released after it was read.
+        AmsTCPPacket readRequest = sent.poll(1, TimeUnit.SECONDS);
+        assertNotNull(readRequest);
+        assertEquals(ReservedIndexGroups.ADSIGRP_MULTIPLE_READ.getValue(),
+            ((AdsReadWriteRequest) readRequest.getUserdata().getData()).getIndexGroup());
+        assertNull(sent.poll(100, TimeUnit.MILLISECONDS));
+        byte[] readData = ByteBuffer.allocate(10).order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(0).putInt(0).put((byte) 1).put((byte) 0)
+            .array();
+        receive(response(readRequest, new AdsReadWriteResponse(ReturnCode.OK, readData)));
+        assertEquals(PlcResponseCode.OK, future.get(1, TimeUnit.SECONDS).getResponseCode("a"));
+
+        AmsTCPPacket releaseRequest = sent.poll(1, TimeUnit.SECONDS);
+        assertNotNull(releaseRequest);
+        AdsWriteRequest adsWriteRequest = (AdsWriteRequest) releaseRequest.getUserdata().getData();
+        assertEquals(ReservedIndexGroups.ADSIGRP_SYM_RELEASEHND.getValue(), adsWriteRequest.getIndexGroup());
+        assertArrayEquals(new byte[] {0x11, 0, 0, 0}, adsWriteRequest.getData());
+        // The second handle is still cached.
+        assertEquals(1, logic.getHandleCache().getSize());
+    }
+
+    private void receive(AmsTCPPacket response) throws Exception {
+        eventLoop.submit(() -> channel.pipeline().fireChannelRead(response)).get(1, TimeUnit.SECONDS);
+    }
+
+    private static AmsTCPPacket response(AmsTCPPacket request, AdsData data) {
+        AmsPacket amsPacket = request.getUserdata();
+        return new AmsTCPPacket(new AmsPacket(amsPacket.getSourceAmsNetId(), amsPacket.getSourceAmsPort(),
+            amsPacket.getTargetAmsNetId(), amsPacket.getTargetAmsPort(), amsPacket.getCommandId(), RESPONSE_STATE,
+            0, amsPacket.getInvokeId(), data));
+    }
+
+}
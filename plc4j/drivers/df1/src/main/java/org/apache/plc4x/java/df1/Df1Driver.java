@@ -0,0 +1,158 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.df1;
+
+import io.netty.buffer.ByteBuf;
+import org.apache.plc4x.java.df1.configuration.Df1Configuration;
+import org.apache.plc4x.java.df1.context.Df1DriverContext;
+import org.apache.plc4x.java.df1.field.Df1Field;
+import org.apache.plc4x.java.df1.field.Df1FieldHandler;
+import org.apache.plc4x.java.df1.optimizer.Df1Optimizer;
+import org.apache.plc4x.java.df1.protocol.Df1ProtocolLogic;
+import org.apache.plc4x.java.df1.readwrite.DF1Symbol;
+import org.apache.plc4x.java.df1.readwrite.io.DF1SymbolIO;
+import org.apache.plc4x.java.spi.configuration.Configuration;
+import org.apache.plc4x.java.spi.connection.GeneratedDriverBase;
+import org.apache.plc4x.java.spi.connection.ProtocolStackConfigurer;
+import org.apache.plc4x.java.spi.connection.SingleProtocolStackConfigurer;
+import org.apache.plc4x.java.spi.optimizer.BaseOptimizer;
+
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Driver for Allen-Bradley DF1 (full-duplex) on serial lines.
+ */
+public class Df1Driver extends GeneratedDriverBase<DF1Symbol> {
+
+    // Data link escape, which starts every DF1 symbol.
+    private static final short DLE = 0x10;
+    private static final short STX = 0x02;
+    private static final short ETX = 0x03;
+
+    @Override
+    public String getProtocolCode() {
+        return "df1";
+    }
+
+    @Override
+    public String getProtocolName() {
+        return "Allen-Bradley DF1";
+    }
+
+    @Override
+    protected Class<? extends Configuration> getConfigurationType() {
+        return Df1Configuration.class;
+    }
+
+    @Override
+    protected String getDefaultTransport() {
+        return "serial";
+    }
+
+    /**
+     * DF1 doesn't have a login procedure, so there is no need to wait for a login to finish.
+     * @return false
+     */
+    @Override
+    protected boolean awaitSetupComplete() {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead() {
+        return true;
+    }
+
+    @Override
+    protected BaseOptimizer getOptimizer() {
+        return new Df1Optimizer();
+    }
+
+    @Override
+    protected Df1FieldHandler getFieldHandler() {
+        return new Df1FieldHandler();
+    }
+
+    @Override
+    protected ProtocolStackConfigurer<DF1Symbol> getStackConfigurer() {
+        return SingleProtocolStackConfigurer.builder(DF1Symbol.class, DF1SymbolIO.class)
+            .withProtocol(Df1ProtocolLogic.class)
+            .withDriverContext(Df1DriverContext.class)
+            .withPacketSizeEstimator(ByteLengthEstimator.class)
+            .withCorruptPacketRemover(CorruptPackageCleaner.class)
+            .littleEndian()
+            .build();
+    }
+
+    /**
+     * Estimate the Length of a Packet.
+     * Message frames don't contain any length information, so they are delimited by the DLE ETX
+     * (which is not preceded by another DLE) followed by the two bytes of the crc.
+     */
+    public static class ByteLengthEstimator implements ToIntFunction<ByteBuf> {
+        @Override
+        public int applyAsInt(ByteBuf byteBuf) {
+            if (byteBuf.readableBytes() < 2) {
+                return -1;
+            }
+            int start = byteBuf.readerIndex();
+            // Anything not starting with a DLE is garbage, which is removed by the CorruptPackageCleaner.
+            if (byteBuf.getUnsignedByte(start) != DLE) {
+                return 1;
+            }
+            // ACK, NAK and ENQ only consist of the DLE and the symbol type.
+            if (byteBuf.getUnsignedByte(start + 1) != STX) {
+                return 2;
+            }
+            int i = 2;
+            while (i + 1 < byteBuf.readableBytes()) {
+                if (byteBuf.getUnsignedByte(start + i) == DLE) {
+                    short next = byteBuf.getUnsignedByte(start + i + 1);
+                    if (next == ETX) {
+                        // DLE ETX and crc
+                        return i + 4;
+                    } else if (next != DLE) {
+                        // A DLE which isn't escaped starts a new symbol, so this frame is incomplete.
+                        return i;
+                    }
+                    i++;
+                }
+                i++;
+            }
+            return -1;
+        }
+    }
+
+    /** Consumes all Bytes till the next DLE, which is the start of the next symbol */
+    public static class CorruptPackageCleaner implements Consumer<ByteBuf> {
+        @Override
+        public void accept(ByteBuf byteBuf) {
+            while (byteBuf.readableBytes() > 0 && byteBuf.getUnsignedByte(byteBuf.readerIndex()) != DLE) {
+                byteBuf.skipBytes(1);
+            }
+        }
+    }
+
+    @Override
+    public Df1Field prepareField(String query) {
+        return Df1Field.of(query);
+    }
+
+}
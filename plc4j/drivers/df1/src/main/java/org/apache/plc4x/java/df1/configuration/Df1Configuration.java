@@ -0,0 +1,207 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.df1.configuration;
+
+import com.fazecast.jSerialComm.SerialPort;
+import org.apache.plc4x.java.spi.configuration.Configuration;
+import org.apache.plc4x.java.spi.configuration.annotations.ConfigurationParameter;
+import org.apache.plc4x.java.spi.configuration.annotations.defaults.IntDefaultValue;
+import org.apache.plc4x.java.spi.configuration.annotations.defaults.StringDefaultValue;
+import org.apache.plc4x.java.transport.serial.SerialTransportConfiguration;
+
+/**
+ * Configuration of the DF1 driver.
+ * Per default the settings of channel 0 of a SLC 5/03 or newer in DF1 full-duplex mode are used
+ * (19200 baud, 8N1, CRC error detection).
+ */
+public class Df1Configuration implements Configuration, SerialTransportConfiguration {
+
+    @ConfigurationParameter("local-addr")
+    @IntDefaultValue(0)
+    private int localAddr;
+
+    @ConfigurationParameter("remote-addr")
+    @IntDefaultValue(1)
+    private int remoteAddr;
+
+    @ConfigurationParameter("baud-rate")
+    @IntDefaultValue(19200)
+    private int baudRate;
+
+    @ConfigurationParameter("data-bits")
+    @IntDefaultValue(8)
+    private int dataBits;
+
+    @ConfigurationParameter("stop-bits")
+    @IntDefaultValue(1)
+    private int stopBits;
+
+    // One of: "NONE", "ODD" or "EVEN"
+    @ConfigurationParameter("parity")
+    @StringDefaultValue("NONE")
+    private String parity;
+
+    // Time (in ms) to wait for the response to a command.
+    @ConfigurationParameter("request-timeout")
+    @IntDefaultValue(2000)
+    private int requestTimeout;
+
+    // Time (in ms) to wait for the link layer ACK of a frame, before an ENQ asks for it.
+    @ConfigurationParameter("ack-timeout")
+    @IntDefaultValue(1000)
+    private int ackTimeout;
+
+    // Number of times a frame is sent again after a NAK or an ENQ is sent after an ACK timeout, before the
+    // command fails.
+    @ConfigurationParameter("max-retries")
+    @IntDefaultValue(3)
+    private int maxRetries;
+
+    // Number of commands, which may be waiting for their responses at the same time.
+    @ConfigurationParameter("max-in-flight")
+    @IntDefaultValue(4)
+    private int maxInFlight;
+
+    // Maximum number of data bytes to read with one protected typed logical read.
+    @ConfigurationParameter("max-reply-size")
+    @IntDefaultValue(236)
+    private int maxReplySize;
+
+    public int getLocalAddr() {
+        return localAddr;
+    }
+
+    public void setLocalAddr(int localAddr) {
+        this.localAddr = localAddr;
+    }
+
+    public int getRemoteAddr() {
+        return remoteAddr;
+    }
+
+    public void setRemoteAddr(int remoteAddr) {
+        this.remoteAddr = remoteAddr;
+    }
+
+    @Override
+    public int getBaudRate() {
+        return baudRate;
+    }
+
+    public void setBaudRate(int baudRate) {
+        this.baudRate = baudRate;
+    }
+
+    public int getDataBits() {
+        return dataBits;
+    }
+
+    public void setDataBits(int dataBits) {
+        this.dataBits = dataBits;
+    }
+
+    public int getStopBits() {
+        return stopBits;
+    }
+
+    public void setStopBits(int stopBits) {
+        this.stopBits = stopBits;
+    }
+
+    public String getParity() {
+        return parity;
+    }
+
+    public void setParity(String parity) {
+        this.parity = parity;
+    }
+
+    public int getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(int requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public int getAckTimeout() {
+        return ackTimeout;
+    }
+
+    public void setAckTimeout(int ackTimeout) {
+        this.ackTimeout = ackTimeout;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getMaxReplySize() {
+        return maxReplySize;
+    }
+
+    public void setMaxReplySize(int maxReplySize) {
+        this.maxReplySize = maxReplySize;
+    }
+
+    @Override
+    public int getNumDataBits() {
+        return dataBits;
+    }
+
+    @Override
+    public int getNumStopBits() {
+        return (stopBits == 2) ? SerialPort.TWO_STOP_BITS : SerialPort.ONE_STOP_BIT;
+    }
+
+    @Override
+    public int getParityBits() {
+        if ("ODD".equalsIgnoreCase(parity)) {
+            return SerialPort.ODD_PARITY;
+        } else if ("EVEN".equalsIgnoreCase(parity)) {
+            return SerialPort.EVEN_PARITY;
+        }
+        return SerialPort.NO_PARITY;
+    }
+
+    @Override
+    public String toString() {
+        return "Configuration{" +
+            "local-addr=" + localAddr +
+            ", remote-addr=" + remoteAddr +
+            ", baud-rate=" + baudRate +
+            ", data-bits=" + dataBits +
+            ", stop-bits=" + stopBits +
+            ", parity=" + parity +
+            '}';
+    }
+
+}
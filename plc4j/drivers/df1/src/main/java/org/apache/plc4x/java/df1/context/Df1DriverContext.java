@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.plc4x.java.df1.context;
+
+import org.apache.plc4x.java.df1.configuration.Df1Configuration;
+import org.apache.plc4x.java.spi.configuration.HasConfiguration;
+import org.apache.plc4x.java.spi.context.DriverContext;
+
+public class Df1DriverContext implements DriverContext, HasConfiguration<Df1Configuration> {
+
+    // Largest data payload a SLC 5/03 (or newer) returns for one protected typed logical read.
+    public static final int MAX_REPLY_SIZE = 236;
+
+    private int maxReplySize = MAX_REPLY_SIZE;
+
+    @Override
+    public void setConfiguration(Df1Configuration configuration) {
+        // Some devices (e.g. the MicroLogix 1000) support less than this, but none support more.
+        this.maxReplySize = Math.max(2, Math.min(configuration.getMaxReplySize(), MAX_REPLY_SIZE));
+    }
+
+    /**
+     * @return maximum number of bytes to read with one single protected typed logical read.
+     */
+    public int getMaxReplySize() {
+        return maxReplySize;
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.plc4x.java.df1.field;
+
+import org.apache.plc4x.java.api.exceptions.PlcInvalidFieldException;
+import org.apache.plc4x.java.api.model.PlcField;
+import org.apache.plc4x.java.df1.types.Df1FileType;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Logical address of a data file element of a SLC / MicroLogix controller.
+ * Examples: "N7:0", "N7:10[5]" (5 integers starting at element 10), "B3:2/4" (bit 4 of element 2), "F8:0".
+ */
+public class Df1Field implements PlcField {
+
+    private static final Pattern ADDRESS_PATTERN =
+        Pattern.compile("^(?<fileType>[OISBNF])(?<fileNumber>\\d{1,3}):(?<elementNumber>\\d{1,3})(/(?<bitNumber>\\d{1,2}))?(\\[(?<numElements>\\d{1,3})])?");
+
+    private static final String FILE_TYPE = "fileType";
+    private static final String FILE_NUMBER = "fileNumber";
+    private static final String ELEMENT_NUMBER = "elementNumber";
+    private static final String BIT_NUMBER = "bitNumber";
+    private static final String NUM_ELEMENTS = "numElements";
+
+    // With three address fields, every part of the address is transferred as one byte (0xFF is reserved).
+    private static final int MAX_ADDRESS = 254;
+
+    private final Df1FileType fileType;
+    private final short fileNumber;
+    private final short elementNumber;
+    private final short bitNumber;
+    private final int numElements;
+
+    public Df1Field(Df1FileType fileType, short fileNumber, short elementNumber, short bitNumber, int numElements) {
+        this.fileType = fileType;
+        this.fileNumber = fileNumber;
+        this.elementNumber = elementNumber;
+        this.bitNumber = bitNumber;
+        this.numElements = numElements;
+    }
+
+    public Df1FileType getFileType() {
+        return fileType;
+    }
+
+    public short getFileNumber() {
+        return fileNumber;
+    }
+
+    public short getElementNumber() {
+        return elementNumber;
+    }
+
+    /**
+     * @return number of the addressed bit or -1 if the whole element is addressed
+     */
+    public short getBitNumber() {
+        return bitNumber;
+    }
+
+    public boolean isBitAddress() {
+        return bitNumber >= 0;
+    }
+
+    public int getNumElements() {
+        return numElements;
+    }
+
+    /**
+     * @return number of bytes, which have to be read for this field
+     */
+    public int getByteSize() {
+        return numElements * fileType.getElementSize();
+    }
+
+    @Override
+    public Class<?> getDefaultJavaType() {
+        if (isBitAddress()) {
+            return Boolean.class;
+        }
+        return (fileType == Df1FileType.FLOAT) ? Float.class : Short.class;
+    }
+
+    public static boolean matches(String fieldString) {
+        return ADDRESS_PATTERN.matcher(fieldString).matches();
+    }
+
+    public static Df1Field of(String fieldString) {
+        Matcher matcher = ADDRESS_PATTERN.matcher(fieldString);
+        if (!matcher.matches()) {
+            throw new PlcInvalidFieldException("Unable to parse field address: " + fieldString);
+        }
+        Df1FileType fileType = Df1FileType.ofPrefix(matcher.group(FILE_TYPE));
+        short fileNumber = Short.parseShort(matcher.group(FILE_NUMBER));
+        short elementNumber = Short.parseShort(matcher.group(ELEMENT_NUMBER));
+        short bitNumber = (matcher.group(BIT_NUMBER) != null) ? Short.parseShort(matcher.group(BIT_NUMBER)) : -1;
+        int numElements = (matcher.group(NUM_ELEMENTS) != null) ? Integer.parseInt(matcher.group(NUM_ELEMENTS)) : 1;
+        if ((fileNumber > MAX_ADDRESS) || (elementNumber > MAX_ADDRESS)) {
+            throw new PlcInvalidFieldException("File and element numbers must not be greater than " +
+                MAX_ADDRESS + ": " + fieldString);
+        }
+        if (numElements < 1) {
+            throw new PlcInvalidFieldException("At least one element has to be read: " + fieldString);
+        }
+        if (bitNumber >= 0) {
+            if (!fileType.isWordFile() || (bitNumber > 15)) {
+                throw new PlcInvalidFieldException("Bits can only be addressed in word files (0-15): " + fieldString);
+            }
+            if (numElements != 1) {
+                throw new PlcInvalidFieldException("Bit addresses can't be read as arrays: " + fieldString);
+            }
+        }
+        return new Df1Field(fileType, fileNumber, elementNumber, bitNumber, numElements);
+    }
+
+    @Override
+    public String toString() {
+        return "Df1Field{" +
+            "fileType=" + fileType +
+            ", fileNumber=" + fileNumber +
+            ", elementNumber=" + elementNumber +
+            ", bitNumber=" + bitNumber +
+            ", numElements=" + numElements +
+            '}';
+    }
+
+}
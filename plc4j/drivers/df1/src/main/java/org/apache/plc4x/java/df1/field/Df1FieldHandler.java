@@ -20,20 +20,16 @@ package org.apache.plc4x.java.df1.field;
 
 import org.apache.plc4x.java.api.exceptions.PlcInvalidFieldException;
 import org.apache.plc4x.java.api.model.PlcField;
-import org.apache.plc4x.java.api.value.PlcValue;
 import org.apache.plc4x.java.spi.connection.DefaultPlcFieldHandler;
-import org.apache.plc4x.java.df1.field.Df1Field;
 
 public class Df1FieldHandler extends DefaultPlcFieldHandler {
 
     @Override
     public PlcField createField(String fieldQuery) throws PlcInvalidFieldException {
-        return Df1Field.of(fieldQuery);
-    }
-
-    @Override
-    public PlcValue encodeByte(PlcField field, Object[] values) {
-        return super.encodeByte(field, values);
+        if (Df1Field.matches(fieldQuery)) {
+            return Df1Field.of(fieldQuery);
+        }
+        throw new PlcInvalidFieldException(fieldQuery);
     }
 
 }
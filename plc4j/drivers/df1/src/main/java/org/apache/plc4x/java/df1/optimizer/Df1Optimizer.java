@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.plc4x.java.df1.optimizer;
+
+import org.apache.plc4x.java.api.model.PlcField;
+import org.apache.plc4x.java.df1.context.Df1DriverContext;
+import org.apache.plc4x.java.df1.field.Df1Field;
+import org.apache.plc4x.java.spi.context.DriverContext;
+import org.apache.plc4x.java.spi.optimizer.RangeMergingOptimizer;
+
+import java.util.Arrays;
+
+/**
+ * Merges fields of one data file with contiguous (or overlapping) elements into one sub-request, as long as
+ * the resulting range still fits into the reply of one single protected typed logical read. The
+ * Df1ProtocolLogic then reads the range covering all fields of a sub-request and slices the result back up
+ * per field.
+ *
+ * Write requests are still processed one field at a time.
+ */
+public class Df1Optimizer extends RangeMergingOptimizer {
+
+    @Override
+    protected int getMaxRangeSize(DriverContext driverContext) {
+        if (driverContext instanceof Df1DriverContext) {
+            return ((Df1DriverContext) driverContext).getMaxReplySize();
+        }
+        return Df1DriverContext.MAX_REPLY_SIZE;
+    }
+
+    @Override
+    protected Object getArea(PlcField field) {
+        Df1Field df1Field = (Df1Field) field;
+        return Arrays.asList(df1Field.getFileType(), df1Field.getFileNumber());
+    }
+
+    /**
+     * @return offset of the first byte of the field within its data file.
+     */
+    @Override
+    protected int getStartOffset(PlcField field) {
+        Df1Field df1Field = (Df1Field) field;
+        return df1Field.getElementNumber() * df1Field.getFileType().getElementSize();
+    }
+
+    @Override
+    protected int getSize(PlcField field) {
+        return ((Df1Field) field).getByteSize();
+    }
+
+}
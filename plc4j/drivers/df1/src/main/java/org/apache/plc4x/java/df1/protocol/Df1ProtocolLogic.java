@@ -0,0 +1,496 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.df1.protocol;
+
+import org.apache.plc4x.java.api.exceptions.PlcProtocolException;
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.apache.plc4x.java.api.messages.PlcReadResponse;
+import org.apache.plc4x.java.api.model.PlcField;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.api.value.PlcBoolean;
+import org.apache.plc4x.java.api.value.PlcFloat;
+import org.apache.plc4x.java.api.value.PlcInteger;
+import org.apache.plc4x.java.api.value.PlcList;
+import org.apache.plc4x.java.api.value.PlcValue;
+import org.apache.plc4x.java.df1.configuration.Df1Configuration;
+import org.apache.plc4x.java.df1.context.Df1DriverContext;
+import org.apache.plc4x.java.df1.field.Df1Field;
+import org.apache.plc4x.java.df1.readwrite.*;
+import org.apache.plc4x.java.df1.types.Df1FileType;
+import org.apache.plc4x.java.spi.ConversationContext;
+import org.apache.plc4x.java.spi.Plc4xProtocolBase;
+import org.apache.plc4x.java.spi.configuration.HasConfiguration;
+import org.apache.plc4x.java.spi.context.DriverContext;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadResponse;
+import org.apache.plc4x.java.spi.messages.utils.ResponseItem;
+import org.apache.plc4x.java.spi.transaction.RequestTransactionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Protocol logic for DF1 full-duplex.
+ *
+ * On the link layer every message frame has to be acknowledged by the receiver with an ACK (or a NAK, if it was
+ * corrupted), before the next frame may be sent. If neither arrives, an ENQ asks the receiver to repeat its last
+ * ACK or NAK, so a frame is only sent again if the receiver actually didn't get it.
+ * As both sides may send at the same time, the responses to commands are independent of that and are matched to
+ * their commands by the transaction number (TNS), so up to max-in-flight commands can be waiting for their
+ * response at the same time.
+ *
+ * All link layer state is only accessed from the event loop of the channel.
+ */
+public class Df1ProtocolLogic extends Plc4xProtocolBase<DF1Symbol> implements HasConfiguration<Df1Configuration> {
+
+    private static final Logger logger = LoggerFactory.getLogger(Df1ProtocolLogic.class);
+
+    // Responses have the same command code as their command with this bit set.
+    private static final short RESPONSE_FLAG = 0x40;
+    // Status code, which indicates the real error code is contained in the extended status (first data byte).
+    private static final short EXTENDED_STATUS = 0xF0;
+    // The transaction number isn't escaped, so it must not contain a DLE.
+    private static final int DLE = 0x10;
+
+    private Df1Configuration configuration;
+    private Df1DriverContext df1DriverContext;
+    private RequestTransactionManager tm;
+
+    // The PLC drops commands it considers to be duplicates of the last one from the same node
+    // (same TNS), so we don't start with the same TNS every time we connect.
+    private final AtomicInteger transactionCounterGenerator =
+        new AtomicInteger(ThreadLocalRandom.current().nextInt(0x10000));
+
+    // TNS of the commands, which are still waiting for their response.
+    private final Set<Integer> transactionCountersInUse = ConcurrentHashMap.newKeySet();
+
+    // Frames waiting to be sent, the frame waiting for its ACK, how often it has been sent again
+    // and how many ENQs have been sent for it.
+    private final Deque<PendingFrame> sendQueue = new ArrayDeque<>();
+    private PendingFrame unacknowledged;
+    private int retries;
+    private int enquiries;
+    private ScheduledFuture<?> ackTimeout;
+
+    @Override
+    public void setConfiguration(Df1Configuration configuration) {
+        this.configuration = configuration;
+        this.tm = new RequestTransactionManager(Math.max(1, configuration.getMaxInFlight()));
+    }
+
+    @Override
+    public void setDriverContext(DriverContext driverContext) {
+        super.setDriverContext(driverContext);
+        this.df1DriverContext = (Df1DriverContext) driverContext;
+    }
+
+    @Override
+    public void close(ConversationContext<DF1Symbol> context) {
+        // Nothing to do here ...
+    }
+
+    @Override
+    public CompletableFuture<PlcReadResponse> read(PlcReadRequest readRequest) {
+        CompletableFuture<PlcReadResponse> future = new CompletableFuture<>();
+        DefaultPlcReadRequest request = (DefaultPlcReadRequest) readRequest;
+
+        // The Df1Optimizer has already split up the original request into sub-requests, which only contain
+        // fields of one data file which can be read with one single protected typed logical read.
+        final Df1Field firstField;
+        final int startElement;
+        final int byteSize;
+        try {
+            firstField = getFirstField(request);
+            startElement = getStartElement(request);
+            byteSize = getByteSize(request, startElement);
+        } catch (PlcRuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        final int transactionCounter = getNextTransactionCounter();
+        DF1Command command = new DF1ProtectedTypedLogicalReadRequest((short) 0, transactionCounter,
+            (short) byteSize, firstField.getFileNumber(), firstField.getFileType().getTypeCode(),
+            (short) startElement, (short) 0); // Subelementnumber default to zero
+        sendCommand(command, future::completeExceptionally, response ->
+            future.complete(decodeReadResponse(response, request, startElement)));
+        return future;
+    }
+
+    @Override
+    protected void decode(ConversationContext<DF1Symbol> context, DF1Symbol msg) throws Exception {
+        if (msg instanceof DF1SymbolMessageFrameACK) {
+            onAck();
+        } else if (msg instanceof DF1SymbolMessageFrameNAK) {
+            logger.debug("Received a NAK");
+            onNak();
+        } else if (msg instanceof DF1SymbolMessageFrameENQ) {
+            // The PLC didn't receive our ACK or NAK for the last frame it sent. As corrupt frames are already
+            // dropped by the codec, we can't tell whether we received it, so we simply ask for it again.
+            // If it has already been processed, the repeated response is ignored, as its TNS isn't pending anymore.
+            context.sendToWire(new DF1SymbolMessageFrameNAK());
+        } else if (msg instanceof DF1SymbolMessageFrame) {
+            // Every frame that got through the crc check is acknowledged right away (the responses to pending
+            // commands are taken by their response handlers, which acknowledge them themselves).
+            context.sendToWire(new DF1SymbolMessageFrameACK());
+            DF1Command command = ((DF1SymbolMessageFrame) msg).getCommand();
+            if (isResponse((DF1SymbolMessageFrame) msg)) {
+                logger.debug("Ignoring response with unknown TNS {} (probably a duplicate)",
+                    command.getTransactionCounter());
+                return;
+            }
+            super.decode(context, msg);
+        }
+    }
+
+    /**
+     * Sends a command to the PLC and passes the response to the given handler. Responses are correlated to their
+     * commands by the TNS, so up to max-in-flight commands are sent without waiting for the previous ones.
+     */
+    private void sendCommand(DF1Command command, Consumer<Throwable> errorHandler,
+                             Consumer<DF1Command> responseHandler) {
+        final int transactionCounter = command.getTransactionCounter();
+        final DF1SymbolMessageFrame frame = new DF1SymbolMessageFrame(
+            (short) configuration.getRemoteAddr(), (short) configuration.getLocalAddr(), command);
+        // Start a new request-transaction (Is ended as soon as the response arrives or the command fails)
+        RequestTransactionManager.RequestTransaction transaction = tm.startRequest();
+        transaction.submit(() -> {
+            PendingFrame pendingFrame = new PendingFrame(frame, transaction, errorHandler);
+            // The frame is sent by the link layer as soon as the previous one has been acknowledged,
+            // so the response handler is registered without sending anything.
+            pendingFrame.response = context.expectRequest(DF1Symbol.class,
+                    Duration.ofMillis(configuration.getRequestTimeout()))
+                .onTimeout(e -> pendingFrame.fail(new TimeoutException("No response for TNS " + transactionCounter)))
+                .onError((p, e) -> pendingFrame.fail(e))
+                .check(p -> p instanceof DF1SymbolMessageFrame)
+                .unwrap(p -> (DF1SymbolMessageFrame) p)
+                .check(this::isResponse)
+                .unwrap(DF1SymbolMessageFrame::getCommand)
+                .check(response -> response.getTransactionCounter() == transactionCounter)
+                .handle(response -> {
+                    context.sendToWire(new DF1SymbolMessageFrameACK());
+                    pendingFrame.finish();
+                    try {
+                        responseHandler.accept(response);
+                    } catch (RuntimeException e) {
+                        errorHandler.accept(e);
+                    }
+                });
+            context.getChannel().eventLoop().execute(() -> {
+                sendQueue.add(pendingFrame);
+                if (unacknowledged == null) {
+                    sendNextFrame();
+                }
+            });
+        });
+    }
+
+    private boolean isResponse(DF1SymbolMessageFrame frame) {
+        return (frame.getSourceAddress() == configuration.getRemoteAddr()) &&
+            ((frame.getCommand().getCommandCode() & RESPONSE_FLAG) != 0);
+    }
+
+    private void sendNextFrame() {
+        PendingFrame next;
+        do {
+            next = sendQueue.poll();
+            // Commands which already timed out while waiting don't need to be sent anymore.
+        } while ((next != null) && next.isDone());
+        unacknowledged = next;
+        retries = 0;
+        enquiries = 0;
+        if (next != null) {
+            transmit();
+        }
+    }
+
+    private void transmit() {
+        context.sendToWire(unacknowledged.frame);
+        scheduleAckTimeout();
+    }
+
+    private void scheduleAckTimeout() {
+        ackTimeout = context.getChannel().eventLoop().schedule(
+            this::onAckTimeout, configuration.getAckTimeout(), TimeUnit.MILLISECONDS);
+    }
+
+    private void onAck() {
+        if (unacknowledged == null) {
+            logger.debug("Received an ACK without waiting for one");
+            return;
+        }
+        ackTimeout.cancel(false);
+        sendNextFrame();
+    }
+
+    private void onNak() {
+        if (unacknowledged == null) {
+            return;
+        }
+        ackTimeout.cancel(false);
+        if (retries < configuration.getMaxRetries()) {
+            retries++;
+            transmit();
+            return;
+        }
+        giveUp("not acknowledged after " + retries + " retries");
+    }
+
+    private void onAckTimeout() {
+        if (unacknowledged == null) {
+            return;
+        }
+        // The ACK may just have been lost, so the PLC is asked to repeat it (or the NAK) instead of
+        // sending the frame again, which it would execute twice.
+        if (enquiries < configuration.getMaxRetries()) {
+            enquiries++;
+            context.sendToWire(new DF1SymbolMessageFrameENQ());
+            scheduleAckTimeout();
+            return;
+        }
+        giveUp("not acknowledged after " + enquiries + " enquiries");
+    }
+
+    /**
+     * Give up on the frame waiting for its ACK and continue with the next one.
+     */
+    private void giveUp(String reason) {
+        int transactionCounter = unacknowledged.frame.getCommand().getTransactionCounter();
+        if (!unacknowledged.isDone()) {
+            unacknowledged.response.cancel();
+            unacknowledged.fail(new PlcProtocolException("Frame with TNS " + transactionCounter + " " + reason));
+        }
+        sendNextFrame();
+    }
+
+    private int getNextTransactionCounter() {
+        // The TNS is transferred as uint 16, so it has to wrap around. Values that contain a DLE
+        // or which are still in use are skipped.
+        int transactionCounter;
+        do {
+            transactionCounter = transactionCounterGenerator.getAndUpdate(value -> (value + 1) & 0xFFFF);
+        } while (((transactionCounter & 0xFF) == DLE) || ((transactionCounter >> 8) == DLE) ||
+            !transactionCountersInUse.add(transactionCounter));
+        return transactionCounter;
+    }
+
+    private Df1Field getFirstField(DefaultPlcReadRequest request) {
+        List<PlcField> fields = request.getFields();
+        if (fields.isEmpty()) {
+            throw new PlcRuntimeException("The read request doesn't contain any fields");
+        }
+        Df1Field firstField = checkField(fields.get(0));
+        for (PlcField plcField : fields) {
+            Df1Field field = checkField(plcField);
+            if ((field.getFileType() != firstField.getFileType()) ||
+                (field.getFileNumber() != firstField.getFileNumber())) {
+                throw new PlcRuntimeException("Only fields of the same data file can be read in one request");
+            }
+        }
+        return firstField;
+    }
+
+    private Df1Field checkField(PlcField field) {
+        if (!(field instanceof Df1Field)) {
+            throw new PlcRuntimeException("The field should have been of type Df1Field");
+        }
+        return (Df1Field) field;
+    }
+
+    private int getStartElement(DefaultPlcReadRequest request) {
+        int startElement = Integer.MAX_VALUE;
+        for (PlcField field : request.getFields()) {
+            startElement = Math.min(startElement, ((Df1Field) field).getElementNumber());
+        }
+        return startElement;
+    }
+
+    /**
+     * @return number of bytes which have to be read to cover all fields of the request.
+     */
+    private int getByteSize(DefaultPlcReadRequest request, int startElement) {
+        int endByte = 0;
+        int elementSize = 0;
+        for (PlcField plcField : request.getFields()) {
+            Df1Field field = (Df1Field) plcField;
+            elementSize = field.getFileType().getElementSize();
+            endByte = Math.max(endByte, (field.getElementNumber() * elementSize) + field.getByteSize());
+        }
+        int byteSize = endByte - (startElement * elementSize);
+        if (byteSize > df1DriverContext.getMaxReplySize()) {
+            throw new PlcRuntimeException("The fields of the read request span more than " +
+                df1DriverContext.getMaxReplySize() + " bytes");
+        }
+        return byteSize;
+    }
+
+    /**
+     * Slice the data of one protected typed logical read back up into the values of the individual fields.
+     *
+     * @param startElement number of the first element, which was read.
+     */
+    private PlcReadResponse decodeReadResponse(DF1Command response, DefaultPlcReadRequest request, int startElement) {
+        PlcResponseCode responseCode;
+        short[] data = null;
+        if (!(response instanceof DF1ProtectedTypedLogicalReadResponse)) {
+            logger.warn("Expected a protected typed logical read response, but got {}", response);
+            responseCode = PlcResponseCode.INTERNAL_ERROR;
+        } else {
+            data = ((DF1ProtectedTypedLogicalReadResponse) response).getData();
+            responseCode = decodeResponseCode(response.getStatus(), data);
+        }
+
+        Map<String, ResponseItem<PlcValue>> values = new HashMap<>();
+        for (String fieldName : request.getFieldNames()) {
+            Df1Field field = (Df1Field) request.getField(fieldName);
+            int offset = (field.getElementNumber() - startElement) * field.getFileType().getElementSize();
+
+            PlcResponseCode fieldResponseCode = responseCode;
+            PlcValue plcValue = null;
+            if ((fieldResponseCode == PlcResponseCode.OK) && (data.length < offset + field.getByteSize())) {
+                logger.warn("Problem during decoding of field {}: Response too short; FieldInformation: {}",
+                    fieldName, field);
+                fieldResponseCode = PlcResponseCode.INTERNAL_ERROR;
+            }
+            if (fieldResponseCode == PlcResponseCode.OK) {
+                plcValue = decodeValue(field, data, offset);
+            }
+            values.put(fieldName, new ResponseItem<>(fieldResponseCode, plcValue));
+        }
+        return new DefaultPlcReadResponse(request, values);
+    }
+
+    /**
+     * Decode the value of one field starting at the given offset of the read data (All values are little endian).
+     */
+    private PlcValue decodeValue(Df1Field field, short[] data, int offset) {
+        if (field.isBitAddress()) {
+            int word = (data[offset + 1] << 8) | data[offset];
+            return new PlcBoolean((word & (1 << field.getBitNumber())) != 0);
+        }
+        int elementSize = field.getFileType().getElementSize();
+        List<PlcValue> items = new ArrayList<>(field.getNumElements());
+        for (int i = 0; i < field.getNumElements(); i++, offset += elementSize) {
+            if (field.getFileType() == Df1FileType.FLOAT) {
+                int bits = (data[offset + 3] << 24) | (data[offset + 2] << 16) | (data[offset + 1] << 8) | data[offset];
+                items.add(new PlcFloat(Float.intBitsToFloat(bits)));
+            } else {
+                items.add(new PlcInteger((int) (short) ((data[offset + 1] << 8) | data[offset])));
+            }
+        }
+        if (items.size() == 1) {
+            return items.get(0);
+        }
+        return new PlcList(items);
+    }
+
+    private PlcResponseCode decodeResponseCode(short status, short[] data) {
+        switch (status) {
+            case 0x00:
+                return PlcResponseCode.OK;
+            case 0x10:
+                // Illegal command or format
+                return PlcResponseCode.UNSUPPORTED;
+            case 0x50:
+                // Addressing problem or memory protect rungs
+                return PlcResponseCode.INVALID_ADDRESS;
+            case 0x60:
+                // Function not allowed due to command protection selection
+                return PlcResponseCode.ACCESS_DENIED;
+            case 0x70:
+            case 0x90:
+            case 0xB0:
+                // Processor in program mode, remote node can't buffer the command or is being downloaded
+                return PlcResponseCode.REMOTE_BUSY;
+            case 0x80:
+                // Compatibility mode file missing
+                return PlcResponseCode.NOT_FOUND;
+            case EXTENDED_STATUS:
+                if ((data == null) || (data.length == 0)) {
+                    return PlcResponseCode.REMOTE_ERROR;
+                }
+                switch (data[0]) {
+                    case 0x01: // A field has an illegal value
+                    case 0x02: // Less levels specified in address than minimum for any address
+                    case 0x03: // More levels specified in address than system supports
+                    case 0x04: // Symbol not found
+                    case 0x05: // Symbol is of improper format
+                    case 0x06: // Address doesn't point to something usable
+                    case 0x07: // File is wrong size
+                    case 0x09: // Data or file is too large
+                    case 0x0A: // Transaction size plus word address is too large
+                        return PlcResponseCode.INVALID_ADDRESS;
+                    case 0x0B: // Access denied, improper privilege
+                        return PlcResponseCode.ACCESS_DENIED;
+                    default:
+                        return PlcResponseCode.REMOTE_ERROR;
+                }
+            default:
+                return PlcResponseCode.REMOTE_ERROR;
+        }
+    }
+
+    /**
+     * Frame of a command waiting to be sent, for its ACK or for its response.
+     */
+    private class PendingFrame {
+
+        private final DF1SymbolMessageFrame frame;
+        private final RequestTransactionManager.RequestTransaction transaction;
+        private final Consumer<Throwable> errorHandler;
+        private ConversationContext.ContextHandler response;
+        private volatile boolean done;
+
+        private PendingFrame(DF1SymbolMessageFrame frame, RequestTransactionManager.RequestTransaction transaction,
+                             Consumer<Throwable> errorHandler) {
+            this.frame = frame;
+            this.transaction = transaction;
+            this.errorHandler = errorHandler;
+        }
+
+        private boolean isDone() {
+            return done;
+        }
+
+        private void fail(Throwable throwable) {
+            finish();
+            errorHandler.accept(throwable);
+        }
+
+        private void finish() {
+            done = true;
+            transactionCountersInUse.remove(frame.getCommand().getTransactionCounter());
+            // Finish the request-transaction.
+            transaction.endRequest();
+        }
+
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.plc4x.java.df1.types;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Data files of a SLC / MicroLogix controller, which can be read with a protected typed logical read.
+ */
+public enum Df1FileType {
+    OUTPUT("O", (short) 0x8B, 2),
+    INPUT("I", (short) 0x8C, 2),
+    STATUS("S", (short) 0x84, 2),
+    BIT("B", (short) 0x85, 2),
+    INTEGER("N", (short) 0x89, 2),
+    FLOAT("F", (short) 0x8A, 4);
+
+    private final String prefix;
+    private final short typeCode;
+    private final int elementSize;
+
+    Df1FileType(String prefix, short typeCode, int elementSize) {
+        this.prefix = prefix;
+        this.typeCode = typeCode;
+        this.elementSize = elementSize;
+    }
+
+    /**
+     * @return letter the file type is addressed with (e.g. "N" for integer files)
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public short getTypeCode() {
+        return typeCode;
+    }
+
+    /**
+     * @return number of bytes one element of this file occupies
+     */
+    public int getElementSize() {
+        return elementSize;
+    }
+
+    /**
+     * @return true if the elements of this file are 16 bit words, which allows addressing single bits
+     */
+    public boolean isWordFile() {
+        return elementSize == 2;
+    }
+
+    private static final Map<String, Df1FileType> map;
+    static {
+        map = new HashMap<>();
+        for (Df1FileType fileType : Df1FileType.values()) {
+            map.put(fileType.prefix, fileType);
+        }
+    }
+
+    public static Df1FileType ofPrefix(String prefix) {
+        return map.get(prefix);
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.plc4x.java.df1.util;
+
+import org.apache.plc4x.java.df1.readwrite.DF1Command;
+import org.apache.plc4x.java.df1.readwrite.DF1ProtectedTypedLogicalReadRequest;
+import org.apache.plc4x.java.df1.readwrite.DF1ProtectedTypedLogicalReadResponse;
+import org.apache.plc4x.java.df1.readwrite.DF1UnprotectedReadRequest;
+import org.apache.plc4x.java.df1.readwrite.DF1UnprotectedReadResponse;
+import org.apache.plc4x.java.spi.generation.ParseException;
+import org.apache.plc4x.java.spi.generation.ReadBuffer;
+import org.apache.plc4x.java.spi.generation.WriteBuffer;
+
+public class DF1Utils {
+
+    // Data link escape: Every 0x10 inside of a frame is sent twice.
+    private static final short DLE = 0x10;
+    private static final short ETX = 0x03;
+
+    private DF1Utils() {
+        // Prevent this from being instantiated.
+    }
+
+    /**
+     * Calculate the CRC-16 of a frame. It is calculated over the application layer bytes (without the duplicated
+     * DLE characters) followed by the ETX character.
+     */
+    public static int crcCheck(Object... args) {
+        short destinationAddress = (short) args[0];
+        short sourceAddress = (short) args[1];
+        DF1Command command = (DF1Command) args[2];
+        short[] payload;
+        if (command instanceof DF1UnprotectedReadRequest) {
+            DF1UnprotectedReadRequest unprotectedReadRequest = (DF1UnprotectedReadRequest) command;
+            payload = new short[]{
+                (short) (unprotectedReadRequest.getAddress() & 0xFF), (short) ((unprotectedReadRequest.getAddress() >> 8) & 0xFF),
+                unprotectedReadRequest.getSize()};
+        } else if (command instanceof DF1UnprotectedReadResponse) {
+            payload = ((DF1UnprotectedReadResponse) command).getData();
+        } else if (command instanceof DF1ProtectedTypedLogicalReadRequest) {
+            DF1ProtectedTypedLogicalReadRequest logicalReadRequest = (DF1ProtectedTypedLogicalReadRequest) command;
+            payload = new short[]{
+                DF1ProtectedTypedLogicalReadRequest.FUNCTIONCODE, logicalReadRequest.getByteSize(),
+                logicalReadRequest.getFileNumber(), logicalReadRequest.getFileType(),
+                logicalReadRequest.getElementNumber(), logicalReadRequest.getSubElementNumber()};
+        } else if (command instanceof DF1ProtectedTypedLogicalReadResponse) {
+            payload = ((DF1ProtectedTypedLogicalReadResponse) command).getData();
+        } else {
+            return 0;
+        }
+
+        try {
+            WriteBuffer writeBuffer = new WriteBuffer(7 + payload.length, true);
+            writeBuffer.writeUnsignedShort(8, destinationAddress);
+            writeBuffer.writeUnsignedShort(8, sourceAddress);
+            writeBuffer.writeUnsignedShort(8, command.getCommandCode());
+            writeBuffer.writeUnsignedShort(8, command.getStatus());
+            writeBuffer.writeUnsignedInt(16, command.getTransactionCounter());
+            for (short data : payload) {
+                writeBuffer.writeUnsignedShort(8, data);
+            }
+            writeBuffer.writeUnsignedShort(8, ETX);
+            return calculateCRC(writeBuffer.getData());
+        } catch (ParseException e) {
+            throw new RuntimeException("Something went wrong during the CRC check", e);
+        }
+    }
+
+    public static boolean dataTerminate(ReadBuffer io) {
+        try {
+            // The byte sequence 0x10 followed by 0x03 indicates the end of the message,
+            // so if we would read this, we abort the loop and stop reading data.
+            if ((io.peekByte(0) == (byte) DLE) && (io.peekByte(1) == (byte) ETX)) {
+                return true;
+            }
+        } catch (ParseException e) {
+            // Just ignore and return false.
+        }
+        return false;
+    }
+
+    public static short readData(ReadBuffer io) {
+        try {
+            // If we read a 0x10, this has to be followed by another 0x10, which is how
+            // this value is escaped in DF1, so if we encounter two 0x10, we simply ignore the first.
+            if ((io.peekByte(0) == (byte) DLE) && (io.peekByte(1) == (byte) DLE)) {
+                io.readByte(8);
+            }
+            return io.readUnsignedShort(8);
+        } catch (ParseException e) {
+            throw new RuntimeException("Error parsing data", e);
+        }
+    }
+
+    public static void writeData(WriteBuffer io, short data) {
+        try {
+            // If a value is 0x10, this has to be duplicated in order to be escaped.
+            if (data == DLE) {
+                io.writeUnsignedShort(8, DLE);
+            }
+            io.writeUnsignedShort(8, data);
+        } catch (ParseException e) {
+            throw new RuntimeException("Error parsing data", e);
+        }
+    }
+
+    public static int dataLength(short data) {
+        // If a value is 0x10, this has to be duplicated which increases the message size by one.
+        return (data == DLE) ? 2 : 1;
+    }
+
+    public static int dataLength(short[] data) {
+        int i = 0;
+        for (short dataByte : data) {
+            i += dataLength(dataByte);
+        }
+        return i;
+    }
+
+    /**
+     * CRC-16 (polynomial 0xA001, initial value 0) as used by DF1.
+     */
+    private static int calculateCRC(byte[] crcBytes) {
+        int tmp = 0;
+        int crcL, crcR;
+
+        for (byte newByte : crcBytes) {
+            crcL = tmp >> 8;
+            crcR = tmp & 0xFF;
+            tmp = (crcL << 8) + ((newByte & 0xFF) ^ crcR);
+            for (int j = 0; j < 8; j++)
+                if (tmp % 2 == 1) {     // check if LSB shifted out is 1 or 0
+                    tmp = tmp >> 1;
+                    tmp = tmp ^ 0xA001;
+                } else {
+                    tmp = tmp >> 1;
+                }
+        }
+        // The crc is transferred low byte first, which is what the little endian write buffer does.
+        return tmp & 0xFFFF;
+    }
+}
@@ -17,7 +17,7 @@
   under the License.
 */
 
-package org.apache.plc4x.protocol.df1;
+package org.apache.plc4x.java.df1;
 
 import org.apache.plc4x.test.parserserializer.ParserSerializerTestsuiteRunner;
 
@@ -0,0 +1,53 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.df1.optimizer;
+
+import org.apache.plc4x.java.df1.context.Df1DriverContext;
+import org.apache.plc4x.java.df1.field.Df1Field;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * The merging itself is covered by the RangeMergingOptimizerTest, this only checks the ranges of the DF1 fields.
+ */
+public class Df1OptimizerTest {
+
+    private final Df1Optimizer optimizer = new Df1Optimizer();
+
+    @Test
+    public void fieldsAreMergedPerDataFile() {
+        assertEquals(optimizer.getArea(Df1Field.of("N7:0")), optimizer.getArea(Df1Field.of("N7:5/3")));
+        assertNotEquals(optimizer.getArea(Df1Field.of("N7:0")), optimizer.getArea(Df1Field.of("N8:0")));
+        // Integer and float files may have the same file number.
+        assertNotEquals(optimizer.getArea(Df1Field.of("N8:0")), optimizer.getArea(Df1Field.of("F8:0")));
+    }
+
+    @Test
+    public void rangesAreMeasuredInBytes() {
+        assertEquals(6, optimizer.getStartOffset(Df1Field.of("N7:3")));
+        assertEquals(4, optimizer.getSize(Df1Field.of("N7:3[2]")));
+        assertEquals(2, optimizer.getSize(Df1Field.of("N7:3/4")));
+        assertEquals(12, optimizer.getStartOffset(Df1Field.of("F8:3")));
+        assertEquals(8, optimizer.getSize(Df1Field.of("F8:3[2]")));
+        assertEquals(Df1DriverContext.MAX_REPLY_SIZE, optimizer.getMaxRangeSize(null));
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.plc4x.java.df1.protocol;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultEventLoop;
+import io.netty.channel.local.LocalChannel;
+import org.apache.plc4x.java.api.exceptions.PlcProtocolException;
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.apache.plc4x.java.api.messages.PlcReadResponse;
+import org.apache.plc4x.java.df1.configuration.Df1Configuration;
+import org.apache.plc4x.java.df1.context.Df1DriverContext;
+import org.apache.plc4x.java.df1.field.Df1FieldHandler;
+import org.apache.plc4x.java.df1.readwrite.*;
+import org.apache.plc4x.java.spi.Plc4xNettyWrapper;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Df1ProtocolLogicTest {
+
+    private static final short LOCAL_ADDRESS = 0;
+    private static final short REMOTE_ADDRESS = 1;
+
+    private DefaultEventLoop eventLoop;
+    private LocalChannel channel;
+    // Message frames sent to the PLC
+    private BlockingQueue<DF1SymbolMessageFrame> frames;
+    // ACKs, NAKs and ENQs sent to the PLC
+    private BlockingQueue<DF1Symbol> linkSymbols;
+    private Df1ProtocolLogic logic;
+
+    @BeforeEach
+    public void setUp() {
+        // The commands are sent from the threads of the request-transaction manager, so the pipeline
+        // needs an event loop of its own.
+        eventLoop = new DefaultEventLoop();
+        channel = new LocalChannel();
+        eventLoop.register(channel).syncUninterruptibly();
+        frames = new LinkedBlockingQueue<>();
+        linkSymbols = new LinkedBlockingQueue<>();
+        channel.pipeline().addLast(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                if (msg instanceof DF1SymbolMessageFrame) {
+                    frames.add((DF1SymbolMessageFrame) msg);
+                } else {
+                    linkSymbols.add((DF1Symbol) msg);
+                }
+                promise.setSuccess();
+            }
+        });
+
+        Df1Configuration configuration = new Df1Configuration();
+        configuration.setLocalAddr(LOCAL_ADDRESS);
+        configuration.setRemoteAddr(REMOTE_ADDRESS);
+        configuration.setAckTimeout(100);
+        configuration.setMaxRetries(2);
+        configuration.setRequestTimeout(2000);
+        configuration.setMaxInFlight(4);
+        configuration.setMaxReplySize(16);
+        Df1DriverContext driverContext = new Df1DriverContext();
+        driverContext.setConfiguration(configuration);
+        logic = new Df1ProtocolLogic();
+        logic.setConfiguration(configuration);
+        logic.setDriverContext(driverContext);
+        channel.pipeline().addLast(new Plc4xNettyWrapper<>(channel.pipeline(), false, logic, DF1Symbol.class));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        eventLoop.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void frameIsSentAgainAfterANak() throws Exception {
+        CompletableFuture<PlcReadResponse> future = logic.read(readRequest("N7:0"));
+        DF1SymbolMessageFrame frame = frames.poll(1, TimeUnit.SECONDS);
+        assertNotNull(frame);
+        assertEquals(REMOTE_ADDRESS, frame.getDestinationAddress());
+        assertEquals(LOCAL_ADDRESS, frame.getSourceAddress());
+
+        receive(new DF1SymbolMessageFrameNAK());
+        assertSame(frame, frames.poll(1, TimeUnit.SECONDS));
+        receive(new DF1SymbolMessageFrameACK());
+
+        receive(response(frame, 0x2A, 0x00));
+        // Every received frame is acknowledged.
+        assertTrue(linkSymbols.poll(1, TimeUnit.SECONDS) instanceof DF1SymbolMessageFrameACK);
+        assertEquals(42, future.get(1, TimeUnit.SECONDS).getInteger("value"));
+    }
+
+    @Test
+    public void enqIsSentIfTheAckTimesOut() throws Exception {
+        CompletableFuture<PlcReadResponse> future = logic.read(readRequest("N7:0"));
+        DF1SymbolMessageFrame frame = frames.poll(1, TimeUnit.SECONDS);
+
+        // The PLC got the frame, only its ACK was lost: it is repeated after the ENQ and the frame isn't sent again.
+        assertTrue(linkSymbols.poll(1, TimeUnit.SECONDS) instanceof DF1SymbolMessageFrameENQ);
+        receive(new DF1SymbolMessageFrameACK());
+        assertNull(frames.poll(300, TimeUnit.MILLISECONDS));
+        assertNull(linkSymbols.poll());
+
+        receive(response(frame, 0x2A, 0x00));
+        assertEquals(42, future.get(1, TimeUnit.SECONDS).getInteger("value"));
+    }
+
+    @Test
+    public void frameIsSentAgainIfTheEnqIsAnsweredWithANak() throws Exception {
+        logic.read(readRequest("N7:0"));
+        DF1SymbolMessageFrame frame = frames.poll(1, TimeUnit.SECONDS);
+
+        assertTrue(linkSymbols.poll(1, TimeUnit.SECONDS) instanceof DF1SymbolMessageFrameENQ);
+        assertNull(frames.poll());
+        receive(new DF1SymbolMessageFrameNAK());
+        assertSame(frame, frames.poll(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void frameIsGivenUpIfItIsNeverAcknowledged() throws Exception {
+        CompletableFuture<PlcReadResponse> first = logic.read(readRequest("N7:0"));
+        CompletableFuture<PlcReadResponse> second = logic.read(readRequest("N7:1"));
+        DF1SymbolMessageFrame firstFrame = frames.poll(1, TimeUnit.SECONDS);
+
+        // The first frame is sent once and followed by max-retries ENQs, the second one waits for its turn.
+        assertTrue(linkSymbols.poll(1, TimeUnit.SECONDS) instanceof DF1SymbolMessageFrameENQ);
+        assertTrue(linkSymbols.poll(1, TimeUnit.SECONDS) instanceof DF1SymbolMessageFrameENQ);
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> first.get(1, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof PlcProtocolException);
+
+        // Then the link continues with the next frame.
+        DF1SymbolMessageFrame secondFrame = frames.poll(1, TimeUnit.SECONDS);
+        assertNotNull(secondFrame);
+        assertNotEquals(firstFrame.getCommand().getTransactionCounter(), secondFrame.getCommand().getTransactionCounter());
+        receive(new DF1SymbolMessageFrameACK());
+        receive(response(secondFrame, 0x07, 0x00));
+        assertEquals(7, second.get(1, TimeUnit.SECONDS).getInteger("value"));
+    }
+
+    @Test
+    public void responsesAreMatchedByTheirTransactionNumber() throws Exception {
+        CompletableFuture<PlcReadResponse> first = logic.read(readRequest("N7:0"));
+        DF1SymbolMessageFrame firstFrame = frames.poll(1, TimeUnit.SECONDS);
+        receive(new DF1SymbolMessageFrameACK());
+        CompletableFuture<PlcReadResponse> second = logic.read(readRequest("N7:1"));
+        DF1SymbolMessageFrame secondFrame = frames.poll(1, TimeUnit.SECONDS);
+        receive(new DF1SymbolMessageFrameACK());
+
+        // Both commands are in flight, the PLC answers the second one first.
+        receive(response(secondFrame, 0x02, 0x00));
+        assertEquals(2, second.get(1, TimeUnit.SECONDS).getInteger("value"));
+        assertFalse(first.isDone());
+        receive(response(firstFrame, 0x01, 0x00));
+        assertEquals(1, first.get(1, TimeUnit.SECONDS).getInteger("value"));
+    }
+
+    @Test
+    public void duplicateResponsesAreIgnored() throws Exception {
+        CompletableFuture<PlcReadResponse> first = logic.read(readRequest("N7:0"));
+        DF1SymbolMessageFrame firstFrame = frames.poll(1, TimeUnit.SECONDS);
+        receive(new DF1SymbolMessageFrameACK());
+        CompletableFuture<PlcReadResponse> second = logic.read(readRequest("N7:1"));
+        DF1SymbolMessageFrame secondFrame = frames.poll(1, TimeUnit.SECONDS);
+        receive(new DF1SymbolMessageFrameACK());
+
+        receive(response(firstFrame, 0x01, 0x00));
+        assertEquals(1, first.get(1, TimeUnit.SECONDS).getInteger("value"));
+        // The PLC didn't get our ACK and sends the response again: it is acknowledged, but not processed again.
+        linkSymbols.clear();
+        receive(response(firstFrame, 0x01, 0x00));
+        assertTrue(linkSymbols.poll(1, TimeUnit.SECONDS) instanceof DF1SymbolMessageFrameACK);
+        assertFalse(second.isDone());
+
+        receive(response(secondFrame, 0x02, 0x00));
+        assertEquals(2, second.get(1, TimeUnit.SECONDS).getInteger("value"));
+    }
+
+    @Test
+    public void readSpanningMoreThanTheMaxReplySizeFails() {
+        // 10 elements of an integer file are 20 bytes, but the PLC only replies with up to 16 bytes.
+        ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> logic.read(readRequest("N7:0[10]")).get(1, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof PlcRuntimeException);
+        assertTrue(frames.isEmpty());
+    }
+
+    @Test
+    public void enqIsAnsweredWithANak() throws Exception {
+        receive(new DF1SymbolMessageFrameENQ());
+        assertTrue(linkSymbols.poll(1, TimeUnit.SECONDS) instanceof DF1SymbolMessageFrameNAK);
+    }
+
+    /**
+     * Pass a symbol received from the PLC to the pipeline.
+     */
+    private void receive(DF1Symbol symbol) throws Exception {
+        eventLoop.submit(() -> channel.pipeline().fireChannelRead(symbol)).get(1, TimeUnit.SECONDS);
+    }
+
+    private PlcReadRequest readRequest(String address) {
+        return new DefaultPlcReadRequest.Builder(null, new Df1FieldHandler())
+            .addItem("value", address)
+            .build();
+    }
+
+    private DF1SymbolMessageFrame response(DF1SymbolMessageFrame request, int... data) {
+        short[] shortData = new short[data.length];
+        for (int i = 0; i < data.length; i++) {
+            shortData[i] = (short) data[i];
+        }
+        return new DF1SymbolMessageFrame(LOCAL_ADDRESS, REMOTE_ADDRESS,
+            new DF1ProtectedTypedLogicalReadResponse((short) 0, request.getCommand().getTransactionCounter(), shortData));
+    }
+
+}
@@ -20,15 +20,18 @@ package org.apache.plc4x.java.eip.readwrite;
 
 import io.netty.buffer.ByteBuf;
 import org.apache.plc4x.java.eip.readwrite.configuration.EIPConfiguration;
+import org.apache.plc4x.java.eip.readwrite.context.EipDriverContext;
 import org.apache.plc4x.java.eip.readwrite.field.EipField;
 import org.apache.plc4x.java.eip.readwrite.field.EipFieldHandler;
 import org.apache.plc4x.java.eip.readwrite.io.EipPacketIO;
+import org.apache.plc4x.java.eip.readwrite.optimizer.EipOptimizer;
 import org.apache.plc4x.java.eip.readwrite.protocol.EipProtocolLogic;
 import org.apache.plc4x.java.spi.configuration.Configuration;
 import org.apache.plc4x.java.spi.connection.GeneratedDriverBase;
 import org.apache.plc4x.java.spi.connection.PlcFieldHandler;
 import org.apache.plc4x.java.spi.connection.ProtocolStackConfigurer;
 import org.apache.plc4x.java.spi.connection.SingleProtocolStackConfigurer;
+import org.apache.plc4x.java.spi.optimizer.BaseOptimizer;
 
 import java.util.function.Consumer;
 import java.util.function.ToIntFunction;
@@ -70,10 +73,16 @@ public class EIPDriver extends GeneratedDriverBase<EipPacket> {
         return true;
     }
 
+    @Override
+    protected BaseOptimizer getOptimizer() {
+        return new EipOptimizer();
+    }
+
     @Override
     protected ProtocolStackConfigurer<EipPacket> getStackConfigurer() {
         return SingleProtocolStackConfigurer.builder(EipPacket.class, EipPacketIO.class)
             .withProtocol(EipProtocolLogic.class)
+            .withDriverContext(EipDriverContext.class)
             .withPacketSizeEstimator(ByteLengthEstimator.class)
             .littleEndian()
             .build();
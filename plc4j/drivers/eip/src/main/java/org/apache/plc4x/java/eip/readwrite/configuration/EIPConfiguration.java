@@ -21,6 +21,8 @@ package org.apache.plc4x.java.eip.readwrite.configuration;
 import org.apache.plc4x.java.eip.readwrite.EIPDriver;
 import org.apache.plc4x.java.spi.configuration.Configuration;
 import org.apache.plc4x.java.spi.configuration.annotations.ConfigurationParameter;
+import org.apache.plc4x.java.spi.configuration.annotations.defaults.BooleanDefaultValue;
+import org.apache.plc4x.java.spi.configuration.annotations.defaults.IntDefaultValue;
 import org.apache.plc4x.java.transport.tcp.TcpTransportConfiguration;
 
 public class EIPConfiguration implements Configuration, TcpTransportConfiguration {
@@ -31,6 +33,22 @@ public class EIPConfiguration implements Configuration, TcpTransportConfiguratio
     @ConfigurationParameter
     private int slot;
 
+    @ConfigurationParameter("connected-messaging")
+    @BooleanDefaultValue(false)
+    private boolean connectedMessaging;
+
+    @ConfigurationParameter("connection-size")
+    @IntDefaultValue(4002)
+    private int connectionSize;
+
+    @ConfigurationParameter("max-in-flight")
+    @IntDefaultValue(4)
+    private int maxInFlight;
+
+    @ConfigurationParameter("request-timeout")
+    @IntDefaultValue(10000)
+    private int requestTimeout;
+
     public int getBackplane() {
         return backplane;
     }
@@ -47,6 +65,38 @@ public class EIPConfiguration implements Configuration, TcpTransportConfiguratio
         this.slot = slot;
     }
 
+    public boolean isConnectedMessaging() {
+        return connectedMessaging;
+    }
+
+    public void setConnectedMessaging(boolean connectedMessaging) {
+        this.connectedMessaging = connectedMessaging;
+    }
+
+    public int getConnectionSize() {
+        return connectionSize;
+    }
+
+    public void setConnectionSize(int connectionSize) {
+        this.connectionSize = connectionSize;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(int requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
     @Override
     public int getDefaultPort(){return EIPDriver.PORT;}
 
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.plc4x.java.eip.readwrite.context;
+
+import org.apache.plc4x.java.eip.readwrite.configuration.EIPConfiguration;
+import org.apache.plc4x.java.spi.configuration.HasConfiguration;
+import org.apache.plc4x.java.spi.context.DriverContext;
+
+public class EipDriverContext implements DriverContext, HasConfiguration<EIPConfiguration> {
+
+    // Maximum size of a message sent through the Unconnected Message Manager (UCMM).
+    public static final int UNCONNECTED_MESSAGE_SIZE = 504;
+    // Each connected message is prefixed with the 2 byte sequence count, which counts towards the connection size.
+    public static final int SEQUENCE_COUNT_SIZE = 2;
+
+    private int maxMessageSize;
+
+    @Override
+    public void setConfiguration(EIPConfiguration configuration) {
+        // Initialize with the unconnected limit (Will be updated, if a connection is opened)
+        this.maxMessageSize = UNCONNECTED_MESSAGE_SIZE;
+    }
+
+    /**
+     * @return maximum size of a single CIP request or response in bytes.
+     */
+    public int getMaxMessageSize() {
+        return maxMessageSize;
+    }
+
+    public void setMaxMessageSize(int maxMessageSize) {
+        this.maxMessageSize = maxMessageSize;
+    }
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.plc4x.java.eip.readwrite.optimizer;
+
+import org.apache.plc4x.java.api.messages.*;
+import org.apache.plc4x.java.api.model.PlcField;
+import org.apache.plc4x.java.eip.readwrite.context.EipDriverContext;
+import org.apache.plc4x.java.eip.readwrite.field.EipField;
+import org.apache.plc4x.java.eip.readwrite.types.CIPDataTypeCode;
+import org.apache.plc4x.java.spi.context.DriverContext;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
+import org.apache.plc4x.java.spi.messages.DefaultPlcWriteRequest;
+import org.apache.plc4x.java.spi.messages.utils.FieldValueItem;
+import org.apache.plc4x.java.spi.optimizer.BaseOptimizer;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Packs the fields of a request into as few MultipleServiceRequests as possible, without the request or the
+ * response of one packet exceeding the maximum message size of the connection. The sizes are estimated from the
+ * tag path, the CIP data type and the number of elements of every field. The fields are distributed with a
+ * "first fit decreasing" strategy, the resulting sub-requests are sent concurrently by the BaseOptimizer.
+ * Fields without a data type (or of a structured type) can have any size, so every one of them gets a request
+ * of its own, which is continued with Read Tag Fragmented requests if the response doesn't fit.
+ */
+public class EipOptimizer extends BaseOptimizer {
+
+    // Service code, request path size and request path (Message Router) and the number of services.
+    public static final int MULTIPLE_SERVICE_REQUEST_SIZE = 8;
+    // Service code, reserved, status, extended status size and the number of services.
+    public static final int MULTIPLE_SERVICE_RESPONSE_SIZE = 6;
+    // Every service in a MultipleServiceRequest/Response needs an additional 2 byte offset.
+    public static final int SERVICE_OFFSET_SIZE = 2;
+    // Service code and request path size of a Read/Write Tag request.
+    public static final int TAG_REQUEST_HEADER_SIZE = 2;
+    // Service code, reserved, status and extended status size.
+    public static final int TAG_RESPONSE_HEADER_SIZE = 4;
+
+    @Override
+    protected List<PlcRequest> processReadRequest(PlcReadRequest readRequest, DriverContext driverContext) {
+        int maxMessageSize = getMaxMessageSize(driverContext);
+        List<Bin> bins = new ArrayList<>();
+        for (Item item : getItems(readRequest.getFieldNames(), readRequest::getField, true)) {
+            addToBin(bins, item, maxMessageSize);
+        }
+        if (bins.size() <= 1) {
+            return Collections.singletonList(readRequest);
+        }
+        List<PlcRequest> processedRequests = new ArrayList<>(bins.size());
+        for (Bin bin : bins) {
+            LinkedHashMap<String, PlcField> fields = new LinkedHashMap<>();
+            for (Item item : bin.items) {
+                fields.put(item.fieldName, item.field);
+            }
+            processedRequests.add(new DefaultPlcReadRequest(((DefaultPlcReadRequest) readRequest).getReader(), fields));
+        }
+        return processedRequests;
+    }
+
+    @Override
+    protected List<PlcRequest> processWriteRequest(PlcWriteRequest writeRequest, DriverContext driverContext) {
+        int maxMessageSize = getMaxMessageSize(driverContext);
+        List<Bin> bins = new ArrayList<>();
+        for (Item item : getItems(writeRequest.getFieldNames(), writeRequest::getField, false)) {
+            addToBin(bins, item, maxMessageSize);
+        }
+        if (bins.size() <= 1) {
+            return Collections.singletonList(writeRequest);
+        }
+        List<PlcRequest> processedRequests = new ArrayList<>(bins.size());
+        for (Bin bin : bins) {
+            LinkedHashMap<String, FieldValueItem> fields = new LinkedHashMap<>();
+            for (Item item : bin.items) {
+                fields.put(item.fieldName, new FieldValueItem(item.field,
+                    ((DefaultPlcWriteRequest) writeRequest).getPlcValue(item.fieldName)));
+            }
+            processedRequests.add(new DefaultPlcWriteRequest(((DefaultPlcWriteRequest) writeRequest).getWriter(), fields));
+        }
+        return processedRequests;
+    }
+
+    private int getMaxMessageSize(DriverContext driverContext) {
+        if (driverContext instanceof EipDriverContext) {
+            return ((EipDriverContext) driverContext).getMaxMessageSize();
+        }
+        return EipDriverContext.UNCONNECTED_MESSAGE_SIZE;
+    }
+
+    private List<Item> getItems(Collection<String> fieldNames, Function<String, PlcField> fields,
+                                boolean read) {
+        List<Item> items = new ArrayList<>(fieldNames.size());
+        for (String fieldName : fieldNames) {
+            EipField field = (EipField) fields.apply(fieldName);
+            int pathSize = getRequestPathSize(field.getTag());
+            int requestSize;
+            int responseSize;
+            if (read) {
+                // Request: header, path and number of elements.
+                requestSize = TAG_REQUEST_HEADER_SIZE + pathSize + 2;
+                responseSize = getReadResponseSize(field);
+            } else {
+                int dataSize = isSizeKnown(field) ? getNumberOfElements(field) * field.getType().getSize() : 0;
+                // Request: header, path, data type, number of elements and data, Response: header only.
+                requestSize = TAG_REQUEST_HEADER_SIZE + pathSize + 2 + 2 + dataSize;
+                responseSize = TAG_RESPONSE_HEADER_SIZE;
+            }
+            items.add(new Item(fieldName, field, requestSize + SERVICE_OFFSET_SIZE, responseSize + SERVICE_OFFSET_SIZE,
+                isSizeKnown(field)));
+        }
+        // Place the biggest items first, this gives a nearly optimal distribution.
+        items.sort((a, b) -> Integer.compare(b.getSize(), a.getSize()));
+        return items;
+    }
+
+    private void addToBin(List<Bin> bins, Item item, int maxMessageSize) {
+        if (item.sizeKnown) {
+            for (Bin bin : bins) {
+                if (bin.fits(item, maxMessageSize)) {
+                    bin.add(item);
+                    return;
+                }
+            }
+        }
+        // Items exceeding the maximum size on their own or of unknown size get a request of their own.
+        Bin bin = new Bin();
+        bin.add(item);
+        bins.add(bin);
+    }
+
+    /**
+     * @param field field to be read
+     * @return estimated size of the Read Tag response for this field: header, data type and data
+     * (Without the data, if the size isn't known from the data type).
+     */
+    public static int getReadResponseSize(EipField field) {
+        int dataSize = isSizeKnown(field) ? getNumberOfElements(field) * field.getType().getSize() : 0;
+        return TAG_RESPONSE_HEADER_SIZE + getDataTypeSize(field.getType()) + dataSize;
+    }
+
+    /**
+     * @param field field to be read or written
+     * @return true, if the size of the data is known from the data type. Fields without a data type and
+     * structures (UDTs) can have any size.
+     */
+    public static boolean isSizeKnown(EipField field) {
+        CIPDataTypeCode type = field.getType();
+        return (type != null) && (type != CIPDataTypeCode.STRUCTURED) && (type != CIPDataTypeCode.UNKNOWN)
+            && (type.getSize() > 0);
+    }
+
+    /**
+     * @param tag symbolic tag name (Members separated by ".", an optional array index in brackets)
+     * @return size of the request path in bytes with one ANSI extended symbolic segment per member
+     * and a member segment for the array index.
+     */
+    static int getRequestPathSize(String tag) {
+        int size = 0;
+        for (String member : tag.split("\\.")) {
+            String name = member;
+            if (member.contains("[")) {
+                name = member.substring(0, member.indexOf('['));
+                int index = Integer.parseInt(member.substring(member.indexOf('[') + 1, member.indexOf(']')));
+                // 8, 16 or 32 bit member segments
+                size += (index <= 0xFF) ? 2 : ((index <= 0xFFFF) ? 4 : 6);
+            }
+            // Segment type, length, name and a pad byte for odd length names
+            size += 2 + name.length() + (name.length() % 2);
+        }
+        return size;
+    }
+
+    private static int getNumberOfElements(EipField field) {
+        return Math.max(field.getElementNb(), 1);
+    }
+
+    private static int getDataTypeSize(CIPDataTypeCode type) {
+        // Structured types are followed by the 2 byte structure handle.
+        if ((type == null) || (type == CIPDataTypeCode.STRUCTURED) || (type == CIPDataTypeCode.STRING)
+            || (type == CIPDataTypeCode.STRING36)) {
+            return 4;
+        }
+        return 2;
+    }
+
+    private static class Item {
+        private final String fieldName;
+        private final EipField field;
+        private final int requestSize;
+        private final int responseSize;
+        private final boolean sizeKnown;
+
+        private Item(String fieldName, EipField field, int requestSize, int responseSize, boolean sizeKnown) {
+            this.fieldName = fieldName;
+            this.field = field;
+            this.requestSize = requestSize;
+            this.responseSize = responseSize;
+            this.sizeKnown = sizeKnown;
+        }
+
+        private int getSize() {
+            return Math.max(requestSize, responseSize);
+        }
+    }
+
+    private static class Bin {
+        private final List<Item> items = new ArrayList<>();
+        private int requestSize = MULTIPLE_SERVICE_REQUEST_SIZE;
+        private int responseSize = MULTIPLE_SERVICE_RESPONSE_SIZE;
+        private boolean sizeKnown = true;
+
+        private boolean fits(Item item, int maxMessageSize) {
+            return sizeKnown && ((requestSize + item.requestSize) <= maxMessageSize) &&
+                ((responseSize + item.responseSize) <= maxMessageSize);
+        }
+
+        private void add(Item item) {
+            items.add(item);
+            sizeKnown &= item.sizeKnown;
+            requestSize += item.requestSize;
+            responseSize += item.responseSize;
+        }
+    }
+
+}
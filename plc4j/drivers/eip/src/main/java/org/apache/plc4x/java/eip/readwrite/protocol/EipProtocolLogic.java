@@ -23,18 +23,22 @@ import io.netty.buffer.Unpooled;
 import io.netty.buffer.UnpooledDirectByteBuf;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.plc4x.java.api.exceptions.PlcProtocolException;
 import org.apache.plc4x.java.api.messages.*;
 import org.apache.plc4x.java.api.model.PlcField;
 import org.apache.plc4x.java.api.types.PlcResponseCode;
 import org.apache.plc4x.java.api.value.*;
 import org.apache.plc4x.java.eip.readwrite.*;
 import org.apache.plc4x.java.eip.readwrite.configuration.EIPConfiguration;
+import org.apache.plc4x.java.eip.readwrite.context.EipDriverContext;
 import org.apache.plc4x.java.eip.readwrite.field.EipField;
 import org.apache.plc4x.java.eip.readwrite.io.CipServiceIO;
+import org.apache.plc4x.java.eip.readwrite.optimizer.EipOptimizer;
 import org.apache.plc4x.java.eip.readwrite.types.CIPDataTypeCode;
 import org.apache.plc4x.java.spi.ConversationContext;
 import org.apache.plc4x.java.spi.Plc4xProtocolBase;
 import org.apache.plc4x.java.spi.configuration.HasConfiguration;
+import org.apache.plc4x.java.spi.context.DriverContext;
 import org.apache.plc4x.java.spi.generation.ParseException;
 import org.apache.plc4x.java.spi.generation.ReadBuffer;
 import org.apache.plc4x.java.spi.messages.*;
@@ -49,44 +53,83 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 public class EipProtocolLogic extends Plc4xProtocolBase<EipPacket> implements HasConfiguration<EIPConfiguration> {
 
     private static final Logger logger = LoggerFactory.getLogger(EipProtocolLogic.class);
-    public static final Duration REQUEST_TIMEOUT = Duration.ofMillis(10000);
+
+    // Parameters used for opening the class 3 connection with a Large Forward Open.
+    private static final short PRIORITY_TIME_TICK = (short) 0x0A;
+    private static final short TIMEOUT_TICKS = (short) 0x0E;
+    private static final int ORIGINATOR_VENDOR_ID = 0x1337;
+    private static final long ORIGINATOR_SERIAL_NUMBER = 0x42L;
+    // Connection timeout = RPI * 4 << timeout multiplier (0x03 -> 32 * RPI)
+    private static final short TIMEOUT_MULTIPLIER = (short) 0x03;
+    private static final long REQUESTED_PACKET_INTERVAL = 2000000L;
+    // Point-to-point connection, low priority, variable size (The size is added in the lower 16 bits).
+    private static final long LARGE_CONNECTION_PARAMETERS = 0x42000000L;
+    // Server, application object trigger, class 3
+    private static final short TRANSPORT_TYPE_TRIGGER = (short) 0xA3;
+
+    // General status returned, if the response of a fragmented service doesn't contain all the data.
+    private static final short STATUS_PARTIAL_TRANSFER = (short) 0x06;
+    // Service code, request path size, data type, number of elements and offset of a Write Tag Fragmented request.
+    private static final int FRAGMENTED_WRITE_HEADER_SIZE = 10;
+    // Unconnected requests are sent one at a time, so the response belongs to the only one in flight.
+    private static final int UNCONNECTED_REQUEST = -1;
 
     private static final short[] emptySenderContext = new short[]{(short) 0x00, (short) 0x00, (short) 0x00,
         (short) 0x00, (short) 0x00, (short) 0x00, (short) 0x00, (short) 0x00};
     private short[] senderContext;
     private EIPConfiguration configuration;
+    private EipDriverContext eipDriverContext;
 
     private final AtomicInteger transactionCounterGenerator = new AtomicInteger(10);
     private RequestTransactionManager tm;
     private long sessionHandle;
 
+    // Only set, if a class 3 connection has been opened with a Large Forward Open.
+    private volatile Long originatorToTargetConnectionId;
+    private int connectionSerialNumber;
+    private final AtomicInteger sequenceCounter = new AtomicInteger(0);
+
     @Override
     public void setConfiguration(EIPConfiguration configuration) {
         this.configuration = configuration;
-        // Set the transaction manager to allow only one message at a time.
+        // Set the transaction manager to allow only one message at a time (Until a connection is opened).
         this.tm = new RequestTransactionManager(1);
     }
 
+    @Override
+    public void setDriverContext(DriverContext driverContext) {
+        super.setDriverContext(driverContext);
+        this.eipDriverContext = (EipDriverContext) driverContext;
+    }
+
     @Override
     public void onConnect(ConversationContext<EipPacket> context) {
         logger.debug("Sending RegisterSession EIP Package");
         EipConnectionRequest connectionRequest =
             new EipConnectionRequest(0L, 0L, emptySenderContext, 0L);
         context.sendRequest(connectionRequest)
-            .expectResponse(EipPacket.class, REQUEST_TIMEOUT).unwrap(p -> p)
+            .expectResponse(EipPacket.class, Duration.ofMillis(configuration.getRequestTimeout())).unwrap(p -> p)
             .check(p -> p instanceof EipConnectionRequest)
             .handle(p -> {
                 if (p.getStatus() == 0L) {
                     sessionHandle = p.getSessionHandle();
                     senderContext = p.getSenderContext();
                     logger.debug("Got assigned with Session {}", sessionHandle);
-                    // Send an event that connection setup is complete.
-                    context.fireConnected();
+                    if (configuration.isConnectedMessaging()) {
+                        openConnection(context);
+                    } else {
+                        // Send an event that connection setup is complete.
+                        context.fireConnected();
+                    }
                 } else {
                     logger.warn("Got status code [{}]", p.getStatus());
                 }
@@ -94,9 +137,161 @@ public class EipProtocolLogic extends Plc4xProtocolBase<EipPacket> implements Ha
             });
     }
 
+    /**
+     * Opens a CIP class 3 connection to the Message Router of the configured backplane/slot using
+     * a Large Forward Open. If this succeeds, all subsequent requests are sent as connected messages
+     * ({@link SendUnitData}), otherwise the driver falls back to unconnected messaging.
+     */
+    private void openConnection(ConversationContext<EipPacket> context) {
+        // The connection triad has to be unique on the target, the session handle assigned by the target is unique
+        // as long as the session exists.
+        connectionSerialNumber = (int) (sessionHandle & 0xFFFF);
+        long targetToOriginatorConnectionId = sessionHandle;
+        long connectionParameters = LARGE_CONNECTION_PARAMETERS | (configuration.getConnectionSize() & 0xFFFF);
+        byte[] connectionPath = getConnectionPath();
+        CipLargeForwardOpenRequest forwardOpen = new CipLargeForwardOpenRequest(PRIORITY_TIME_TICK, TIMEOUT_TICKS,
+            0L, targetToOriginatorConnectionId, connectionSerialNumber, ORIGINATOR_VENDOR_ID, ORIGINATOR_SERIAL_NUMBER,
+            TIMEOUT_MULTIPLIER, REQUESTED_PACKET_INTERVAL, connectionParameters, REQUESTED_PACKET_INTERVAL,
+            connectionParameters, TRANSPORT_TYPE_TRIGGER, (short) (connectionPath.length / 2), connectionPath);
+        logger.debug("Sending Large Forward Open with connection size {}", configuration.getConnectionSize());
+        RequestTransactionManager.RequestTransaction transaction = tm.startRequest();
+        transaction.submit(() -> sendRequest(
+            new CipRRData(sessionHandle, 0L, emptySenderContext, 0L, new CipExchange(forwardOpen)), transaction,
+            e -> {
+                logger.warn("Error opening connection, falling back to unconnected messaging", e);
+                context.fireConnected();
+            },
+            response -> {
+                CipService service = getResponseService(response);
+                if (!(service instanceof CipLargeForwardOpenResponse)) {
+                    logger.warn("Expected a Forward Open response, but got {}, falling back to unconnected messaging",
+                        service);
+                } else if (((CipLargeForwardOpenResponse) service).getStatus() == 0) {
+                    originatorToTargetConnectionId =
+                        ((CipLargeForwardOpenResponse) service).getOriginatorToTargetConnectionId();
+                    eipDriverContext.setMaxMessageSize(
+                        configuration.getConnectionSize() - EipDriverContext.SEQUENCE_COUNT_SIZE);
+                    // Connected requests are correlated with their responses by the sequence count,
+                    // so more than one request can be in flight.
+                    tm.setNumberOfConcurrentRequests(Math.max(1, configuration.getMaxInFlight()));
+                    logger.debug("Opened connection {}", originatorToTargetConnectionId);
+                } else {
+                    logger.warn("Forward Open failed with status code [{}] {}, falling back to unconnected messaging",
+                        ((CipLargeForwardOpenResponse) service).getStatus(),
+                        Arrays.toString(((CipLargeForwardOpenResponse) service).getExtStatus()));
+                }
+                // Send an event that connection setup is complete.
+                context.fireConnected();
+            }));
+    }
+
+    /**
+     * @return the connection path to the Message Router of the PLC: port (backplane), link address (slot),
+     * class 0x02 and instance 0x01.
+     */
+    private byte[] getConnectionPath() {
+        return new byte[]{(byte) configuration.getBackplane(), (byte) configuration.getSlot(),
+            (byte) 0x20, (byte) 0x02, (byte) 0x24, (byte) 0x01};
+    }
+
+    /**
+     * Wraps the given service in the packet needed for the current messaging mode: connected services
+     * are sent as {@link SendUnitData} with the next sequence count, unconnected services as {@link CipRRData}
+     * routed through the UCMM with an Unconnected Send.
+     */
+    private EipPacket createRequestPacket(CipService service) {
+        Long connectionId = originatorToTargetConnectionId;
+        if (connectionId != null) {
+            int sequenceCount = sequenceCounter.updateAndGet(i -> (i + 1) & 0xFFFF);
+            return new SendUnitData(sessionHandle, 0L, emptySenderContext, 0L,
+                new CipConnectedExchange(connectionId, sequenceCount, service));
+        }
+        return new CipRRData(sessionHandle, 0L, emptySenderContext, 0L,
+            new CipExchange(new CipUnconnectedRequest(service, (byte) configuration.getBackplane(),
+                (byte) configuration.getSlot())));
+    }
+
+    private int getCorrelationId(EipPacket packet) {
+        if (packet instanceof SendUnitData) {
+            return ((SendUnitData) packet).getExchange().getSequenceCount();
+        }
+        return UNCONNECTED_REQUEST;
+    }
+
+    private CipService getResponseService(EipPacket response) {
+        if (response instanceof SendUnitData) {
+            return ((SendUnitData) response).getExchange().getService();
+        }
+        return ((CipRRData) response).getExchange().getService();
+    }
+
+    /**
+     * Sends the given service inside the transaction and passes the response to the handler, if it is of
+     * the expected type. The transaction is ended as soon as the request completed.
+     */
+    private <T extends CipService> void sendCipRequest(RequestTransactionManager.RequestTransaction transaction,
+                                                       CipService service, Class<T> responseType,
+                                                       CompletableFuture<?> future, Consumer<T> responseHandler) {
+        transaction.submit(() -> sendRequest(createRequestPacket(service), transaction, future::completeExceptionally,
+            response -> {
+                CipService responseService = getResponseService(response);
+                if (!responseType.isInstance(responseService)) {
+                    future.completeExceptionally(new PlcProtocolException(String.format("Expected %s, but got %s",
+                        responseType.getSimpleName(),
+                        (responseService != null) ? responseService.getClass().getSimpleName() : null)));
+                    return;
+                }
+                responseHandler.accept(responseType.cast(responseService));
+            }));
+    }
+
+    /**
+     * Sends the request and passes the response to the handler. Responses are correlated with their requests
+     * by the session and (for connected requests) the sequence count. The transaction is ended as soon as the
+     * response arrives or the request times out.
+     */
+    private void sendRequest(EipPacket request, RequestTransactionManager.RequestTransaction transaction,
+                             Consumer<Throwable> errorHandler, Consumer<EipPacket> responseHandler) {
+        final int correlationId = getCorrelationId(request);
+        context.sendRequest(request)
+            .expectResponse(EipPacket.class, Duration.ofMillis(configuration.getRequestTimeout()))
+            .onTimeout(e -> {
+                transaction.endRequest();
+                errorHandler.accept(new TimeoutException(
+                    "No response within " + configuration.getRequestTimeout() + "ms"));
+            })
+            .onError((p, e) -> {
+                transaction.endRequest();
+                errorHandler.accept(e);
+            })
+            .check(p -> ((p instanceof CipRRData) || (p instanceof SendUnitData)) && (p.getSessionHandle() == sessionHandle))
+            .check(p -> getCorrelationId(p) == correlationId)
+            .handle(response -> {
+                // Finish the request-transaction.
+                transaction.endRequest();
+                try {
+                    responseHandler.accept(response);
+                } catch (RuntimeException e) {
+                    errorHandler.accept(e);
+                }
+            });
+    }
+
     @Override
     public CompletableFuture<PlcReadResponse> read(PlcReadRequest readRequest) {
         DefaultPlcReadRequest request = (DefaultPlcReadRequest) readRequest;
+        // The EipOptimizer puts fields, which don't fit into one response or whose size isn't known,
+        // into requests of their own.
+        if (request.getNumberOfFields() == 1) {
+            String fieldName = request.getFieldNames().iterator().next();
+            EipField field = (EipField) request.getField(fieldName);
+            if (!EipOptimizer.isSizeKnown(field)) {
+                return readUnknownSize(request, fieldName, field);
+            }
+            if (EipOptimizer.getReadResponseSize(field) > eipDriverContext.getMaxMessageSize()) {
+                return readFragmented(request, fieldName, field);
+            }
+        }
         List<CipReadRequest> requests = new ArrayList<>(request.getNumberOfFields());
         for (PlcField field : request.getFields()) {
             EipField plcField = (EipField) field;
@@ -111,6 +306,101 @@ public class EipProtocolLogic extends Plc4xProtocolBase<EipPacket> implements Ha
         return toPlcReadResponse((InternalPlcReadRequest) readRequest, readInternal(requests));
     }
 
+    /**
+     * Reads a field using Read Tag Fragmented requests. The first fragment tells how much data the PLC
+     * returns per response, if the total size is known from the data type, all remaining fragments are
+     * requested at once, otherwise they are requested one after another.
+     */
+    private CompletableFuture<PlcReadResponse> readFragmented(InternalPlcReadRequest readRequest, String fieldName,
+                                                              EipField field) {
+        String tag = field.getTag();
+        FragmentedRead read = new FragmentedRead(readRequest, fieldName, field, getRequestSize(tag), toAnsi(tag));
+        requestFragment(read, 0L, -1L);
+        return read.future;
+    }
+
+    /**
+     * Reads a field, whose size isn't known from the data type, with a Read Tag request. If the PLC answers with
+     * a partial transfer, because the data doesn't fit into the response, the rest is read with Read Tag Fragmented
+     * requests.
+     */
+    private CompletableFuture<PlcReadResponse> readUnknownSize(InternalPlcReadRequest readRequest, String fieldName,
+                                                               EipField field) {
+        String tag = field.getTag();
+        FragmentedRead read = new FragmentedRead(readRequest, fieldName, field, getRequestSize(tag), toAnsi(tag));
+        read.outstanding.incrementAndGet();
+        CipReadRequest readTagRequest = new CipReadRequest(read.requestPathSize, read.tag, read.elementNb);
+        sendCipRequest(tm.startRequest(), readTagRequest, CipReadResponse.class, read.future, response -> {
+            if ((response.getStatus() == STATUS_PARTIAL_TRANSFER) && (response.getData().length == 0)) {
+                // Nothing returned at all, so everything is read with Read Tag Fragmented requests.
+                requestFragment(read, 0L, -1L);
+                read.outstanding.decrementAndGet();
+                return;
+            }
+            onFragment(read, 0L, -1L, new CipReadFragmentedResponse(response.getStatus(),
+                response.getExtStatus(), response.getDataType(), response.getData()));
+        });
+        return read.future;
+    }
+
+    private void requestFragment(FragmentedRead read, long offset, long length) {
+        read.outstanding.incrementAndGet();
+        CipReadFragmentedRequest fragmentRequest = new CipReadFragmentedRequest(
+            read.requestPathSize, read.tag, read.elementNb, offset);
+        sendCipRequest(tm.startRequest(), fragmentRequest, CipReadFragmentedResponse.class, read.future,
+            response -> onFragment(read, offset, length, response));
+    }
+
+    private void onFragment(FragmentedRead read, long offset, long length, CipReadFragmentedResponse response) {
+        if (read.future.isDone()) {
+            return;
+        }
+        boolean partial = response.getStatus() == STATUS_PARTIAL_TRANSFER;
+        if ((response.getStatus() != 0) && !partial) {
+            completeFragmentedRead(read, decodeResponseCode(response.getStatus()));
+            return;
+        }
+        // Offsets only count the data itself, so the structure handle is dropped from every fragment.
+        byte[] data = getValueData(response.getDataType(), response.getData());
+        int received = (length < 0) ? data.length : (int) Math.min(data.length, length);
+        if (partial && (received == 0)) {
+            read.future.completeExceptionally(new PlcProtocolException("Got an empty fragment at offset " + offset));
+            return;
+        }
+        read.fragments.put(offset, Unpooled.wrappedBuffer(data, 0, received));
+        if (offset == 0) {
+            read.dataType = response.getDataType();
+            long totalSize = read.getTotalSize();
+            if (partial && (totalSize > 0)) {
+                for (long next = received; next < totalSize; next += received) {
+                    requestFragment(read, next, Math.min(received, totalSize - next));
+                }
+            } else if (partial) {
+                requestFragment(read, received, -1L);
+            }
+        } else if (partial && (length < 0)) {
+            requestFragment(read, offset + received, -1L);
+        } else if (partial && (received < length)) {
+            // The PLC returned less than expected, get the rest of this fragment.
+            requestFragment(read, offset + received, length - received);
+        }
+        if (read.outstanding.decrementAndGet() == 0) {
+            completeFragmentedRead(read, PlcResponseCode.OK);
+        }
+    }
+
+    private void completeFragmentedRead(FragmentedRead read, PlcResponseCode code) {
+        PlcValue plcValue = null;
+        if (code == PlcResponseCode.OK) {
+            // Compose the fragments to one buffer without copying them.
+            ByteBuf data = Unpooled.wrappedBuffer(read.fragments.values().toArray(new ByteBuf[0]));
+            plcValue = parsePlcValue(read.field, data, read.dataType);
+        }
+        Map<String, ResponseItem<PlcValue>> values = new HashMap<>();
+        values.put(read.fieldName, new ResponseItem<>(code, plcValue));
+        read.future.complete(new DefaultPlcReadResponse(read.readRequest, values));
+    }
+
     private byte getRequestSize(String tag){
         //We need the size of the request in words (0x91, tagLength, ... tag + possible pad)
         // Taking half to get word size
@@ -206,53 +496,24 @@ public class EipProtocolLogic extends Plc4xProtocolBase<EipPacket> implements Ha
             }
             Services data = new Services(nb, offsets, serviceArr);
             //Encapsulate the data
-
-            CipRRData pkt = new CipRRData(sessionHandle, 0L, emptySenderContext, 0L,
-                new CipExchange(
-                    new CipUnconnectedRequest(
-                        new MultipleServiceRequest(data),
-                        (byte) configuration.getBackplane(),
-                        (byte) configuration.getSlot())));
-
-
-            transaction.submit(() -> context.sendRequest(pkt)
-                .expectResponse(EipPacket.class, REQUEST_TIMEOUT)
-                .onTimeout(future::completeExceptionally)
-                .onError((p, e) -> future.completeExceptionally(e))
-                .check(p -> p instanceof CipRRData)
-                .check(p -> p.getSessionHandle() == sessionHandle)
-                //.check(p -> p.getSenderContext() == senderContext)
-                .unwrap(p -> (CipRRData) p)
-                .unwrap(p -> p.getExchange().getService()).check(p -> p instanceof MultipleServiceResponse)
-                .unwrap(p -> (MultipleServiceResponse) p)
-                .check(p -> p.getServiceNb() == nb)
-                .handle(p -> {
-                    future.complete(p);
-                    // Finish the request-transaction.
-                    transaction.endRequest();
-                }));
+            sendCipRequest(transaction, new MultipleServiceRequest(data), MultipleServiceResponse.class, future,
+                p -> completeMultipleServiceResponse(future, p, nb, p));
         } else if (request.size() == 1) {
-            CipExchange exchange = new CipExchange(new CipUnconnectedRequest(request.get(0), (byte) configuration.getBackplane(), (byte) configuration.getSlot()));
-            CipRRData pkt = new CipRRData(sessionHandle, 0L, emptySenderContext, 0L, exchange);
-            transaction.submit(() -> context.sendRequest(pkt)
-                .expectResponse(EipPacket.class, REQUEST_TIMEOUT)
-                .onTimeout(future::completeExceptionally)
-                .onError((p, e) -> future.completeExceptionally(e))
-                .check(p -> p instanceof CipRRData)
-                .check(p -> p.getSessionHandle() == sessionHandle)
-                //.check(p -> p.getSenderContext() == senderContext)
-                .unwrap(p -> (CipRRData) p)
-                .unwrap(p -> p.getExchange().getService()).check(p -> p instanceof CipReadResponse)
-                .unwrap(p -> (CipReadResponse) p)
-                .handle(p -> {
-                    future.complete(p);
-                    // Finish the request-transaction.
-                    transaction.endRequest();
-                }));
+            sendCipRequest(transaction, request.get(0), CipReadResponse.class, future, future::complete);
         }
         return future;
     }
 
+    private <T> void completeMultipleServiceResponse(CompletableFuture<T> future, MultipleServiceResponse response,
+                                                     int nb, T result) {
+        if (response.getServiceNb() != nb) {
+            future.completeExceptionally(new PlcProtocolException(
+                "Expected " + nb + " services in the response, but got " + response.getServiceNb()));
+            return;
+        }
+        future.complete(result);
+    }
+
     private PlcResponse decodeReadResponse(CipService p, InternalPlcReadRequest readRequest) {
         Map<String, ResponseItem<PlcValue>> values = new HashMap<>();
         // only 1 field
@@ -263,7 +524,7 @@ public class EipProtocolLogic extends Plc4xProtocolBase<EipPacket> implements Ha
             PlcResponseCode code = decodeResponseCode(resp.getStatus());
             PlcValue plcValue = null;
             CIPDataTypeCode type = resp.getDataType();
-            ByteBuf data = Unpooled.wrappedBuffer(resp.getData());
+            ByteBuf data = Unpooled.wrappedBuffer(getValueData(type, resp.getData()));
             if (code == PlcResponseCode.OK) {
                 plcValue = parsePlcValue(field, data, type);
             }
@@ -309,7 +570,7 @@ public class EipProtocolLogic extends Plc4xProtocolBase<EipPacket> implements Ha
                         code = PlcResponseCode.INTERNAL_ERROR;
                     }
                     CIPDataTypeCode type = readResponse.getDataType();
-                    ByteBuf data = Unpooled.wrappedBuffer(readResponse.getData());
+                    ByteBuf data = Unpooled.wrappedBuffer(getValueData(type, readResponse.getData()));
                     if (code == PlcResponseCode.OK) {
                         plcValue = parsePlcValue(field, data, type);
                     }
@@ -321,7 +582,33 @@ public class EipProtocolLogic extends Plc4xProtocolBase<EipPacket> implements Ha
         return new DefaultPlcReadResponse(readRequest, values);
     }
 
+    /**
+     * Structures (UDTs) are preceded by the two byte handle of their structure definition, which isn't part of
+     * the value itself.
+     */
+    private static byte[] getValueData(CIPDataTypeCode type, byte[] data) {
+        if (isStructured(type) && (data.length >= 2)) {
+            return Arrays.copyOfRange(data, 2, data.length);
+        }
+        return data;
+    }
+
+    /**
+     * STRUCTURED, STRING and STRING36 share the same type code, so parsed data types are compared by it.
+     */
+    private static boolean isStructured(CIPDataTypeCode type) {
+        return (type != null) && (type.getValue() == CIPDataTypeCode.STRUCTURED.getValue());
+    }
+
     private PlcValue parsePlcValue(EipField field, ByteBuf data, CIPDataTypeCode type) {
+        // The layout of structures isn't known, so they are returned as raw bytes.
+        if (isStructured(type)) {
+            List<PlcValue> list = new ArrayList<>(data.readableBytes());
+            for (int i = 0; i < data.readableBytes(); i++) {
+                list.add(new PlcByte(data.getByte(i)));
+            }
+            return new PlcList(list);
+        }
         int nb = field.getElementNb();
         if (nb > 1) {
             int index = 0;
@@ -402,28 +689,17 @@ public class EipProtocolLogic extends Plc4xProtocolBase<EipPacket> implements Ha
             items.add(writeReq);
         }
 
+        if ((items.size() == 1) && (FRAGMENTED_WRITE_HEADER_SIZE + items.get(0).getTag().length
+            + items.get(0).getData().length > eipDriverContext.getMaxMessageSize())) {
+            return writeFragmented((InternalPlcWriteRequest) writeRequest,
+                request.getFieldNames().iterator().next(), items.get(0));
+        }
+
         RequestTransactionManager.RequestTransaction transaction = tm.startRequest();
         if (items.size() == 1) {
-            tm.startRequest();
-            CipRRData rrdata = new CipRRData(sessionHandle, 0L, senderContext, 0L,
-                new CipExchange(
-                new CipUnconnectedRequest(items.get(0),(byte)configuration.getBackplane(),(byte)configuration.getSlot())));
-            transaction.submit(() -> context.sendRequest(rrdata)
-                .expectResponse(EipPacket.class, REQUEST_TIMEOUT)
-                .onTimeout(future::completeExceptionally)
-                .onError((p, e) -> future.completeExceptionally(e))
-                .check(p -> p instanceof CipRRData).unwrap(p -> (CipRRData) p)
-                .check(p -> p.getSessionHandle() == sessionHandle)
-                //.check(p -> p.getSenderContext() == senderContext)
-                .check(p -> p.getExchange().getService() instanceof CipWriteResponse)
-                .unwrap(p -> (CipWriteResponse) p.getExchange().getService())
-                .handle(p -> {
-                    future.complete((PlcWriteResponse) decodeWriteResponse(p, ((InternalPlcWriteRequest) writeRequest)));
-                    transaction.endRequest();
-                })
-            );
+            sendCipRequest(transaction, items.get(0), CipWriteResponse.class, future,
+                p -> future.complete((PlcWriteResponse) decodeWriteResponse(p, ((InternalPlcWriteRequest) writeRequest))));
         } else {
-            tm.startRequest();
             short nb = (short) items.size();
             int[] offsets = new int[nb];
             int offset = 2 + nb * 2;
@@ -438,31 +714,46 @@ public class EipProtocolLogic extends Plc4xProtocolBase<EipPacket> implements Ha
             }
             Services data = new Services(nb, offsets, serviceArr);
             //Encapsulate the data
+            sendCipRequest(transaction, new MultipleServiceRequest(data), MultipleServiceResponse.class, future,
+                p -> completeMultipleServiceResponse(future, p, nb,
+                    (PlcWriteResponse) decodeWriteResponse(p, ((InternalPlcWriteRequest) writeRequest))));
+        }
+        return future;
+    }
 
-            CipRRData pkt = new CipRRData(sessionHandle, 0L, emptySenderContext, 0L,
-                new CipExchange(
-                    new CipUnconnectedRequest(
-                        new MultipleServiceRequest(data),
-                        (byte) configuration.getBackplane(),
-                        (byte) configuration.getSlot())));
-
-
-            transaction.submit(() -> context.sendRequest(pkt)
-                .expectResponse(EipPacket.class, REQUEST_TIMEOUT)
-                .onTimeout(future::completeExceptionally)
-                .onError((p, e) -> future.completeExceptionally(e))
-                .check(p -> p instanceof CipRRData)
-                .check(p -> p.getSessionHandle() == sessionHandle)
-                //.check(p -> p.getSenderContext() == senderContext)
-                .unwrap(p -> (CipRRData) p)
-                .unwrap(p -> p.getExchange().getService()).check(p -> p instanceof MultipleServiceResponse)
-                .unwrap(p -> (MultipleServiceResponse) p)
-                .check(p -> p.getServiceNb() == nb)
-                .handle(p -> {
-                    future.complete((PlcWriteResponse) decodeWriteResponse(p, ((InternalPlcWriteRequest) writeRequest)));
-                    // Finish the request-transaction.
-                    transaction.endRequest();
-                }));
+    /**
+     * Writes the data of a single field, which doesn't fit into one request, with Write Tag Fragmented requests.
+     * All fragments are submitted at once, the response reports the first error status of any fragment.
+     */
+    private CompletableFuture<PlcWriteResponse> writeFragmented(InternalPlcWriteRequest writeRequest, String fieldName,
+                                                                CipWriteRequest item) {
+        CompletableFuture<PlcWriteResponse> future = new CompletableFuture<>();
+        byte[] data = item.getData();
+        int elementSize = Math.max(item.getDataType().getSize(), 1);
+        // Fragments have to contain complete elements.
+        int fragmentSize = ((eipDriverContext.getMaxMessageSize() - FRAGMENTED_WRITE_HEADER_SIZE - item.getTag().length)
+            / elementSize) * elementSize;
+        if (fragmentSize <= 0) {
+            future.completeExceptionally(new PlcProtocolException("Tag path exceeds the maximum message size"));
+            return future;
+        }
+        AtomicInteger outstanding = new AtomicInteger((data.length + fragmentSize - 1) / fragmentSize);
+        AtomicReference<PlcResponseCode> code = new AtomicReference<>(PlcResponseCode.OK);
+        for (int offset = 0; offset < data.length; offset += fragmentSize) {
+            CipWriteFragmentedRequest fragmentRequest = new CipWriteFragmentedRequest(item.getRequestPathSize(),
+                item.getTag(), item.getDataType(), item.getElementNb(), offset,
+                Arrays.copyOfRange(data, offset, Math.min(data.length, offset + fragmentSize)));
+            sendCipRequest(tm.startRequest(), fragmentRequest, CipWriteFragmentedResponse.class, future, response -> {
+                PlcResponseCode fragmentCode = decodeResponseCode(response.getStatus());
+                if (fragmentCode != PlcResponseCode.OK) {
+                    code.compareAndSet(PlcResponseCode.OK, fragmentCode);
+                }
+                if (outstanding.decrementAndGet() == 0) {
+                    Map<String, PlcResponseCode> responses = new HashMap<>();
+                    responses.put(fieldName, code.get());
+                    future.complete(new DefaultPlcWriteResponse(writeRequest, responses));
+                }
+            });
         }
         return future;
     }
@@ -518,7 +809,19 @@ public class EipProtocolLogic extends Plc4xProtocolBase<EipPacket> implements Ha
 
     private byte[] encodeValue(PlcValue value, CIPDataTypeCode type, short elements) {
         //ByteBuffer buffer = ByteBuffer.allocate(4+type.getSize()).order(ByteOrder.LITTLE_ENDIAN);
+        if (value.isList()) {
+            ByteBuffer buffer = ByteBuffer.allocate(type.getSize() * value.getLength()).order(ByteOrder.LITTLE_ENDIAN);
+            for (PlcValue item : value.getList()) {
+                encodeValue(buffer, item, type);
+            }
+            return buffer.array();
+        }
         ByteBuffer buffer = ByteBuffer.allocate(type.getSize()).order(ByteOrder.LITTLE_ENDIAN);
+        encodeValue(buffer, value, type);
+        return buffer.array();
+    }
+
+    private void encodeValue(ByteBuffer buffer, PlcValue value, CIPDataTypeCode type) {
         switch (type) {
             case SINT:
                 buffer.put(value.getByte());
@@ -530,13 +833,11 @@ public class EipProtocolLogic extends Plc4xProtocolBase<EipPacket> implements Ha
                 buffer.putInt(value.getInteger());
                 break;
             case REAL:
-                buffer.putDouble(value.getDouble());
+                buffer.putFloat(value.getFloat());
                 break;
             default:
                 break;
         }
-        return buffer.array();
-
     }
 
     private PlcResponseCode decodeResponseCode(int status) {
@@ -549,8 +850,55 @@ public class EipProtocolLogic extends Plc4xProtocolBase<EipPacket> implements Ha
         }
     }
 
+    /**
+     * State of a field read with Read Tag Fragmented requests. The fragments are kept ordered by their offset.
+     */
+    private static class FragmentedRead {
+        private final InternalPlcReadRequest readRequest;
+        private final String fieldName;
+        private final EipField field;
+        private final byte requestPathSize;
+        private final byte[] tag;
+        private final int elementNb;
+        private final CompletableFuture<PlcReadResponse> future = new CompletableFuture<>();
+        private final ConcurrentSkipListMap<Long, ByteBuf> fragments = new ConcurrentSkipListMap<>();
+        private final AtomicInteger outstanding = new AtomicInteger(0);
+        private volatile CIPDataTypeCode dataType;
+
+        private FragmentedRead(InternalPlcReadRequest readRequest, String fieldName, EipField field,
+                               byte requestPathSize, byte[] tag) {
+            this.readRequest = readRequest;
+            this.fieldName = fieldName;
+            this.field = field;
+            this.requestPathSize = requestPathSize;
+            this.tag = tag;
+            this.elementNb = Math.max(field.getElementNb(), 1);
+        }
+
+        /**
+         * @return total number of bytes of the field or -1 if the size isn't known from the data type.
+         */
+        private long getTotalSize() {
+            if ((dataType == null) || isStructured(dataType) || (dataType.getSize() <= 0)) {
+                return -1L;
+            }
+            return (long) elementNb * dataType.getSize();
+        }
+    }
+
     @Override
     public void close(ConversationContext<EipPacket> context) {
+        if (originatorToTargetConnectionId != null) {
+            logger.debug("Sending Forward Close for connection {}", originatorToTargetConnectionId);
+            byte[] connectionPath = getConnectionPath();
+            context.sendToWire(new CipRRData(sessionHandle, 0L, emptySenderContext, 0L, new CipExchange(
+                new CipForwardCloseRequest(PRIORITY_TIME_TICK, TIMEOUT_TICKS, connectionSerialNumber,
+                    ORIGINATOR_VENDOR_ID, ORIGINATOR_SERIAL_NUMBER, (short) (connectionPath.length / 2),
+                    connectionPath))));
+            originatorToTargetConnectionId = null;
+            eipDriverContext.setMaxMessageSize(EipDriverContext.UNCONNECTED_MESSAGE_SIZE);
+            tm.setNumberOfConcurrentRequests(1);
+        }
         logger.debug("Sending UnregisterSession EIP Pakcet");
         context.sendRequest(new EipDisconnectRequest(sessionHandle, 0L, emptySenderContext, 0L)); //Unregister gets no response
         logger.debug("Unregistred Session {}", sessionHandle);
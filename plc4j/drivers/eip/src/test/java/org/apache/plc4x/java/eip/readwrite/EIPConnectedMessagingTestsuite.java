@@ -16,23 +16,14 @@ KIND, either express or implied.  See the License for the
 specific language governing permissions and limitations
 under the License.
 */
-package org.apache.plc4x.java.df1.configuration;
+package org.apache.plc4x.java.eip.readwrite;
 
-import org.apache.plc4x.java.spi.configuration.Configuration;
-import org.apache.plc4x.java.spi.configuration.annotations.ConfigurationParameter;
-import org.apache.plc4x.java.transport.serial.SerialTransportConfiguration;
+import org.apache.plc4x.test.driver.DriverTestsuiteRunner;
 
-public class Df1Configuration implements Configuration, SerialTransportConfiguration {
+public class EIPConnectedMessagingTestsuite extends DriverTestsuiteRunner {
 
-    @ConfigurationParameter("local-addr")
-    private short localAddr;
-
-    @ConfigurationParameter("remote-addr")
-    private short remoteAddr;
-
-    @Override
-    public int getBaudRate() {
-        return 57600;
+    public EIPConnectedMessagingTestsuite() {
+        super("/testsuite/EIPConnectedMessagingTestsuite.xml");
     }
 
 }
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.plc4x.java.eip.readwrite.io;
+
+import org.apache.plc4x.java.eip.readwrite.*;
+import org.apache.plc4x.java.eip.readwrite.types.CIPDataTypeCode;
+import org.apache.plc4x.java.spi.generation.ReadBuffer;
+import org.apache.plc4x.java.spi.generation.WriteBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CipServiceIOTest {
+
+    // 0x91, length, "rate"
+    private static final byte[] TAG = new byte[]{(byte) 0x91, (byte) 0x04, (byte) 0x72, (byte) 0x61, (byte) 0x74,
+        (byte) 0x65};
+
+    @Test
+    public void readFragmentedRequest() throws Exception {
+        CipReadFragmentedRequest request = new CipReadFragmentedRequest((byte) 3, TAG, 10, 400L);
+        byte[] bytes = serialize(request);
+        assertArrayEquals(new byte[]{(byte) 0x52, (byte) 0x03, (byte) 0x91, (byte) 0x04, (byte) 0x72, (byte) 0x61,
+            (byte) 0x74, (byte) 0x65, (byte) 0x0A, (byte) 0x00, (byte) 0x90, (byte) 0x01, (byte) 0x00, (byte) 0x00},
+            bytes);
+
+        // Read Tag Fragmented shares its service code with the Unconnected Send, so the generated parser can't
+        // tell them apart. Read the fields back one by one instead.
+        ReadBuffer readBuffer = new ReadBuffer(bytes, true);
+        assertEquals(0x52, readBuffer.readUnsignedShort(8));
+        assertEquals(request.getRequestPathSize(), readBuffer.readByte(8));
+        for (byte tagByte : TAG) {
+            assertEquals(tagByte, readBuffer.readByte(8));
+        }
+        assertEquals(request.getElementNb(), readBuffer.readUnsignedInt(16));
+        assertEquals(request.getOffset(), readBuffer.readUnsignedLong(32));
+        assertFalse(readBuffer.hasMore(8));
+    }
+
+    @Test
+    public void readFragmentedResponse() throws Exception {
+        byte[] bytes = new byte[]{(byte) 0xD2, (byte) 0x00, (byte) 0x06, (byte) 0x00, (byte) 0xC4, (byte) 0x00,
+            (byte) 0x2A, (byte) 0x00, (byte) 0x00, (byte) 0x00};
+        CipService service = CipServiceIO.staticParse(new ReadBuffer(bytes, true), bytes.length);
+        assertTrue(service instanceof CipReadFragmentedResponse);
+        CipReadFragmentedResponse response = (CipReadFragmentedResponse) service;
+        assertEquals(0x06, response.getStatus());
+        assertEquals(CIPDataTypeCode.DINT, response.getDataType());
+        assertArrayEquals(new byte[]{(byte) 0x2A, (byte) 0x00, (byte) 0x00, (byte) 0x00}, response.getData());
+        assertArrayEquals(bytes, serialize(response));
+    }
+
+    @Test
+    public void writeFragmentedRequest() throws Exception {
+        CipWriteFragmentedRequest request = new CipWriteFragmentedRequest((byte) 3, TAG, CIPDataTypeCode.DINT, 2,
+            4L, new byte[]{(byte) 0x0F, (byte) 0x00, (byte) 0x00, (byte) 0x00});
+        byte[] bytes = serialize(request);
+        assertArrayEquals(new byte[]{(byte) 0x53, (byte) 0x03, (byte) 0x91, (byte) 0x04, (byte) 0x72, (byte) 0x61,
+            (byte) 0x74, (byte) 0x65, (byte) 0xC4, (byte) 0x00, (byte) 0x02, (byte) 0x00, (byte) 0x04, (byte) 0x00,
+            (byte) 0x00, (byte) 0x00, (byte) 0x0F, (byte) 0x00, (byte) 0x00, (byte) 0x00}, bytes);
+
+        CipService service = CipServiceIO.staticParse(new ReadBuffer(bytes, true), bytes.length);
+        assertTrue(service instanceof CipWriteFragmentedRequest);
+        CipWriteFragmentedRequest parsed = (CipWriteFragmentedRequest) service;
+        assertArrayEquals(TAG, parsed.getTag());
+        assertEquals(CIPDataTypeCode.DINT, parsed.getDataType());
+        assertEquals(2, parsed.getElementNb());
+        assertEquals(4L, parsed.getOffset());
+        assertArrayEquals(request.getData(), parsed.getData());
+    }
+
+    @Test
+    public void writeFragmentedResponse() throws Exception {
+        byte[] bytes = new byte[]{(byte) 0xD3, (byte) 0x00, (byte) 0x00, (byte) 0x00};
+        CipService service = CipServiceIO.staticParse(new ReadBuffer(bytes, true), bytes.length);
+        assertTrue(service instanceof CipWriteFragmentedResponse);
+        assertEquals(0, ((CipWriteFragmentedResponse) service).getStatus());
+        assertArrayEquals(bytes, serialize(service));
+    }
+
+    private static byte[] serialize(CipService service) throws Exception {
+        WriteBuffer writeBuffer = new WriteBuffer(service.getLengthInBytes(), true);
+        CipServiceIO.staticSerialize(writeBuffer, service);
+        return writeBuffer.getData();
+    }
+
+}
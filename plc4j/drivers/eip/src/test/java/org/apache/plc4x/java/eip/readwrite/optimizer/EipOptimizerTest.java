@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.plc4x.java.eip.readwrite.optimizer;
+
+import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.apache.plc4x.java.api.messages.PlcRequest;
+import org.apache.plc4x.java.api.messages.PlcWriteRequest;
+import org.apache.plc4x.java.eip.readwrite.context.EipDriverContext;
+import org.apache.plc4x.java.eip.readwrite.field.EipFieldHandler;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
+import org.apache.plc4x.java.spi.messages.DefaultPlcWriteRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class EipOptimizerTest {
+
+    @Test
+    public void smallRequestsAreNotSplit() {
+        PlcReadRequest readRequest = new DefaultPlcReadRequest.Builder(null, new EipFieldHandler())
+            .addItem("a", "%rate:DINT")
+            .addItem("b", "%speed:REAL")
+            .build();
+        List<PlcRequest> subRequests = new EipOptimizer().processReadRequest(readRequest, unconnected());
+        assertEquals(1, subRequests.size());
+        assertSame(readRequest, subRequests.get(0));
+    }
+
+    @Test
+    public void fieldsArePackedIntoTheGaps() {
+        DefaultPlcReadRequest.Builder builder = new DefaultPlcReadRequest.Builder(null, new EipFieldHandler());
+        for (int i = 0; i < 20; i++) {
+            builder.addItem("small" + i, "%small" + i + ":DINT");
+        }
+        // Each of these needs a response of its own, the small ones fill up the rest of the responses.
+        builder.addItem("a", "%arrayA:DINT:100");
+        builder.addItem("b", "%arrayB:DINT:100");
+        builder.addItem("c", "%arrayC:DINT:100");
+        PlcReadRequest readRequest = builder.build();
+
+        List<PlcRequest> subRequests = new EipOptimizer().processReadRequest(readRequest, unconnected());
+        assertEquals(3, subRequests.size());
+        int numFields = 0;
+        for (PlcRequest subRequest : subRequests) {
+            numFields += ((PlcReadRequest) subRequest).getNumberOfFields();
+        }
+        assertEquals(23, numFields);
+
+        // With a Large Forward Open connection everything fits into one request.
+        EipDriverContext connected = unconnected();
+        connected.setMaxMessageSize(4000);
+        assertEquals(1, new EipOptimizer().processReadRequest(readRequest, connected).size());
+    }
+
+    @Test
+    public void writesAreSplitByRequestSize() {
+        PlcWriteRequest writeRequest = new DefaultPlcWriteRequest.Builder(null, new EipFieldHandler())
+            .addItem("a", "%arrayA:DINT:100", 1)
+            .addItem("b", "%arrayB:DINT:100", 2)
+            .addItem("c", "%rate:DINT", 3)
+            .build();
+        List<PlcRequest> subRequests = new EipOptimizer().processWriteRequest(writeRequest, unconnected());
+        assertEquals(2, subRequests.size());
+    }
+
+    @Test
+    public void fieldsOfUnknownSizeGetARequestOfTheirOwn() {
+        PlcReadRequest readRequest = new DefaultPlcReadRequest.Builder(null, new EipFieldHandler())
+            .addItem("a", "%rate:DINT")
+            .addItem("b", "%name:STRING")
+            .addItem("c", "%recipe")
+            .addItem("d", "%speed:REAL")
+            .addItem("e", "%batch")
+            .build();
+        List<PlcRequest> subRequests = new EipOptimizer().processReadRequest(readRequest, unconnected());
+        assertEquals(3, subRequests.size());
+        for (PlcRequest subRequest : subRequests) {
+            PlcReadRequest subReadRequest = (PlcReadRequest) subRequest;
+            if (subReadRequest.getFieldNames().contains("c") || subReadRequest.getFieldNames().contains("e")) {
+                assertEquals(1, subReadRequest.getNumberOfFields());
+            } else {
+                assertEquals(3, subReadRequest.getNumberOfFields());
+            }
+        }
+    }
+
+    @Test
+    public void requestPathSize() {
+        // 0x91, length, "rate"
+        assertEquals(6, EipOptimizer.getRequestPathSize("rate"));
+        // 0x91, length, "abc", pad, 0x28, index
+        assertEquals(8, EipOptimizer.getRequestPathSize("abc[3]"));
+        // 0x91, length, "a", pad, 0x91, length, "bc"
+        assertEquals(8, EipOptimizer.getRequestPathSize("a.bc"));
+    }
+
+    private EipDriverContext unconnected() {
+        EipDriverContext driverContext = new EipDriverContext();
+        driverContext.setMaxMessageSize(EipDriverContext.UNCONNECTED_MESSAGE_SIZE);
+        return driverContext;
+    }
+
+}
@@ -0,0 +1,364 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.plc4x.java.eip.readwrite.protocol;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultEventLoop;
+import io.netty.channel.local.LocalChannel;
+import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.apache.plc4x.java.api.messages.PlcReadResponse;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.eip.readwrite.*;
+import org.apache.plc4x.java.eip.readwrite.configuration.EIPConfiguration;
+import org.apache.plc4x.java.eip.readwrite.context.EipDriverContext;
+import org.apache.plc4x.java.eip.readwrite.field.EipFieldHandler;
+import org.apache.plc4x.java.eip.readwrite.types.CIPDataTypeCode;
+import org.apache.plc4x.java.spi.Plc4xNettyWrapper;
+import org.apache.plc4x.java.spi.events.ConnectEvent;
+import org.apache.plc4x.java.spi.events.ConnectedEvent;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EipProtocolLogicTest {
+
+    private static final long SESSION_HANDLE = 1L;
+    private static final short[] SENDER_CONTEXT = new short[8];
+    private static final short STATUS_PARTIAL_TRANSFER = (short) 0x06;
+
+    private DefaultEventLoop eventLoop;
+    private LocalChannel channel;
+    private BlockingQueue<EipPacket> sent;
+    private CompletableFuture<Void> connected;
+    private EipProtocolLogic logic;
+
+    @BeforeEach
+    public void setUp() {
+        // The requests are sent from the threads of the request-transaction manager, so the pipeline
+        // needs an event loop of its own.
+        eventLoop = new DefaultEventLoop();
+        channel = new LocalChannel();
+        eventLoop.register(channel).syncUninterruptibly();
+        sent = new LinkedBlockingQueue<>();
+        connected = new CompletableFuture<>();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        eventLoop.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void forwardOpenTimeoutFallsBackToUnconnectedMessaging() throws Exception {
+        connect(true);
+        EipPacket forwardOpen = sent.poll(1, TimeUnit.SECONDS);
+        assertTrue(getService(forwardOpen) instanceof CipLargeForwardOpenRequest);
+
+        // The PLC doesn't answer the Forward Open.
+        connected.get(2, TimeUnit.SECONDS);
+        assertUnconnectedRead();
+    }
+
+    @Test
+    public void rejectedForwardOpenFallsBackToUnconnectedMessaging() throws Exception {
+        connect(true);
+        EipPacket forwardOpen = sent.poll(1, TimeUnit.SECONDS);
+        assertNotNull(forwardOpen);
+        // Message Routers not supporting the Large Forward Open only answer with the general status.
+        receive(new CipRRData(SESSION_HANDLE, 0L, SENDER_CONTEXT, 0L, new CipExchange(
+            new CipLargeForwardOpenResponse((short) 0x08, (short) 0, new int[0], null, null, null, null, null,
+                null, null, null, new byte[0]))));
+
+        connected.get(1, TimeUnit.SECONDS);
+        assertUnconnectedRead();
+    }
+
+    @Test
+    public void connectedResponsesAreMatchedBySequenceCount() throws Exception {
+        openConnection();
+
+        // Both requests are in flight at the same time.
+        CompletableFuture<PlcReadResponse> first = logic.read(readRequest("%first:DINT"));
+        SendUnitData firstRequest = (SendUnitData) sent.poll(1, TimeUnit.SECONDS);
+        assertNotNull(firstRequest);
+        CompletableFuture<PlcReadResponse> second = logic.read(readRequest("%second:DINT"));
+        SendUnitData secondRequest = (SendUnitData) sent.poll(1, TimeUnit.SECONDS);
+        assertNotNull(secondRequest);
+        assertEquals(0x80010002L, firstRequest.getExchange().getConnectionId());
+
+        receive(connectedResponse(secondRequest, 2));
+        assertEquals(2, second.get(1, TimeUnit.SECONDS).getInteger("value"));
+        assertFalse(first.isDone());
+        receive(connectedResponse(firstRequest, 1));
+        assertEquals(1, first.get(1, TimeUnit.SECONDS).getInteger("value"));
+    }
+
+    @Test
+    public void unansweredRequestTimesOut() throws Exception {
+        connect(false);
+        connected.get(1, TimeUnit.SECONDS);
+        CompletableFuture<PlcReadResponse> first = logic.read(readRequest("%rate:DINT"));
+        assertNotNull(sent.poll(1, TimeUnit.SECONDS));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> first.get(2, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof TimeoutException);
+
+        // The timed out request must not keep blocking the connection.
+        assertUnconnectedRead();
+    }
+
+    @Test
+    public void fieldOfUnknownSizeIsContinuedWithFragmentedReads() throws Exception {
+        connect(false);
+        CompletableFuture<PlcReadResponse> future = logic.read(readRequest("%rate"));
+        EipPacket readTag = sent.poll(1, TimeUnit.SECONDS);
+        assertTrue(((CipUnconnectedRequest) getService(readTag)).getUnconnectedService() instanceof CipReadRequest);
+        // The data doesn't fit into the response.
+        receive(new CipRRData(SESSION_HANDLE, 0L, SENDER_CONTEXT, 0L, new CipExchange(
+            new CipReadResponse(STATUS_PARTIAL_TRANSFER, (short) 0, CIPDataTypeCode.DINT,
+                new byte[]{(byte) 0x2A, (byte) 0x00}))));
+
+        EipPacket readFragmented = sent.poll(1, TimeUnit.SECONDS);
+        CipService fragmentRequest = ((CipUnconnectedRequest) getService(readFragmented)).getUnconnectedService();
+        assertTrue(fragmentRequest instanceof CipReadFragmentedRequest);
+        assertEquals(2L, ((CipReadFragmentedRequest) fragmentRequest).getOffset());
+        receive(new CipRRData(SESSION_HANDLE, 0L, SENDER_CONTEXT, 0L, new CipExchange(
+            new CipReadFragmentedResponse((short) 0, (short) 0, CIPDataTypeCode.DINT,
+                new byte[]{(byte) 0x01, (byte) 0x00}))));
+
+        PlcReadResponse response = future.get(1, TimeUnit.SECONDS);
+        assertEquals(PlcResponseCode.OK, response.getResponseCode("value"));
+        assertEquals(0x0001002A, response.getInteger("value"));
+    }
+
+    @Test
+    public void structureHandleIsStrippedFromEveryFragment() throws Exception {
+        connect(false);
+        CompletableFuture<PlcReadResponse> future = logic.read(readRequest("%udt"));
+        EipPacket readTag = sent.poll(1, TimeUnit.SECONDS);
+        assertTrue(((CipUnconnectedRequest) getService(readTag)).getUnconnectedService() instanceof CipReadRequest);
+        // Every fragment of a structure starts with the handle of the structure (0x1234).
+        receive(new CipRRData(SESSION_HANDLE, 0L, SENDER_CONTEXT, 0L, new CipExchange(
+            new CipReadResponse(STATUS_PARTIAL_TRANSFER, (short) 0, CIPDataTypeCode.STRUCTURED,
+                new byte[]{0x34, 0x12, 1, 2, 3, 4, 5, 6}))));
+
+        CipReadFragmentedRequest second = (CipReadFragmentedRequest)
+            ((CipUnconnectedRequest) getService(sent.poll(1, TimeUnit.SECONDS))).getUnconnectedService();
+        assertEquals(6L, second.getOffset());
+        receive(new CipRRData(SESSION_HANDLE, 0L, SENDER_CONTEXT, 0L, new CipExchange(
+            new CipReadFragmentedResponse(STATUS_PARTIAL_TRANSFER, (short) 0, CIPDataTypeCode.STRUCTURED,
+                new byte[]{0x34, 0x12, 7, 8, 9, 10}))));
+
+        CipReadFragmentedRequest third = (CipReadFragmentedRequest)
+            ((CipUnconnectedRequest) getService(sent.poll(1, TimeUnit.SECONDS))).getUnconnectedService();
+        assertEquals(10L, third.getOffset());
+        receive(new CipRRData(SESSION_HANDLE, 0L, SENDER_CONTEXT, 0L, new CipExchange(
+            new CipReadFragmentedResponse((short) 0, (short) 0, CIPDataTypeCode.STRUCTURED,
+                new byte[]{0x34, 0x12, 11, 12}))));
+
+        PlcReadResponse response = future.get(1, TimeUnit.SECONDS);
+        assertEquals(PlcResponseCode.OK, response.getResponseCode("value"));
+        assertEquals(12, response.getNumberOfValues("value"));
+        for (int i = 0; i < 12; i++) {
+            assertEquals((byte) (i + 1), response.getByte("value", i));
+        }
+        assertNull(sent.poll());
+    }
+
+    @Test
+    public void fragmentsAreReassembledInTheOrderOfTheirOffsets() throws Exception {
+        openConnection();
+        byte[] data = dintArray(1100);
+        CompletableFuture<PlcReadResponse> future = logic.read(readRequest("%big:DINT:1100"));
+        SendUnitData first = (SendUnitData) sent.poll(1, TimeUnit.SECONDS);
+        assertEquals(0L, getReadFragmentedRequest(first).getOffset());
+        receive(fragmentResponse(first, STATUS_PARTIAL_TRANSFER, data, 0, 1000));
+
+        // The total size is known from the data type, so all remaining fragments are requested at once.
+        Map<Long, SendUnitData> requests = new HashMap<>();
+        for (int i = 0; i < 4; i++) {
+            SendUnitData request = (SendUnitData) sent.poll(1, TimeUnit.SECONDS);
+            assertNotNull(request);
+            requests.put(getReadFragmentedRequest(request).getOffset(), request);
+        }
+        assertEquals(new HashSet<>(Arrays.asList(1000L, 2000L, 3000L, 4000L)), requests.keySet());
+
+        // The responses arrive in reverse order and one of them is shorter than requested.
+        receive(fragmentResponse(requests.get(4000L), (short) 0, data, 4000, 400));
+        receive(fragmentResponse(requests.get(3000L), STATUS_PARTIAL_TRANSFER, data, 3000, 1000));
+        receive(fragmentResponse(requests.get(2000L), STATUS_PARTIAL_TRANSFER, data, 2000, 600));
+        SendUnitData rest = (SendUnitData) sent.poll(1, TimeUnit.SECONDS);
+        assertEquals(2600L, getReadFragmentedRequest(rest).getOffset());
+        receive(fragmentResponse(requests.get(1000L), STATUS_PARTIAL_TRANSFER, data, 1000, 1000));
+        assertFalse(future.isDone());
+        receive(fragmentResponse(rest, STATUS_PARTIAL_TRANSFER, data, 2600, 400));
+
+        PlcReadResponse response = future.get(1, TimeUnit.SECONDS);
+        assertEquals(PlcResponseCode.OK, response.getResponseCode("value"));
+        assertEquals(1100, response.getNumberOfValues("value"));
+        for (int i = 0; i < 1100; i++) {
+            assertEquals(i, response.getInteger("value", i));
+        }
+        assertNull(sent.poll());
+    }
+
+    @Test
+    public void unansweredFragmentTimesOut() throws Exception {
+        connect(false);
+        byte[] data = dintArray(200);
+        CompletableFuture<PlcReadResponse> future = logic.read(readRequest("%big:DINT:200"));
+        EipPacket first = sent.poll(1, TimeUnit.SECONDS);
+        CipService request = ((CipUnconnectedRequest) getService(first)).getUnconnectedService();
+        assertEquals(0L, ((CipReadFragmentedRequest) request).getOffset());
+        receive(new CipRRData(SESSION_HANDLE, 0L, SENDER_CONTEXT, 0L, new CipExchange(
+            new CipReadFragmentedResponse(STATUS_PARTIAL_TRANSFER, (short) 0, CIPDataTypeCode.DINT,
+                Arrays.copyOfRange(data, 0, 400)))));
+
+        // The PLC doesn't answer the second fragment.
+        assertNotNull(sent.poll(1, TimeUnit.SECONDS));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(2, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof TimeoutException);
+        assertUnconnectedRead();
+    }
+
+    private void connect(boolean connectedMessaging) throws Exception {
+        EIPConfiguration configuration = new EIPConfiguration();
+        configuration.setConnectedMessaging(connectedMessaging);
+        configuration.setConnectionSize(4002);
+        configuration.setMaxInFlight(4);
+        configuration.setRequestTimeout(200);
+        EipDriverContext driverContext = new EipDriverContext();
+        driverContext.setConfiguration(configuration);
+        logic = new EipProtocolLogic();
+        logic.setConfiguration(configuration);
+        logic.setDriverContext(driverContext);
+        channel.pipeline().addLast(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                sent.add((EipPacket) msg);
+                promise.setSuccess();
+            }
+        });
+        channel.pipeline().addLast(new Plc4xNettyWrapper<>(channel.pipeline(), false, logic, EipPacket.class));
+        channel.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+            @Override
+            public void userEventTriggered(ChannelHandlerContext ctx, Object evt) {
+                if (evt instanceof ConnectedEvent) {
+                    connected.complete(null);
+                }
+            }
+        });
+        channel.pipeline().fireUserEventTriggered(new ConnectEvent());
+
+        // Answer the RegisterSession request.
+        assertTrue(sent.poll(1, TimeUnit.SECONDS) instanceof EipConnectionRequest);
+        receive(new EipConnectionRequest(SESSION_HANDLE, 0L, SENDER_CONTEXT, 0L));
+    }
+
+    private void openConnection() throws Exception {
+        connect(true);
+        EipPacket forwardOpen = sent.poll(1, TimeUnit.SECONDS);
+        assertNotNull(forwardOpen);
+        receive(new CipRRData(SESSION_HANDLE, 0L, SENDER_CONTEXT, 0L, new CipExchange(
+            new CipLargeForwardOpenResponse((short) 0, (short) 0, new int[0], 0x80010002L, SESSION_HANDLE, 1, 0x1337,
+                0x42L, 2000000L, 2000000L, (short) 0, new byte[0]))));
+        connected.get(1, TimeUnit.SECONDS);
+    }
+
+    private void assertUnconnectedRead() throws Exception {
+        CompletableFuture<PlcReadResponse> future = logic.read(readRequest("%rate:DINT"));
+        EipPacket request = sent.poll(1, TimeUnit.SECONDS);
+        assertTrue(request instanceof CipRRData);
+        assertTrue(getService(request) instanceof CipUnconnectedRequest);
+        receive(new CipRRData(SESSION_HANDLE, 0L, SENDER_CONTEXT, 0L,
+            new CipExchange(readResponse(42))));
+        PlcReadResponse response = future.get(1, TimeUnit.SECONDS);
+        assertEquals(PlcResponseCode.OK, response.getResponseCode("value"));
+        assertEquals(42, response.getInteger("value"));
+    }
+
+    private void receive(EipPacket response) throws Exception {
+        eventLoop.submit(() -> channel.pipeline().fireChannelRead(response)).get(1, TimeUnit.SECONDS);
+    }
+
+    private static CipService getService(EipPacket packet) {
+        assertTrue(packet instanceof CipRRData);
+        return ((CipRRData) packet).getExchange().getService();
+    }
+
+    private static SendUnitData connectedResponse(SendUnitData request, int value) {
+        return new SendUnitData(SESSION_HANDLE, 0L, SENDER_CONTEXT, 0L, new CipConnectedExchange(SESSION_HANDLE,
+            request.getExchange().getSequenceCount(), readResponse(value)));
+    }
+
+    private static CipReadFragmentedRequest getReadFragmentedRequest(SendUnitData request) {
+        assertNotNull(request);
+        CipService service = request.getExchange().getService();
+        assertTrue(service instanceof CipReadFragmentedRequest);
+        return (CipReadFragmentedRequest) service;
+    }
+
+    private static SendUnitData fragmentResponse(SendUnitData request, short status, byte[] data, int offset,
+                                                 int length) {
+        return new SendUnitData(SESSION_HANDLE, 0L, SENDER_CONTEXT, 0L, new CipConnectedExchange(SESSION_HANDLE,
+            request.getExchange().getSequenceCount(), new CipReadFragmentedResponse(status, (short) 0,
+            CIPDataTypeCode.DINT, Arrays.copyOfRange(data, offset, offset + length))));
+    }
+
+    /**
+     * @return the little endian encoded DINT array 0, 1, 2, ...
+     */
+    private static byte[] dintArray(int elements) {
+        ByteBuffer buffer = ByteBuffer.allocate(elements * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < elements; i++) {
+            buffer.putInt(i);
+        }
+        return buffer.array();
+    }
+
+    private static CipReadResponse readResponse(int value) {
+        return new CipReadResponse((short) 0, (short) 0, CIPDataTypeCode.DINT,
+            new byte[]{(byte) value, (byte) 0x00, (byte) 0x00, (byte) 0x00});
+    }
+
+    private static PlcReadRequest readRequest(String address) {
+        return new DefaultPlcReadRequest.Builder(null, new EipFieldHandler())
+            .addItem("value", address)
+            .build();
+    }
+
+}
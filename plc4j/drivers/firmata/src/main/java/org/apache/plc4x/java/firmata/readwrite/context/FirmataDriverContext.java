@@ -30,20 +30,32 @@ import org.apache.plc4x.java.firmata.readwrite.field.FirmataFieldAnalog;
 import org.apache.plc4x.java.firmata.readwrite.field.FirmataFieldDigital;
 import org.apache.plc4x.java.firmata.readwrite.types.PinMode;
 import org.apache.plc4x.java.spi.context.DriverContext;
+import org.apache.plc4x.java.spi.messages.InternalPlcSubscriptionRequest;
 import org.apache.plc4x.java.spi.messages.InternalPlcWriteRequest;
+import org.apache.plc4x.java.spi.model.SubscriptionPlcField;
 
 import java.util.*;
 
 public class FirmataDriverContext implements DriverContext {
 
+    // Firmata uses 8 pins per digital port.
+    private static final int PINS_PER_PORT = 8;
+    // The sampling interval is transferred as 14 bit integer.
+    private static final int MAX_SAMPLING_INTERVAL = 0x3FFF;
+
     private final List<PlcSubscriptionRequest> subscriptions;
     private final Map<Integer, PinMode> digitalPins;
     private final Map<Integer, PinMode> analogPins;
+    private final Set<Integer> reportingDigitalPorts;
+    // Sampling interval of the analog pins (in ms), -1 as long as the default of the firmware is used.
+    private int samplingInterval;
 
     public FirmataDriverContext() {
         subscriptions = new LinkedList<>();
         digitalPins = new HashMap<>();
         analogPins = new HashMap<>();
+        reportingDigitalPorts = new HashSet<>();
+        samplingInterval = -1;
     }
 
     public List<FirmataMessage> processWriteRequest(PlcWriteRequest writeRequest) {
@@ -89,6 +101,7 @@ public class FirmataDriverContext implements DriverContext {
         // Convert the request into maps of bit sets.
         Map<Integer, PinMode> requestDigitalFieldPinModes = new HashMap<>();
         Map<Integer, PinMode> requestAnalogFieldPinModes = new HashMap<>();
+        int requestSamplingInterval = -1;
         for (String fieldName : subscriptionRequest.getFieldNames()) {
             final PlcField field = subscriptionRequest.getField(fieldName);
             if(field instanceof FirmataFieldDigital) {
@@ -106,13 +119,19 @@ public class FirmataDriverContext implements DriverContext {
                 for(int pin = fieldAnalog.getAddress(); pin < fieldAnalog.getAddress() + fieldAnalog.getQuantity(); pin++) {
                     requestAnalogFieldPinModes.put(pin, PinMode.PinModeInput);
                 }
+                // The sampling interval applies to all analog pins, so use the shortest one requested.
+                long fieldSamplingInterval = getSamplingInterval(subscriptionRequest, fieldName);
+                if((fieldSamplingInterval > 0) &&
+                    ((requestSamplingInterval < 0) || (fieldSamplingInterval < requestSamplingInterval))) {
+                    requestSamplingInterval = (int) Math.min(fieldSamplingInterval, MAX_SAMPLING_INTERVAL);
+                }
             } else {
                 throw new PlcRuntimeException("Unsupported field type " + field.getClass().getSimpleName());
             }
         }
 
         // If a requested digital pin is already subscribed, blank this out
-        for (Map.Entry<Integer, PinMode> entry : requestDigitalFieldPinModes.entrySet()) {
+        for (Map.Entry<Integer, PinMode> entry : new ArrayList<>(requestDigitalFieldPinModes.entrySet())) {
             int pin = entry.getKey();
             PinMode pinMode = entry.getValue();
             if(digitalPins.containsKey(pin)) {
@@ -126,7 +145,7 @@ public class FirmataDriverContext implements DriverContext {
             }
         }
         // If a requested analog pin is already subscribed, blank this out
-        for (Map.Entry<Integer, PinMode> entry : requestAnalogFieldPinModes.entrySet()) {
+        for (Map.Entry<Integer, PinMode> entry : new ArrayList<>(requestAnalogFieldPinModes.entrySet())) {
             int pin = entry.getKey();
             if(analogPins.containsKey(pin)) {
                 requestAnalogFieldPinModes.remove(pin);
@@ -138,16 +157,32 @@ public class FirmataDriverContext implements DriverContext {
 
         // Create a list of messages that need to be sent to achieve the desired subscriptions.
         List<FirmataMessage> messages = new LinkedList<>();
+        // Digital pins can be input and output, so first we have to set them to "input"
+        Set<Integer> requestDigitalPorts = new TreeSet<>();
         for (Map.Entry<Integer, PinMode> entry : requestDigitalFieldPinModes.entrySet()) {
             int pin = entry.getKey();
             PinMode pinMode = entry.getValue();
-            // Digital pins can be input and output, so first we have to set it to "input"
+            digitalPins.put(pin, pinMode);
             messages.add(new FirmataMessageCommand(new FirmataCommandSetPinMode((byte) pin, pinMode)));
-            // And then tell the remote to send change of state information.
-            messages.add(new FirmataMessageSubscribeDigitalPinValue((byte) pin, true));
+            requestDigitalPorts.add(pin / PINS_PER_PORT);
+        }
+        // And then tell the remote to send change of state information.
+        // Reporting is enabled for a whole port, so this is only needed once per port.
+        for (Integer port : requestDigitalPorts) {
+            if(reportingDigitalPorts.add(port)) {
+                messages.add(new FirmataMessageSubscribeDigitalPinValue(port.byteValue(), true));
+            }
+        }
+        // Configure the sampling interval of the analog pins once for the entire request (before enabling them).
+        if((requestSamplingInterval > 0) &&
+            ((samplingInterval < 0) || (requestSamplingInterval < samplingInterval))) {
+            samplingInterval = requestSamplingInterval;
+            messages.add(new FirmataMessageCommand(new FirmataCommandSysex(new SysexCommandSamplingInterval(
+                new byte[] {(byte) (samplingInterval & 0x7F), (byte) ((samplingInterval >> 7) & 0x7F)}))));
         }
         for (Map.Entry<Integer, PinMode> entry : requestAnalogFieldPinModes.entrySet()) {
             int pin = entry.getKey();
+            analogPins.put(pin, entry.getValue());
             // Tell the remote to send change of state information for this analog pin.
             messages.add(new FirmataMessageSubscribeAnalogPinValue((byte) pin, true));
         }
@@ -155,4 +190,19 @@ public class FirmataDriverContext implements DriverContext {
         return messages;
     }
 
+    /**
+     * @return the interval (in ms) requested for the given field or -1 if none was requested.
+     */
+    private long getSamplingInterval(PlcSubscriptionRequest subscriptionRequest, String fieldName) {
+        if(!(subscriptionRequest instanceof InternalPlcSubscriptionRequest)) {
+            return -1;
+        }
+        SubscriptionPlcField subscriptionPlcField =
+            ((InternalPlcSubscriptionRequest) subscriptionRequest).getSubscriptionPlcFieldMap().get(fieldName);
+        if((subscriptionPlcField == null) || !subscriptionPlcField.getDuration().isPresent()) {
+            return -1;
+        }
+        return subscriptionPlcField.getDuration().get().toMillis();
+    }
+
 }
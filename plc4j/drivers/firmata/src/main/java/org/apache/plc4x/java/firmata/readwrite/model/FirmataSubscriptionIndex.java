@@ -0,0 +1,153 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.firmata.readwrite.model;
+
+import org.apache.plc4x.java.api.messages.PlcSubscriptionEvent;
+import org.apache.plc4x.java.firmata.readwrite.field.FirmataField;
+import org.apache.plc4x.java.firmata.readwrite.field.FirmataFieldAnalog;
+import org.apache.plc4x.java.firmata.readwrite.field.FirmataFieldDigital;
+import org.apache.plc4x.java.spi.model.DefaultPlcConsumerRegistration;
+import org.apache.plc4x.java.spi.model.InternalPlcSubscriptionHandle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Immutable dispatch table for incoming Firmata reports.
+ *
+ * Firmata reports digital values for a whole port (8 pins) per message and analog values for a single
+ * pin. For every digital port this table contains the subscriptions, each with a bitmask of the pins
+ * of this port it's interested in. So for an incoming report only the subscriptions of the reported
+ * port have to be checked and AND-ing the mask with the changed bits tells if they are affected.
+ *
+ * The table is rebuilt whenever a consumer is registered or unregistered.
+ */
+public class FirmataSubscriptionIndex {
+
+    // 'pinBlock' and 'pin' of the digital and analog messages are 4 bit values.
+    public static final int NUM_DIGITAL_PORTS = 16;
+    public static final int NUM_ANALOG_PINS = 16;
+    public static final int PINS_PER_PORT = 8;
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private final Entry[][] digitalEntries;
+    private final Entry[][] analogEntries;
+
+    public FirmataSubscriptionIndex(Map<DefaultPlcConsumerRegistration, Consumer<PlcSubscriptionEvent>> consumers) {
+        List<List<Entry>> digital = createLists(NUM_DIGITAL_PORTS);
+        List<List<Entry>> analog = createLists(NUM_ANALOG_PINS);
+        for (Map.Entry<DefaultPlcConsumerRegistration, Consumer<PlcSubscriptionEvent>> consumerEntry : consumers.entrySet()) {
+            final Consumer<PlcSubscriptionEvent> consumer = consumerEntry.getValue();
+            for (InternalPlcSubscriptionHandle handle : consumerEntry.getKey().getAssociatedHandles()) {
+                if (!(handle instanceof FirmataSubscriptionHandle)) {
+                    continue;
+                }
+                FirmataSubscriptionHandle subscriptionHandle = (FirmataSubscriptionHandle) handle;
+                FirmataField field = subscriptionHandle.getField();
+                if (field instanceof FirmataFieldDigital) {
+                    // Split the pins of the field up into one bitmask per port.
+                    int[] portMasks = new int[NUM_DIGITAL_PORTS];
+                    for (int pin = field.getAddress(); pin < field.getAddress() + field.getQuantity(); pin++) {
+                        if (pin < NUM_DIGITAL_PORTS * PINS_PER_PORT) {
+                            portMasks[pin / PINS_PER_PORT] |= 1 << (pin % PINS_PER_PORT);
+                        }
+                    }
+                    for (int port = 0; port < NUM_DIGITAL_PORTS; port++) {
+                        if (portMasks[port] != 0) {
+                            digital.get(port).add(new Entry(consumer, subscriptionHandle, portMasks[port]));
+                        }
+                    }
+                } else if (field instanceof FirmataFieldAnalog) {
+                    for (int pin = field.getAddress(); pin < field.getAddress() + field.getQuantity(); pin++) {
+                        if (pin < NUM_ANALOG_PINS) {
+                            analog.get(pin).add(new Entry(consumer, subscriptionHandle, 1));
+                        }
+                    }
+                }
+            }
+        }
+        digitalEntries = toArrays(digital);
+        analogEntries = toArrays(analog);
+    }
+
+    /**
+     * @param port number of the digital port (pin block)
+     * @return entries for all subscriptions containing at least one pin of this port
+     */
+    public Entry[] getDigitalEntries(int port) {
+        return ((port >= 0) && (port < NUM_DIGITAL_PORTS)) ? digitalEntries[port] : NO_ENTRIES;
+    }
+
+    /**
+     * @param pin number of the analog pin
+     * @return entries for all subscriptions containing this pin
+     */
+    public Entry[] getAnalogEntries(int pin) {
+        return ((pin >= 0) && (pin < NUM_ANALOG_PINS)) ? analogEntries[pin] : NO_ENTRIES;
+    }
+
+    private static List<List<Entry>> createLists(int size) {
+        List<List<Entry>> lists = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            lists.add(new ArrayList<>());
+        }
+        return lists;
+    }
+
+    private static Entry[][] toArrays(List<List<Entry>> lists) {
+        Entry[][] arrays = new Entry[lists.size()][];
+        for (int i = 0; i < lists.size(); i++) {
+            arrays[i] = lists.get(i).isEmpty() ? NO_ENTRIES : lists.get(i).toArray(NO_ENTRIES);
+        }
+        return arrays;
+    }
+
+    public static class Entry {
+
+        private final Consumer<PlcSubscriptionEvent> consumer;
+        private final FirmataSubscriptionHandle handle;
+        private final int mask;
+
+        Entry(Consumer<PlcSubscriptionEvent> consumer, FirmataSubscriptionHandle handle, int mask) {
+            this.consumer = consumer;
+            this.handle = handle;
+            this.mask = mask;
+        }
+
+        public Consumer<PlcSubscriptionEvent> getConsumer() {
+            return consumer;
+        }
+
+        public FirmataSubscriptionHandle getHandle() {
+            return handle;
+        }
+
+        /**
+         * @return bitmask of the pins of the port this subscription is interested in.
+         */
+        public int getMask() {
+            return mask;
+        }
+
+    }
+
+}
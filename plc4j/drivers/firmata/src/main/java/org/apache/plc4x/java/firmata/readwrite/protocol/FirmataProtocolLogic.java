@@ -18,7 +18,6 @@ under the License.
 */
 package org.apache.plc4x.java.firmata.readwrite.protocol;
 
-import org.apache.commons.lang3.ArrayUtils;
 import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
 import org.apache.plc4x.java.api.messages.*;
 import org.apache.plc4x.java.api.model.PlcConsumerRegistration;
@@ -31,9 +30,8 @@ import org.apache.plc4x.java.api.value.PlcValue;
 import org.apache.plc4x.java.firmata.readwrite.*;
 import org.apache.plc4x.java.firmata.readwrite.context.FirmataDriverContext;
 import org.apache.plc4x.java.firmata.readwrite.field.FirmataField;
-import org.apache.plc4x.java.firmata.readwrite.field.FirmataFieldAnalog;
-import org.apache.plc4x.java.firmata.readwrite.field.FirmataFieldDigital;
 import org.apache.plc4x.java.firmata.readwrite.model.FirmataSubscriptionHandle;
+import org.apache.plc4x.java.firmata.readwrite.model.FirmataSubscriptionIndex;
 import org.apache.plc4x.java.spi.ConversationContext;
 import org.apache.plc4x.java.spi.Plc4xProtocolBase;
 import org.apache.plc4x.java.spi.messages.*;
@@ -43,7 +41,6 @@ import org.apache.plc4x.java.spi.model.InternalPlcSubscriptionHandle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
@@ -51,7 +48,6 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 public class FirmataProtocolLogic extends Plc4xProtocolBase<FirmataMessage> implements PlcSubscriber {
@@ -61,10 +57,14 @@ public class FirmataProtocolLogic extends Plc4xProtocolBase<FirmataMessage> impl
     public static final Duration REQUEST_TIMEOUT = Duration.ofMillis(10000);
 
     private AtomicBoolean connected = new AtomicBoolean(false);
-    private Map<Integer, AtomicInteger> analogValues = new HashMap<>();
-    private BitSet digitalValues = new BitSet();
+    // Last reported values (only accessed from within decode)
+    private final int[] analogValues = new int[FirmataSubscriptionIndex.NUM_ANALOG_PINS];
+    private int reportedAnalogPins = 0;
+    private final int[] digitalPortValues = new int[FirmataSubscriptionIndex.NUM_DIGITAL_PORTS];
+    private int reportedDigitalPorts = 0;
 
     private Map<DefaultPlcConsumerRegistration, Consumer<PlcSubscriptionEvent>> consumers = new ConcurrentHashMap<>();
+    private volatile FirmataSubscriptionIndex subscriptionIndex = new FirmataSubscriptionIndex(Collections.emptyMap());
 
     @Override
     public void onConnect(ConversationContext<FirmataMessage> context) {
@@ -148,28 +148,30 @@ public class FirmataProtocolLogic extends Plc4xProtocolBase<FirmataMessage> impl
             FirmataMessageAnalogIO analogIO = (FirmataMessageAnalogIO) msg;
             int pin = analogIO.getPin();
             int analogValue = getAnalogValue(analogIO.getData());
+            int pinBit = 1 << pin;
             // If this is the first value, or the value changed, send update events..
-            if((analogValues.get(pin) == null) || (analogValue != analogValues.get(pin).intValue())) {
-                analogValues.put(pin, new AtomicInteger(analogValue));
-                publishAnalogEvents(pin, analogValue);
+            if(((reportedAnalogPins & pinBit) == 0) || (analogValue != analogValues[pin])) {
+                analogValues[pin] = analogValue;
+                reportedAnalogPins |= pinBit;
+                publishAnalogEvents(pin);
             }
         } else if(msg instanceof FirmataMessageDigitalIO) {
             // Digital values come 8 pins together (ignoring the pin value, which is always 0).
             FirmataMessageDigitalIO digitalIO = (FirmataMessageDigitalIO) msg;
-            BitSet newDigitalValues = getDigitalValues(digitalIO.getPinBlock(), digitalIO.getData());
+            int port = digitalIO.getPinBlock();
+            int portValue = convertToSingleByteRepresentation(digitalIO.getData());
+            int portBit = 1 << port;
 
-            // Compare the currently set bits with the ones from the last time to see what's changed.
-            BitSet changedBits = new BitSet();
-            for (int i = 0; i < 8; i++) {
-                int bitPos = i + (8 * digitalIO.getPinBlock());
-                if (digitalValues.get(bitPos) != newDigitalValues.get(bitPos)) {
-                    changedBits.set(bitPos, true);
-                    digitalValues.set(bitPos, newDigitalValues.get(bitPos));
-                }
-            }
+            // Compare the bits with the ones from the last report of this port to see what's changed.
+            // On the first report of a port all bits count as changed.
+            int changedBits = ((reportedDigitalPorts & portBit) == 0) ? 0xFF : (digitalPortValues[port] ^ portValue);
+            digitalPortValues[port] = portValue;
+            reportedDigitalPorts |= portBit;
 
             // Send out update events.
-            publishDigitalEvents(changedBits, digitalValues);
+            if(changedBits != 0) {
+                publishDigitalEvents(port, changedBits);
+            }
         } else {
             LOGGER.debug(String.format("Unexpected message %s", msg.toString()));
         }
@@ -184,96 +186,92 @@ public class FirmataProtocolLogic extends Plc4xProtocolBase<FirmataMessage> impl
     public PlcConsumerRegistration register(Consumer<PlcSubscriptionEvent> consumer, Collection<PlcSubscriptionHandle> collection) {
         final DefaultPlcConsumerRegistration consumerRegistration =
             new DefaultPlcConsumerRegistration(this, consumer, collection.toArray(new InternalPlcSubscriptionHandle[0]));
-        consumers.put(consumerRegistration, consumer);
+        synchronized (consumers) {
+            consumers.put(consumerRegistration, consumer);
+            subscriptionIndex = new FirmataSubscriptionIndex(consumers);
+        }
         return consumerRegistration;
     }
 
     @Override
     public void unregister(PlcConsumerRegistration plcConsumerRegistration) {
         DefaultPlcConsumerRegistration consumerRegistration = (DefaultPlcConsumerRegistration) plcConsumerRegistration;
-        consumers.remove(consumerRegistration);
+        synchronized (consumers) {
+            consumers.remove(consumerRegistration);
+            subscriptionIndex = new FirmataSubscriptionIndex(consumers);
+        }
     }
 
-    protected void publishAnalogEvents(int pin, int value) {
-        // Try sending the subscription event to all listeners.
-        for (Map.Entry<DefaultPlcConsumerRegistration, Consumer<PlcSubscriptionEvent>> entry : consumers.entrySet()) {
-            final DefaultPlcConsumerRegistration registration = entry.getKey();
-            final Consumer<PlcSubscriptionEvent> consumer = entry.getValue();
-            // Only if the current data point matches the subscription, publish the event to it.
-            for (InternalPlcSubscriptionHandle handle : registration.getAssociatedHandles()) {
-                if (handle instanceof FirmataSubscriptionHandle) {
-                    FirmataSubscriptionHandle subscriptionHandle = (FirmataSubscriptionHandle) handle;
-                    // Check if the subscription matches this current event
-                    // (The bit subscribed to in this field actually changed).
-                    if (subscriptionHandle.getField() instanceof FirmataFieldAnalog) {
-                        FirmataFieldAnalog analogField = (FirmataFieldAnalog) subscriptionHandle.getField();
-                        // Check if this field would include the current pin.
-                        if((analogField.getAddress() <= pin) &&
-                            (analogField.getAddress() + analogField.getQuantity() >= pin)) {
-                            // Build an update event containing the current values for all subscribed fields.
-                            List<PlcValue> values = new ArrayList<>(analogField.getQuantity());
-                            for(int i = analogField.getAddress(); i < analogField.getAddress() + analogField.getQuantity(); i++) {
-                                if(analogValues.containsKey(i)) {
-                                    values.add(new PlcInteger(analogValues.get(i).intValue()));
-                                }
-                                // This could be the case if only some of the requested array values are available
-                                else {
-                                    values.add(new PlcInteger(-1));
-                                }
-                            }
-                            sendUpdateEvents(consumer, subscriptionHandle.getName(), values);
-                        }
-                    }
+    protected void publishAnalogEvents(int pin) {
+        final FirmataSubscriptionIndex.Entry[] entries = subscriptionIndex.getAnalogEntries(pin);
+        if(entries.length == 0) {
+            return;
+        }
+        // Collect the values of all affected fields, so every consumer gets one event per report.
+        Map<Consumer<PlcSubscriptionEvent>, Map<String, ResponseItem<PlcValue>>> events = new LinkedHashMap<>();
+        for (FirmataSubscriptionIndex.Entry entry : entries) {
+            final FirmataField analogField = entry.getHandle().getField();
+            // Build an update event containing the current values for all pins of the field.
+            List<PlcValue> values = new ArrayList<>(analogField.getQuantity());
+            for(int i = analogField.getAddress(); i < analogField.getAddress() + analogField.getQuantity(); i++) {
+                if((i < FirmataSubscriptionIndex.NUM_ANALOG_PINS) && ((reportedAnalogPins & (1 << i)) != 0)) {
+                    values.add(new PlcInteger(analogValues[i]));
+                }
+                // This could be the case if only some of the requested array values are available
+                else {
+                    values.add(new PlcInteger(-1));
                 }
             }
+            addUpdateValue(events, entry, values);
         }
+        sendUpdateEvents(events);
     }
 
-    protected void publishDigitalEvents(BitSet changedBits, BitSet bitValues) {
-        // If nothing changed, no need to do anything.
-        if(changedBits.cardinality() == 0) {
-            return;
-        }
-        // Try sending the subscription event to all listeners.
-        for (Map.Entry<DefaultPlcConsumerRegistration, Consumer<PlcSubscriptionEvent>> entry : consumers.entrySet()) {
-            final DefaultPlcConsumerRegistration registration = entry.getKey();
-            final Consumer<PlcSubscriptionEvent> consumer = entry.getValue();
-            // Only if the current data point matches the subscription, publish the event to it.
-            for (InternalPlcSubscriptionHandle handle : registration.getAssociatedHandles()) {
-                if(handle instanceof FirmataSubscriptionHandle) {
-                    FirmataSubscriptionHandle subscriptionHandle = (FirmataSubscriptionHandle) handle;
-                    // Check if the subscription matches this current event
-                    // (The bit subscribed to in this field actually changed).
-                    if(subscriptionHandle.getField() instanceof FirmataFieldDigital) {
-                        FirmataFieldDigital digitalField = (FirmataFieldDigital) subscriptionHandle.getField();
-                        // If at least one bit of the current subscription changed it's value,
-                        // send out an update event with all of its current values.
-                        if(digitalField.getBitSet().intersects(changedBits)) {
-                            List<PlcValue> values = new ArrayList<>(digitalField.getBitSet().cardinality());
-                            for(int i = 0; i < digitalField.getBitSet().length(); i++) {
-                                values.add(new PlcBoolean(bitValues.get(i)));
-                            }
-                            sendUpdateEvents(consumer, subscriptionHandle.getName(), values);
-                        }
-                    }
-                }
+    protected void publishDigitalEvents(int port, int changedBits) {
+        final FirmataSubscriptionIndex.Entry[] entries = subscriptionIndex.getDigitalEntries(port);
+        Map<Consumer<PlcSubscriptionEvent>, Map<String, ResponseItem<PlcValue>>> events = null;
+        for (FirmataSubscriptionIndex.Entry entry : entries) {
+            // Only if at least one bit of the current subscription changed it's value,
+            // send out an update event with all of its current values.
+            if((entry.getMask() & changedBits) == 0) {
+                continue;
             }
+            if(events == null) {
+                events = new LinkedHashMap<>();
+            }
+            final FirmataField digitalField = entry.getHandle().getField();
+            List<PlcValue> values = new ArrayList<>(digitalField.getQuantity());
+            for(int pin = digitalField.getAddress(); pin < digitalField.getAddress() + digitalField.getQuantity(); pin++) {
+                values.add(new PlcBoolean(getDigitalValue(pin)));
+            }
+            addUpdateValue(events, entry, values);
+        }
+        if(events != null) {
+            sendUpdateEvents(events);
         }
     }
 
-    protected void sendUpdateEvents(Consumer<PlcSubscriptionEvent> consumer, String fieldName, List<PlcValue> values) {
-        // If it's just one element, return this as a direct PlcValue
-        if(values.size() == 1) {
-            final PlcSubscriptionEvent event = new DefaultPlcSubscriptionEvent(Instant.now(),
-                Collections.singletonMap(fieldName, new ResponseItem<>(PlcResponseCode.OK, values.get(0))));
-            consumer.accept(event);
+    protected void addUpdateValue(Map<Consumer<PlcSubscriptionEvent>, Map<String, ResponseItem<PlcValue>>> events,
+                                  FirmataSubscriptionIndex.Entry entry, List<PlcValue> values) {
+        // If it's just one element, return this as a direct PlcValue, if it's more, return a PlcList instead.
+        PlcValue value = (values.size() == 1) ? values.get(0) : new PlcList(values);
+        events.computeIfAbsent(entry.getConsumer(), consumer -> new HashMap<>())
+            .put(entry.getHandle().getName(), new ResponseItem<>(PlcResponseCode.OK, value));
+    }
+
+    protected void sendUpdateEvents(Map<Consumer<PlcSubscriptionEvent>, Map<String, ResponseItem<PlcValue>>> events) {
+        final Instant timestamp = Instant.now();
+        for (Map.Entry<Consumer<PlcSubscriptionEvent>, Map<String, ResponseItem<PlcValue>>> event : events.entrySet()) {
+            event.getKey().accept(new DefaultPlcSubscriptionEvent(timestamp, event.getValue()));
         }
-        // If it's more, return a PlcList instead.
-        else {
-            final PlcSubscriptionEvent event = new DefaultPlcSubscriptionEvent(Instant.now(),
-                Collections.singletonMap(fieldName, new ResponseItem<>(PlcResponseCode.OK, new PlcList(values))));
-            consumer.accept(event);
+    }
+
+    protected boolean getDigitalValue(int pin) {
+        int port = pin / FirmataSubscriptionIndex.PINS_PER_PORT;
+        if(port >= FirmataSubscriptionIndex.NUM_DIGITAL_PORTS) {
+            return false;
         }
+        return (digitalPortValues[port] & (1 << (pin % FirmataSubscriptionIndex.PINS_PER_PORT))) != 0;
     }
 
     protected int getAnalogValue(byte[] data) {
@@ -288,14 +286,4 @@ public class FirmataProtocolLogic extends Plc4xProtocolBase<FirmataMessage> impl
         return result & 0xFF;
     }
 
-    protected BitSet getDigitalValues(int byteBlock, byte[] data) {
-        int singleByte = convertToSingleByteRepresentation(data);
-        if(byteBlock > 0) {
-            singleByte = singleByte * (256 * byteBlock);
-        }
-        byte[] bitSetData = BigInteger.valueOf(singleByte).toByteArray();
-        ArrayUtils.reverse(bitSetData);
-        return BitSet.valueOf(bitSetData);
-    }
-
 }
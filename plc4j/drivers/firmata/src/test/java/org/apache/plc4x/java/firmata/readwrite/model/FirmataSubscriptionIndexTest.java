@@ -0,0 +1,79 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.firmata.readwrite.model;
+
+import org.apache.plc4x.java.api.messages.PlcSubscriptionEvent;
+import org.apache.plc4x.java.firmata.readwrite.field.FirmataField;
+import org.apache.plc4x.java.spi.model.DefaultPlcConsumerRegistration;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class FirmataSubscriptionIndexTest {
+
+    @Test
+    public void digitalFieldsAreSplitIntoPortMasks() {
+        Consumer<PlcSubscriptionEvent> consumer = event -> {};
+        FirmataSubscriptionHandle spanning = new FirmataSubscriptionHandle(null, "spanning", FirmataField.of("digital:6[4]"));
+        FirmataSubscriptionHandle single = new FirmataSubscriptionHandle(null, "single", FirmataField.of("digital:3"));
+        Map<DefaultPlcConsumerRegistration, Consumer<PlcSubscriptionEvent>> consumers = new HashMap<>();
+        consumers.put(new DefaultPlcConsumerRegistration(null, consumer, spanning, single), consumer);
+
+        FirmataSubscriptionIndex index = new FirmataSubscriptionIndex(consumers);
+
+        FirmataSubscriptionIndex.Entry[] port0 = index.getDigitalEntries(0);
+        assertEquals(2, port0.length);
+        assertSame(spanning, port0[0].getHandle());
+        assertEquals(0xC0, port0[0].getMask());
+        assertSame(single, port0[1].getHandle());
+        assertEquals(0x08, port0[1].getMask());
+
+        FirmataSubscriptionIndex.Entry[] port1 = index.getDigitalEntries(1);
+        assertEquals(1, port1.length);
+        assertSame(spanning, port1[0].getHandle());
+        assertEquals(0x03, port1[0].getMask());
+
+        assertEquals(0, index.getDigitalEntries(2).length);
+        assertEquals(0, index.getAnalogEntries(3).length);
+    }
+
+    @Test
+    public void analogFieldsAreIndexedPerPin() {
+        Consumer<PlcSubscriptionEvent> consumer = event -> {};
+        FirmataSubscriptionHandle analog = new FirmataSubscriptionHandle(null, "analog", FirmataField.of("analog:2[3]"));
+        Map<DefaultPlcConsumerRegistration, Consumer<PlcSubscriptionEvent>> consumers = new HashMap<>();
+        consumers.put(new DefaultPlcConsumerRegistration(null, consumer, analog), consumer);
+
+        FirmataSubscriptionIndex index = new FirmataSubscriptionIndex(consumers);
+
+        assertEquals(0, index.getAnalogEntries(1).length);
+        for (int pin = 2; pin <= 4; pin++) {
+            assertEquals(1, index.getAnalogEntries(pin).length);
+            assertSame(analog, index.getAnalogEntries(pin)[0].getHandle());
+        }
+        assertEquals(0, index.getAnalogEntries(5).length);
+        assertEquals(0, index.getDigitalEntries(0).length);
+    }
+
+}
@@ -19,6 +19,9 @@ under the License.
 package org.apache.plc4x.java.knxnetip;
 
 import io.netty.buffer.ByteBuf;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryItemHandler;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryRequest;
+import org.apache.plc4x.java.knxnetip.discovery.KnxNetIpDiscoverer;
 import org.apache.plc4x.java.knxnetip.configuration.KnxNetIpConfiguration;
 import org.apache.plc4x.java.knxnetip.context.KnxNetIpDriverContext;
 import org.apache.plc4x.java.knxnetip.field.KnxNetIpField;
@@ -31,12 +34,14 @@ import org.apache.plc4x.java.spi.connection.GeneratedDriverBase;
 import org.apache.plc4x.java.spi.connection.PlcFieldHandler;
 import org.apache.plc4x.java.spi.connection.ProtocolStackConfigurer;
 import org.apache.plc4x.java.spi.connection.SingleProtocolStackConfigurer;
+import org.apache.plc4x.java.spi.discovery.BroadcastDiscovery;
 import org.apache.plc4x.java.spi.optimizer.BaseOptimizer;
 import org.apache.plc4x.java.spi.optimizer.SingleFieldOptimizer;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.function.ToIntFunction;
 
-public class KnxNetIpDriver extends GeneratedDriverBase<KNXNetIPMessage> {
+public class KnxNetIpDriver extends GeneratedDriverBase<KNXNetIPMessage> implements BroadcastDiscovery {
 
     public static final int KNXNET_IP_PORT = 3671;
 
@@ -57,7 +62,7 @@ public class KnxNetIpDriver extends GeneratedDriverBase<KNXNetIPMessage> {
 
     @Override
     protected boolean canRead() {
-        return false;
+        return true;
     }
 
     @Override
@@ -70,6 +75,19 @@ public class KnxNetIpDriver extends GeneratedDriverBase<KNXNetIPMessage> {
         return true;
     }
 
+    /**
+     * KNXnet/IP gateways are found with a search request sent to the KNXnet/IP multicast address.
+     */
+    @Override
+    public boolean canDiscover() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Void> discover(PlcDiscoveryRequest discoveryRequest, PlcDiscoveryItemHandler handler) {
+        return new KnxNetIpDiscoverer(getProtocolCode(), getDefaultTransport()).discover(discoveryRequest, handler);
+    }
+
     @Override
     protected Class<? extends Configuration> getConfigurationType() {
         return KnxNetIpConfiguration.class;
@@ -0,0 +1,147 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.knxnetip.cache;
+
+import org.apache.plc4x.java.api.value.PlcValue;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Last-value cache of a single KNXnet/IP connection, keyed by the string representation
+ * of the group address (e.g. "1/2/3").
+ *
+ * As every group telegram on the bus passes the tunnel connection, the cache is updated
+ * with every GroupValueWrite and GroupValueResponse telegram we see, as well as with our
+ * own GroupValueWrite telegrams, as soon as the gateway confirmed them. This way most reads
+ * can be answered locally without having to query the (very slow) KNX bus.
+ */
+public class KnxNetIpValueCache {
+
+    private final Map<String, CachedValue> values = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<PlcValue>> pendingReads = new ConcurrentHashMap<>();
+
+    /**
+     * Update the value of a group address and complete all reads waiting for it.
+     *
+     * @param groupAddress group address the telegram was sent to
+     * @param value        decoded value of the telegram
+     */
+    public void update(String groupAddress, PlcValue value) {
+        values.put(groupAddress, new CachedValue(value, System.currentTimeMillis()));
+        final CompletableFuture<PlcValue> pendingRead = pendingReads.remove(groupAddress);
+        if (pendingRead != null) {
+            pendingRead.complete(value);
+        }
+    }
+
+    /**
+     * Remove the value of a group address, so the next read queries the bus.
+     *
+     * @param groupAddress group address whose value is no longer known
+     */
+    public void invalidate(String groupAddress) {
+        values.remove(groupAddress);
+    }
+
+    /**
+     * @param groupAddress group address to look up
+     * @param maxAge       maximum age of the value in milliseconds (negative values disable the check)
+     * @return the cached value or null if there is none or it's older than maxAge.
+     */
+    public PlcValue get(String groupAddress, long maxAge) {
+        final CachedValue cachedValue = values.get(groupAddress);
+        if (cachedValue == null) {
+            return null;
+        }
+        if ((maxAge >= 0) && (System.currentTimeMillis() - cachedValue.getTimestamp() > maxAge)) {
+            return null;
+        }
+        return cachedValue.getValue();
+    }
+
+    /**
+     * Returns a future which is completed with the next value seen for the given group address.
+     * All callers waiting for the same address share the same future, so only the first one has
+     * to actually send a GroupValueRead to the bus. Completing the future exceptionally (e.g.
+     * after a timeout) removes it, so the next read for this address will query the bus again.
+     *
+     * @param groupAddress group address to wait for
+     * @return pending read for the given address.
+     */
+    public PendingRead awaitUpdate(String groupAddress) {
+        CompletableFuture<PlcValue> future = new CompletableFuture<>();
+        final CompletableFuture<PlcValue> existing = pendingReads.putIfAbsent(groupAddress, future);
+        if (existing != null) {
+            return new PendingRead(existing, false);
+        }
+        future.whenComplete((value, throwable) -> pendingReads.remove(groupAddress, future));
+        return new PendingRead(future, true);
+    }
+
+    public void clear() {
+        values.clear();
+    }
+
+    public static class PendingRead {
+
+        private final CompletableFuture<PlcValue> future;
+        private final boolean initiator;
+
+        PendingRead(CompletableFuture<PlcValue> future, boolean initiator) {
+            this.future = future;
+            this.initiator = initiator;
+        }
+
+        public CompletableFuture<PlcValue> getFuture() {
+            return future;
+        }
+
+        /**
+         * @return true if this was the first read waiting for the address and therefore the one
+         * responsible for sending the GroupValueRead.
+         */
+        public boolean isInitiator() {
+            return initiator;
+        }
+
+    }
+
+    private static class CachedValue {
+
+        private final PlcValue value;
+        private final long timestamp;
+
+        private CachedValue(PlcValue value, long timestamp) {
+            this.value = value;
+            this.timestamp = timestamp;
+        }
+
+        private PlcValue getValue() {
+            return value;
+        }
+
+        private long getTimestamp() {
+            return timestamp;
+        }
+
+    }
+
+}
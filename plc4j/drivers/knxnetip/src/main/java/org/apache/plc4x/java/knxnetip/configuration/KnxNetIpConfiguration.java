@@ -38,6 +38,9 @@ public class KnxNetIpConfiguration implements Configuration, UdpTransportConfigu
     @ConfigurationParameter("knxproj-file-path")
     public String knxprojFilePath;
 
+    @ConfigurationParameter("knxproj-index-directory")
+    public String knxprojIndexDirectory;
+
     @ConfigurationParameter("group-address-type")
     @IntDefaultValue(3)
     public int groupAddressType = 3;
@@ -54,6 +57,18 @@ public class KnxNetIpConfiguration implements Configuration, UdpTransportConfigu
     @BooleanDefaultValue(false)
     public boolean loop = false;
 
+    @ConfigurationParameter("max-value-age")
+    @IntDefaultValue(60000)
+    public int maxValueAge = 60000;
+
+    @ConfigurationParameter("tunnel-connections")
+    @IntDefaultValue(1)
+    public int tunnelConnections = 1;
+
+    @ConfigurationParameter("max-telegrams-per-second")
+    @IntDefaultValue(50)
+    public int maxTelegramsPerSecond = 50;
+
     public String getKnxprojFilePath() {
         return knxprojFilePath;
     }
@@ -62,6 +77,14 @@ public class KnxNetIpConfiguration implements Configuration, UdpTransportConfigu
         this.knxprojFilePath = knxprojFilePath;
     }
 
+    public String getKnxprojIndexDirectory() {
+        return knxprojIndexDirectory;
+    }
+
+    public void setKnxprojIndexDirectory(String knxprojIndexDirectory) {
+        this.knxprojIndexDirectory = knxprojIndexDirectory;
+    }
+
     public int getGroupAddressType() {
         return groupAddressType;
     }
@@ -103,6 +126,30 @@ public class KnxNetIpConfiguration implements Configuration, UdpTransportConfigu
         this.loop = loop;
     }
 
+    public int getMaxValueAge() {
+        return maxValueAge;
+    }
+
+    public void setMaxValueAge(int maxValueAge) {
+        this.maxValueAge = maxValueAge;
+    }
+
+    public int getTunnelConnections() {
+        return tunnelConnections;
+    }
+
+    public void setTunnelConnections(int tunnelConnections) {
+        this.tunnelConnections = tunnelConnections;
+    }
+
+    public int getMaxTelegramsPerSecond() {
+        return maxTelegramsPerSecond;
+    }
+
+    public void setMaxTelegramsPerSecond(int maxTelegramsPerSecond) {
+        this.maxTelegramsPerSecond = maxTelegramsPerSecond;
+    }
+
     @Override
     public int getDefaultPort() {
         return KnxNetIpDriver.KNXNET_IP_PORT;
@@ -122,7 +169,11 @@ public class KnxNetIpConfiguration implements Configuration, UdpTransportConfigu
     public String toString() {
         return "Configuration{" +
             "knxprojFilePath=" + knxprojFilePath + ", " +
-            "groupAddressType=" + groupAddressType +
+            "knxprojIndexDirectory=" + knxprojIndexDirectory + ", " +
+            "groupAddressType=" + groupAddressType + ", " +
+            "maxValueAge=" + maxValueAge + ", " +
+            "tunnelConnections=" + tunnelConnections + ", " +
+            "maxTelegramsPerSecond=" + maxTelegramsPerSecond +
             '}';
     }
 
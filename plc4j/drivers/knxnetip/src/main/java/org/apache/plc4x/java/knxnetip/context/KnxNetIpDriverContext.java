@@ -42,13 +42,22 @@ public class KnxNetIpDriverContext implements DriverContext, HasConfiguration<Kn
     private byte groupAddressType;
     private KnxLayer tunnelConnectionType;
     private Ets5Model ets5Model;
+    private int maxValueAge;
+    private int tunnelConnections;
+    private int maxTelegramsPerSecond;
 
     @Override
     public void setConfiguration(KnxNetIpConfiguration configuration) {
         if (configuration.knxprojFilePath != null) {
             File knxprojFile = new File(configuration.knxprojFilePath);
             if (knxprojFile.exists() && knxprojFile.isFile()) {
-                ets5Model = new Ets5Parser().parse(knxprojFile);
+                File indexDirectory = (configuration.knxprojIndexDirectory != null) ?
+                    new File(configuration.knxprojIndexDirectory) : null;
+                ets5Model = new Ets5Parser().parse(knxprojFile, indexDirectory);
+                if (ets5Model == null) {
+                    throw new PlcRuntimeException(String.format(
+                        "Error parsing file specified with 'knxproj-file-path': '%s'", configuration.knxprojFilePath));
+                }
                 groupAddressType = ets5Model.getGroupAddressType();
             } else {
                 throw new PlcRuntimeException(String.format(
@@ -59,6 +68,9 @@ public class KnxNetIpDriverContext implements DriverContext, HasConfiguration<Kn
             groupAddressType = (byte) configuration.groupAddressType;
         }
         tunnelConnectionType = KnxLayer.valueOf("TUNNEL_" + configuration.getConnectionType());
+        maxValueAge = configuration.getMaxValueAge();
+        tunnelConnections = Math.max(1, configuration.getTunnelConnections());
+        maxTelegramsPerSecond = configuration.getMaxTelegramsPerSecond();
     }
 
     public boolean isPassiveMode() {
@@ -129,4 +141,16 @@ public class KnxNetIpDriverContext implements DriverContext, HasConfiguration<Kn
         return ets5Model;
     }
 
+    public int getMaxValueAge() {
+        return maxValueAge;
+    }
+
+    public int getTunnelConnections() {
+        return tunnelConnections;
+    }
+
+    public int getMaxTelegramsPerSecond() {
+        return maxTelegramsPerSecond;
+    }
+
 }
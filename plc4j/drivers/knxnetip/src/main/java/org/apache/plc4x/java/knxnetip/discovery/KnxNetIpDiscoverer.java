@@ -0,0 +1,202 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.knxnetip.discovery;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryItem;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryItemHandler;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryRequest;
+import org.apache.plc4x.java.knxnetip.KnxNetIpDriver;
+import org.apache.plc4x.java.knxnetip.readwrite.*;
+import org.apache.plc4x.java.knxnetip.readwrite.io.KNXNetIPMessageIO;
+import org.apache.plc4x.java.knxnetip.readwrite.types.HostProtocolCode;
+import org.apache.plc4x.java.spi.generation.ParseException;
+import org.apache.plc4x.java.spi.generation.ReadBuffer;
+import org.apache.plc4x.java.spi.generation.WriteBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds KNXnet/IP gateways by sending a search request to the KNXnet/IP multicast address from every local IPv4
+ * address and collecting the search responses for the broadcast timeout of the discovery request. As the
+ * responses are sent to the address in the request, a separate socket is used for every network interface.
+ */
+public class KnxNetIpDiscoverer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KnxNetIpDiscoverer.class);
+
+    public static final String KNXNET_IP_MULTICAST_ADDRESS = "224.0.23.12";
+
+    private final String protocolCode;
+    private final String transportCode;
+
+    public KnxNetIpDiscoverer(String protocolCode, String transportCode) {
+        this.protocolCode = protocolCode;
+        this.transportCode = transportCode;
+    }
+
+    public CompletableFuture<Void> discover(PlcDiscoveryRequest discoveryRequest, PlcDiscoveryItemHandler handler) {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        final List<InterfaceAddress> interfaceAddresses;
+        try {
+            interfaceAddresses = getInterfaceAddresses();
+        } catch (SocketException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        if (interfaceAddresses.isEmpty()) {
+            LOGGER.debug("No network interface to search for KNXnet/IP gateways");
+            future.complete(null);
+            return future;
+        }
+
+        final EventLoopGroup workerGroup = new NioEventLoopGroup(1);
+        final List<Channel> channels = Collections.synchronizedList(new ArrayList<>());
+        for (InterfaceAddress interfaceAddress : interfaceAddresses) {
+            new Bootstrap()
+                .group(workerGroup)
+                .channel(NioDatagramChannel.class)
+                .option(ChannelOption.IP_MULTICAST_IF, interfaceAddress.networkInterface)
+                .handler(new SearchResponseHandler(handler))
+                .bind(new InetSocketAddress(interfaceAddress.address, 0))
+                .addListener((ChannelFuture bindFuture) -> {
+                    if (!bindFuture.isSuccess()) {
+                        LOGGER.debug("Unable to search on {}", interfaceAddress.address, bindFuture.cause());
+                        return;
+                    }
+                    channels.add(bindFuture.channel());
+                    sendSearchRequest(bindFuture.channel(), interfaceAddress.address);
+                });
+        }
+        // Gateways respond within the broadcast timeout or not at all.
+        workerGroup.schedule(() -> {
+            synchronized (channels) {
+                channels.forEach(Channel::close);
+            }
+            future.complete(null);
+        }, discoveryRequest.getBroadcastTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        future.whenComplete((ignore, throwable) -> workerGroup.shutdownGracefully());
+        return future;
+    }
+
+    private void sendSearchRequest(Channel channel, Inet4Address localAddress) {
+        final int localPort = ((InetSocketAddress) channel.localAddress()).getPort();
+        SearchRequest searchRequest = new SearchRequest(new HPAIDiscoveryEndpoint(HostProtocolCode.IPV4_UDP,
+            new IPAddress(localAddress.getAddress()), localPort));
+        try {
+            WriteBuffer writeBuffer = new WriteBuffer(searchRequest.getLengthInBytes());
+            KNXNetIPMessageIO.staticSerialize(writeBuffer, searchRequest);
+            channel.writeAndFlush(new DatagramPacket(Unpooled.wrappedBuffer(writeBuffer.getData()),
+                new InetSocketAddress(KNXNET_IP_MULTICAST_ADDRESS, KnxNetIpDriver.KNXNET_IP_PORT)));
+        } catch (ParseException e) {
+            LOGGER.warn("Unable to serialize search request", e);
+        }
+    }
+
+    private static List<InterfaceAddress> getInterfaceAddresses() throws SocketException {
+        List<InterfaceAddress> interfaceAddresses = new ArrayList<>();
+        for (NetworkInterface networkInterface : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+            if (!networkInterface.isUp() || networkInterface.isLoopback() || !networkInterface.supportsMulticast()) {
+                continue;
+            }
+            for (InetAddress address : Collections.list(networkInterface.getInetAddresses())) {
+                if (address instanceof Inet4Address) {
+                    interfaceAddresses.add(new InterfaceAddress(networkInterface, (Inet4Address) address));
+                }
+            }
+        }
+        return interfaceAddresses;
+    }
+
+    private class SearchResponseHandler extends SimpleChannelInboundHandler<DatagramPacket> {
+
+        private final PlcDiscoveryItemHandler handler;
+
+        private SearchResponseHandler(PlcDiscoveryItemHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, DatagramPacket packet) {
+            final KNXNetIPMessage message;
+            try {
+                message = KNXNetIPMessageIO.staticParse(new ReadBuffer(ByteBufUtil.getBytes(packet.content())));
+            } catch (ParseException e) {
+                LOGGER.debug("Ignoring unparseable packet from {}", packet.sender(), e);
+                return;
+            }
+            if (!(message instanceof SearchResponse)) {
+                return;
+            }
+            SearchResponse searchResponse = (SearchResponse) message;
+            HPAIControlEndpoint controlEndpoint = searchResponse.getHpaiControlEndpoint();
+            String transportUrl;
+            try {
+                transportUrl = InetAddress.getByAddress(controlEndpoint.getIpAddress().getAddr()).getHostAddress() +
+                    ":" + controlEndpoint.getIpPort();
+            } catch (UnknownHostException e) {
+                LOGGER.debug("Ignoring search response with invalid address from {}", packet.sender(), e);
+                return;
+            }
+            // The name is padded with 0 bytes.
+            String name = new String(searchResponse.getDibDeviceInfo().getDeviceFriendlyName(),
+                StandardCharsets.ISO_8859_1).trim();
+            LOGGER.debug("Found KNXnet/IP gateway '{}' at {}", name, transportUrl);
+            handler.handle(new PlcDiscoveryItem(protocolCode, transportCode, transportUrl, null, name));
+        }
+
+    }
+
+    private static class InterfaceAddress {
+
+        private final NetworkInterface networkInterface;
+        private final Inet4Address address;
+
+        private InterfaceAddress(NetworkInterface networkInterface, Inet4Address address) {
+            this.networkInterface = networkInterface;
+            this.address = address;
+        }
+
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.knxnetip.ets5;
+
+import org.apache.plc4x.java.knxnetip.ets5.model.AddressType;
+import org.apache.plc4x.java.knxnetip.ets5.model.Ets5Model;
+import org.apache.plc4x.java.knxnetip.ets5.model.Function;
+import org.apache.plc4x.java.knxnetip.ets5.model.GroupAddress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Compact binary representation of an {@link Ets5Model}. An index is only valid for the project file it was
+ * created from, which is identified by the hash of the project file.
+ * <p>
+ * The datapoint types are only written once and are referenced by their position from the group addresses.
+ */
+public class Ets5ModelIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Ets5ModelIndex.class);
+
+    public static final String FILE_EXTENSION = ".knxidx";
+
+    // Increment this as soon as the format of the persisted file changes.
+    private static final int FILE_FORMAT_VERSION = 1;
+    private static final int FILE_MAGIC = 0x4B4E5849; // "KNXI"
+
+    private Ets5ModelIndex() {
+        // Prevent this from being instantiated.
+    }
+
+    /**
+     * Load a model saved with {@link #save(Ets5Model, File, String)}.
+     *
+     * @param file        file to load the model from
+     * @param projectHash hash of the current project file
+     * @return the model or null, if the file doesn't exist, can't be read or belongs to a different project file.
+     */
+    public static Ets5Model load(File file, String projectHash) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if ((in.readInt() != FILE_MAGIC) || (in.readInt() != FILE_FORMAT_VERSION)) {
+                LOGGER.info("Ignoring knxproj index {} written in an unknown format", file);
+                return null;
+            }
+            if (!projectHash.equals(in.readUTF())) {
+                return null;
+            }
+            byte groupAddressType = in.readByte();
+            int numAddressTypes = in.readInt();
+            List<AddressType> addressTypes = new ArrayList<>(numAddressTypes);
+            for (int i = 0; i < numAddressTypes; i++) {
+                addressTypes.add(new AddressType(readString(in), in.readInt(), in.readInt(), readString(in)));
+            }
+            int numGroupAddresses = in.readInt();
+            Map<String, GroupAddress> groupAddresses = new HashMap<>(numGroupAddresses * 4 / 3 + 1);
+            for (int i = 0; i < numGroupAddresses; i++) {
+                String address = in.readUTF();
+                String name = readString(in);
+                int addressTypeIndex = in.readInt();
+                AddressType addressType = (addressTypeIndex >= 0) ? addressTypes.get(addressTypeIndex) : null;
+                Function function = null;
+                if (in.readBoolean()) {
+                    function = new Function(readString(in), readString(in), readString(in), readString(in));
+                }
+                groupAddresses.put(address, new GroupAddress(address, name, addressType, function));
+            }
+            return new Ets5Model(groupAddressType, groupAddresses);
+        } catch (IOException | IndexOutOfBoundsException e) {
+            LOGGER.warn("Error reading knxproj index {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Save the model to the given file. The file is replaced atomically, so concurrent readers never see
+     * partially written files.
+     *
+     * @param model       model to save
+     * @param file        file to save the model to
+     * @param projectHash hash of the project file the model was parsed from
+     * @throws IOException something went wrong
+     */
+    public static void save(Ets5Model model, File file, String projectHash) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create directory " + directory);
+        }
+        File tempFile = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(FILE_FORMAT_VERSION);
+                out.writeUTF(projectHash);
+                out.writeByte(model.getGroupAddressType());
+
+                Map<AddressType, Integer> addressTypeIndexes = new LinkedHashMap<>();
+                for (GroupAddress groupAddress : model.getGroupAddresses().values()) {
+                    if (groupAddress.getType() != null) {
+                        addressTypeIndexes.putIfAbsent(groupAddress.getType(), addressTypeIndexes.size());
+                    }
+                }
+                out.writeInt(addressTypeIndexes.size());
+                for (AddressType addressType : addressTypeIndexes.keySet()) {
+                    writeString(out, addressType.getId());
+                    out.writeInt(addressType.getMainType());
+                    out.writeInt(addressType.getSubType());
+                    writeString(out, addressType.getName());
+                }
+
+                out.writeInt(model.getGroupAddresses().size());
+                for (GroupAddress groupAddress : model.getGroupAddresses().values()) {
+                    out.writeUTF(groupAddress.getGroupAddress());
+                    writeString(out, groupAddress.getName());
+                    out.writeInt((groupAddress.getType() != null) ? addressTypeIndexes.get(groupAddress.getType()) : -1);
+                    Function function = groupAddress.getFunction();
+                    out.writeBoolean(function != null);
+                    if (function != null) {
+                        writeString(out, function.getId());
+                        writeString(out, function.getName());
+                        writeString(out, function.getType());
+                        writeString(out, function.getSpaceName());
+                    }
+                }
+            }
+            Files.move(tempFile.toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+}
@@ -18,135 +18,260 @@ under the License.
 */
 package org.apache.plc4x.java.knxnetip.ets5;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.plc4x.java.knxnetip.ets5.model.AddressType;
 import org.apache.plc4x.java.knxnetip.ets5.model.Ets5Model;
 import org.apache.plc4x.java.knxnetip.ets5.model.Function;
 import org.apache.plc4x.java.knxnetip.ets5.model.GroupAddress;
-import org.w3c.dom.Attr;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.*;
-import java.io.File;
-import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.*;
+import java.util.*;
+
+/**
+ * Extracts the group addresses and their datapoint types from an ETS5 project file (.knxproj).
+ * <p>
+ * The XML files inside the project are processed with a streaming (StAX) parser, which only keeps the information
+ * needed for the model in memory. As even this takes a while for big projects, the resulting model can be kept in
+ * a binary index (see {@link Ets5ModelIndex}), which is used as long as the project file doesn't change.
+ */
 public class Ets5Parser {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(Ets5Parser.class);
+
+    private static final String KNX_MASTER_FILE = "knx_master.xml";
+    private static final String PROJECT_HEADER_FILE = "project.xml";
+    private static final String PROJECT_FILE = "0.xml";
+
+    private final XMLInputFactory xmlInputFactory;
+
+    public Ets5Parser() {
+        xmlInputFactory = XMLInputFactory.newInstance();
+        // We don't need any of this, so disable it for security reasons.
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Parse the project file, if the index directory contains an index for exactly this project file,
+     * the model is loaded from the index instead.
+     *
+     * @param knxprojFile    ETS5 project file
+     * @param indexDirectory directory for keeping the index (If null, no index is used)
+     * @return parsed model or null, if the file couldn't be parsed
+     */
+    public Ets5Model parse(File knxprojFile, File indexDirectory) {
+        if (indexDirectory == null) {
+            return parse(knxprojFile);
+        }
+        final String projectHash;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(knxprojFile))) {
+            projectHash = DigestUtils.sha256Hex(in);
+        } catch (IOException e) {
+            LOGGER.warn("Error reading knxproj file {}", knxprojFile, e);
+            return null;
+        }
+        File indexFile = new File(indexDirectory, projectHash + Ets5ModelIndex.FILE_EXTENSION);
+        Ets5Model model = Ets5ModelIndex.load(indexFile, projectHash);
+        if (model != null) {
+            LOGGER.debug("Using index {} for knxproj file {}", indexFile, knxprojFile);
+            return model;
+        }
+        model = parse(knxprojFile);
+        if (model != null) {
+            try {
+                Ets5ModelIndex.save(model, indexFile, projectHash);
+            } catch (IOException e) {
+                LOGGER.warn("Error saving index {}", indexFile, e);
+            }
+        }
+        return model;
+    }
+
     public Ets5Model parse(File knxprojFile) {
-        try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            XPathFactory xPathFactory = XPathFactory.newInstance();
-            XPath xPath = xPathFactory.newXPath();
-
-            try (ZipFile zipFile = new ZipFile(knxprojFile)) {
-
-                ////////////////////////////////////////////////////////////////////////////////
-                // File containing the information on the type of encoding used for group addresses.
-                ////////////////////////////////////////////////////////////////////////////////
-                ZipArchiveEntry projectHeaderFile = zipFile.getEntry("P-05CD/project.xml");
-                if (projectHeaderFile == null) {
-                    throw new RuntimeException("Error accessing project header file.");
-                }
-                Document projectHeaderDoc = builder.parse(zipFile.getInputStream(projectHeaderFile));
-                final XPathExpression xpathGroupAddressStyle = xPath.compile("/KNX/Project/ProjectInformation/@GroupAddressStyle");
-                Attr groupAddressStyle = (Attr) xpathGroupAddressStyle.evaluate(projectHeaderDoc, XPathConstants.NODE);
-                byte groupAddressStyleCode = getGroupAddressLevel(groupAddressStyle.getTextContent());
-
-                ////////////////////////////////////////////////////////////////////////////////
-                // General information on the type of encoding and the value ranges.
-                ////////////////////////////////////////////////////////////////////////////////
-                ZipArchiveEntry knxMasterDataFile = zipFile.getEntry("knx_master.xml");
-                if (knxMasterDataFile == null) {
-                    throw new RuntimeException("Error accessing KNX master file.");
-                }
-                Document knxMasterDoc = builder.parse(zipFile.getInputStream(knxMasterDataFile));
-                final XPathExpression xpathDatapointSubtype = xPath.compile("//DatapointSubtype");
-                NodeList datapointSubtypeNodes = (NodeList) xpathDatapointSubtype.evaluate(knxMasterDoc, XPathConstants.NODESET);
-                Map<String, AddressType> addressTypes = new HashMap<>();
-                for (int i = 0; i < datapointSubtypeNodes.getLength(); i++) {
-                    final Element datapointSubtypeNode = (Element) datapointSubtypeNodes.item(i);
-                    final String id = datapointSubtypeNode.getAttribute("Id");
-                    final int subType = Integer.parseInt(datapointSubtypeNode.getAttribute("Number"));
-                    final int mainType = Integer.parseInt(
-                        ((Element) datapointSubtypeNode.getParentNode().getParentNode()).getAttribute("Number"));
-                    final String name = datapointSubtypeNode.getAttribute("Text");
-                    addressTypes.put(id, new AddressType(id, mainType, subType, name));
+        try (ZipFile zipFile = new ZipFile(knxprojFile)) {
+            ////////////////////////////////////////////////////////////////////////////////
+            // Find the project directory (P-XXXX) containing the project files.
+            ////////////////////////////////////////////////////////////////////////////////
+            ZipArchiveEntry projectHeaderFile = null;
+            for (Enumeration<ZipArchiveEntry> entries = zipFile.getEntries(); entries.hasMoreElements(); ) {
+                ZipArchiveEntry entry = entries.nextElement();
+                String[] segments = entry.getName().split("/");
+                if ((segments.length == 2) && segments[0].startsWith("P-") && PROJECT_HEADER_FILE.equals(segments[1])) {
+                    projectHeaderFile = entry;
+                    break;
                 }
+            }
+            if (projectHeaderFile == null) {
+                throw new RuntimeException("Error accessing project header file.");
+            }
+            String projectDirectory = projectHeaderFile.getName().substring(
+                0, projectHeaderFile.getName().length() - PROJECT_HEADER_FILE.length());
 
-                ////////////////////////////////////////////////////////////////////////////////
-                // File containing all the information about group addresses used, their names, types etc.
-                ////////////////////////////////////////////////////////////////////////////////
-                ZipArchiveEntry projectFile = zipFile.getEntry("P-05CD/0.xml");
-                if (projectFile == null) {
-                    throw new RuntimeException("Error accessing project file.");
-                }
-                Document projectDoc = builder.parse(zipFile.getInputStream(projectFile));
-
-                final Map<String, Function> groupAddressRefs = new HashMap();
-                final XPathExpression xpathGroupAddressRef = xPath.compile("//GroupAddressRef");
-                NodeList groupAddressRefNodes = (NodeList) xpathGroupAddressRef.evaluate(projectDoc, XPathConstants.NODESET);
-                for (int i = 0; i < groupAddressRefNodes.getLength(); i++) {
-                    final Element groupAddressRefNode = (Element) groupAddressRefNodes.item(i);
-                    final String refId = groupAddressRefNode.getAttribute("RefId");
-                    final Element functionNode = (Element) groupAddressRefNode.getParentNode();
-                    final String functionName = functionNode.getAttribute("Name");
-                    // Function Type information is stored in knx_master.xml (//FunctionType[@id='functionTypeId']
-                    final String functionTypeId = functionNode.getAttribute("Type");
-                    final Element spaceNode = (Element) functionNode.getParentNode();
-                    final String spaceName = spaceNode.getAttribute("Name");
-
-                    final Function function = new Function(refId, functionName, functionTypeId, spaceName);
-                    groupAddressRefs.put(refId, function);
-                }
+            ////////////////////////////////////////////////////////////////////////////////
+            // File containing the information on the type of encoding used for group addresses.
+            ////////////////////////////////////////////////////////////////////////////////
+            byte groupAddressStyleCode;
+            try (InputStream in = zipFile.getInputStream(projectHeaderFile)) {
+                groupAddressStyleCode = getGroupAddressLevel(parseGroupAddressStyle(in));
+            }
 
-                final XPathExpression xpathGroupAddresses = xPath.compile("//GroupAddress");
-                NodeList groupAddressNodes = (NodeList) xpathGroupAddresses.evaluate(projectDoc, XPathConstants.NODESET);
-                Map<String, GroupAddress> groupAddresses = new HashMap<>();
-                for (int i = 0; i < groupAddressNodes.getLength(); i++) {
-                    final Element groupAddressNode = (Element) groupAddressNodes.item(i);
+            ////////////////////////////////////////////////////////////////////////////////
+            // File containing all the information about group addresses used, their names, types etc.
+            ////////////////////////////////////////////////////////////////////////////////
+            ZipArchiveEntry projectFile = zipFile.getEntry(projectDirectory + PROJECT_FILE);
+            if (projectFile == null) {
+                throw new RuntimeException("Error accessing project file.");
+            }
+            final List<String[]> groupAddressNodes = new ArrayList<>();
+            final Map<String, Function> groupAddressRefs = new HashMap<>();
+            try (InputStream in = zipFile.getInputStream(projectFile)) {
+                parseProject(in, groupAddressNodes, groupAddressRefs);
+            }
 
-                    final String id = groupAddressNode.getAttribute("Id");
-                    final Function function = groupAddressRefs.get(id);
+            ////////////////////////////////////////////////////////////////////////////////
+            // General information on the type of encoding and the value ranges.
+            // (Only the datapoint types actually used by the group addresses are kept)
+            ////////////////////////////////////////////////////////////////////////////////
+            ZipArchiveEntry knxMasterDataFile = zipFile.getEntry(KNX_MASTER_FILE);
+            if (knxMasterDataFile == null) {
+                throw new RuntimeException("Error accessing KNX master file.");
+            }
+            Set<String> usedTypes = new HashSet<>();
+            for (String[] groupAddressNode : groupAddressNodes) {
+                usedTypes.add(groupAddressNode[3]);
+            }
+            Map<String, AddressType> addressTypes;
+            try (InputStream in = zipFile.getInputStream(knxMasterDataFile)) {
+                addressTypes = parseAddressTypes(in, usedTypes);
+            }
 
-                    final int addressInt = Integer.parseInt(groupAddressNode.getAttribute("Address"));
-                    final String knxGroupAddress = Ets5Model.parseGroupAddress(groupAddressStyleCode, addressInt);
+            Map<String, GroupAddress> groupAddresses = new HashMap<>();
+            for (String[] groupAddressNode : groupAddressNodes) {
+                final String id = groupAddressNode[0];
+                final Function function = groupAddressRefs.get(id);
 
-                    final String name = groupAddressNode.getAttribute("Name");
+                final int addressInt = Integer.parseInt(groupAddressNode[1]);
+                final String knxGroupAddress = Ets5Model.parseGroupAddress(groupAddressStyleCode, addressInt);
 
-                    final String typeString = groupAddressNode.getAttribute("DatapointType");
-                    final AddressType addressType = addressTypes.get(typeString);
+                final String name = groupAddressNode[2];
+                final AddressType addressType = addressTypes.get(groupAddressNode[3]);
 
-                    GroupAddress groupAddress = new GroupAddress(knxGroupAddress, name, addressType, function);
-                    groupAddresses.put(knxGroupAddress, groupAddress);
-                }
-                return new Ets5Model(groupAddressStyleCode, groupAddresses);
+                GroupAddress groupAddress = new GroupAddress(knxGroupAddress, name, addressType, function);
+                groupAddresses.put(knxGroupAddress, groupAddress);
             }
+            return new Ets5Model(groupAddressStyleCode, groupAddresses);
         } catch (IOException e) {
-            // Zip and Xml Stuff
-            e.printStackTrace();
-        } catch (ParserConfigurationException e) {
-            // XML Stuff
-            e.printStackTrace();
-        } catch (SAXException e) {
-            // XML Stuff
-            e.printStackTrace();
-        } catch (XPathExpressionException e) {
+            // Zip Stuff
+            LOGGER.error("Error reading knxproj file {}", knxprojFile, e);
+        } catch (XMLStreamException e) {
             // XML Stuff
-            e.printStackTrace();
+            LOGGER.error("Error parsing knxproj file {}", knxprojFile, e);
         }
         return null;
     }
 
+    /**
+     * @return the "GroupAddressStyle" attribute of /KNX/Project/ProjectInformation
+     */
+    private String parseGroupAddressStyle(InputStream in) throws XMLStreamException {
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in);
+        try {
+            while (reader.hasNext()) {
+                if ((reader.next() == XMLStreamConstants.START_ELEMENT) &&
+                    "ProjectInformation".equals(reader.getLocalName())) {
+                    return reader.getAttributeValue(null, "GroupAddressStyle");
+                }
+            }
+            return null;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Collects the attributes of all "GroupAddress" elements (Id, Address, Name and DatapointType) and the
+     * functions referencing group addresses ("GroupAddressRef" elements inside a function inside a space).
+     */
+    private void parseProject(InputStream in, List<String[]> groupAddressNodes, Map<String, Function> groupAddressRefs)
+        throws XMLStreamException {
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in);
+        try {
+            // Name and Type attribute of all currently open elements (The innermost at the head).
+            Deque<String[]> openElements = new ArrayDeque<>();
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String localName = reader.getLocalName();
+                    if ("GroupAddressRef".equals(localName)) {
+                        final String refId = reader.getAttributeValue(null, "RefId");
+                        Iterator<String[]> parents = openElements.iterator();
+                        final String[] functionNode = parents.hasNext() ? parents.next() : new String[2];
+                        final String[] spaceNode = parents.hasNext() ? parents.next() : new String[2];
+                        // Function Type information is stored in knx_master.xml (//FunctionType[@id='functionTypeId']
+                        groupAddressRefs.put(refId, new Function(refId, functionNode[0], functionNode[1], spaceNode[0]));
+                    } else if ("GroupAddress".equals(localName)) {
+                        groupAddressNodes.add(new String[]{
+                            getAttribute(reader, "Id"), getAttribute(reader, "Address"),
+                            getAttribute(reader, "Name"), getAttribute(reader, "DatapointType")});
+                    }
+                    openElements.push(new String[]{getAttribute(reader, "Name"), getAttribute(reader, "Type")});
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    openElements.pop();
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Collects all "DatapointSubtype" elements with one of the given ids, the main type is taken from
+     * the enclosing "DatapointType" element.
+     */
+    private Map<String, AddressType> parseAddressTypes(InputStream in, Set<String> usedTypes)
+        throws XMLStreamException {
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in);
+        try {
+            Map<String, AddressType> addressTypes = new HashMap<>();
+            int mainType = 0;
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String localName = reader.getLocalName();
+                if ("DatapointType".equals(localName)) {
+                    mainType = Integer.parseInt(reader.getAttributeValue(null, "Number"));
+                } else if ("DatapointSubtype".equals(localName)) {
+                    final String id = reader.getAttributeValue(null, "Id");
+                    if (usedTypes.contains(id)) {
+                        final int subType = Integer.parseInt(reader.getAttributeValue(null, "Number"));
+                        final String name = getAttribute(reader, "Text");
+                        addressTypes.put(id, new AddressType(id, mainType, subType, name));
+                    }
+                }
+            }
+            return addressTypes;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * @return the value of the attribute or an empty string if it doesn't exist (Same as the DOM API).
+     */
+    private static String getAttribute(XMLStreamReader reader, String name) {
+        String value = reader.getAttributeValue(null, name);
+        return (value != null) ? value : "";
+    }
+
     private byte getGroupAddressLevel(String knxprojValue) {
         if("ThreeLevel".equals(knxprojValue)) {
             return (byte) 3;
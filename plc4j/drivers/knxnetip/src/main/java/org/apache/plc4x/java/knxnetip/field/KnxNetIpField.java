@@ -85,6 +85,22 @@ public class KnxNetIpField implements PlcField {
         return subGroup;
     }
 
+    public boolean isWildcard() {
+        return WILDCARD.equals(mainGroup) || WILDCARD.equals(middleGroup) || WILDCARD.equals(subGroup);
+    }
+
+    // Returns the address in the same notation as used in the ETS5 model (e.g. "1/2/3").
+    public String getGroupAddressString() {
+        switch (getLevels()) {
+            case 3:
+                return getMainGroup() + "/" + getMiddleGroup() + "/" + getSubGroup();
+            case 2:
+                return getMainGroup() + "/" + getSubGroup();
+            default:
+                return getMainGroup();
+        }
+    }
+
     // As our fields can contain wildcards and complex matching logic,
     // do a check if a given GroupAddress is actually compatible with this field.
     public boolean matchesGroupAddress(GroupAddress groupAddress) {
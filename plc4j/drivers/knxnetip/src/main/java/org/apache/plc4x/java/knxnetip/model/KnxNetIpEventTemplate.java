@@ -0,0 +1,158 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.knxnetip.model;
+
+import org.apache.plc4x.java.api.value.PlcString;
+import org.apache.plc4x.java.api.value.PlcStruct;
+import org.apache.plc4x.java.api.value.PlcValue;
+import org.apache.plc4x.java.knxnetip.ets5.model.GroupAddress;
+
+import java.util.*;
+
+/**
+ * Everything about a group address which doesn't change from one telegram to the next.
+ *
+ * Instances are created once per group address, so for every telegram only the source address
+ * and the value have to be filled in, instead of assembling the whole data-point structure again.
+ */
+public class KnxNetIpEventTemplate {
+
+    private static final String[] KEYS = {"sourceAddress", "targetAddress", "location", "function",
+        "description", "unitOfMeasurement", "value"};
+    private static final int SOURCE_ADDRESS = 0;
+    private static final int VALUE = 6;
+
+    private final int rawGroupAddress;
+    private final String groupAddressString;
+    private final GroupAddress groupAddress;
+    private final PlcValue[] values;
+
+    /**
+     * @param rawGroupAddress    the two bytes of the group address as unsigned int
+     * @param groupAddressString the group address in the notation used by the ETS5 model (e.g. "1/2/3")
+     * @param groupAddress       the group address as defined in the ETS5 model (might be null)
+     */
+    public KnxNetIpEventTemplate(int rawGroupAddress, String groupAddressString, GroupAddress groupAddress) {
+        this.rawGroupAddress = rawGroupAddress;
+        this.groupAddressString = groupAddressString;
+        this.groupAddress = groupAddress;
+        this.values = new PlcValue[KEYS.length];
+        if (groupAddress != null) {
+            values[1] = new PlcString(groupAddress.getGroupAddress());
+            if (groupAddress.getFunction() != null) {
+                values[2] = new PlcString(groupAddress.getFunction().getSpaceName());
+                values[3] = new PlcString(groupAddress.getFunction().getName());
+            }
+            values[4] = new PlcString(groupAddress.getName());
+            if (groupAddress.getType() != null) {
+                values[5] = new PlcString(groupAddress.getType().getName());
+            }
+        }
+    }
+
+    public int getRawGroupAddress() {
+        return rawGroupAddress;
+    }
+
+    public String getGroupAddressString() {
+        return groupAddressString;
+    }
+
+    public GroupAddress getGroupAddress() {
+        return groupAddress;
+    }
+
+    /**
+     * @param sourceAddress address of the device which sent the telegram
+     * @param value         decoded value of the telegram
+     * @return the plc4x data-point structure for a single telegram.
+     */
+    public PlcStruct createDataPoint(PlcValue sourceAddress, PlcValue value) {
+        final PlcValue[] dataPointValues = values.clone();
+        dataPointValues[SOURCE_ADDRESS] = sourceAddress;
+        dataPointValues[VALUE] = value;
+        return new PlcStruct(new DataPointMap(dataPointValues));
+    }
+
+    /**
+     * Read-only map sharing the keys of all data-points, which is a lot cheaper to create than a HashMap.
+     */
+    private static class DataPointMap extends AbstractMap<String, PlcValue> {
+
+        private final PlcValue[] values;
+
+        private DataPointMap(PlcValue[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public PlcValue get(Object key) {
+            for (int i = 0; i < KEYS.length; i++) {
+                if (KEYS[i].equals(key)) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return Arrays.asList(KEYS).contains(key);
+        }
+
+        @Override
+        public int size() {
+            return KEYS.length;
+        }
+
+        @Override
+        public Set<Entry<String, PlcValue>> entrySet() {
+            return new AbstractSet<Entry<String, PlcValue>>() {
+                @Override
+                public Iterator<Entry<String, PlcValue>> iterator() {
+                    return new Iterator<Entry<String, PlcValue>>() {
+                        private int index = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < KEYS.length;
+                        }
+
+                        @Override
+                        public Entry<String, PlcValue> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            final Entry<String, PlcValue> entry = new SimpleImmutableEntry<>(KEYS[index], values[index]);
+                            index++;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return KEYS.length;
+                }
+            };
+        }
+
+    }
+
+}
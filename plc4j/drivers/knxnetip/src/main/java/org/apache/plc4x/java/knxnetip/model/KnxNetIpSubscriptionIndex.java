@@ -0,0 +1,174 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.knxnetip.model;
+
+import org.apache.plc4x.java.api.messages.PlcSubscriptionEvent;
+import org.apache.plc4x.java.knxnetip.field.KnxNetIpField;
+import org.apache.plc4x.java.spi.model.DefaultPlcConsumerRegistration;
+import org.apache.plc4x.java.spi.model.InternalPlcSubscriptionHandle;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Index of all subscriptions of a connection, used to find the consumers interested in a group telegram.
+ *
+ * The subscribed fields are stored in a trie with one level per group address level (main/middle/sub).
+ * Every node has an array of children indexed by the value of the segment and a separate child for the
+ * wildcard '*'. So finding the consumers for a given address only has to follow at most two children per
+ * level, no matter how many subscriptions there are. The result is remembered per raw group address, so
+ * for every following telegram to the same address it is a simple lookup.
+ *
+ * An index is never changed after it has been built. Whenever the subscriptions change, a new index has
+ * to be created.
+ */
+public class KnxNetIpSubscriptionIndex {
+
+    private static final String WILDCARD = "*";
+
+    private final byte groupAddressType;
+    // One trie per number of address levels (index 1-3).
+    private final Node[] roots = new Node[4];
+    private final Map<Integer, List<Consumer<PlcSubscriptionEvent>>> resolvedConsumers = new ConcurrentHashMap<>();
+
+    public KnxNetIpSubscriptionIndex(byte groupAddressType,
+                                     Map<DefaultPlcConsumerRegistration, Consumer<PlcSubscriptionEvent>> consumers) {
+        this.groupAddressType = groupAddressType;
+        for (Map.Entry<DefaultPlcConsumerRegistration, Consumer<PlcSubscriptionEvent>> entry : consumers.entrySet()) {
+            for (InternalPlcSubscriptionHandle handle : entry.getKey().getAssociatedHandles()) {
+                if (handle instanceof KnxNetIpSubscriptionHandle) {
+                    add(((KnxNetIpSubscriptionHandle) handle).getField(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * @param rawGroupAddress the two bytes of the destination address of a telegram as unsigned int
+     * @return all consumers having subscribed to a field matching the given address (each one only once).
+     */
+    public List<Consumer<PlcSubscriptionEvent>> getConsumers(int rawGroupAddress) {
+        final Integer key = rawGroupAddress;
+        List<Consumer<PlcSubscriptionEvent>> consumers = resolvedConsumers.get(key);
+        if (consumers == null) {
+            consumers = resolve(rawGroupAddress);
+            resolvedConsumers.putIfAbsent(key, consumers);
+        }
+        return consumers;
+    }
+
+    private void add(KnxNetIpField field, Consumer<PlcSubscriptionEvent> consumer) {
+        final String[] segments;
+        switch (field.getLevels()) {
+            case 3:
+                segments = new String[]{field.getMainGroup(), field.getMiddleGroup(), field.getSubGroup()};
+                break;
+            case 2:
+                segments = new String[]{field.getMainGroup(), field.getSubGroup()};
+                break;
+            case 1:
+                segments = new String[]{field.getMainGroup()};
+                break;
+            default:
+                return;
+        }
+        if (roots[segments.length] == null) {
+            roots[segments.length] = new Node();
+        }
+        Node node = roots[segments.length];
+        for (String segment : segments) {
+            node = node.getOrCreateChild(segment);
+        }
+        node.consumers.add(consumer);
+    }
+
+    private List<Consumer<PlcSubscriptionEvent>> resolve(int rawGroupAddress) {
+        final int[] segments;
+        // Same bit layout as used by Ets5Model.parseGroupAddress
+        switch (groupAddressType) {
+            case 3:
+                segments = new int[]{(rawGroupAddress & 0xF800) >> 11, (rawGroupAddress & 0x0700) >> 8,
+                    rawGroupAddress & 0x00FF};
+                break;
+            case 2:
+                segments = new int[]{(rawGroupAddress & 0xF800) >> 11, rawGroupAddress & 0x07FF};
+                break;
+            case 1:
+                segments = new int[]{rawGroupAddress & 0xFFFF};
+                break;
+            default:
+                return Collections.emptyList();
+        }
+        final Node root = roots[segments.length];
+        if (root == null) {
+            return Collections.emptyList();
+        }
+        // A consumer could have subscribed to multiple fields matching the same address.
+        Set<Consumer<PlcSubscriptionEvent>> consumers = Collections.newSetFromMap(new IdentityHashMap<>());
+        collect(root, segments, 0, consumers);
+        if (consumers.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(new ArrayList<>(consumers));
+    }
+
+    private static void collect(Node node, int[] segments, int level, Set<Consumer<PlcSubscriptionEvent>> consumers) {
+        if (node == null) {
+            return;
+        }
+        if (level == segments.length) {
+            consumers.addAll(node.consumers);
+            return;
+        }
+        collect(node.getChild(segments[level]), segments, level + 1, consumers);
+        collect(node.wildcard, segments, level + 1, consumers);
+    }
+
+    private static class Node {
+
+        private Node[] children = new Node[0];
+        private Node wildcard;
+        private final List<Consumer<PlcSubscriptionEvent>> consumers = new ArrayList<>(1);
+
+        private Node getChild(int segment) {
+            return (segment < children.length) ? children[segment] : null;
+        }
+
+        private Node getOrCreateChild(String segment) {
+            if (WILDCARD.equals(segment)) {
+                if (wildcard == null) {
+                    wildcard = new Node();
+                }
+                return wildcard;
+            }
+            // The field parser only allows digits here.
+            final int value = Integer.parseInt(segment);
+            if (value >= children.length) {
+                children = Arrays.copyOf(children, value + 1);
+            }
+            if (children[value] == null) {
+                children[value] = new Node();
+            }
+            return children[value];
+        }
+
+    }
+
+}
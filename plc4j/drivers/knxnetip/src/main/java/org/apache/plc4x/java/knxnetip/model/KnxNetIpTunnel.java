@@ -0,0 +1,162 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.knxnetip.model;
+
+import org.apache.plc4x.java.knxnetip.readwrite.KNXAddress;
+import org.apache.plc4x.java.knxnetip.readwrite.types.APCI;
+import org.apache.plc4x.java.spi.transaction.RequestTransactionManager;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * State of a single tunnel connection to a KNXnet/IP gateway.
+ *
+ * Per tunnel only one tunneling request may be outstanding until the gateway acknowledges it with a
+ * tunneling response (ACK), which is ensured by the transaction manager of the tunnel. The actual result
+ * of sending the telegram on the bus (L_Data.con) is reported later, so the telegrams waiting for it are
+ * kept separately and the next request can be sent as soon as the ACK is received.
+ *
+ * If the gateway doesn't acknowledge a request even after it was repeated, the tunnel is marked as
+ * no longer usable and no further telegrams are sent through it.
+ */
+public class KnxNetIpTunnel {
+
+    private final short communicationChannelId;
+    private final KNXAddress clientKnxAddress;
+    private final AtomicInteger sequenceCounter = new AtomicInteger(0);
+    private final RequestTransactionManager tm = new RequestTransactionManager(1);
+    private final Queue<PendingConfirmation> pendingConfirmations = new ConcurrentLinkedQueue<>();
+    // Telegrams either waiting to be sent or waiting for their confirmation.
+    private final AtomicInteger outstandingTelegrams = new AtomicInteger(0);
+    private volatile boolean usable = true;
+
+    public KnxNetIpTunnel(short communicationChannelId, KNXAddress clientKnxAddress) {
+        this.communicationChannelId = communicationChannelId;
+        this.clientKnxAddress = clientKnxAddress;
+    }
+
+    public short getCommunicationChannelId() {
+        return communicationChannelId;
+    }
+
+    public KNXAddress getClientKnxAddress() {
+        return clientKnxAddress;
+    }
+
+    public RequestTransactionManager getTransactionManager() {
+        return tm;
+    }
+
+    /**
+     * @return the sequence counter of the next tunneling request (it's only one byte wide).
+     */
+    public short nextSequenceCounter() {
+        return (short) (sequenceCounter.getAndIncrement() & 0xFF);
+    }
+
+    public int getOutstandingTelegrams() {
+        return outstandingTelegrams.get();
+    }
+
+    public void telegramQueued() {
+        outstandingTelegrams.incrementAndGet();
+    }
+
+    public void telegramFinished() {
+        outstandingTelegrams.decrementAndGet();
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    public void markUnusable() {
+        usable = false;
+    }
+
+    public void addPendingConfirmation(PendingConfirmation pendingConfirmation) {
+        pendingConfirmations.add(pendingConfirmation);
+    }
+
+    public boolean removePendingConfirmation(PendingConfirmation pendingConfirmation) {
+        return pendingConfirmations.remove(pendingConfirmation);
+    }
+
+    public boolean hasPendingConfirmation(PendingConfirmation pendingConfirmation) {
+        return pendingConfirmations.contains(pendingConfirmation);
+    }
+
+    /**
+     * The gateway confirms the telegrams of a tunnel in the order they were sent, but as single
+     * telegrams might have timed out in the meantime, the oldest one matching the confirmation is used.
+     *
+     * @param destinationAddress destination address of the confirmed telegram
+     * @param apci               type of the confirmed telegram
+     * @return the oldest telegram waiting for this confirmation or null if there is none.
+     */
+    public PendingConfirmation pollPendingConfirmation(byte[] destinationAddress, APCI apci) {
+        final Iterator<PendingConfirmation> iterator = pendingConfirmations.iterator();
+        while (iterator.hasNext()) {
+            final PendingConfirmation pendingConfirmation = iterator.next();
+            if ((pendingConfirmation.getApci() == apci) &&
+                Arrays.equals(pendingConfirmation.getDestinationAddress(), destinationAddress)) {
+                iterator.remove();
+                return pendingConfirmation;
+            }
+        }
+        return null;
+    }
+
+    public static class PendingConfirmation {
+
+        private final byte[] destinationAddress;
+        private final APCI apci;
+        private final Consumer<Boolean> onConfirmation;
+
+        /**
+         * @param destinationAddress destination address of the telegram
+         * @param apci               type of the telegram
+         * @param onConfirmation     called with true if the telegram was sent on the bus or false if not
+         */
+        public PendingConfirmation(byte[] destinationAddress, APCI apci, Consumer<Boolean> onConfirmation) {
+            this.destinationAddress = destinationAddress;
+            this.apci = apci;
+            this.onConfirmation = onConfirmation;
+        }
+
+        public byte[] getDestinationAddress() {
+            return destinationAddress;
+        }
+
+        public APCI getApci() {
+            return apci;
+        }
+
+        public void confirm(boolean success) {
+            onConfirmation.accept(success);
+        }
+
+    }
+
+}
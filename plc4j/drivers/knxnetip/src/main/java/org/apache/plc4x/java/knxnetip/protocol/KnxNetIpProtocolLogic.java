@@ -27,18 +27,22 @@ import org.apache.plc4x.java.api.model.PlcField;
 import org.apache.plc4x.java.api.model.PlcSubscriptionHandle;
 import org.apache.plc4x.java.api.types.PlcResponseCode;
 import org.apache.plc4x.java.api.value.*;
+import org.apache.plc4x.java.knxnetip.cache.KnxNetIpValueCache;
 import org.apache.plc4x.java.knxnetip.context.KnxNetIpDriverContext;
 import org.apache.plc4x.java.knxnetip.ets5.model.Ets5Model;
 import org.apache.plc4x.java.knxnetip.ets5.model.GroupAddress;
 import org.apache.plc4x.java.knxnetip.field.KnxNetIpField;
+import org.apache.plc4x.java.knxnetip.model.KnxNetIpEventTemplate;
 import org.apache.plc4x.java.knxnetip.model.KnxNetIpSubscriptionHandle;
+import org.apache.plc4x.java.knxnetip.model.KnxNetIpSubscriptionIndex;
+import org.apache.plc4x.java.knxnetip.model.KnxNetIpTunnel;
 import org.apache.plc4x.java.knxnetip.readwrite.KNXGroupAddress;
 import org.apache.plc4x.java.knxnetip.readwrite.KNXGroupAddress2Level;
 import org.apache.plc4x.java.knxnetip.readwrite.KNXGroupAddress3Level;
 import org.apache.plc4x.java.knxnetip.readwrite.KNXGroupAddressFreeLevel;
-import org.apache.plc4x.java.knxnetip.readwrite.io.KNXGroupAddressIO;
 import org.apache.plc4x.java.knxnetip.readwrite.io.KnxDatapointIO;
 import org.apache.plc4x.java.knxnetip.readwrite.types.*;
+import org.apache.plc4x.java.knxnetip.utils.KnxSendRateLimiter;
 import org.apache.plc4x.java.spi.ConversationContext;
 import org.apache.plc4x.java.spi.Plc4xProtocolBase;
 import org.apache.plc4x.java.knxnetip.readwrite.*;
@@ -60,32 +64,38 @@ import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 public class KnxNetIpProtocolLogic extends Plc4xProtocolBase<KNXNetIPMessage> implements PlcSubscriber {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(KnxNetIpProtocolLogic.class);
     public static final Duration REQUEST_TIMEOUT = Duration.ofMillis(10000);
+    // Time the gateway has for acknowledging a tunneling request
+    public static final Duration ACK_TIMEOUT = Duration.ofMillis(1000);
 
     private KnxNetIpDriverContext knxNetIpDriverContext;
     private Timer connectionStateTimer;
-    private static final AtomicInteger sequenceCounter = new AtomicInteger(0);
-    private RequestTransactionManager tm;
+    private final List<KnxNetIpTunnel> tunnels = new CopyOnWriteArrayList<>();
+    private KnxSendRateLimiter rateLimiter;
 
     private Map<DefaultPlcConsumerRegistration, Consumer<PlcSubscriptionEvent>> consumers = new ConcurrentHashMap<>();
+    private volatile KnxNetIpSubscriptionIndex subscriptionIndex;
+    private final Map<Integer, KnxNetIpEventTemplate> eventTemplates = new ConcurrentHashMap<>();
+    private final KnxNetIpValueCache valueCache = new KnxNetIpValueCache();
 
     @Override
     public void setDriverContext(DriverContext driverContext) {
         super.setDriverContext(driverContext);
         this.knxNetIpDriverContext = (KnxNetIpDriverContext) driverContext;
 
-        // Initialize Transaction Manager.
-        // Until the number of concurrent requests is successfully negotiated we set it to a
-        // maximum of only one request being able to be sent at a time. During the login process
-        // No concurrent requests can be sent anyway. It will be updated when receiving the
-        // S7ParameterSetupCommunication response.
-        this.tm = new RequestTransactionManager(1);
+        // Each tunnel has its own transaction manager, but they all share the same bus.
+        this.rateLimiter = new KnxSendRateLimiter(knxNetIpDriverContext.getMaxTelegramsPerSecond());
+
+        this.subscriptionIndex = new KnxNetIpSubscriptionIndex(
+            knxNetIpDriverContext.getGroupAddressType(), Collections.emptyMap());
     }
 
     @Override
@@ -129,86 +139,39 @@ public class KnxNetIpProtocolLogic extends Plc4xProtocolBase<KNXNetIPMessage> im
                             knxNetIpDriverContext.getGatewayAddress().getMiddleGroup(),
                             knxNetIpDriverContext.getGatewayAddress().getSubGroup()));
 
-                        // Next send a connection request to the gateway.
-                        ConnectionRequest connectionRequest = new ConnectionRequest(
-                            new HPAIDiscoveryEndpoint(HostProtocolCode.IPV4_UDP,
-                                knxNetIpDriverContext.getLocalIPAddress(), knxNetIpDriverContext.getLocalPort()),
-                            new HPAIDataEndpoint(HostProtocolCode.IPV4_UDP,
-                                knxNetIpDriverContext.getLocalIPAddress(), knxNetIpDriverContext.getLocalPort()),
-                            new ConnectionRequestInformationTunnelConnection(
-                                knxNetIpDriverContext.getTunnelConnectionType()));
-                        LOGGER.info("Sending KNXnet/IP Connection Request.");
-                        context.sendRequest(connectionRequest)
-                            .expectResponse(KNXNetIPMessage.class, Duration.ofMillis(1000))
-                            .check(p -> p instanceof ConnectionResponse)
-                            .unwrap(p -> (ConnectionResponse) p)
-                            .handle(connectionResponse -> {
-                                // Remember the communication channel id.
-                                knxNetIpDriverContext.setCommunicationChannelId(
-                                    connectionResponse.getCommunicationChannelId());
-
-                                LOGGER.info(String.format("Received KNXnet/IP Connection Response (Connection Id %s)",
-                                    knxNetIpDriverContext.getCommunicationChannelId()));
-
-                                // Check if everything went well.
-                                Status status = connectionResponse.getStatus();
-                                if (status == Status.NO_ERROR) {
-                                    final ConnectionResponseDataBlockTunnelConnection tunnelConnectionDataBlock =
-                                        (ConnectionResponseDataBlockTunnelConnection) connectionResponse.getConnectionResponseDataBlock();
-                                    // Save the KNX Address the Gateway assigned to this connection.
-                                    knxNetIpDriverContext.setClientKnxAddress(tunnelConnectionDataBlock.getKnxAddress());
-
-                                    final KNXAddress gatewayAddress = knxNetIpDriverContext.getGatewayAddress();
-                                    final KNXAddress clientKnxAddress = knxNetIpDriverContext.getClientKnxAddress();
-                                    LOGGER.info(String.format("Successfully connected to KNXnet/IP Gateway '%s' with KNX address '%d.%d.%d' got assigned client KNX address '%d.%d.%d'",
-                                        knxNetIpDriverContext.getGatewayName(),
-                                        gatewayAddress.getMainGroup(), gatewayAddress.getMiddleGroup(),
-                                        gatewayAddress.getSubGroup(), clientKnxAddress.getMainGroup(),
-                                        clientKnxAddress.getMiddleGroup(), clientKnxAddress.getSubGroup()));
-
-                                    // Send an event that connection setup is complete.
-                                    context.fireConnected();
-
-                                    // Start a timer to check the connection state every 60 seconds.
-                                    // This keeps the connection open if no data is transported.
-                                    // Otherwise the gateway will terminate the connection.
-                                    connectionStateTimer = new Timer();
-                                    connectionStateTimer.scheduleAtFixedRate(new TimerTask() {
-                                        @Override
-                                        public void run() {
-                                            ConnectionStateRequest connectionStateRequest =
-                                                new ConnectionStateRequest(
-                                                    knxNetIpDriverContext.getCommunicationChannelId(),
-                                                    new HPAIControlEndpoint(HostProtocolCode.IPV4_UDP,
-                                                        knxNetIpDriverContext.getLocalIPAddress(),
-                                                        knxNetIpDriverContext.getLocalPort()));
-                                            context.sendRequest(connectionStateRequest)
-                                                .expectResponse(KNXNetIPMessage.class, Duration.ofMillis(1000))
-                                                .check(p -> p instanceof ConnectionStateResponse)
-                                                .unwrap(p -> (ConnectionStateResponse) p)
-                                                .handle(connectionStateResponse -> {
-                                                    if (connectionStateResponse.getStatus() != Status.NO_ERROR) {
-                                                        if (connectionStateResponse.getStatus() != null) {
-                                                            LOGGER.error(String.format("Connection state problems. Got %s",
-                                                                connectionStateResponse.getStatus().name()));
-                                                        } else {
-                                                            LOGGER.error("Connection state problems. Got no status information.");
-                                                        }
-                                                    }
-                                                });
-                                        }
-                                    }, 60000, 60000);
-                                } else {
-                                    // The connection request wasn't successful.
-                                    LOGGER.error(String.format(
-                                        "Not connected to KNXnet/IP Gateway '%s' with KNX address '%d.%d.%d' got status: '%s'",
-                                        knxNetIpDriverContext.getGatewayName(),
-                                        knxNetIpDriverContext.getGatewayAddress().getMainGroup(),
-                                        knxNetIpDriverContext.getGatewayAddress().getMiddleGroup(),
-                                        knxNetIpDriverContext.getGatewayAddress().getSubGroup(), status.toString()));
-                                    // TODO: Actively disconnect
+                        // Next open a tunnel connection to the gateway.
+                        openTunnel(context, tunnel -> {
+                            // Remember the communication channel id and the KNX Address the Gateway assigned to this connection.
+                            knxNetIpDriverContext.setCommunicationChannelId(tunnel.getCommunicationChannelId());
+                            knxNetIpDriverContext.setClientKnxAddress(tunnel.getClientKnxAddress());
+
+                            final KNXAddress gatewayAddress = knxNetIpDriverContext.getGatewayAddress();
+                            final KNXAddress clientKnxAddress = knxNetIpDriverContext.getClientKnxAddress();
+                            LOGGER.info(String.format("Successfully connected to KNXnet/IP Gateway '%s' with KNX address '%d.%d.%d' got assigned client KNX address '%d.%d.%d'",
+                                knxNetIpDriverContext.getGatewayName(),
+                                gatewayAddress.getMainGroup(), gatewayAddress.getMiddleGroup(),
+                                gatewayAddress.getSubGroup(), clientKnxAddress.getMainGroup(),
+                                clientKnxAddress.getMiddleGroup(), clientKnxAddress.getSubGroup()));
+
+                            // Send an event that connection setup is complete.
+                            context.fireConnected();
+
+                            // If configured, open additional tunnels to spread the outgoing telegrams.
+                            openAdditionalTunnels(context, knxNetIpDriverContext.getTunnelConnections() - 1);
+
+                            // Start a timer to check the connection state every 60 seconds.
+                            // This keeps the connection open if no data is transported.
+                            // Otherwise the gateway will terminate the connection.
+                            connectionStateTimer = new Timer();
+                            connectionStateTimer.scheduleAtFixedRate(new TimerTask() {
+                                @Override
+                                public void run() {
+                                    for (KnxNetIpTunnel curTunnel : tunnels) {
+                                        sendConnectionStateRequest(context, curTunnel);
+                                    }
                                 }
-                            });
+                            }, 60000, 60000);
+                        });
                     } else {
                         // This device doesn't support tunneling ... do some error handling.
                         LOGGER.error("Not connected to KNCnet/IP Gateway. The device doesn't support Tunneling.");
@@ -226,10 +189,99 @@ public class KnxNetIpProtocolLogic extends Plc4xProtocolBase<KNXNetIPMessage> im
         }
     }
 
+    protected void openTunnel(ConversationContext<KNXNetIPMessage> context, Consumer<KnxNetIpTunnel> onOpened) {
+        ConnectionRequest connectionRequest = new ConnectionRequest(
+            new HPAIDiscoveryEndpoint(HostProtocolCode.IPV4_UDP,
+                knxNetIpDriverContext.getLocalIPAddress(), knxNetIpDriverContext.getLocalPort()),
+            new HPAIDataEndpoint(HostProtocolCode.IPV4_UDP,
+                knxNetIpDriverContext.getLocalIPAddress(), knxNetIpDriverContext.getLocalPort()),
+            new ConnectionRequestInformationTunnelConnection(
+                knxNetIpDriverContext.getTunnelConnectionType()));
+        LOGGER.info("Sending KNXnet/IP Connection Request.");
+        context.sendRequest(connectionRequest)
+            .expectResponse(KNXNetIPMessage.class, Duration.ofMillis(1000))
+            .check(p -> p instanceof ConnectionResponse)
+            .unwrap(p -> (ConnectionResponse) p)
+            .handle(connectionResponse -> {
+                LOGGER.info(String.format("Received KNXnet/IP Connection Response (Connection Id %s)",
+                    connectionResponse.getCommunicationChannelId()));
+
+                // Check if everything went well.
+                Status status = connectionResponse.getStatus();
+                if (status == Status.NO_ERROR) {
+                    final ConnectionResponseDataBlockTunnelConnection tunnelConnectionDataBlock =
+                        (ConnectionResponseDataBlockTunnelConnection) connectionResponse.getConnectionResponseDataBlock();
+                    final KnxNetIpTunnel tunnel = new KnxNetIpTunnel(
+                        connectionResponse.getCommunicationChannelId(), tunnelConnectionDataBlock.getKnxAddress());
+                    tunnels.add(tunnel);
+                    onOpened.accept(tunnel);
+                } else {
+                    // The connection request wasn't successful.
+                    LOGGER.error(String.format(
+                        "Not connected to KNXnet/IP Gateway '%s' with KNX address '%d.%d.%d' got status: '%s'",
+                        knxNetIpDriverContext.getGatewayName(),
+                        knxNetIpDriverContext.getGatewayAddress().getMainGroup(),
+                        knxNetIpDriverContext.getGatewayAddress().getMiddleGroup(),
+                        knxNetIpDriverContext.getGatewayAddress().getSubGroup(), status.toString()));
+                    // TODO: Actively disconnect
+                }
+            });
+    }
+
+    // The additional tunnels are opened one after another, if the gateway doesn't support
+    // any more tunnels, we simply continue with the ones we've got.
+    protected void openAdditionalTunnels(ConversationContext<KNXNetIPMessage> context, int numTunnels) {
+        if (numTunnels <= 0) {
+            return;
+        }
+        openTunnel(context, tunnel -> {
+            final KNXAddress clientKnxAddress = tunnel.getClientKnxAddress();
+            LOGGER.info(String.format("Opened additional tunnel (Connection Id %s) with client KNX address '%d.%d.%d'",
+                tunnel.getCommunicationChannelId(), clientKnxAddress.getMainGroup(),
+                clientKnxAddress.getMiddleGroup(), clientKnxAddress.getSubGroup()));
+            openAdditionalTunnels(context, numTunnels - 1);
+        });
+    }
+
+    protected void sendConnectionStateRequest(ConversationContext<KNXNetIPMessage> context, KnxNetIpTunnel tunnel) {
+        ConnectionStateRequest connectionStateRequest =
+            new ConnectionStateRequest(tunnel.getCommunicationChannelId(),
+                new HPAIControlEndpoint(HostProtocolCode.IPV4_UDP,
+                    knxNetIpDriverContext.getLocalIPAddress(),
+                    knxNetIpDriverContext.getLocalPort()));
+        context.sendRequest(connectionStateRequest)
+            .expectResponse(KNXNetIPMessage.class, Duration.ofMillis(1000))
+            .check(p -> p instanceof ConnectionStateResponse)
+            .unwrap(p -> (ConnectionStateResponse) p)
+            .check(p -> p.getCommunicationChannelId() == tunnel.getCommunicationChannelId())
+            .handle(connectionStateResponse -> {
+                if (connectionStateResponse.getStatus() != Status.NO_ERROR) {
+                    if (connectionStateResponse.getStatus() != null) {
+                        LOGGER.error(String.format("Connection state problems. Got %s",
+                            connectionStateResponse.getStatus().name()));
+                    } else {
+                        LOGGER.error("Connection state problems. Got no status information.");
+                    }
+                }
+            });
+    }
+
     @Override
     public void onDisconnect(ConversationContext<KNXNetIPMessage> context) {
         // Cancel the timer for sending connection state requests.
-        connectionStateTimer.cancel();
+        if (connectionStateTimer != null) {
+            connectionStateTimer.cancel();
+        }
+
+        // Close any additional tunnels, we're only waiting for the response of the first one.
+        for (KnxNetIpTunnel tunnel : tunnels) {
+            if (tunnel.getCommunicationChannelId() != knxNetIpDriverContext.getCommunicationChannelId()) {
+                context.sendToWire(new DisconnectRequest(tunnel.getCommunicationChannelId(),
+                    new HPAIControlEndpoint(HostProtocolCode.IPV4_UDP,
+                        knxNetIpDriverContext.getLocalIPAddress(), knxNetIpDriverContext.getLocalPort())));
+            }
+        }
+        tunnels.clear();
 
         DisconnectRequest disconnectRequest = new DisconnectRequest(knxNetIpDriverContext.getCommunicationChannelId(),
             new HPAIControlEndpoint(HostProtocolCode.IPV4_UDP,
@@ -263,10 +315,6 @@ public class KnxNetIpProtocolLogic extends Plc4xProtocolBase<KNXNetIPMessage> im
             String fieldName = first.get();
             final KnxNetIpField field = (KnxNetIpField) request.getField(fieldName);
             byte[] destinationAddress = toKnxAddressData(field);
-            if(sequenceCounter.get() == Short.MAX_VALUE) {
-                sequenceCounter.set(0);
-            }
-
             // Convert the PlcValue to byte data.
             final PlcValue value = request.getPlcValue(fieldName);
             byte dataFirstByte = 0;
@@ -336,53 +384,224 @@ public class KnxNetIpProtocolLogic extends Plc4xProtocolBase<KNXNetIPMessage> im
                 }
             }
 
-            final short communicationChannelId = knxNetIpDriverContext.getCommunicationChannelId();
-            // Prepare the knx request message.
-            TunnelingRequest knxRequest = new TunnelingRequest(
-                new TunnelingRequestDataBlock(communicationChannelId,
-                    (short) sequenceCounter.getAndIncrement()),
-                new CEMIDataReq((short) 0, new CEMIAdditionalInformation[0],
-                    new CEMIDataFrame(true, false, true, true, CEMIPriority.LOW, false, false, true, (byte) 6,
-                        (byte) 0, knxNetIpDriverContext.getClientKnxAddress(), destinationAddress,
-                        (short) ((data != null) ? data.length + 1 : 1), TPCI.UNNUMBERED_DATA_PACKET, (byte) 0,
-                        APCI.GROUP_VALUE_WRITE_PDU, dataFirstByte, data)
-                ));
-
-            // Start a new request-transaction (Is ended in the response-handler)
-            RequestTransactionManager.RequestTransaction transaction = tm.startRequest();
-            // Start a new request-transaction (Is ended in the response-handler)
-            transaction.submit(() -> context.sendRequest(knxRequest)
-                .expectResponse(KNXNetIPMessage.class, REQUEST_TIMEOUT)
-                .onTimeout(future::completeExceptionally)
-                .onError((tr, e) -> future.completeExceptionally(e))
-                // Technically this is not 100% correct, as actually an Ack would be received
-                // which is instantly followed by this request. However the Ack was always OK
-                // no matter what I threw at the Gateway, so we'll make the code a lot simpler
-                // and assume the Request is the response to our request.
-                .check(tr -> tr instanceof TunnelingRequest)
-                .unwrap(tr -> ((TunnelingRequest) tr))
-                .check(tr -> tr.getCemi() instanceof CEMIDataCon)
-                .check(tr -> (tr.getTunnelingRequestDataBlock().getCommunicationChannelId() == communicationChannelId) &&
-                    (tr.getTunnelingRequestDataBlock().getSequenceCounter() == knxRequest.getTunnelingRequestDataBlock().getSequenceCounter()))
-                .handle(tr -> {
-                    // In this case all wen't well.
-                    PlcResponseCode responseCode = PlcResponseCode.OK;
+            // Send the telegram and respond as soon as the gateway confirms it was sent on the bus.
+            final byte telegramFirstByte = dataFirstByte;
+            final byte[] telegramData = data;
+            sendGroupTelegram(destinationAddress, APCI.GROUP_VALUE_WRITE_PDU, telegramFirstByte, telegramData, future,
+                success -> {
+                    if (success) {
+                        updateValueCache(destinationAddress, telegramFirstByte, telegramData);
+                    }
+                    PlcResponseCode responseCode = success ? PlcResponseCode.OK : PlcResponseCode.REMOTE_ERROR;
                     // Prepare the response.
                     PlcWriteResponse response = new DefaultPlcWriteResponse(request,
                         Collections.singletonMap(fieldName, responseCode));
 
                     future.complete(response);
+                });
+        }
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<PlcReadResponse> read(PlcReadRequest readRequest) {
+        DefaultPlcReadRequest request = (DefaultPlcReadRequest) readRequest;
+        Map<String, CompletableFuture<ResponseItem<PlcValue>>> items = new LinkedHashMap<>();
+        for (String fieldName : request.getFieldNames()) {
+            items.put(fieldName, readField(request.getField(fieldName)));
+        }
+
+        CompletableFuture<PlcReadResponse> future = new CompletableFuture<>();
+        CompletableFuture.allOf(items.values().toArray(new CompletableFuture[0])).whenComplete((unused, throwable) -> {
+            if (throwable != null) {
+                future.completeExceptionally(throwable);
+                return;
+            }
+            Map<String, ResponseItem<PlcValue>> values = new HashMap<>();
+            for (Map.Entry<String, CompletableFuture<ResponseItem<PlcValue>>> item : items.entrySet()) {
+                values.put(item.getKey(), item.getValue().join());
+            }
+            future.complete(new DefaultPlcReadResponse(request, values));
+        });
+        return future;
+    }
 
-                    // Send Ack back.
-                    TunnelingResponse ack = new TunnelingResponse(new TunnelingResponseDataBlock(communicationChannelId,
-                        tr.getTunnelingRequestDataBlock().getSequenceCounter(), Status.NO_ERROR));
-                    transaction.submit(() -> context.sendToWire(ack));
+    /**
+     * Reads are served from the value cache, which is updated with every telegram we see on the bus.
+     * Only if there is no value or it's older than the configured "max-value-age", a GroupValueRead
+     * is sent to the bus and the read is completed as soon as the GroupValueResponse comes in.
+     */
+    protected CompletableFuture<ResponseItem<PlcValue>> readField(PlcField plcField) {
+        if (!(plcField instanceof KnxNetIpField) || ((KnxNetIpField) plcField).isWildcard()) {
+            return CompletableFuture.completedFuture(new ResponseItem<>(PlcResponseCode.INVALID_ADDRESS, null));
+        }
+        final KnxNetIpField field = (KnxNetIpField) plcField;
+        final String groupAddress = field.getGroupAddressString();
+
+        // In passive mode we can't query the bus, so we simply return what we've got.
+        final long maxValueAge = knxNetIpDriverContext.isPassiveMode() ? -1 : knxNetIpDriverContext.getMaxValueAge();
+        final PlcValue cachedValue = valueCache.get(groupAddress, maxValueAge);
+        if (cachedValue != null) {
+            return CompletableFuture.completedFuture(new ResponseItem<>(PlcResponseCode.OK, cachedValue));
+        }
+        if (knxNetIpDriverContext.isPassiveMode()) {
+            return CompletableFuture.completedFuture(new ResponseItem<>(PlcResponseCode.NOT_FOUND, null));
+        }
+
+        // If someone else is already querying this address, just wait for the same response.
+        final KnxNetIpValueCache.PendingRead pendingRead = valueCache.awaitUpdate(groupAddress);
+        final CompletableFuture<PlcValue> valueFuture = pendingRead.getFuture();
+        if (pendingRead.isInitiator()) {
+            context.getChannel().eventLoop().schedule(() -> valueFuture.completeExceptionally(
+                new TimeoutException("No response for group address " + groupAddress)),
+                REQUEST_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            // The value itself is delivered by the GroupValueResponse telegram, which is handled in decode.
+            sendGroupTelegram(toKnxAddressData(field), APCI.GROUP_VALUE_READ_PDU, (byte) 0, null, valueFuture,
+                success -> {
+                    if (!success) {
+                        valueFuture.completeExceptionally(new PlcRuntimeException(
+                            "Gateway couldn't send GroupValueRead for group address " + groupAddress));
+                    }
+                });
+        }
+        return valueFuture.thenApply(value -> new ResponseItem<>(PlcResponseCode.OK, value));
+    }
+
+    /**
+     * Sends a group telegram through the least busy tunnel. A tunnel can send its next telegram as soon as
+     * the gateway acknowledged the previous one, the result of actually sending it on the bus (L_Data.con)
+     * is passed to onConfirmation as soon as it comes in.
+     */
+    protected void sendGroupTelegram(byte[] destinationAddress, APCI apci, byte dataFirstByte, byte[] data,
+                                     CompletableFuture<?> future, Consumer<Boolean> onConfirmation) {
+        final KnxNetIpTunnel tunnel = selectTunnel();
+        if (tunnel == null) {
+            future.completeExceptionally(new PlcRuntimeException("Not connected to a KNXnet/IP Gateway."));
+            return;
+        }
+        tunnel.telegramQueued();
+        final KnxNetIpTunnel.PendingConfirmation pendingConfirmation =
+            new KnxNetIpTunnel.PendingConfirmation(destinationAddress, apci, success -> {
+                tunnel.telegramFinished();
+                onConfirmation.accept(success);
+            });
+
+        // The telegrams are confirmed in the order they are sent, which is the order they are queued in.
+        // The timeout starts now, so telegrams stuck in the queue of the tunnel time out as well.
+        tunnel.addPendingConfirmation(pendingConfirmation);
+        context.getChannel().eventLoop().schedule(() -> failGroupTelegram(tunnel, pendingConfirmation, future,
+            new TimeoutException("Got no confirmation for the telegram.")),
+            REQUEST_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+
+        // Start a new request-transaction (Is ended as soon as the gateway acknowledged the request)
+        RequestTransactionManager.RequestTransaction transaction = tunnel.getTransactionManager().startRequest();
+        transaction.submit(() -> {
+            // Don't send the telegrams faster than the bus is able to transport them.
+            final long delay = rateLimiter.reserve();
+            if (delay > 0) {
+                context.getChannel().eventLoop().schedule(() -> sendGroupTelegram(tunnel, transaction,
+                    pendingConfirmation, dataFirstByte, data, future), delay, TimeUnit.NANOSECONDS);
+            } else {
+                sendGroupTelegram(tunnel, transaction, pendingConfirmation, dataFirstByte, data, future);
+            }
+        });
+    }
+
+    private void sendGroupTelegram(KnxNetIpTunnel tunnel, RequestTransactionManager.RequestTransaction transaction,
+                                   KnxNetIpTunnel.PendingConfirmation pendingConfirmation, byte dataFirstByte,
+                                   byte[] data, CompletableFuture<?> future) {
+        // The telegram timed out while waiting in the queue.
+        if (!tunnel.hasPendingConfirmation(pendingConfirmation)) {
+            transaction.endRequest();
+            return;
+        }
+        if (!tunnel.isUsable()) {
+            failGroupTelegram(tunnel, pendingConfirmation, future, new PlcRuntimeException(
+                "Tunnel " + tunnel.getCommunicationChannelId() + " is no longer usable."));
+            transaction.endRequest();
+            return;
+        }
 
-                    // Finish the request-transaction.
+        // Prepare the knx request message.
+        TunnelingRequest knxRequest = new TunnelingRequest(
+            new TunnelingRequestDataBlock(tunnel.getCommunicationChannelId(), tunnel.nextSequenceCounter()),
+            new CEMIDataReq((short) 0, new CEMIAdditionalInformation[0],
+                new CEMIDataFrame(true, false, true, true, CEMIPriority.LOW, false, false, true, (byte) 6,
+                    (byte) 0, tunnel.getClientKnxAddress(), pendingConfirmation.getDestinationAddress(),
+                    (short) ((data != null) ? data.length + 1 : 1), TPCI.UNNUMBERED_DATA_PACKET, (byte) 0,
+                    pendingConfirmation.getApci(), dataFirstByte, data)
+            ));
+        sendTunnelingRequest(tunnel, transaction, knxRequest, pendingConfirmation, future, true);
+    }
+
+    /**
+     * Sends the tunneling request and waits for the ACK of the gateway. As required by the KNXnet/IP tunneling
+     * spec, a request which isn't acknowledged in time is repeated once, if it's not acknowledged the second
+     * time either, the tunnel is no longer used.
+     */
+    private void sendTunnelingRequest(KnxNetIpTunnel tunnel, RequestTransactionManager.RequestTransaction transaction,
+                                      TunnelingRequest knxRequest, KnxNetIpTunnel.PendingConfirmation pendingConfirmation,
+                                      CompletableFuture<?> future, boolean firstAttempt) {
+        final short sequenceCounter = knxRequest.getTunnelingRequestDataBlock().getSequenceCounter();
+        context.sendRequest(knxRequest)
+            .expectResponse(KNXNetIPMessage.class, ACK_TIMEOUT)
+            .onTimeout(e -> {
+                if (firstAttempt) {
+                    LOGGER.debug("Got no ACK for tunneling request {} of tunnel {}, repeating it.",
+                        sequenceCounter, tunnel.getCommunicationChannelId());
+                    sendTunnelingRequest(tunnel, transaction, knxRequest, pendingConfirmation, future, false);
+                } else {
+                    LOGGER.warn("Got no ACK for tunneling request {} of tunnel {}, the tunnel is no longer used.",
+                        sequenceCounter, tunnel.getCommunicationChannelId());
+                    tunnel.markUnusable();
+                    failGroupTelegram(tunnel, pendingConfirmation, future,
+                        new TimeoutException("Gateway didn't acknowledge the telegram."));
                     transaction.endRequest();
-                }));
+                }
+            })
+            .only(TunnelingResponse.class)
+            .unwrap(TunnelingResponse::getTunnelingResponseDataBlock)
+            .check(ack -> ack.getCommunicationChannelId() == tunnel.getCommunicationChannelId())
+            .check(ack -> ack.getSequenceCounter() == sequenceCounter)
+            .handle(ack -> {
+                if (ack.getStatus() != Status.NO_ERROR) {
+                    failGroupTelegram(tunnel, pendingConfirmation, future, new PlcRuntimeException(
+                        "Gateway didn't accept the telegram. Got status: " + ack.getStatus()));
+                }
+                // The confirmation is handled in decode, so the tunnel is free for the next telegram.
+                transaction.endRequest();
+            });
+    }
+
+    private void failGroupTelegram(KnxNetIpTunnel tunnel, KnxNetIpTunnel.PendingConfirmation pendingConfirmation,
+                                   CompletableFuture<?> future, Throwable cause) {
+        // If it's no longer pending, it has already been confirmed or failed.
+        if (tunnel.removePendingConfirmation(pendingConfirmation)) {
+            tunnel.telegramFinished();
+            future.completeExceptionally(cause);
         }
-        return future;
+    }
+
+    protected KnxNetIpTunnel selectTunnel() {
+        KnxNetIpTunnel selectedTunnel = null;
+        for (KnxNetIpTunnel tunnel : tunnels) {
+            if (!tunnel.isUsable()) {
+                continue;
+            }
+            if ((selectedTunnel == null) || (tunnel.getOutstandingTelegrams() < selectedTunnel.getOutstandingTelegrams())) {
+                selectedTunnel = tunnel;
+            }
+        }
+        return selectedTunnel;
+    }
+
+    protected KnxNetIpTunnel getTunnel(short communicationChannelId) {
+        for (KnxNetIpTunnel tunnel : tunnels) {
+            if (tunnel.getCommunicationChannelId() == communicationChannelId) {
+                return tunnel;
+            }
+        }
+        return null;
     }
 
     @Override
@@ -393,102 +612,167 @@ public class KnxNetIpProtocolLogic extends Plc4xProtocolBase<KNXNetIPMessage> im
             final short curCommunicationChannelId =
                 tunnelingRequest.getTunnelingRequestDataBlock().getCommunicationChannelId();
 
-            // Only if the communication channel id match, do anything with the request.
+            // Only if the communication channel id matches one of our tunnels, do anything with the request.
             // In case of a passive-mode driver we'll simply accept all communication ids.
-            if(knxNetIpDriverContext.isPassiveMode() ||
-                (curCommunicationChannelId == knxNetIpDriverContext.getCommunicationChannelId())) {
+            final KnxNetIpTunnel tunnel = getTunnel(curCommunicationChannelId);
+            if(knxNetIpDriverContext.isPassiveMode() || (tunnel != null)) {
+                // Every tunnel gets all telegrams on the bus, so we only process the ones of the first tunnel.
+                final boolean primaryTunnel = knxNetIpDriverContext.isPassiveMode() ||
+                    (curCommunicationChannelId == knxNetIpDriverContext.getCommunicationChannelId());
+
+                // Confirm receipt of the request first, so the gateway doesn't repeat it (or even drop the
+                // tunnel), if processing it takes long or fails.
+                final short sequenceCounter = tunnelingRequest.getTunnelingRequestDataBlock().getSequenceCounter();
+                final short ackCommunicationChannelId = (tunnel != null) ?
+                    tunnel.getCommunicationChannelId() : knxNetIpDriverContext.getCommunicationChannelId();
+                TunnelingResponse tunnelingResponse = new TunnelingResponse(
+                    new TunnelingResponseDataBlock(ackCommunicationChannelId, sequenceCounter, Status.NO_ERROR));
+                context.sendToWire(tunnelingResponse);
+
+                // Confirmation of a telegram we sent.
+                if(tunnelingRequest.getCemi() instanceof CEMIDataCon) {
+                    if (tunnel != null) {
+                        final CEMIDataFrame cemiDataFrame = ((CEMIDataCon) tunnelingRequest.getCemi()).getCemiDataFrame();
+                        final KnxNetIpTunnel.PendingConfirmation pendingConfirmation = tunnel.pollPendingConfirmation(
+                            cemiDataFrame.getDestinationAddress(), cemiDataFrame.getApci());
+                        if (pendingConfirmation != null) {
+                            pendingConfirmation.confirm(!cemiDataFrame.getError());
+                        }
+                    }
+                }
                 // Data packets received from a link layer tunneling connection.
-                if(tunnelingRequest.getCemi() instanceof CEMIDataInd) {
+                else if(primaryTunnel && (tunnelingRequest.getCemi() instanceof CEMIDataInd)) {
                     CEMIDataInd dataInd = (CEMIDataInd) tunnelingRequest.getCemi();
                     final CEMIDataFrame cemiDataFrame = dataInd.getCemiDataFrame();
                     processCemiData(cemiDataFrame.getSourceAddress(), cemiDataFrame.getDestinationAddress(),
-                        cemiDataFrame.getDataFirstByte(), cemiDataFrame.getData());
+                        cemiDataFrame.getApci(), cemiDataFrame.getDataFirstByte(), cemiDataFrame.getData());
                 }
                 // Data packets received from a busmonitor tunneling connection.
-                else if(tunnelingRequest.getCemi() instanceof CEMIBusmonInd) {
+                else if(primaryTunnel && (tunnelingRequest.getCemi() instanceof CEMIBusmonInd)) {
                     CEMIBusmonInd busmonInd = (CEMIBusmonInd) tunnelingRequest.getCemi();
                     if (busmonInd.getCemiFrame() instanceof CEMIFrameData) {
                         CEMIFrameData cemiDataFrame = (CEMIFrameData) busmonInd.getCemiFrame();
                         processCemiData(cemiDataFrame.getSourceAddress(), cemiDataFrame.getDestinationAddress(),
-                            cemiDataFrame.getDataFirstByte(), cemiDataFrame.getData());
+                            cemiDataFrame.getApci(), cemiDataFrame.getDataFirstByte(), cemiDataFrame.getData());
                     }
                 }
-
-                // Confirm receipt of the request.
-                final short sequenceCounter = tunnelingRequest.getTunnelingRequestDataBlock().getSequenceCounter();
-                TunnelingResponse tunnelingResponse = new TunnelingResponse(
-                    new TunnelingResponseDataBlock(knxNetIpDriverContext.getCommunicationChannelId(), sequenceCounter,
-                        Status.NO_ERROR));
-                context.sendToWire(tunnelingResponse);
             }
-        } else if(msg instanceof TunnelingResponse) {
-            // This is just handling of all the Ack messages that might come in for any read- or
-            // write requests. Usually this is just OK (I haven't managed to fake a message to cause
-            // something else than an OK)
         }
     }
 
-    protected void processCemiData(KNXAddress sourceAddress, byte[] destinationGroupAddress,
+    protected void processCemiData(KNXAddress sourceAddress, byte[] destinationGroupAddress, APCI apci,
                                    byte firstByte, byte[] restBytes) throws ParseException {
+        // GroupValueRead telegrams don't carry a value, so there's nothing to decode, cache or publish.
+        if (apci == APCI.GROUP_VALUE_READ_PDU) {
+            return;
+        }
+
         // The first byte is actually just 6 bit long, but we'll treat it as a full one.
         // So here we create a byte array containing the first and all the following bytes.
         byte[] payload = new byte[1 + restBytes.length];
         payload[0] = firstByte;
         System.arraycopy(restBytes, 0, payload, 1, restBytes.length);
 
-        // Decode the group address depending on the project settings.
-        ReadBuffer addressBuffer = new ReadBuffer(destinationGroupAddress);
-        final KNXGroupAddress knxGroupAddress =
-            KNXGroupAddressIO.staticParse(addressBuffer, knxNetIpDriverContext.getGroupAddressType());
-        final String destinationAddress = toString(knxGroupAddress);
+        // Everything that only depends on the group address is only computed once per address.
+        final int rawGroupAddress = ((destinationGroupAddress[0] & 0xFF) << 8) | (destinationGroupAddress[1] & 0xFF);
+        final KnxNetIpEventTemplate eventTemplate =
+            eventTemplates.computeIfAbsent(rawGroupAddress, this::createEventTemplate);
+        final String destinationAddress = eventTemplate.getGroupAddressString();
 
         // If there is an ETS5 model provided, continue decoding the payload.
         if (knxNetIpDriverContext.getEts5Model() != null) {
-            final GroupAddress groupAddress =
-                knxNetIpDriverContext.getEts5Model().getGroupAddresses().get(destinationAddress);
+            final GroupAddress groupAddress = eventTemplate.getGroupAddress();
 
             if ((groupAddress != null) && (groupAddress.getType() != null)) {
-                LOGGER.info(String.format("Message from: '%s' to: '%s'",
-                    toString(sourceAddress), destinationAddress));
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Message from: '{}' to: '{}'", toString(sourceAddress), destinationAddress);
+                }
 
                 // Parse the payload depending on the type of the group-address.
                 ReadBuffer rawDataReader = new ReadBuffer(payload);
                 final PlcValue value = KnxDatapointIO.staticParse(rawDataReader,
                     groupAddress.getType().getMainType(), groupAddress.getType().getSubType());
+                valueCache.update(destinationAddress, value);
 
-                // Assemble the plc4x return data-structure.
-                Map<String, PlcValue> dataPointMap = new HashMap<>();
-                dataPointMap.put("sourceAddress", new PlcString(toString(sourceAddress)));
-                dataPointMap.put("targetAddress", new PlcString(groupAddress.getGroupAddress()));
-                if (groupAddress.getFunction() != null) {
-                    dataPointMap.put("location", new PlcString(groupAddress.getFunction().getSpaceName()));
-                    dataPointMap.put("function", new PlcString(groupAddress.getFunction().getName()));
-                } else {
-                    dataPointMap.put("location", null);
-                    dataPointMap.put("function", null);
-                }
-                dataPointMap.put("description", new PlcString(groupAddress.getName()));
-                dataPointMap.put("unitOfMeasurement", new PlcString(groupAddress.getType().getName()));
-                dataPointMap.put("value", value);
-                final PlcStruct dataPoint = new PlcStruct(dataPointMap);
+                // Only assemble the plc4x return data-structure, if anyone is interested in it.
+                final List<Consumer<PlcSubscriptionEvent>> interestedConsumers =
+                    subscriptionIndex.getConsumers(rawGroupAddress);
+                if (!interestedConsumers.isEmpty()) {
+                    final PlcStruct dataPoint =
+                        eventTemplate.createDataPoint(new PlcString(toString(sourceAddress)), value);
 
-                // Send the data-structure.
-                publishEvent(groupAddress, dataPoint);
+                    // Send the data-structure.
+                    publishEvent(interestedConsumers, dataPoint);
+                }
             } else {
-                LOGGER.warn(
-                    String.format("Message from: '%s' to unknown group address: '%s'%n payload: '%s'",
-                        toString(sourceAddress), destinationAddress, Hex.encodeHexString(payload)));
+                if (LOGGER.isWarnEnabled()) {
+                    LOGGER.warn("Message from: '{}' to unknown group address: '{}'\n payload: '{}'",
+                        toString(sourceAddress), destinationAddress, Hex.encodeHexString(payload));
+                }
+                valueCache.update(destinationAddress, toRawValue(payload));
             }
         }
         // Else just output the raw payload.
         else {
-            LOGGER.info(String.format("Raw Message: '%s' to: '%s'%n payload: '%s'",
-                KnxNetIpProtocolLogic.toString(sourceAddress), destinationAddress,
-                Hex.encodeHexString(payload))
-            );
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Raw Message: '{}' to: '{}'\n payload: '{}'",
+                    toString(sourceAddress), destinationAddress, Hex.encodeHexString(payload));
+            }
+            valueCache.update(destinationAddress, toRawValue(payload));
+        }
+    }
+
+    /**
+     * The gateway doesn't indicate the telegrams we send back to us, so the cache is updated with the value
+     * of a GroupValueWrite as soon as the gateway confirmed it. Otherwise reads within "max-value-age" would
+     * still return the value from before the write.
+     */
+    protected void updateValueCache(byte[] destinationGroupAddress, byte firstByte, byte[] restBytes) {
+        final byte[] payload = new byte[1 + ((restBytes != null) ? restBytes.length : 0)];
+        payload[0] = firstByte;
+        if (restBytes != null) {
+            System.arraycopy(restBytes, 0, payload, 1, restBytes.length);
+        }
+        final int rawGroupAddress = ((destinationGroupAddress[0] & 0xFF) << 8) | (destinationGroupAddress[1] & 0xFF);
+        final KnxNetIpEventTemplate eventTemplate =
+            eventTemplates.computeIfAbsent(rawGroupAddress, this::createEventTemplate);
+        final GroupAddress groupAddress = eventTemplate.getGroupAddress();
+        if ((groupAddress == null) || (groupAddress.getType() == null)) {
+            valueCache.update(eventTemplate.getGroupAddressString(), toRawValue(payload));
+            return;
+        }
+        // Decode the value the same way as the telegrams received from the bus.
+        try {
+            valueCache.update(eventTemplate.getGroupAddressString(), KnxDatapointIO.staticParse(
+                new ReadBuffer(payload), groupAddress.getType().getMainType(), groupAddress.getType().getSubType()));
+        } catch (ParseException e) {
+            LOGGER.warn("Error decoding the written value of group address '{}'",
+                eventTemplate.getGroupAddressString(), e);
+            valueCache.invalidate(eventTemplate.getGroupAddressString());
         }
     }
 
+    protected KnxNetIpEventTemplate createEventTemplate(int rawGroupAddress) {
+        final String groupAddressString =
+            Ets5Model.parseGroupAddress(knxNetIpDriverContext.getGroupAddressType(), rawGroupAddress);
+        final Ets5Model ets5Model = knxNetIpDriverContext.getEts5Model();
+        final GroupAddress groupAddress =
+            (ets5Model != null) ? ets5Model.getGroupAddresses().get(groupAddressString) : null;
+        return new KnxNetIpEventTemplate(rawGroupAddress, groupAddressString, groupAddress);
+    }
+
+    // Without type information the value is returned in the same form a raw write expects it.
+    protected static PlcValue toRawValue(byte[] payload) {
+        if (payload.length == 1) {
+            return new PlcByte(payload[0]);
+        }
+        List<PlcValue> bytes = new ArrayList<>(payload.length);
+        for (byte b : payload) {
+            bytes.add(new PlcByte(b));
+        }
+        return new PlcList(bytes);
+    }
+
     @Override
     public void close(ConversationContext<KNXNetIPMessage> context) {
         // TODO Implement Closing on Protocol Level
@@ -511,39 +795,30 @@ public class KnxNetIpProtocolLogic extends Plc4xProtocolBase<KNXNetIPMessage> im
     }
 
     @Override
-    public PlcConsumerRegistration register(Consumer<PlcSubscriptionEvent> consumer, Collection<PlcSubscriptionHandle> collection) {
+    public synchronized PlcConsumerRegistration register(Consumer<PlcSubscriptionEvent> consumer, Collection<PlcSubscriptionHandle> collection) {
         final DefaultPlcConsumerRegistration consumerRegistration =
             new DefaultPlcConsumerRegistration(this, consumer, collection.toArray(new InternalPlcSubscriptionHandle[0]));
         consumers.put(consumerRegistration, consumer);
+        subscriptionIndex = new KnxNetIpSubscriptionIndex(knxNetIpDriverContext.getGroupAddressType(), consumers);
         return consumerRegistration;
     }
 
     @Override
-    public void unregister(PlcConsumerRegistration plcConsumerRegistration) {
+    public synchronized void unregister(PlcConsumerRegistration plcConsumerRegistration) {
         DefaultPlcConsumerRegistration consumerRegistration = (DefaultPlcConsumerRegistration) plcConsumerRegistration;
         consumers.remove(consumerRegistration);
+        subscriptionIndex = new KnxNetIpSubscriptionIndex(knxNetIpDriverContext.getGroupAddressType(), consumers);
     }
 
-    protected void publishEvent(GroupAddress groupAddress, PlcValue plcValue) {
+    protected void publishEvent(List<Consumer<PlcSubscriptionEvent>> interestedConsumers, PlcValue plcValue) {
         // Create a subscription event from the input.
         // TODO: Check this ... this is sort of not really right ...
         final PlcSubscriptionEvent event = new DefaultPlcSubscriptionEvent(Instant.now(),
             Collections.singletonMap("knxData", new ResponseItem<>(PlcResponseCode.OK, plcValue)));
 
-        // Try sending the subscription event to all listeners.
-        for (Map.Entry<DefaultPlcConsumerRegistration, Consumer<PlcSubscriptionEvent>> entry : consumers.entrySet()) {
-            final DefaultPlcConsumerRegistration registration = entry.getKey();
-            final Consumer<PlcSubscriptionEvent> consumer = entry.getValue();
-            // Only if the current data point matches the subscription, publish the event to it.
-            for (InternalPlcSubscriptionHandle handle : registration.getAssociatedHandles()) {
-                if(handle instanceof KnxNetIpSubscriptionHandle) {
-                    KnxNetIpSubscriptionHandle subscriptionHandle = (KnxNetIpSubscriptionHandle) handle;
-                    // Check if the subscription matches this current event.
-                    if (subscriptionHandle.getField().matchesGroupAddress(groupAddress)) {
-                        consumer.accept(event);
-                    }
-                }
-            }
+        // Send the subscription event to all listeners with a subscription matching the current data point.
+        for (Consumer<PlcSubscriptionEvent> consumer : interestedConsumers) {
+            consumer.accept(event);
         }
     }
 
@@ -561,7 +836,7 @@ public class KnxNetIpProtocolLogic extends Plc4xProtocolBase<KNXNetIPMessage> im
                     address.writeUnsignedShort(11, Short.valueOf(field.getSubGroup()));
                     break;
                 case 1:
-                    address.writeUnsignedShort(16, Short.valueOf(field.getSubGroup()));
+                    address.writeUnsignedShort(16, Short.valueOf(field.getMainGroup()));
                     break;
             }
         } catch (Exception e) {
@@ -0,0 +1,57 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.knxnetip.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out the telegrams sent to the KNX bus, so we don't send them faster than the bus can handle.
+ *
+ * All tunnels of a connection end up on the same bus, so they share one limiter. Every telegram reserves
+ * the next free slot and has to wait until then before being sent.
+ */
+public class KnxSendRateLimiter {
+
+    private final long intervalNanos;
+    private long nextSendTime;
+
+    /**
+     * @param maxTelegramsPerSecond maximum number of telegrams to send per second (0 or less disables the limit)
+     */
+    public KnxSendRateLimiter(int maxTelegramsPerSecond) {
+        this.intervalNanos = (maxTelegramsPerSecond > 0) ? TimeUnit.SECONDS.toNanos(1) / maxTelegramsPerSecond : 0;
+        this.nextSendTime = System.nanoTime();
+    }
+
+    /**
+     * Reserve the next slot for sending a telegram.
+     *
+     * @return number of nanoseconds to wait before the telegram may be sent.
+     */
+    public synchronized long reserve() {
+        if (intervalNanos == 0) {
+            return 0;
+        }
+        final long now = System.nanoTime();
+        final long sendTime = (nextSendTime - now > 0) ? nextSendTime : now;
+        nextSendTime = sendTime + intervalNanos;
+        return sendTime - now;
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.knxnetip.cache;
+
+import org.apache.plc4x.java.api.value.PlcBoolean;
+import org.apache.plc4x.java.api.value.PlcValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KnxNetIpValueCacheTest {
+
+    @Test
+    public void servesFreshValues() throws Exception {
+        KnxNetIpValueCache cache = new KnxNetIpValueCache();
+        assertNull(cache.get("1/2/3", 1000));
+
+        cache.update("1/2/3", new PlcBoolean(true));
+        assertTrue(cache.get("1/2/3", 1000).getBoolean());
+        assertNull(cache.get("1/2/4", 1000));
+
+        Thread.sleep(5);
+        // Values which are too old are treated as missing, unless the check is disabled.
+        assertNull(cache.get("1/2/3", 0));
+        assertNotNull(cache.get("1/2/3", -1));
+    }
+
+    @Test
+    public void invalidatedValuesAreMissing() {
+        KnxNetIpValueCache cache = new KnxNetIpValueCache();
+        cache.update("1/2/3", new PlcBoolean(true));
+        cache.invalidate("1/2/3");
+        assertNull(cache.get("1/2/3", -1));
+    }
+
+    @Test
+    public void pendingReadsAreShared() {
+        KnxNetIpValueCache cache = new KnxNetIpValueCache();
+        final KnxNetIpValueCache.PendingRead first = cache.awaitUpdate("1/2/3");
+        final KnxNetIpValueCache.PendingRead second = cache.awaitUpdate("1/2/3");
+        assertTrue(first.isInitiator());
+        assertFalse(second.isInitiator());
+        assertSame(first.getFuture(), second.getFuture());
+
+        cache.update("1/2/3", new PlcBoolean(false));
+        final CompletableFuture<PlcValue> future = first.getFuture();
+        assertTrue(future.isDone());
+        assertFalse(future.join().getBoolean());
+
+        // The next read after a response has to query the bus again.
+        assertTrue(cache.awaitUpdate("1/2/3").isInitiator());
+    }
+
+    @Test
+    public void failedReadsAreRemoved() {
+        KnxNetIpValueCache cache = new KnxNetIpValueCache();
+        final KnxNetIpValueCache.PendingRead pendingRead = cache.awaitUpdate("1/2/3");
+        pendingRead.getFuture().completeExceptionally(new TimeoutException());
+        assertTrue(cache.awaitUpdate("1/2/3").isInitiator());
+    }
+
+}
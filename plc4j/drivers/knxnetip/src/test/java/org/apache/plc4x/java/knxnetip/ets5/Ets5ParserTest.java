@@ -0,0 +1,139 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.knxnetip.ets5;
+
+import org.apache.plc4x.java.knxnetip.ets5.model.Ets5Model;
+import org.apache.plc4x.java.knxnetip.ets5.model.GroupAddress;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Ets5ParserTest {
+
+    private static final String PROJECT_HEADER =
+        "<KNX><Project Id=\"P-0815\"><ProjectInformation Name=\"Test\" GroupAddressStyle=\"ThreeLevel\"/></Project></KNX>";
+
+    private static final String KNX_MASTER =
+        "<KNX><MasterData><DatapointTypes>" +
+        "<DatapointType Id=\"DPT-1\" Number=\"1\" Name=\"1.xxx\"><DatapointSubtypes>" +
+        "<DatapointSubtype Id=\"DPST-1-1\" Number=\"1\" Name=\"DPT_Switch\" Text=\"switch\"/>" +
+        "<DatapointSubtype Id=\"DPST-1-2\" Number=\"2\" Name=\"DPT_Bool\" Text=\"boolean\"/>" +
+        "</DatapointSubtypes></DatapointType>" +
+        "<DatapointType Id=\"DPT-9\" Number=\"9\" Name=\"9.xxx\"><DatapointSubtypes>" +
+        "<DatapointSubtype Id=\"DPST-9-1\" Number=\"1\" Name=\"DPT_Value_Temp\" Text=\"temperature (C)\"/>" +
+        "</DatapointSubtypes></DatapointType>" +
+        "</DatapointTypes></MasterData></KNX>";
+
+    private static final String PROJECT =
+        "<KNX><Project Id=\"P-0815\"><Installations><Installation Name=\"\">" +
+        "<Locations><Space Type=\"Building\" Name=\"House\"><Space Type=\"Room\" Name=\"Kitchen\">" +
+        "<Function Type=\"FT-1\" Name=\"Light\"><GroupAddressRef Id=\"F-1_R-1\" RefId=\"P-0815-0_GA-1\"/></Function>" +
+        "</Space></Space></Locations>" +
+        "<GroupAddresses><GroupRanges><GroupRange Name=\"Main\"><GroupRange Name=\"Middle\">" +
+        "<GroupAddress Id=\"P-0815-0_GA-1\" Address=\"2305\" Name=\"Kitchen Light\" DatapointType=\"DPST-1-1\"/>" +
+        "<GroupAddress Id=\"P-0815-0_GA-2\" Address=\"2306\" Name=\"Kitchen Temperature\" DatapointType=\"DPST-9-1\"/>" +
+        "<GroupAddress Id=\"P-0815-0_GA-3\" Address=\"2307\" Name=\"Untyped\"/>" +
+        "</GroupRange></GroupRange></GroupRanges></GroupAddresses>" +
+        "</Installation></Installations></Project></KNX>";
+
+    @Test
+    public void parseProject() throws Exception {
+        File knxprojFile = createKnxprojFile();
+        try {
+            Ets5Model model = new Ets5Parser().parse(knxprojFile);
+            assertNotNull(model);
+            assertEquals(3, model.getGroupAddressType());
+            assertEquals(3, model.getGroupAddresses().size());
+
+            // 2305 = 0x0901 = 1/1/1
+            GroupAddress light = model.getGroupAddresses().get("1/1/1");
+            assertEquals("Kitchen Light", light.getName());
+            assertEquals(1, light.getType().getMainType());
+            assertEquals(1, light.getType().getSubType());
+            assertEquals("switch", light.getType().getName());
+            assertEquals("Light", light.getFunction().getName());
+            assertEquals("FT-1", light.getFunction().getType());
+            assertEquals("Kitchen", light.getFunction().getSpaceName());
+
+            GroupAddress temperature = model.getGroupAddresses().get("1/1/2");
+            assertEquals(9, temperature.getType().getMainType());
+            assertNull(temperature.getFunction());
+            assertNull(model.getGroupAddresses().get("1/1/3").getType());
+        } finally {
+            Files.deleteIfExists(knxprojFile.toPath());
+        }
+    }
+
+    @Test
+    public void saveAndLoadIndex() throws Exception {
+        File knxprojFile = createKnxprojFile();
+        Path indexDirectory = Files.createTempDirectory("knxidx");
+        try {
+            Ets5Model parsed = new Ets5Parser().parse(knxprojFile, indexDirectory.toFile());
+            assertNotNull(parsed);
+            File[] indexFiles = indexDirectory.toFile().listFiles();
+            assertNotNull(indexFiles);
+            assertEquals(1, indexFiles.length);
+
+            // The second time the model is loaded from the index.
+            Ets5Model loaded = Ets5ModelIndex.load(indexFiles[0], indexFiles[0].getName().replace(
+                Ets5ModelIndex.FILE_EXTENSION, ""));
+            assertEquals(parsed, loaded);
+            assertEquals(parsed, new Ets5Parser().parse(knxprojFile, indexDirectory.toFile()));
+
+            // An index of a different project file is ignored.
+            assertNull(Ets5ModelIndex.load(indexFiles[0], "other"));
+        } finally {
+            Files.deleteIfExists(knxprojFile.toPath());
+            File[] files = indexDirectory.toFile().listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    Files.deleteIfExists(file.toPath());
+                }
+            }
+            Files.deleteIfExists(indexDirectory);
+        }
+    }
+
+    private static File createKnxprojFile() throws IOException {
+        File file = Files.createTempFile("ets5", ".knxproj").toFile();
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+            addEntry(out, "knx_master.xml", KNX_MASTER);
+            addEntry(out, "P-0815/project.xml", PROJECT_HEADER);
+            addEntry(out, "P-0815/0.xml", PROJECT);
+        }
+        return file;
+    }
+
+    private static void addEntry(ZipOutputStream out, String name, String content) throws IOException {
+        out.putNextEntry(new ZipEntry(name));
+        out.write(content.getBytes(StandardCharsets.UTF_8));
+        out.closeEntry();
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.knxnetip.model;
+
+import org.apache.plc4x.java.api.messages.PlcSubscriptionEvent;
+import org.apache.plc4x.java.knxnetip.field.KnxNetIpField;
+import org.apache.plc4x.java.spi.model.DefaultPlcConsumerRegistration;
+import org.apache.plc4x.java.spi.model.InternalPlcSubscriptionHandle;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KnxNetIpSubscriptionIndexTest {
+
+    private final Map<DefaultPlcConsumerRegistration, Consumer<PlcSubscriptionEvent>> consumers = new HashMap<>();
+
+    @Test
+    public void threeLevelAddresses() {
+        final Consumer<PlcSubscriptionEvent> exact = subscribe("1/2/3");
+        final Consumer<PlcSubscriptionEvent> floor = subscribe("1/*/*");
+        final Consumer<PlcSubscriptionEvent> heating = subscribe("*/*/50");
+        // Subscribed twice with matching addresses, but should only be notified once.
+        final Consumer<PlcSubscriptionEvent> twice = subscribe("1/2/3", "*/2/*");
+        KnxNetIpSubscriptionIndex index = new KnxNetIpSubscriptionIndex((byte) 3, consumers);
+
+        List<Consumer<PlcSubscriptionEvent>> matches = index.getConsumers(address3(1, 2, 3));
+        assertEquals(3, matches.size());
+        assertTrue(matches.contains(exact));
+        assertTrue(matches.contains(floor));
+        assertTrue(matches.contains(twice));
+
+        matches = index.getConsumers(address3(4, 5, 50));
+        assertEquals(1, matches.size());
+        assertTrue(matches.contains(heating));
+
+        matches = index.getConsumers(address3(1, 7, 50));
+        assertEquals(2, matches.size());
+        assertTrue(matches.contains(floor));
+        assertTrue(matches.contains(heating));
+
+        assertTrue(index.getConsumers(address3(31, 7, 255)).isEmpty());
+        // The second lookup is served from the resolved addresses.
+        assertSame(index.getConsumers(address3(1, 2, 3)), index.getConsumers(address3(1, 2, 3)));
+    }
+
+    @Test
+    public void onlyFieldsWithTheSameNumberOfLevelsMatch() {
+        final Consumer<PlcSubscriptionEvent> twoLevel = subscribe("1/515");
+        subscribe("1/2/3");
+        KnxNetIpSubscriptionIndex index = new KnxNetIpSubscriptionIndex((byte) 2, consumers);
+
+        final List<Consumer<PlcSubscriptionEvent>> matches = index.getConsumers((1 << 11) | 515);
+        assertEquals(1, matches.size());
+        assertTrue(matches.contains(twoLevel));
+    }
+
+    private Consumer<PlcSubscriptionEvent> subscribe(String... addresses) {
+        // Every consumer has to be a separate instance (non-capturing lambdas might be shared).
+        Consumer<PlcSubscriptionEvent> consumer = event -> assertNotNull(addresses);
+        InternalPlcSubscriptionHandle[] handles = new InternalPlcSubscriptionHandle[addresses.length];
+        for (int i = 0; i < addresses.length; i++) {
+            handles[i] = new KnxNetIpSubscriptionHandle(null, KnxNetIpField.of(addresses[i]));
+        }
+        consumers.put(new DefaultPlcConsumerRegistration(null, consumer, handles), consumer);
+        return consumer;
+    }
+
+    private static int address3(int mainGroup, int middleGroup, int subGroup) {
+        return (mainGroup << 11) | (middleGroup << 8) | subGroup;
+    }
+
+}
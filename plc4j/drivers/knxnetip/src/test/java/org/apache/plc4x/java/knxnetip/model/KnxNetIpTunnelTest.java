@@ -0,0 +1,67 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.knxnetip.model;
+
+import org.apache.plc4x.java.knxnetip.readwrite.types.APCI;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KnxNetIpTunnelTest {
+
+    @Test
+    public void confirmationsAreMatchedInOrder() {
+        KnxNetIpTunnel tunnel = new KnxNetIpTunnel((short) 1, null);
+        List<String> confirmed = new ArrayList<>();
+        final KnxNetIpTunnel.PendingConfirmation firstWrite = new KnxNetIpTunnel.PendingConfirmation(
+            new byte[]{0x0A, 0x03}, APCI.GROUP_VALUE_WRITE_PDU, success -> confirmed.add("first-write"));
+        final KnxNetIpTunnel.PendingConfirmation read = new KnxNetIpTunnel.PendingConfirmation(
+            new byte[]{0x0A, 0x03}, APCI.GROUP_VALUE_READ_PDU, success -> confirmed.add("read"));
+        final KnxNetIpTunnel.PendingConfirmation secondWrite = new KnxNetIpTunnel.PendingConfirmation(
+            new byte[]{0x0A, 0x03}, APCI.GROUP_VALUE_WRITE_PDU, success -> confirmed.add("second-write"));
+        tunnel.addPendingConfirmation(firstWrite);
+        tunnel.addPendingConfirmation(read);
+        tunnel.addPendingConfirmation(secondWrite);
+
+        // The first write timed out.
+        assertTrue(tunnel.removePendingConfirmation(firstWrite));
+        assertFalse(tunnel.removePendingConfirmation(firstWrite));
+
+        tunnel.pollPendingConfirmation(new byte[]{0x0A, 0x03}, APCI.GROUP_VALUE_WRITE_PDU).confirm(true);
+        assertNull(tunnel.pollPendingConfirmation(new byte[]{0x0A, 0x04}, APCI.GROUP_VALUE_READ_PDU));
+        tunnel.pollPendingConfirmation(new byte[]{0x0A, 0x03}, APCI.GROUP_VALUE_READ_PDU).confirm(true);
+        assertNull(tunnel.pollPendingConfirmation(new byte[]{0x0A, 0x03}, APCI.GROUP_VALUE_READ_PDU));
+
+        assertEquals("second-write", confirmed.get(0));
+        assertEquals("read", confirmed.get(1));
+    }
+
+    @Test
+    public void sequenceCounterWrapsAfterOneByte() {
+        KnxNetIpTunnel tunnel = new KnxNetIpTunnel((short) 1, null);
+        for (int i = 0; i < 256; i++) {
+            assertEquals(i, tunnel.nextSequenceCounter());
+        }
+        assertEquals(0, tunnel.nextSequenceCounter());
+    }
+
+}
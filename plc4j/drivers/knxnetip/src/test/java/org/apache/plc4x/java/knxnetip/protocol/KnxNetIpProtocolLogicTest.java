@@ -0,0 +1,261 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.knxnetip.protocol;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultEventLoop;
+import io.netty.channel.local.LocalChannel;
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+import org.apache.plc4x.java.api.messages.PlcReadResponse;
+import org.apache.plc4x.java.api.messages.PlcWriteResponse;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.knxnetip.configuration.KnxNetIpConfiguration;
+import org.apache.plc4x.java.knxnetip.context.KnxNetIpDriverContext;
+import org.apache.plc4x.java.knxnetip.field.KnxNetIpFieldHandler;
+import org.apache.plc4x.java.knxnetip.model.KnxNetIpTunnel;
+import org.apache.plc4x.java.knxnetip.readwrite.*;
+import org.apache.plc4x.java.knxnetip.readwrite.types.*;
+import org.apache.plc4x.java.spi.ConversationContext;
+import org.apache.plc4x.java.spi.Plc4xNettyWrapper;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
+import org.apache.plc4x.java.spi.messages.DefaultPlcWriteRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KnxNetIpProtocolLogicTest {
+
+    // 1/2/3
+    private static final byte[] DESTINATION = new byte[]{(byte) 0x0A, (byte) 0x03};
+
+    private DefaultEventLoop eventLoop;
+    private LocalChannel channel;
+    private ConversationContext<KNXNetIPMessage> context;
+    private BlockingQueue<TunnelingRequest> sent;
+    private BlockingQueue<TunnelingResponse> acks;
+    private KnxNetIpDriverContext driverContext;
+    private KnxNetIpProtocolLogic logic;
+
+    @BeforeEach
+    public void setUp() {
+        // The requests are sent from the threads of the request-transaction managers, so the pipeline
+        // needs an event loop of its own.
+        eventLoop = new DefaultEventLoop();
+        channel = new LocalChannel();
+        eventLoop.register(channel).syncUninterruptibly();
+        // The telegrams and the ACKs we send are kept apart.
+        sent = new LinkedBlockingQueue<>();
+        acks = new LinkedBlockingQueue<>();
+        channel.pipeline().addLast(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                if (msg instanceof TunnelingRequest) {
+                    sent.add((TunnelingRequest) msg);
+                } else if (msg instanceof TunnelingResponse) {
+                    acks.add((TunnelingResponse) msg);
+                }
+                promise.setSuccess();
+            }
+        });
+
+        KnxNetIpConfiguration configuration = new KnxNetIpConfiguration();
+        configuration.setMaxTelegramsPerSecond(0);
+        driverContext = new KnxNetIpDriverContext();
+        driverContext.setConfiguration(configuration);
+        driverContext.setCommunicationChannelId((short) 1);
+        logic = new KnxNetIpProtocolLogic();
+        logic.setDriverContext(driverContext);
+        Plc4xNettyWrapper<KNXNetIPMessage> wrapper =
+            new Plc4xNettyWrapper<>(channel.pipeline(), false, logic, KNXNetIPMessage.class);
+        channel.pipeline().addLast(wrapper);
+        context = wrapper.new DefaultConversationContext<>(channel.pipeline().context(wrapper), false);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        eventLoop.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void nextTelegramIsSentAfterTheAck() throws Exception {
+        openTunnel((short) 1);
+        CompletableFuture<Boolean> first = sendGroupValueWrite();
+        CompletableFuture<Boolean> second = sendGroupValueWrite();
+        TunnelingRequest firstRequest = sent.poll(1, TimeUnit.SECONDS);
+        assertNotNull(firstRequest);
+        assertNull(sent.poll(200, TimeUnit.MILLISECONDS));
+
+        receive(ack(firstRequest));
+        TunnelingRequest secondRequest = sent.poll(1, TimeUnit.SECONDS);
+        assertNotNull(secondRequest);
+        receive(ack(secondRequest));
+
+        receive(confirmation((short) 1, false));
+        receive(confirmation((short) 1, true));
+        assertTrue(first.get(1, TimeUnit.SECONDS));
+        assertFalse(second.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void unacknowledgedRequestIsRepeatedOnce() throws Exception {
+        KnxNetIpTunnel tunnel = openTunnel((short) 1);
+        CompletableFuture<Boolean> confirmed = sendGroupValueWrite();
+        TunnelingRequest request = sent.poll(1, TimeUnit.SECONDS);
+        assertNotNull(request);
+
+        // The ACK got lost, so the same request is sent again.
+        TunnelingRequest repeated = sent.poll(2, TimeUnit.SECONDS);
+        assertNotNull(repeated);
+        assertEquals(request.getTunnelingRequestDataBlock().getSequenceCounter(),
+            repeated.getTunnelingRequestDataBlock().getSequenceCounter());
+        receive(ack(repeated));
+        receive(confirmation((short) 1, false));
+        assertTrue(confirmed.get(1, TimeUnit.SECONDS));
+        assertTrue(tunnel.isUsable());
+
+        // The tunnel is free for the next telegram.
+        sendGroupValueWrite();
+        assertNotNull(sent.poll(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void tunnelIsNoLongerUsedIfTheGatewayDoesntAcknowledge() throws Exception {
+        KnxNetIpTunnel tunnel = openTunnel((short) 1);
+        CompletableFuture<Boolean> first = sendGroupValueWrite();
+        // This one is stuck in the queue of the tunnel.
+        CompletableFuture<Boolean> second = sendGroupValueWrite();
+        assertNotNull(sent.poll(1, TimeUnit.SECONDS));
+        assertNotNull(sent.poll(2, TimeUnit.SECONDS));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> first.get(2, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof TimeoutException);
+        assertFalse(tunnel.isUsable());
+        exception = assertThrows(ExecutionException.class, () -> second.get(1, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof PlcRuntimeException);
+        assertNull(sent.poll(200, TimeUnit.MILLISECONDS));
+
+        // Without a usable tunnel nothing can be sent.
+        exception = assertThrows(ExecutionException.class, () -> sendGroupValueWrite().get(1, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof PlcRuntimeException);
+
+        // Telegrams are only sent through the usable tunnels.
+        openTunnel((short) 2);
+        sendGroupValueWrite();
+        TunnelingRequest request = sent.poll(1, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertEquals(2, request.getTunnelingRequestDataBlock().getCommunicationChannelId());
+    }
+
+    @Test
+    public void readAfterWriteReturnsTheWrittenValue() throws Exception {
+        openTunnel((short) 1);
+        // Some other device wrote the old value.
+        receive(groupValueWrite((byte) 5));
+        assertEquals((byte) 5, read().getByte("value"));
+
+        CompletableFuture<PlcWriteResponse> write = logic.write(
+            new DefaultPlcWriteRequest.Builder(null, new KnxNetIpFieldHandler()).addItem("value", "1/2/3", (byte) 7)
+                .build());
+        TunnelingRequest request = sent.poll(1, TimeUnit.SECONDS);
+        assertNotNull(request);
+        receive(ack(request));
+        receive(confirmation((short) 1, false));
+        assertEquals(PlcResponseCode.OK, write.get(1, TimeUnit.SECONDS).getResponseCode("value"));
+
+        // The gateway doesn't send our own telegram back to us, but the value is still up to date.
+        assertEquals((byte) 7, read().getByte("value"));
+        assertNull(sent.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void groupValueReadIsAcknowledgedButDoesntChangeTheValue() throws Exception {
+        openTunnel((short) 1);
+        receive(groupTelegram(APCI.GROUP_VALUE_WRITE_PDU, (byte) 5, (short) 1));
+        assertEquals(1, acks.poll(1, TimeUnit.SECONDS).getTunnelingResponseDataBlock().getSequenceCounter());
+
+        receive(groupTelegram(APCI.GROUP_VALUE_READ_PDU, (byte) 0, (short) 2));
+        assertEquals(2, acks.poll(1, TimeUnit.SECONDS).getTunnelingResponseDataBlock().getSequenceCounter());
+        assertEquals((byte) 5, read().getByte("value"));
+    }
+
+    private KnxNetIpTunnel openTunnel(short communicationChannelId) throws Exception {
+        CompletableFuture<KnxNetIpTunnel> opened = new CompletableFuture<>();
+        logic.openTunnel(context, opened::complete);
+
+        // Answer the connection request.
+        receive(new ConnectionResponse(communicationChannelId, Status.NO_ERROR, null,
+            new ConnectionResponseDataBlockTunnelConnection(
+                new KNXAddress((byte) 1, (byte) 1, (short) communicationChannelId))));
+        return opened.get(1, TimeUnit.SECONDS);
+    }
+
+    private void receive(KNXNetIPMessage message) throws Exception {
+        eventLoop.submit(() -> channel.pipeline().fireChannelRead(message)).get(1, TimeUnit.SECONDS);
+    }
+
+    private CompletableFuture<Boolean> sendGroupValueWrite() {
+        CompletableFuture<Boolean> confirmed = new CompletableFuture<>();
+        logic.sendGroupTelegram(DESTINATION, APCI.GROUP_VALUE_WRITE_PDU, (byte) 1, null, confirmed,
+            confirmed::complete);
+        return confirmed;
+    }
+
+    private PlcReadResponse read() throws Exception {
+        return logic.read(new DefaultPlcReadRequest.Builder(null, new KnxNetIpFieldHandler())
+            .addItem("value", "1/2/3").build()).get(1, TimeUnit.SECONDS);
+    }
+
+    private static TunnelingResponse ack(TunnelingRequest request) {
+        return new TunnelingResponse(new TunnelingResponseDataBlock(
+            request.getTunnelingRequestDataBlock().getCommunicationChannelId(),
+            request.getTunnelingRequestDataBlock().getSequenceCounter(), Status.NO_ERROR));
+    }
+
+    private static TunnelingRequest confirmation(short communicationChannelId, boolean error) {
+        return new TunnelingRequest(new TunnelingRequestDataBlock(communicationChannelId, (short) 0),
+            new CEMIDataCon((short) 0, new CEMIAdditionalInformation[0],
+                new CEMIDataFrame(true, false, true, true, CEMIPriority.LOW, false, error, true, (byte) 6,
+                    (byte) 0, new KNXAddress((byte) 1, (byte) 1, communicationChannelId), DESTINATION, (short) 1,
+                    TPCI.UNNUMBERED_DATA_PACKET, (byte) 0, APCI.GROUP_VALUE_WRITE_PDU, (byte) 1, new byte[0])));
+    }
+
+    private static TunnelingRequest groupValueWrite(byte value) {
+        return groupTelegram(APCI.GROUP_VALUE_WRITE_PDU, value, (short) 0);
+    }
+
+    private static TunnelingRequest groupTelegram(APCI apci, byte value, short sequenceCounter) {
+        return new TunnelingRequest(new TunnelingRequestDataBlock((short) 1, sequenceCounter),
+            new CEMIDataInd((short) 0, new CEMIAdditionalInformation[0],
+                new CEMIDataFrame(true, false, true, true, CEMIPriority.LOW, false, false, true, (byte) 6,
+                    (byte) 0, new KNXAddress((byte) 1, (byte) 1, (short) 10), DESTINATION, (short) 1,
+                    TPCI.UNNUMBERED_DATA_PACKET, (byte) 0, apci, value, new byte[0])));
+    }
+
+}
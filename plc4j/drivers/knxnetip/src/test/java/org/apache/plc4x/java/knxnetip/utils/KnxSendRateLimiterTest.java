@@ -0,0 +1,65 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.knxnetip.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KnxSendRateLimiterTest {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void telegramsAreSpacedOut() {
+        KnxSendRateLimiter rateLimiter = new KnxSendRateLimiter(10);
+        assertEquals(0, rateLimiter.reserve());
+        // Each telegram has to wait for the slot after the one of the previous telegram.
+        assertDelay(INTERVAL, rateLimiter.reserve());
+        assertDelay(2 * INTERVAL, rateLimiter.reserve());
+        assertDelay(3 * INTERVAL, rateLimiter.reserve());
+    }
+
+    @Test
+    public void unusedSlotsDontAllowBursts() throws Exception {
+        KnxSendRateLimiter rateLimiter = new KnxSendRateLimiter(10);
+        assertEquals(0, rateLimiter.reserve());
+        Thread.sleep(3 * TimeUnit.NANOSECONDS.toMillis(INTERVAL));
+        // The bus was idle, so the next telegram can be sent right away, but the one after that has to wait again.
+        assertEquals(0, rateLimiter.reserve());
+        assertDelay(INTERVAL, rateLimiter.reserve());
+    }
+
+    @Test
+    public void noLimit() {
+        KnxSendRateLimiter rateLimiter = new KnxSendRateLimiter(0);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, rateLimiter.reserve());
+        }
+    }
+
+    private static void assertDelay(long expected, long delay) {
+        // The time passed since reserving the previous slot is subtracted from the delay.
+        assertTrue((delay <= expected) && (delay > expected - TimeUnit.MILLISECONDS.toNanos(50)),
+            "Expected a delay of about " + expected + "ns, but got " + delay + "ns");
+    }
+
+}
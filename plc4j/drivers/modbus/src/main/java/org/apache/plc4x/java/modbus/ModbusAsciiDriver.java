@@ -0,0 +1,197 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.modbus;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageCodec;
+import org.apache.plc4x.java.modbus.config.ModbusSerialConfiguration;
+import org.apache.plc4x.java.modbus.context.ModbusDriverContext;
+import org.apache.plc4x.java.modbus.field.ModbusField;
+import org.apache.plc4x.java.modbus.field.ModbusFieldHandler;
+import org.apache.plc4x.java.modbus.optimizer.ModbusOptimizer;
+import org.apache.plc4x.java.modbus.protocol.ModbusAsciiProtocolLogic;
+import org.apache.plc4x.java.modbus.readwrite.ModbusAsciiADU;
+import org.apache.plc4x.java.modbus.readwrite.io.ModbusAsciiADUIO;
+import org.apache.plc4x.java.spi.configuration.Configuration;
+import org.apache.plc4x.java.spi.connection.GeneratedDriverBase;
+import org.apache.plc4x.java.spi.connection.ProtocolStackConfigurer;
+import org.apache.plc4x.java.spi.connection.SingleProtocolStackConfigurer;
+import org.apache.plc4x.java.spi.optimizer.BaseOptimizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Driver for Modbus ASCII (hex-encoded Modbus on serial lines).
+ */
+public class ModbusAsciiDriver extends GeneratedDriverBase<ModbusAsciiADU> {
+
+    @Override
+    public String getProtocolCode() {
+        return "modbus-ascii";
+    }
+
+    @Override
+    public String getProtocolName() {
+        return "Modbus ASCII";
+    }
+
+    @Override
+    protected Class<? extends Configuration> getConfigurationType() {
+        return ModbusSerialConfiguration.class;
+    }
+
+    @Override
+    protected String getDefaultTransport() {
+        return "serial";
+    }
+
+    /**
+     * Modbus doesn't have a login procedure, so there is no need to wait for a login to finish.
+     * @return false
+     */
+    @Override
+    protected boolean awaitSetupComplete() {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead() {
+        return true;
+    }
+
+    @Override
+    protected boolean canWrite() {
+        return true;
+    }
+
+    @Override
+    protected BaseOptimizer getOptimizer() {
+        return new ModbusOptimizer();
+    }
+
+    @Override
+    protected ModbusFieldHandler getFieldHandler() {
+        return new ModbusFieldHandler();
+    }
+
+    @Override
+    protected ProtocolStackConfigurer<ModbusAsciiADU> getStackConfigurer() {
+        SingleProtocolStackConfigurer<ModbusAsciiADU> stackConfigurer =
+            SingleProtocolStackConfigurer.builder(ModbusAsciiADU.class, ModbusAsciiADUIO.class)
+                .withProtocol(ModbusAsciiProtocolLogic.class)
+                .withDriverContext(ModbusDriverContext.class)
+                // Every incoming message is to be treated as a response.
+                .withParserArgs(true)
+                .build();
+        // The generated code handles the binary representation of the frames,
+        // so the hex-encoding has to be handled before that.
+        return (configuration, pipeline, passive) -> {
+            pipeline.addLast(new AsciiFrameCodec());
+            return stackConfigurer.configurePipeline(configuration, pipeline, passive);
+        };
+    }
+
+    /**
+     * Translates between the ASCII frames on the line (':', hex-encoded data, CR LF) and the binary frames.
+     * Every decoded frame is passed on as a separate buffer.
+     */
+    public static class AsciiFrameCodec extends ByteToMessageCodec<ByteBuf> {
+
+        private static final Logger logger = LoggerFactory.getLogger(AsciiFrameCodec.class);
+
+        private static final byte FRAME_START = ':';
+        private static final byte CR = '\r';
+        private static final byte LF = '\n';
+        private static final byte[] HEX_CHARS = "0123456789ABCDEF".getBytes();
+        // ':' + (address + pdu (max 253 bytes) + lrc) * 2 + CR LF
+        private static final int MAX_FRAME_LENGTH = 1 + (255 * 2) + 2;
+
+        @Override
+        protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) {
+            out.ensureWritable(1 + (msg.readableBytes() * 2) + 2);
+            out.writeByte(FRAME_START);
+            while (msg.isReadable()) {
+                int b = msg.readUnsignedByte();
+                out.writeByte(HEX_CHARS[b >> 4]);
+                out.writeByte(HEX_CHARS[b & 0x0F]);
+            }
+            out.writeByte(CR);
+            out.writeByte(LF);
+        }
+
+        @Override
+        protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+            while (in.isReadable()) {
+                // Skip everything before the start of the next frame.
+                int start = in.indexOf(in.readerIndex(), in.writerIndex(), FRAME_START);
+                if (start < 0) {
+                    in.skipBytes(in.readableBytes());
+                    return;
+                }
+                in.readerIndex(start);
+                int end = in.indexOf(start + 1, in.writerIndex(), LF);
+                if (end < 0) {
+                    if (in.readableBytes() > MAX_FRAME_LENGTH) {
+                        logger.warn("Discarding ASCII frame exceeding the maximum frame length");
+                        in.skipBytes(1);
+                        continue;
+                    }
+                    // Wait for the rest of the frame.
+                    return;
+                }
+                ByteBuf frame = decodeFrame(ctx, in, start, end);
+                in.readerIndex(end + 1);
+                if (frame != null) {
+                    out.add(frame);
+                }
+            }
+        }
+
+        private ByteBuf decodeFrame(ChannelHandlerContext ctx, ByteBuf in, int start, int end) {
+            // Frame is ':' + hex data + CR LF
+            int numChars = end - start - 2;
+            if ((numChars <= 0) || ((numChars % 2) != 0) || (in.getByte(end - 1) != CR)) {
+                logger.warn("Discarding malformed ASCII frame");
+                return null;
+            }
+            ByteBuf frame = ctx.alloc().buffer(numChars / 2);
+            for (int i = start + 1; i < end - 1; i += 2) {
+                int high = Character.digit(in.getByte(i), 16);
+                int low = Character.digit(in.getByte(i + 1), 16);
+                if ((high < 0) || (low < 0)) {
+                    logger.warn("Discarding ASCII frame containing non-hex characters");
+                    frame.release();
+                    return null;
+                }
+                frame.writeByte((high << 4) | low);
+            }
+            return frame;
+        }
+
+    }
+
+    @Override
+    public ModbusField prepareField(String query){
+        return ModbusField.of(query);
+    }
+
+}
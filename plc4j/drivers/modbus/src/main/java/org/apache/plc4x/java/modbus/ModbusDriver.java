@@ -19,22 +19,30 @@ under the License.
 package org.apache.plc4x.java.modbus;
 
 import io.netty.buffer.ByteBuf;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryItem;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryItemHandler;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryRequest;
 import org.apache.plc4x.java.modbus.config.ModbusConfiguration;
+import org.apache.plc4x.java.modbus.context.ModbusDriverContext;
 import org.apache.plc4x.java.modbus.field.ModbusField;
 import org.apache.plc4x.java.modbus.field.ModbusFieldHandler;
+import org.apache.plc4x.java.modbus.optimizer.ModbusOptimizer;
 import org.apache.plc4x.java.modbus.protocol.ModbusProtocolLogic;
+import org.apache.plc4x.java.modbus.readwrite.ModbusConstants;
 import org.apache.plc4x.java.modbus.readwrite.ModbusTcpADU;
 import org.apache.plc4x.java.modbus.readwrite.io.ModbusTcpADUIO;
 import org.apache.plc4x.java.spi.configuration.Configuration;
 import org.apache.plc4x.java.spi.connection.GeneratedDriverBase;
 import org.apache.plc4x.java.spi.connection.ProtocolStackConfigurer;
 import org.apache.plc4x.java.spi.connection.SingleProtocolStackConfigurer;
+import org.apache.plc4x.java.spi.discovery.ActiveDiscovery;
+import org.apache.plc4x.java.spi.discovery.TcpPortScanner;
 import org.apache.plc4x.java.spi.optimizer.BaseOptimizer;
-import org.apache.plc4x.java.spi.optimizer.SingleFieldOptimizer;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.function.ToIntFunction;
 
-public class ModbusDriver extends GeneratedDriverBase<ModbusTcpADU> {
+public class ModbusDriver extends GeneratedDriverBase<ModbusTcpADU> implements ActiveDiscovery {
 
     @Override
     public String getProtocolCode() {
@@ -77,7 +85,7 @@ public class ModbusDriver extends GeneratedDriverBase<ModbusTcpADU> {
 
     @Override
     protected BaseOptimizer getOptimizer() {
-        return new SingleFieldOptimizer();
+        return new ModbusOptimizer();
     }
 
     @Override
@@ -85,10 +93,26 @@ public class ModbusDriver extends GeneratedDriverBase<ModbusTcpADU> {
         return new ModbusFieldHandler();
     }
 
+    /**
+     * Modbus devices are found by probing the Modbus TCP port of all hosts of the requested subnets.
+     */
+    @Override
+    public boolean canDiscover() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Void> discover(PlcDiscoveryRequest discoveryRequest, PlcDiscoveryItemHandler handler) {
+        return TcpPortScanner.scan(discoveryRequest, ModbusConstants.MODBUSTCPDEFAULTPORT, address ->
+            handler.handle(new PlcDiscoveryItem(getProtocolCode(), getDefaultTransport(),
+                address.getAddress().getHostAddress() + ":" + address.getPort(), null, null)));
+    }
+
     @Override
     protected ProtocolStackConfigurer<ModbusTcpADU> getStackConfigurer() {
         return SingleProtocolStackConfigurer.builder(ModbusTcpADU.class, ModbusTcpADUIO.class)
             .withProtocol(ModbusProtocolLogic.class)
+            .withDriverContext(ModbusDriverContext.class)
             .withPacketSizeEstimator(ByteLengthEstimator.class)
             // Every incoming message is to be treated as a response.
             .withParserArgs(true)
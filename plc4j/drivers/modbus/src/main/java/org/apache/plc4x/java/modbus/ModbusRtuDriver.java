@@ -0,0 +1,172 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.modbus;
+
+import io.netty.buffer.ByteBuf;
+import org.apache.plc4x.java.modbus.config.ModbusSerialConfiguration;
+import org.apache.plc4x.java.modbus.context.ModbusDriverContext;
+import org.apache.plc4x.java.modbus.field.ModbusField;
+import org.apache.plc4x.java.modbus.field.ModbusFieldHandler;
+import org.apache.plc4x.java.modbus.optimizer.ModbusOptimizer;
+import org.apache.plc4x.java.modbus.protocol.ModbusRtuProtocolLogic;
+import org.apache.plc4x.java.modbus.readwrite.ModbusSerialADU;
+import org.apache.plc4x.java.modbus.readwrite.io.ModbusSerialADUIO;
+import org.apache.plc4x.java.spi.configuration.Configuration;
+import org.apache.plc4x.java.spi.connection.GeneratedDriverBase;
+import org.apache.plc4x.java.spi.connection.ProtocolStackConfigurer;
+import org.apache.plc4x.java.spi.connection.SingleProtocolStackConfigurer;
+import org.apache.plc4x.java.spi.optimizer.BaseOptimizer;
+
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Driver for Modbus RTU (binary Modbus on serial lines).
+ */
+public class ModbusRtuDriver extends GeneratedDriverBase<ModbusSerialADU> {
+
+    @Override
+    public String getProtocolCode() {
+        return "modbus-rtu";
+    }
+
+    @Override
+    public String getProtocolName() {
+        return "Modbus RTU";
+    }
+
+    @Override
+    protected Class<? extends Configuration> getConfigurationType() {
+        return ModbusSerialConfiguration.class;
+    }
+
+    @Override
+    protected String getDefaultTransport() {
+        return "serial";
+    }
+
+    /**
+     * Modbus doesn't have a login procedure, so there is no need to wait for a login to finish.
+     * @return false
+     */
+    @Override
+    protected boolean awaitSetupComplete() {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead() {
+        return true;
+    }
+
+    @Override
+    protected boolean canWrite() {
+        return true;
+    }
+
+    @Override
+    protected BaseOptimizer getOptimizer() {
+        return new ModbusOptimizer();
+    }
+
+    @Override
+    protected ModbusFieldHandler getFieldHandler() {
+        return new ModbusFieldHandler();
+    }
+
+    @Override
+    protected ProtocolStackConfigurer<ModbusSerialADU> getStackConfigurer() {
+        return SingleProtocolStackConfigurer.builder(ModbusSerialADU.class, ModbusSerialADUIO.class)
+            .withProtocol(ModbusRtuProtocolLogic.class)
+            .withDriverContext(ModbusDriverContext.class)
+            .withPacketSizeEstimator(ByteLengthEstimator.class)
+            .withCorruptPacketRemover(CorruptPackageCleaner.class)
+            // Every incoming message is to be treated as a response.
+            .withParserArgs(true)
+            .build();
+    }
+
+    /**
+     * Estimate the Length of a Packet.
+     * RTU frames don't contain any length information, so the length has to be derived from the function code.
+     */
+    public static class ByteLengthEstimator implements ToIntFunction<ByteBuf> {
+        @Override
+        public int applyAsInt(ByteBuf byteBuf) {
+            if (byteBuf.readableBytes() < 3) {
+                return -1;
+            }
+            int start = byteBuf.readerIndex();
+            short function = byteBuf.getUnsignedByte(start + 1);
+            // Error response: address, function, exception code, crc
+            if ((function & 0x80) != 0) {
+                return 5;
+            }
+            switch (function) {
+                case 0x01:
+                case 0x02:
+                case 0x03:
+                case 0x04:
+                case 0x0C:
+                case 0x11:
+                case 0x14:
+                case 0x15:
+                case 0x17:
+                    // address, function, byte count, data, crc
+                    return 3 + byteBuf.getUnsignedByte(start + 2) + 2;
+                case 0x05:
+                case 0x06:
+                case 0x08:
+                case 0x0B:
+                case 0x0F:
+                case 0x10:
+                    // address, function, two 16 bit values, crc
+                    return 8;
+                case 0x07:
+                    return 5;
+                case 0x16:
+                    return 10;
+                case 0x18:
+                    if (byteBuf.readableBytes() < 4) {
+                        return -1;
+                    }
+                    // address, function, 16 bit byte count, data, crc
+                    return 4 + byteBuf.getUnsignedShort(start + 2) + 2;
+                default:
+                    // RTU frames are delimited by silence on the line, so if the function is unknown,
+                    // all we can do is treat everything received so far as one frame.
+                    return byteBuf.readableBytes();
+            }
+        }
+    }
+
+    /** Consumes all Bytes till the next frame as there is no way to tell where the next frame starts */
+    public static class CorruptPackageCleaner implements Consumer<ByteBuf> {
+        @Override
+        public void accept(ByteBuf byteBuf) {
+            byteBuf.skipBytes(byteBuf.readableBytes());
+        }
+    }
+
+    @Override
+    public ModbusField prepareField(String query){
+        return ModbusField.of(query);
+    }
+
+}
@@ -34,6 +34,26 @@ public class ModbusConfiguration implements Configuration, TcpTransportConfigura
     @IntDefaultValue(1)
     private int unitIdentifier;
 
+    @ConfigurationParameter("max-in-flight")
+    @IntDefaultValue(1)
+    private int maxInFlight;
+
+    @ConfigurationParameter("max-in-flight-per-unit")
+    @IntDefaultValue(0)
+    private int maxInFlightPerUnit;
+
+    @ConfigurationParameter("max-coils-per-request")
+    @IntDefaultValue(2000)
+    private int maxCoilsPerRequest;
+
+    @ConfigurationParameter("max-registers-per-request")
+    @IntDefaultValue(125)
+    private int maxRegistersPerRequest;
+
+    @ConfigurationParameter("max-coalescing-gap")
+    @IntDefaultValue(0)
+    private int maxCoalescingGap;
+
     public int getRequestTimeout() {
         return requestTimeout;
     }
@@ -50,6 +70,46 @@ public class ModbusConfiguration implements Configuration, TcpTransportConfigura
         this.unitIdentifier = unitIdentifier;
     }
 
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getMaxInFlightPerUnit() {
+        return maxInFlightPerUnit;
+    }
+
+    public void setMaxInFlightPerUnit(int maxInFlightPerUnit) {
+        this.maxInFlightPerUnit = maxInFlightPerUnit;
+    }
+
+    public int getMaxCoilsPerRequest() {
+        return maxCoilsPerRequest;
+    }
+
+    public void setMaxCoilsPerRequest(int maxCoilsPerRequest) {
+        this.maxCoilsPerRequest = maxCoilsPerRequest;
+    }
+
+    public int getMaxRegistersPerRequest() {
+        return maxRegistersPerRequest;
+    }
+
+    public void setMaxRegistersPerRequest(int maxRegistersPerRequest) {
+        this.maxRegistersPerRequest = maxRegistersPerRequest;
+    }
+
+    public int getMaxCoalescingGap() {
+        return maxCoalescingGap;
+    }
+
+    public void setMaxCoalescingGap(int maxCoalescingGap) {
+        this.maxCoalescingGap = maxCoalescingGap;
+    }
+
     @Override
     public int getDefaultPort() {
         return ModbusConstants.MODBUSTCPDEFAULTPORT;
@@ -0,0 +1,134 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.modbus.config;
+
+import com.fazecast.jSerialComm.SerialPort;
+import org.apache.plc4x.java.spi.configuration.annotations.ConfigurationParameter;
+import org.apache.plc4x.java.spi.configuration.annotations.defaults.IntDefaultValue;
+import org.apache.plc4x.java.spi.configuration.annotations.defaults.StringDefaultValue;
+import org.apache.plc4x.java.transport.serial.SerialTransportConfiguration;
+
+/**
+ * Configuration of the Modbus RTU and ASCII drivers.
+ * Per default the settings defined as default in the "Modbus over serial line" specification (19200 baud, 8E1)
+ * are used.
+ */
+public class ModbusSerialConfiguration extends ModbusConfiguration implements SerialTransportConfiguration {
+
+    @ConfigurationParameter("baud-rate")
+    @IntDefaultValue(19200)
+    private int baudRate;
+
+    @ConfigurationParameter("data-bits")
+    @IntDefaultValue(8)
+    private int dataBits;
+
+    @ConfigurationParameter("stop-bits")
+    @IntDefaultValue(1)
+    private int stopBits;
+
+    // One of: "NONE", "ODD" or "EVEN"
+    @ConfigurationParameter("parity")
+    @StringDefaultValue("EVEN")
+    private String parity;
+
+    // Time (in ms) the slaves are given to process a broadcast request before the next request is sent.
+    @ConfigurationParameter("turnaround-delay")
+    @IntDefaultValue(100)
+    private int turnaroundDelay;
+
+    @Override
+    public int getBaudRate() {
+        return baudRate;
+    }
+
+    public void setBaudRate(int baudRate) {
+        this.baudRate = baudRate;
+    }
+
+    public int getDataBits() {
+        return dataBits;
+    }
+
+    public void setDataBits(int dataBits) {
+        this.dataBits = dataBits;
+    }
+
+    public int getStopBits() {
+        return stopBits;
+    }
+
+    public void setStopBits(int stopBits) {
+        this.stopBits = stopBits;
+    }
+
+    public String getParity() {
+        return parity;
+    }
+
+    public void setParity(String parity) {
+        this.parity = parity;
+    }
+
+    public int getTurnaroundDelay() {
+        return turnaroundDelay;
+    }
+
+    public void setTurnaroundDelay(int turnaroundDelay) {
+        this.turnaroundDelay = turnaroundDelay;
+    }
+
+    @Override
+    public int getNumDataBits() {
+        return dataBits;
+    }
+
+    @Override
+    public int getNumStopBits() {
+        return (stopBits == 2) ? SerialPort.TWO_STOP_BITS : SerialPort.ONE_STOP_BIT;
+    }
+
+    @Override
+    public int getParityBits() {
+        if ("ODD".equalsIgnoreCase(parity)) {
+            return SerialPort.ODD_PARITY;
+        } else if ("EVEN".equalsIgnoreCase(parity)) {
+            return SerialPort.EVEN_PARITY;
+        }
+        return SerialPort.NO_PARITY;
+    }
+
+    /**
+     * @return number of bits on the line for transferring one single character (start-, data-, parity- and stop-bits)
+     */
+    public int getBitsPerCharacter() {
+        return 1 + dataBits + ((getParityBits() != SerialPort.NO_PARITY) ? 1 : 0) + ((stopBits == 2) ? 2 : 1);
+    }
+
+    @Override
+    public String toString() {
+        return "Configuration{" +
+            "baud-rate=" + baudRate +
+            ", data-bits=" + dataBits +
+            ", stop-bits=" + stopBits +
+            ", parity=" + parity +
+            '}';
+    }
+
+}
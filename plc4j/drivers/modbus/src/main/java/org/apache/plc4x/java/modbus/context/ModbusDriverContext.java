@@ -0,0 +1,75 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.modbus.context;
+
+import org.apache.plc4x.java.modbus.config.ModbusConfiguration;
+import org.apache.plc4x.java.spi.configuration.HasConfiguration;
+import org.apache.plc4x.java.spi.context.DriverContext;
+
+public class ModbusDriverContext implements DriverContext, HasConfiguration<ModbusConfiguration> {
+
+    // Limits defined by the Modbus Application Protocol Specification V1.1b3 for function-codes 0x01 - 0x04
+    public static final int MAX_COILS_PER_REQUEST = 2000;
+    public static final int MAX_REGISTERS_PER_REQUEST = 125;
+
+    private short unitIdentifier;
+    private int maxCoilsPerRequest;
+    private int maxRegistersPerRequest;
+    private int maxCoalescingGap;
+
+    @Override
+    public void setConfiguration(ModbusConfiguration configuration) {
+        this.unitIdentifier = (short) configuration.getUnitIdentifier();
+        // Some devices support less than the protocol allows, but none support more.
+        this.maxCoilsPerRequest = Math.max(1, Math.min(configuration.getMaxCoilsPerRequest(), MAX_COILS_PER_REQUEST));
+        this.maxRegistersPerRequest = Math.max(1,
+            Math.min(configuration.getMaxRegistersPerRequest(), MAX_REGISTERS_PER_REQUEST));
+        this.maxCoalescingGap = Math.max(0, configuration.getMaxCoalescingGap());
+    }
+
+    /**
+     * @return unit identifier used for all fields which don't specify one.
+     */
+    public short getUnitIdentifier() {
+        return unitIdentifier;
+    }
+
+    /**
+     * @return maximum number of coils or discrete inputs to read in one request.
+     */
+    public int getMaxCoilsPerRequest() {
+        return maxCoilsPerRequest;
+    }
+
+    /**
+     * @return maximum number of input- or holding-registers to read in one request.
+     */
+    public int getMaxRegistersPerRequest() {
+        return maxRegistersPerRequest;
+    }
+
+    /**
+     * @return maximum number of unrequested addresses between two fields, for which the two fields are still read
+     * in one single request (Reading the gap has to be allowed by the device).
+     */
+    public int getMaxCoalescingGap() {
+        return maxCoalescingGap;
+    }
+
+}
@@ -25,14 +25,18 @@ import java.util.regex.Pattern;
 
 public class ModbusExtendedRegister extends ModbusField {
 
-    public static final Pattern ADDRESS_PATTERN = Pattern.compile("extended-register:" + ModbusField.ADDRESS_PATTERN);
-    public static final Pattern ADDRESS_SHORTER_PATTERN = Pattern.compile("6" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
-    public static final Pattern ADDRESS_SHORT_PATTERN = Pattern.compile("6x" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
+    public static final Pattern ADDRESS_PATTERN = Pattern.compile(ModbusField.UNIT_IDENTIFIER_PATTERN + "extended-register:" + ModbusField.ADDRESS_PATTERN);
+    public static final Pattern ADDRESS_SHORTER_PATTERN = Pattern.compile(ModbusField.UNIT_IDENTIFIER_PATTERN + "6" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
+    public static final Pattern ADDRESS_SHORT_PATTERN = Pattern.compile(ModbusField.UNIT_IDENTIFIER_PATTERN + "6x" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
 
     protected ModbusExtendedRegister(int address, Integer quantity) {
         super(address, quantity);
     }
 
+    protected ModbusExtendedRegister(Short unitIdentifier, int address, Integer quantity) {
+        super(unitIdentifier, address, quantity);
+    }
+
     public static boolean matches(String addressString) {
         return ADDRESS_PATTERN.matcher(addressString).matches() ||
             ADDRESS_SHORTER_PATTERN.matcher(addressString).matches() ||
@@ -62,6 +66,6 @@ public class ModbusExtendedRegister extends ModbusField {
 
         String quantityString = matcher.group("quantity");
         Integer quantity = quantityString != null ? Integer.valueOf(quantityString) : null;
-        return new ModbusExtendedRegister(address, quantity);
+        return new ModbusExtendedRegister(getUnitIdentifier(matcher), address, quantity);
     }
 }
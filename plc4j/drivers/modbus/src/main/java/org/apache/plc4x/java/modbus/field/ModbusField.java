@@ -27,10 +27,14 @@ import java.util.regex.Pattern;
 
 public abstract class ModbusField implements PlcField {
 
+    // Optional prefix "{unit-identifier}/" for addressing a unit other than the one configured for the connection.
+    public static final Pattern UNIT_IDENTIFIER_PATTERN = Pattern.compile("((?<unitIdentifier>\\d{1,3})/)?");
     public static final Pattern ADDRESS_PATTERN = Pattern.compile("(?<address>\\d+)(\\[(?<quantity>\\d+)])?");
     public static final Pattern FIXED_DIGIT_MODBUS_PATTERN = Pattern.compile("(?<address>\\d{4,5})(\\[(?<quantity>\\d+)])?");
     protected static final int PROTOCOL_ADDRESS_OFFSET = 1;
 
+    private final Short unitIdentifier;
+
     private final int address;
 
     private final int quantity;
@@ -55,6 +59,14 @@ public abstract class ModbusField implements PlcField {
     }
 
     protected ModbusField(int address, Integer quantity) {
+        this(null, address, quantity);
+    }
+
+    protected ModbusField(Short unitIdentifier, int address, Integer quantity) {
+        if ((unitIdentifier != null) && ((unitIdentifier < 0) || (unitIdentifier > 255))) {
+            throw new IllegalArgumentException("unit identifier must be between 0 and 255. Was " + unitIdentifier);
+        }
+        this.unitIdentifier = unitIdentifier;
         this.address = address;
         if ((this.address + PROTOCOL_ADDRESS_OFFSET) <= 0) {
             throw new IllegalArgumentException("address must be greater then zero. Was " + (this.address + PROTOCOL_ADDRESS_OFFSET));
@@ -65,6 +77,19 @@ public abstract class ModbusField implements PlcField {
         }
     }
 
+    protected static Short getUnitIdentifier(Matcher matcher) {
+        String unitIdentifierString = matcher.group("unitIdentifier");
+        return unitIdentifierString != null ? Short.valueOf(unitIdentifierString) : null;
+    }
+
+    /**
+     * @return unit identifier of the unit this field belongs to or null, if it belongs to the unit
+     * configured for the connection.
+     */
+    public Short getUnitIdentifier() {
+        return unitIdentifier;
+    }
+
     public int getAddress() {
         return address;
     }
@@ -82,17 +107,18 @@ public abstract class ModbusField implements PlcField {
             return false;
         }
         ModbusField that = (ModbusField) o;
-        return address == that.address;
+        return address == that.address && Objects.equals(unitIdentifier, that.unitIdentifier);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(address);
+        return Objects.hash(unitIdentifier, address);
     }
 
     @Override
     public String toString() {
         return "ModbusField{" +
+            "unitIdentifier=" + unitIdentifier +
             "address=" + address +
             "quantity=" + quantity +
             '}';
@@ -25,14 +25,18 @@ import java.util.regex.Pattern;
 
 public class ModbusFieldCoil extends ModbusField {
 
-    public static final Pattern ADDRESS_PATTERN = Pattern.compile("coil:" + ModbusField.ADDRESS_PATTERN);
-    public static final Pattern ADDRESS_SHORTER_PATTERN = Pattern.compile("0" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
-    public static final Pattern ADDRESS_SHORT_PATTERN = Pattern.compile("0x" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
+    public static final Pattern ADDRESS_PATTERN = Pattern.compile(ModbusField.UNIT_IDENTIFIER_PATTERN + "coil:" + ModbusField.ADDRESS_PATTERN);
+    public static final Pattern ADDRESS_SHORTER_PATTERN = Pattern.compile(ModbusField.UNIT_IDENTIFIER_PATTERN + "0" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
+    public static final Pattern ADDRESS_SHORT_PATTERN = Pattern.compile(ModbusField.UNIT_IDENTIFIER_PATTERN + "0x" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
 
     public ModbusFieldCoil(int address, Integer quantity) {
         super(address, quantity);
     }
 
+    public ModbusFieldCoil(Short unitIdentifier, int address, Integer quantity) {
+        super(unitIdentifier, address, quantity);
+    }
+
     public static boolean matches(String addressString) {
         return ADDRESS_PATTERN.matcher(addressString).matches() ||
             ADDRESS_SHORTER_PATTERN.matcher(addressString).matches() ||
@@ -62,7 +66,7 @@ public class ModbusFieldCoil extends ModbusField {
 
         String quantityString = matcher.group("quantity");
         Integer quantity = quantityString != null ? Integer.valueOf(quantityString) : null;
-        return new ModbusFieldCoil(address, quantity);
+        return new ModbusFieldCoil(getUnitIdentifier(matcher), address, quantity);
     }
 
 }
@@ -25,14 +25,18 @@ import java.util.regex.Pattern;
 
 public class ModbusFieldDiscreteInput extends ModbusField {
 
-    public static final Pattern ADDRESS_PATTERN = Pattern.compile("discrete-input:" + ModbusField.ADDRESS_PATTERN);
-    public static final Pattern ADDRESS_SHORTER_PATTERN = Pattern.compile("1" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
-    public static final Pattern ADDRESS_SHORT_PATTERN = Pattern.compile("1x" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
+    public static final Pattern ADDRESS_PATTERN = Pattern.compile(ModbusField.UNIT_IDENTIFIER_PATTERN + "discrete-input:" + ModbusField.ADDRESS_PATTERN);
+    public static final Pattern ADDRESS_SHORTER_PATTERN = Pattern.compile(ModbusField.UNIT_IDENTIFIER_PATTERN + "1" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
+    public static final Pattern ADDRESS_SHORT_PATTERN = Pattern.compile(ModbusField.UNIT_IDENTIFIER_PATTERN + "1x" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
 
     public ModbusFieldDiscreteInput(int address, Integer quantity) {
         super(address, quantity);
     }
 
+    public ModbusFieldDiscreteInput(Short unitIdentifier, int address, Integer quantity) {
+        super(unitIdentifier, address, quantity);
+    }
+
     public static boolean matches(String addressString) {
         return ADDRESS_PATTERN.matcher(addressString).matches() ||
             ADDRESS_SHORTER_PATTERN.matcher(addressString).matches() ||
@@ -62,6 +66,6 @@ public class ModbusFieldDiscreteInput extends ModbusField {
 
         String quantityString = matcher.group("quantity");
         Integer quantity = quantityString != null ? Integer.valueOf(quantityString) : null;
-        return new ModbusFieldDiscreteInput(address, quantity);
+        return new ModbusFieldDiscreteInput(getUnitIdentifier(matcher), address, quantity);
     }
 }
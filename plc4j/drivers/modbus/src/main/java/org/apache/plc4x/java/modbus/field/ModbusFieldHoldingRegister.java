@@ -25,14 +25,18 @@ import java.util.regex.Pattern;
 
 public class ModbusFieldHoldingRegister extends ModbusField {
 
-    public static final Pattern ADDRESS_PATTERN = Pattern.compile("holding-register:" + ModbusField.ADDRESS_PATTERN);
-    public static final Pattern ADDRESS_SHORTER_PATTERN = Pattern.compile("4" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
-    public static final Pattern ADDRESS_SHORT_PATTERN = Pattern.compile("4x" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
+    public static final Pattern ADDRESS_PATTERN = Pattern.compile(ModbusField.UNIT_IDENTIFIER_PATTERN + "holding-register:" + ModbusField.ADDRESS_PATTERN);
+    public static final Pattern ADDRESS_SHORTER_PATTERN = Pattern.compile(ModbusField.UNIT_IDENTIFIER_PATTERN + "4" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
+    public static final Pattern ADDRESS_SHORT_PATTERN = Pattern.compile(ModbusField.UNIT_IDENTIFIER_PATTERN + "4x" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
 
     protected ModbusFieldHoldingRegister(int address, Integer quantity) {
         super(address, quantity);
     }
 
+    protected ModbusFieldHoldingRegister(Short unitIdentifier, int address, Integer quantity) {
+        super(unitIdentifier, address, quantity);
+    }
+
     public static boolean matches(String addressString) {
         return ADDRESS_PATTERN.matcher(addressString).matches() ||
             ADDRESS_SHORTER_PATTERN.matcher(addressString).matches() ||
@@ -61,7 +65,7 @@ public class ModbusFieldHoldingRegister extends ModbusField {
 
         String quantityString = matcher.group("quantity");
         Integer quantity = quantityString != null ? Integer.valueOf(quantityString) : null;
-        return new ModbusFieldHoldingRegister(address, quantity);
+        return new ModbusFieldHoldingRegister(getUnitIdentifier(matcher), address, quantity);
     }
 
 }
@@ -25,14 +25,18 @@ import java.util.regex.Pattern;
 
 public class ModbusFieldInputRegister extends ModbusField {
 
-    public static final Pattern ADDRESS_PATTERN = Pattern.compile("input-register:" + ModbusField.ADDRESS_PATTERN);
-    public static final Pattern ADDRESS_SHORTER_PATTERN = Pattern.compile("3" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
-    public static final Pattern ADDRESS_SHORT_PATTERN = Pattern.compile("3x" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
+    public static final Pattern ADDRESS_PATTERN = Pattern.compile(ModbusField.UNIT_IDENTIFIER_PATTERN + "input-register:" + ModbusField.ADDRESS_PATTERN);
+    public static final Pattern ADDRESS_SHORTER_PATTERN = Pattern.compile(ModbusField.UNIT_IDENTIFIER_PATTERN + "3" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
+    public static final Pattern ADDRESS_SHORT_PATTERN = Pattern.compile(ModbusField.UNIT_IDENTIFIER_PATTERN + "3x" + ModbusField.FIXED_DIGIT_MODBUS_PATTERN);
 
     protected ModbusFieldInputRegister(int address, Integer quantity) {
         super(address, quantity);
     }
 
+    protected ModbusFieldInputRegister(Short unitIdentifier, int address, Integer quantity) {
+        super(unitIdentifier, address, quantity);
+    }
+
     public static boolean matches(String addressString) {
         return ADDRESS_PATTERN.matcher(addressString).matches() ||
             ADDRESS_SHORTER_PATTERN.matcher(addressString).matches() ||
@@ -61,6 +65,6 @@ public class ModbusFieldInputRegister extends ModbusField {
 
         String quantityString = matcher.group("quantity");
         Integer quantity = quantityString != null ? Integer.valueOf(quantityString) : null;
-        return new ModbusFieldInputRegister(address, quantity);
+        return new ModbusFieldInputRegister(getUnitIdentifier(matcher), address, quantity);
     }
 }
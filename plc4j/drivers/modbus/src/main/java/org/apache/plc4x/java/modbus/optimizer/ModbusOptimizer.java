@@ -0,0 +1,135 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.modbus.optimizer;
+
+import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.apache.plc4x.java.api.messages.PlcRequest;
+import org.apache.plc4x.java.api.model.PlcField;
+import org.apache.plc4x.java.modbus.context.ModbusDriverContext;
+import org.apache.plc4x.java.modbus.field.ModbusExtendedRegister;
+import org.apache.plc4x.java.modbus.field.ModbusField;
+import org.apache.plc4x.java.modbus.field.ModbusFieldCoil;
+import org.apache.plc4x.java.modbus.field.ModbusFieldDiscreteInput;
+import org.apache.plc4x.java.spi.context.DriverContext;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
+import org.apache.plc4x.java.spi.optimizer.SingleFieldOptimizer;
+
+import java.util.*;
+
+/**
+ * Groups the fields of a read request by unit and table (coils, discrete inputs, input registers and holding
+ * registers) and merges fields with contiguous (or nearly contiguous) addresses into one sub-request, as long as the
+ * resulting range can still be read with one single function-code request. The ModbusProtocolLogic then reads
+ * the range covering all fields of a sub-request and slices the result back up per field.
+ *
+ * Extended registers (file records) and write requests are still processed one field at a time.
+ */
+public class ModbusOptimizer extends SingleFieldOptimizer {
+
+    @Override
+    protected List<PlcRequest> processReadRequest(PlcReadRequest readRequest, DriverContext driverContext) {
+        if (readRequest.getNumberOfFields() == 1) {
+            return Collections.singletonList(readRequest);
+        }
+        int maxCoils = ModbusDriverContext.MAX_COILS_PER_REQUEST;
+        int maxRegisters = ModbusDriverContext.MAX_REGISTERS_PER_REQUEST;
+        int maxGap = 0;
+        Short defaultUnitIdentifier = null;
+        if (driverContext instanceof ModbusDriverContext) {
+            ModbusDriverContext modbusDriverContext = (ModbusDriverContext) driverContext;
+            defaultUnitIdentifier = modbusDriverContext.getUnitIdentifier();
+            maxCoils = modbusDriverContext.getMaxCoilsPerRequest();
+            maxRegisters = modbusDriverContext.getMaxRegistersPerRequest();
+            maxGap = modbusDriverContext.getMaxCoalescingGap();
+        }
+
+        // Sort the fields by unit and table (the type of field).
+        List<PlcRequest> processedRequests = new LinkedList<>();
+        Map<Short, Map<Class<? extends PlcField>, List<String>>> fieldNamesByUnitAndTable = new LinkedHashMap<>();
+        for (String fieldName : readRequest.getFieldNames()) {
+            PlcField field = readRequest.getField(fieldName);
+            // File records can't be merged, so these are read one by one.
+            if (field instanceof ModbusExtendedRegister) {
+                processedRequests.add(createSubRequest(readRequest,
+                    Collections.singletonMap(fieldName, field)));
+                continue;
+            }
+            // Fields without unit identifier address the configured unit, so they go together with the
+            // fields explicitly addressing this unit.
+            Short unitIdentifier = ((ModbusField) field).getUnitIdentifier();
+            if (unitIdentifier == null) {
+                unitIdentifier = defaultUnitIdentifier;
+            }
+            fieldNamesByUnitAndTable.computeIfAbsent(unitIdentifier, unit -> new LinkedHashMap<>())
+                .computeIfAbsent(field.getClass(), aClass -> new ArrayList<>()).add(fieldName);
+        }
+
+        for (Map<Class<? extends PlcField>, List<String>> fieldNamesByTable : fieldNamesByUnitAndTable.values()) {
+            for (Map.Entry<Class<? extends PlcField>, List<String>> tableEntry : fieldNamesByTable.entrySet()) {
+                boolean bitAccess = ModbusFieldCoil.class.isAssignableFrom(tableEntry.getKey()) ||
+                    ModbusFieldDiscreteInput.class.isAssignableFrom(tableEntry.getKey());
+                int maxQuantity = bitAccess ? maxCoils : maxRegisters;
+                processedRequests.addAll(mergeFields(readRequest, tableEntry.getValue(), maxQuantity, maxGap));
+            }
+        }
+        return processedRequests;
+    }
+
+    /**
+     * Merge the fields of one table of one unit as long as the gap between them and the total length
+     * of the range allow it.
+     */
+    private List<PlcRequest> mergeFields(PlcReadRequest readRequest, List<String> fieldNames, int maxQuantity, int maxGap) {
+        List<PlcRequest> subRequests = new LinkedList<>();
+        // Sort the fields of one table by address.
+        fieldNames.sort(Comparator.comparingInt(fieldName ->
+            ((ModbusField) readRequest.getField(fieldName)).getAddress()));
+
+        Map<String, PlcField> curFields = new LinkedHashMap<>();
+        int curStart = 0;
+        int curEnd = 0;
+        for (String fieldName : fieldNames) {
+            ModbusField field = (ModbusField) readRequest.getField(fieldName);
+            int fieldStart = field.getAddress();
+            int fieldEnd = fieldStart + field.getQuantity();
+            if (!curFields.isEmpty() && (fieldStart <= curEnd + maxGap) &&
+                (Math.max(curEnd, fieldEnd) - curStart <= maxQuantity)) {
+                curEnd = Math.max(curEnd, fieldEnd);
+            } else {
+                if (!curFields.isEmpty()) {
+                    subRequests.add(createSubRequest(readRequest, curFields));
+                }
+                curFields = new LinkedHashMap<>();
+                curStart = fieldStart;
+                curEnd = fieldEnd;
+            }
+            curFields.put(fieldName, field);
+        }
+        if (!curFields.isEmpty()) {
+            subRequests.add(createSubRequest(readRequest, curFields));
+        }
+        return subRequests;
+    }
+
+    private PlcReadRequest createSubRequest(PlcReadRequest readRequest, Map<String, PlcField> fields) {
+        return new DefaultPlcReadRequest(((DefaultPlcReadRequest) readRequest).getReader(),
+            new LinkedHashMap<>(fields));
+    }
+
+}
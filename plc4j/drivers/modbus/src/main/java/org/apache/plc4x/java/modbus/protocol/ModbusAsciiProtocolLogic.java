@@ -0,0 +1,66 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.modbus.protocol;
+
+import org.apache.plc4x.java.modbus.config.ModbusSerialConfiguration;
+import org.apache.plc4x.java.modbus.readwrite.ModbusAsciiADU;
+import org.apache.plc4x.java.modbus.readwrite.ModbusPDU;
+import org.apache.plc4x.java.spi.configuration.HasConfiguration;
+
+public class ModbusAsciiProtocolLogic extends ModbusSerialProtocolLogic<ModbusAsciiADU> implements HasConfiguration<ModbusSerialConfiguration> {
+
+    @Override
+    protected long getInterFrameDelayNanos(ModbusSerialConfiguration configuration) {
+        // In ASCII mode the frames are delimited by their start and end characters, so no delay is needed.
+        return 0;
+    }
+
+    @Override
+    protected ModbusAsciiADU createAdu(short address, ModbusPDU pdu) {
+        return new ModbusAsciiADU(address, pdu);
+    }
+
+    @Override
+    protected short getAddress(ModbusAsciiADU adu) {
+        return adu.getAddress();
+    }
+
+    @Override
+    protected Class<ModbusAsciiADU> getAduType() {
+        return ModbusAsciiADU.class;
+    }
+
+    @Override
+    protected ModbusPDU getPdu(ModbusAsciiADU adu) {
+        return adu.getPdu();
+    }
+
+    @Override
+    protected int getNumCharacters(ModbusAsciiADU adu) {
+        // Start character, every byte as two hex characters and CR LF at the end.
+        return 1 + (adu.getLengthInBytes() * 2) + 2;
+    }
+
+    @Override
+    protected int getMaxNumCharacters() {
+        // Start character, address, PDU of at most 253 bytes and LRC as hex characters and CR LF at the end.
+        return 1 + (255 * 2) + 2;
+    }
+
+}
@@ -0,0 +1,502 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.modbus.protocol;
+
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.apache.plc4x.java.api.messages.PlcReadResponse;
+import org.apache.plc4x.java.api.model.PlcField;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.api.value.PlcBoolean;
+import org.apache.plc4x.java.api.value.PlcList;
+import org.apache.plc4x.java.api.value.PlcShort;
+import org.apache.plc4x.java.api.value.PlcValue;
+import org.apache.plc4x.java.modbus.field.ModbusField;
+import org.apache.plc4x.java.modbus.field.ModbusFieldCoil;
+import org.apache.plc4x.java.modbus.field.ModbusFieldDiscreteInput;
+import org.apache.plc4x.java.modbus.field.ModbusFieldHoldingRegister;
+import org.apache.plc4x.java.modbus.field.ModbusFieldInputRegister;
+import org.apache.plc4x.java.modbus.field.ModbusExtendedRegister;
+import org.apache.plc4x.java.modbus.readwrite.*;
+import org.apache.plc4x.java.modbus.readwrite.io.DataItemIO;
+import org.apache.plc4x.java.modbus.transaction.ModbusRequestScheduler;
+import org.apache.plc4x.java.spi.ConversationContext;
+import org.apache.plc4x.java.spi.Plc4xProtocolBase;
+import org.apache.plc4x.java.spi.generation.ParseException;
+import org.apache.plc4x.java.spi.generation.ReadBuffer;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadResponse;
+import org.apache.plc4x.java.spi.messages.utils.ResponseItem;
+import org.apache.commons.lang3.ArrayUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Translation between PLC4X requests and Modbus PDUs, which is the same for all the different
+ * flavours of Modbus (TCP, RTU, ASCII). The actual protocol logic only has to wrap the PDUs
+ * in the corresponding ADUs and take care of correlating requests and responses.
+ *
+ * @param <T> type of the application data unit used by the concrete protocol flavour.
+ */
+public abstract class ModbusProtocolBase<T> extends Plc4xProtocolBase<T> {
+
+    private final static int FC_EXTENDED_REGISTERS_GROUP_HEADER_LENGTH = 2;
+    private final static int FC_EXTENDED_REGISTERS_FILE_RECORD_LENGTH = 10000;
+
+    /**
+     * @return type of the application data units, used for expecting the responses.
+     */
+    protected abstract Class<T> getAduType();
+
+    /**
+     * @param adu application data unit
+     * @return id which correlates a response to its request (transaction identifier or address of the unit)
+     */
+    protected abstract int getCorrelationId(T adu);
+
+    protected abstract ModbusPDU getPdu(T adu);
+
+    /**
+     * Called as soon as a request has timed out, before the request-transaction is ended.
+     * @param transaction transaction of the request that timed out
+     */
+    protected void onRequestTimeout(ModbusRequestScheduler.RequestTransaction transaction) {
+        // Nothing to do here ...
+    }
+
+    /**
+     * @return time the connection must not be used after a request has timed out, as a late response might
+     * still be on its way.
+     */
+    protected long getTimeoutRecoveryNanos() {
+        return 0;
+    }
+
+    /**
+     * Additional check a response has to pass, besides having the correlation id of the request.
+     * @param requestPdu PDU of the request
+     * @param responsePdu PDU of the response
+     * @return true if the response answers the request
+     */
+    protected boolean isResponseTo(ModbusPDU requestPdu, ModbusPDU responsePdu) {
+        return true;
+    }
+
+    /**
+     * Sends a request and passes the response to the given handler. Has to be called from the operation
+     * submitted to the request-transaction, which is ended as soon as the response arrives or the request
+     * times out, so a unit which never answers doesn't block the transaction forever.
+     *
+     * @param adu request
+     * @param correlationId id the response will carry
+     * @param transaction request-transaction the request is sent in
+     * @param requestTimeout time to wait for the response
+     * @param errorHandler called if the request fails or times out
+     * @param responseHandler called with the PDU of the response
+     */
+    protected void sendRequest(T adu, int correlationId, ModbusRequestScheduler.RequestTransaction transaction,
+                               Duration requestTimeout, Consumer<Throwable> errorHandler,
+                               Consumer<ModbusPDU> responseHandler) {
+        final ModbusPDU requestPdu = getPdu(adu);
+        context.sendRequest(adu)
+            .expectResponse(getAduType(), requestTimeout)
+            .onTimeout(e -> {
+                onRequestTimeout(transaction);
+                transaction.endRequest(getTimeoutRecoveryNanos());
+                errorHandler.accept(new TimeoutException(String.format(
+                    "No response for request %d of unit %d", correlationId, transaction.getUnitIdentifier())));
+            })
+            .onError((p, e) -> {
+                transaction.endRequest();
+                errorHandler.accept(e);
+            })
+            .check(response -> getCorrelationId(response) == correlationId)
+            .unwrap(this::getPdu)
+            .check(responsePdu -> isResponseTo(requestPdu, responsePdu))
+            .handle(responsePdu -> {
+                // Finish the request-transaction first, so on a serial line the t3.5 interval starts as early as possible.
+                transaction.endRequest();
+                try {
+                    responseHandler.accept(responsePdu);
+                } catch (RuntimeException e) {
+                    errorHandler.accept(e);
+                }
+            });
+    }
+
+    /**
+     * Get the unit identifier the request is addressed to. As the ModbusOptimizer splits up the requests
+     * by unit, all fields of a request share the same unit identifier.
+     * @param fields fields of the request
+     * @param defaultUnitIdentifier unit identifier configured for the connection
+     * @return unit identifier of the fields or the default one, if the fields don't specify one
+     */
+    protected short getUnitIdentifier(List<PlcField> fields, short defaultUnitIdentifier) {
+        Short unitIdentifier = null;
+        for (PlcField field : fields) {
+            Short fieldUnitIdentifier = (field instanceof ModbusField) ?
+                ((ModbusField) field).getUnitIdentifier() : null;
+            short effectiveUnitIdentifier = (fieldUnitIdentifier != null) ? fieldUnitIdentifier : defaultUnitIdentifier;
+            if ((unitIdentifier != null) && (unitIdentifier != effectiveUnitIdentifier)) {
+                throw new PlcRuntimeException("Modbus can only address one unit in one request");
+            }
+            unitIdentifier = effectiveUnitIdentifier;
+        }
+        return (unitIdentifier != null) ? unitIdentifier : defaultUnitIdentifier;
+    }
+
+    /**
+     * Decode the response to a read request created with {@link #getReadRequestPdu(PlcReadRequest)}.
+     * @param request read request
+     * @param requestPdu request PDU that was sent
+     * @param responsePdu response PDU that was received
+     * @return read response
+     */
+    protected PlcReadResponse getReadResponse(DefaultPlcReadRequest request, ModbusPDU requestPdu, ModbusPDU responsePdu) {
+        // Try to decode the response data based on the corresponding request.
+        Map<String, ResponseItem<PlcValue>> values = new HashMap<>();
+        // Check if the response was an error response.
+        if (responsePdu instanceof ModbusPDUError) {
+            PlcResponseCode responseCode = getErrorCode((ModbusPDUError) responsePdu);
+            for (String fieldName : request.getFieldNames()) {
+                values.put(fieldName, new ResponseItem<>(responseCode, null));
+            }
+        } else if (request.getNumberOfFields() == 1) {
+            String fieldName = request.getFieldNames().iterator().next();
+            try {
+                values.put(fieldName, new ResponseItem<>(PlcResponseCode.OK,
+                    toPlcValue(requestPdu, responsePdu)));
+            } catch (ParseException e) {
+                // Add an error response code ...
+                values.put(fieldName, new ResponseItem<>(PlcResponseCode.INTERNAL_ERROR, null));
+            }
+        } else {
+            // Slice the response up into the values of the individual fields.
+            for (String fieldName : request.getFieldNames()) {
+                ModbusField field = (ModbusField) request.getField(fieldName);
+                try {
+                    values.put(fieldName, new ResponseItem<>(PlcResponseCode.OK,
+                        toPlcValue(requestPdu, responsePdu, field)));
+                } catch (ParseException e) {
+                    values.put(fieldName, new ResponseItem<>(PlcResponseCode.INTERNAL_ERROR, null));
+                }
+            }
+        }
+        return new DefaultPlcReadResponse(request, values);
+    }
+
+    /**
+     * Create one request PDU for reading all fields of the given request. If there is more than one field,
+     * all fields have to be of the same type and the request reads the address range covering all of them.
+     * @param request read request (as prepared by the ModbusOptimizer)
+     * @return request PDU
+     */
+    protected ModbusPDU getReadRequestPdu(PlcReadRequest request) {
+        if (request.getNumberOfFields() == 1) {
+            return getReadRequestPdu(request.getFields().get(0));
+        }
+        Class<? extends PlcField> fieldType = null;
+        int startAddress = Integer.MAX_VALUE;
+        int endAddress = 0;
+        for (PlcField field : request.getFields()) {
+            if ((fieldType != null) && (fieldType != field.getClass())) {
+                throw new PlcRuntimeException("Modbus can only read fields of the same type in one request");
+            }
+            if (!(field instanceof ModbusField) || (field instanceof ModbusExtendedRegister)) {
+                throw new PlcRuntimeException("Unsupported multi-field read field type " + field.getClass().getName());
+            }
+            fieldType = field.getClass();
+            ModbusField modbusField = (ModbusField) field;
+            startAddress = Math.min(startAddress, modbusField.getAddress());
+            endAddress = Math.max(endAddress, modbusField.getAddress() + modbusField.getQuantity());
+        }
+        int quantity = endAddress - startAddress;
+        if (ModbusFieldDiscreteInput.class == fieldType) {
+            return new ModbusPDUReadDiscreteInputsRequest(startAddress, quantity);
+        } else if (ModbusFieldCoil.class == fieldType) {
+            return new ModbusPDUReadCoilsRequest(startAddress, quantity);
+        } else if (ModbusFieldInputRegister.class == fieldType) {
+            return new ModbusPDUReadInputRegistersRequest(startAddress, quantity);
+        } else if (ModbusFieldHoldingRegister.class == fieldType) {
+            return new ModbusPDUReadHoldingRegistersRequest(startAddress, quantity);
+        }
+        throw new PlcRuntimeException("Unsupported read field type " + fieldType);
+    }
+
+    private ModbusPDU getReadRequestPdu(PlcField field) {
+        if(field instanceof ModbusFieldDiscreteInput) {
+            ModbusFieldDiscreteInput discreteInput = (ModbusFieldDiscreteInput) field;
+            return new ModbusPDUReadDiscreteInputsRequest(discreteInput.getAddress(), discreteInput.getQuantity());
+        } else if(field instanceof ModbusFieldCoil) {
+            ModbusFieldCoil coil = (ModbusFieldCoil) field;
+            return new ModbusPDUReadCoilsRequest(coil.getAddress(), coil.getQuantity());
+        } else if(field instanceof ModbusFieldInputRegister) {
+            ModbusFieldInputRegister inputRegister = (ModbusFieldInputRegister) field;
+            return new ModbusPDUReadInputRegistersRequest(inputRegister.getAddress(), inputRegister.getQuantity());
+        } else if(field instanceof ModbusFieldHoldingRegister) {
+            ModbusFieldHoldingRegister holdingRegister = (ModbusFieldHoldingRegister) field;
+            return new ModbusPDUReadHoldingRegistersRequest(holdingRegister.getAddress(), holdingRegister.getQuantity());
+        } else if(field instanceof ModbusExtendedRegister) {
+            ModbusExtendedRegister extendedRegister = (ModbusExtendedRegister) field;
+            int group1_address = extendedRegister.getAddress() % 10000;
+            int group2_address = 0;
+            int group1_quantity, group2_quantity;
+            short group1_file_number = (short) (Math.floor(extendedRegister.getAddress() / 10000) + 1);
+            short group2_file_number;
+            ModbusPDUReadFileRecordRequestItem[] itemArray;
+
+            if ((group1_address + extendedRegister.getQuantity()) < FC_EXTENDED_REGISTERS_FILE_RECORD_LENGTH) {
+              //If reuqest doesn't span file records, use a single group
+              group1_quantity = extendedRegister.getQuantity();
+              ModbusPDUReadFileRecordRequestItem group1 = new ModbusPDUReadFileRecordRequestItem((short) 6, group1_file_number, group1_address, group1_quantity);
+              itemArray = new ModbusPDUReadFileRecordRequestItem[] {group1};
+            } else {
+              //If it doesn span a file record. e.g. 609998[10] request 2 words in first group and 8 in second.
+              group1_quantity = FC_EXTENDED_REGISTERS_FILE_RECORD_LENGTH - group1_address;
+              group2_quantity = extendedRegister.getQuantity() - group1_quantity;
+              group2_file_number = (short) (group1_file_number + 1);
+              ModbusPDUReadFileRecordRequestItem group1 = new ModbusPDUReadFileRecordRequestItem((short) 6, group1_file_number, group1_address, group1_quantity);
+              ModbusPDUReadFileRecordRequestItem group2 = new ModbusPDUReadFileRecordRequestItem((short) 6, group2_file_number, group2_address, group2_quantity);
+              itemArray = new ModbusPDUReadFileRecordRequestItem[] {group1, group2};
+            }
+            return new ModbusPDUReadFileRecordRequest(itemArray);
+        }
+        throw new PlcRuntimeException("Unsupported read field type " + field.getClass().getName());
+    }
+
+    protected ModbusPDU getWriteRequestPdu(PlcField field, PlcValue plcValue) {
+        if(field instanceof ModbusFieldCoil) {
+            ModbusFieldCoil coil = (ModbusFieldCoil) field;
+            return new ModbusPDUWriteMultipleCoilsRequest(coil.getAddress(), coil.getQuantity(),
+                fromPlcValue(plcValue));
+        } else if(field instanceof ModbusFieldHoldingRegister) {
+            ModbusFieldHoldingRegister holdingRegister = (ModbusFieldHoldingRegister) field;
+            return new ModbusPDUWriteMultipleHoldingRegistersRequest(holdingRegister.getAddress(),
+                holdingRegister.getQuantity(), fromPlcValue(plcValue));
+        }
+        throw new PlcRuntimeException("Unsupported write field type " + field.getClass().getName());
+    }
+
+    private PlcValue toPlcValue(ModbusPDU request, ModbusPDU response) throws ParseException {
+        if (request instanceof ModbusPDUReadDiscreteInputsRequest) {
+            if (!(response instanceof ModbusPDUReadDiscreteInputsResponse)) {
+                throw new PlcRuntimeException("Unexpected response type. " +
+                    "Expected ModbusPDUReadDiscreteInputsResponse, but got " + response.getClass().getName());
+            }
+            ModbusPDUReadDiscreteInputsRequest req = (ModbusPDUReadDiscreteInputsRequest) request;
+            ModbusPDUReadDiscreteInputsResponse resp = (ModbusPDUReadDiscreteInputsResponse) response;
+            return readBooleanList(req.getQuantity(), resp.getValue());
+        } else if (request instanceof ModbusPDUReadCoilsRequest) {
+            if (!(response instanceof ModbusPDUReadCoilsResponse)) {
+                throw new PlcRuntimeException("Unexpected response type. " +
+                    "Expected ModbusPDUReadCoilsResponse, but got " + response.getClass().getName());
+            }
+            ModbusPDUReadCoilsRequest req = (ModbusPDUReadCoilsRequest) request;
+            ModbusPDUReadCoilsResponse resp = (ModbusPDUReadCoilsResponse) response;
+            return readBooleanList(req.getQuantity(), resp.getValue());
+        } else if (request instanceof ModbusPDUReadInputRegistersRequest) {
+            if (!(response instanceof ModbusPDUReadInputRegistersResponse)) {
+                throw new PlcRuntimeException("Unexpected response type. " +
+                    "Expected ModbusPDUReadInputRegistersResponse, but got " + response.getClass().getName());
+            }
+            ModbusPDUReadInputRegistersRequest req = (ModbusPDUReadInputRegistersRequest) request;
+            ModbusPDUReadInputRegistersResponse resp = (ModbusPDUReadInputRegistersResponse) response;
+            ReadBuffer io = new ReadBuffer(resp.getValue());
+            return DataItemIO.staticParse(io, (short) 2, (short) req.getQuantity());
+        } else if (request instanceof ModbusPDUReadHoldingRegistersRequest) {
+            if (!(response instanceof ModbusPDUReadHoldingRegistersResponse)) {
+                throw new PlcRuntimeException("Unexpected response type. " +
+                    "Expected ModbusPDUReadHoldingRegistersResponse, but got " + response.getClass().getName());
+            }
+            ModbusPDUReadHoldingRegistersRequest req = (ModbusPDUReadHoldingRegistersRequest) request;
+            ModbusPDUReadHoldingRegistersResponse resp = (ModbusPDUReadHoldingRegistersResponse) response;
+            ReadBuffer io = new ReadBuffer(resp.getValue());
+            return DataItemIO.staticParse(io, (short) 2, (short) req.getQuantity());
+        } else if (request instanceof ModbusPDUReadFileRecordRequest) {
+            if (!(response instanceof ModbusPDUReadFileRecordResponse)) {
+                throw new PlcRuntimeException("Unexpected response type. " +
+                    "Expected ModbusPDUReadFileRecordResponse, but got " + response.getClass().getName());
+            }
+            ModbusPDUReadFileRecordRequest req = (ModbusPDUReadFileRecordRequest) request;
+            ModbusPDUReadFileRecordResponse resp = (ModbusPDUReadFileRecordResponse) response;
+            ReadBuffer io;
+            short dataLength;
+
+            if (resp.getItems().length == 2 && resp.getItems().length == req.getItems().length) {
+              //If request was split over file records, two groups in reponse should be received.
+              io = new ReadBuffer(ArrayUtils.addAll(resp.getItems()[0].getData(), resp.getItems()[1].getData()));
+              dataLength = (short) (resp.getItems()[0].getLengthInBytes() + resp.getItems()[1].getLengthInBytes() - (2 * FC_EXTENDED_REGISTERS_GROUP_HEADER_LENGTH));
+            } else if (resp.getItems().length == 1 && resp.getItems().length == req.getItems().length) {
+              //If request was within a single file record, one group should be received.
+              io = new ReadBuffer(resp.getItems()[0].getData());
+              dataLength = (short) (resp.getItems()[0].getLengthInBytes() - FC_EXTENDED_REGISTERS_GROUP_HEADER_LENGTH);
+            } else {
+              throw new PlcRuntimeException("Unexpected number of groups in response. " +
+                  "Expected " + req.getItems().length + ", but got " + resp.getItems().length);
+            }
+
+            return DataItemIO.staticParse(io, (short) 2, (short) ((dataLength)/2));
+        }
+        return null;
+    }
+
+    /**
+     * Extract the value of one single field from the response to a request reading a range of addresses.
+     * @param request request PDU for reading the range
+     * @param response response PDU
+     * @param field field within the range
+     * @return value of the field
+     */
+    private PlcValue toPlcValue(ModbusPDU request, ModbusPDU response, ModbusField field) throws ParseException {
+        if (request instanceof ModbusPDUReadDiscreteInputsRequest) {
+            if (!(response instanceof ModbusPDUReadDiscreteInputsResponse)) {
+                throw new PlcRuntimeException("Unexpected response type. " +
+                    "Expected ModbusPDUReadDiscreteInputsResponse, but got " + response.getClass().getName());
+            }
+            ModbusPDUReadDiscreteInputsRequest req = (ModbusPDUReadDiscreteInputsRequest) request;
+            ModbusPDUReadDiscreteInputsResponse resp = (ModbusPDUReadDiscreteInputsResponse) response;
+            return readBooleanList(field.getQuantity(), field.getAddress() - req.getStartingAddress(), resp.getValue());
+        } else if (request instanceof ModbusPDUReadCoilsRequest) {
+            if (!(response instanceof ModbusPDUReadCoilsResponse)) {
+                throw new PlcRuntimeException("Unexpected response type. " +
+                    "Expected ModbusPDUReadCoilsResponse, but got " + response.getClass().getName());
+            }
+            ModbusPDUReadCoilsRequest req = (ModbusPDUReadCoilsRequest) request;
+            ModbusPDUReadCoilsResponse resp = (ModbusPDUReadCoilsResponse) response;
+            return readBooleanList(field.getQuantity(), field.getAddress() - req.getStartingAddress(), resp.getValue());
+        } else if (request instanceof ModbusPDUReadInputRegistersRequest) {
+            if (!(response instanceof ModbusPDUReadInputRegistersResponse)) {
+                throw new PlcRuntimeException("Unexpected response type. " +
+                    "Expected ModbusPDUReadInputRegistersResponse, but got " + response.getClass().getName());
+            }
+            ModbusPDUReadInputRegistersRequest req = (ModbusPDUReadInputRegistersRequest) request;
+            ModbusPDUReadInputRegistersResponse resp = (ModbusPDUReadInputRegistersResponse) response;
+            return readRegisterList(field.getQuantity(), field.getAddress() - req.getStartingAddress(), resp.getValue());
+        } else if (request instanceof ModbusPDUReadHoldingRegistersRequest) {
+            if (!(response instanceof ModbusPDUReadHoldingRegistersResponse)) {
+                throw new PlcRuntimeException("Unexpected response type. " +
+                    "Expected ModbusPDUReadHoldingRegistersResponse, but got " + response.getClass().getName());
+            }
+            ModbusPDUReadHoldingRegistersRequest req = (ModbusPDUReadHoldingRegistersRequest) request;
+            ModbusPDUReadHoldingRegistersResponse resp = (ModbusPDUReadHoldingRegistersResponse) response;
+            return readRegisterList(field.getQuantity(), field.getAddress() - req.getStartingAddress(), resp.getValue());
+        }
+        return null;
+    }
+
+    protected PlcResponseCode getErrorCode(ModbusPDUError errorResponse) {
+        switch (errorResponse.getExceptionCode()) {
+            case 1:
+                // This implies the received function code is not supported.
+                return PlcResponseCode.UNSUPPORTED;
+            case 2:
+                return PlcResponseCode.INVALID_ADDRESS;
+            case 3:
+                return PlcResponseCode.INVALID_DATA;
+            case 4:
+                return PlcResponseCode.REMOTE_ERROR;
+            case 6:
+                return PlcResponseCode.REMOTE_BUSY;
+            default:
+                // This generally implies that something wen't wrong which we didn't anticipate.
+                return PlcResponseCode.INTERNAL_ERROR;
+        }
+    }
+
+    private byte[] fromPlcValue(PlcValue plcValue) {
+        if(plcValue instanceof PlcList) {
+            PlcList plcList = (PlcList) plcValue;
+            BitSet booleans = null;
+            List<Short> shorts = null;
+            int b = 0;
+            for (PlcValue value : plcList.getList()) {
+                if(value instanceof PlcBoolean) {
+                    if(booleans == null) {
+                        booleans = new BitSet(plcList.getList().size());
+                    }
+                    PlcBoolean plcBoolean = (PlcBoolean) value;
+                    booleans.set(b, plcBoolean.getBoolean());
+                    b++;
+                } else if(value.isShort()) {
+                    if(shorts == null) {
+                        shorts = new ArrayList<>(plcList.getList().size());
+                    }
+                    shorts.add(value.getShort());
+                } else {
+                    throw new PlcRuntimeException("Can only encode boolean or short values");
+                }
+            }
+            if(booleans != null) {
+                return booleans.toByteArray();
+            } else if(shorts != null) {
+                byte[] bytes = new byte[shorts.size() * 2];
+                for(int i = 0; i < shorts.size(); i++) {
+                    Short shortValue = shorts.get(i);
+                    bytes[i * 2] = (byte)((shortValue >> 8) & 0xff);
+                    bytes[(i * 2) + 1] = (byte)(shortValue & 0xff);
+                }
+                return bytes;
+            }
+        } else if(plcValue instanceof PlcBoolean) {
+            PlcBoolean plcBoolean = (PlcBoolean) plcValue;
+            return plcBoolean.getBoolean() ? new byte[] {0x01} : new byte[] {0x00};
+        } else if(plcValue instanceof PlcShort) {
+            PlcShort plcShort = (PlcShort) plcValue;
+            Short shortValue = plcShort.getShort();
+            byte[] bytes = new byte[2];
+            bytes[0] = (byte)((shortValue >> 8) & 0xff);
+            bytes[1] = (byte)(shortValue & 0xff);
+            return bytes;
+        }
+        return new byte[0];
+    }
+
+    private PlcValue readBooleanList(int count, byte[] data) throws ParseException {
+        return readBooleanList(count, 0, data);
+    }
+
+    private PlcValue readBooleanList(int count, int bitOffset, byte[] data) throws ParseException {
+        // Make sure we read in all the bytes. Unfortunately when requesting 9 bytes
+        // they are ordered like this: 8 7 6 5 4 3 2 1 | 0 0 0 0 0 0 0 9
+        // Luckily it turns out that this is exactly how BitSet parses byte[]
+        BitSet bits = BitSet.valueOf(data);
+        if(count == 1) {
+            return new PlcBoolean(bits.get(bitOffset));
+        }
+        List<PlcBoolean> result = new ArrayList<>(count);
+        for(int i = 0; i < count; i++) {
+            result.add(new PlcBoolean(bits.get(bitOffset + i)));
+        }
+        return new PlcList(result);
+    }
+
+    private PlcValue readRegisterList(int count, int registerOffset, byte[] data) throws ParseException {
+        ReadBuffer io = new ReadBuffer(Arrays.copyOfRange(data, registerOffset * 2, (registerOffset + count) * 2));
+        return DataItemIO.staticParse(io, (short) 2, (short) count);
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.modbus.protocol;
+
+import org.apache.plc4x.java.modbus.config.ModbusSerialConfiguration;
+import org.apache.plc4x.java.modbus.readwrite.ModbusPDU;
+import org.apache.plc4x.java.modbus.readwrite.ModbusSerialADU;
+import org.apache.plc4x.java.modbus.transaction.ModbusRequestScheduler;
+import org.apache.plc4x.java.spi.configuration.HasConfiguration;
+
+public class ModbusRtuProtocolLogic extends ModbusSerialProtocolLogic<ModbusSerialADU> implements HasConfiguration<ModbusSerialConfiguration> {
+
+    @Override
+    protected long getInterFrameDelayNanos(ModbusSerialConfiguration configuration) {
+        // In RTU mode the frames are delimited by a silent interval of 3.5 character times.
+        return ModbusRequestScheduler.getInterFrameDelayNanos(
+            configuration.getBaudRate(), configuration.getBitsPerCharacter());
+    }
+
+    @Override
+    protected ModbusSerialADU createAdu(short address, ModbusPDU pdu) {
+        return new ModbusSerialADU(address, pdu);
+    }
+
+    @Override
+    protected short getAddress(ModbusSerialADU adu) {
+        return adu.getAddress();
+    }
+
+    @Override
+    protected Class<ModbusSerialADU> getAduType() {
+        return ModbusSerialADU.class;
+    }
+
+    @Override
+    protected ModbusPDU getPdu(ModbusSerialADU adu) {
+        return adu.getPdu();
+    }
+
+    @Override
+    protected int getNumCharacters(ModbusSerialADU adu) {
+        return adu.getLengthInBytes();
+    }
+
+    @Override
+    protected int getMaxNumCharacters() {
+        // Address, PDU of at most 253 bytes and CRC.
+        return 256;
+    }
+
+}
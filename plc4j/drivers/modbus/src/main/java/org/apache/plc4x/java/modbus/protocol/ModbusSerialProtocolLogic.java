@@ -0,0 +1,228 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.modbus.protocol;
+
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+import org.apache.plc4x.java.api.messages.*;
+import org.apache.plc4x.java.api.model.PlcField;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.modbus.config.ModbusSerialConfiguration;
+import org.apache.plc4x.java.modbus.readwrite.*;
+import org.apache.plc4x.java.modbus.transaction.ModbusRequestScheduler;
+import org.apache.plc4x.java.spi.ConversationContext;
+import org.apache.plc4x.java.spi.generation.Message;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
+import org.apache.plc4x.java.spi.messages.DefaultPlcWriteRequest;
+import org.apache.plc4x.java.spi.messages.DefaultPlcWriteResponse;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Protocol logic for Modbus serial lines. In contrast to Modbus TCP there are no transaction identifiers,
+ * so only one request can be processed at a time and responses are matched by the address of the slave.
+ * Sending of the requests is coordinated by a {@link ModbusRequestScheduler}.
+ *
+ * @param <T> type of the application data unit (RTU or ASCII)
+ */
+public abstract class ModbusSerialProtocolLogic<T extends Message> extends ModbusProtocolBase<T> {
+
+    // Address 0 is reserved for broadcasts, which are processed by all slaves, but never answered.
+    public static final short BROADCAST_ADDRESS = 0;
+
+    private Duration requestTimeout;
+    private short unitIdentifier;
+    private long characterTimeNanos;
+    private long interFrameDelayNanos;
+    private long turnaroundDelayNanos;
+    private ModbusRequestScheduler scheduler;
+
+    public void setConfiguration(ModbusSerialConfiguration configuration) {
+        this.requestTimeout = Duration.ofMillis(configuration.getRequestTimeout());
+        this.unitIdentifier = (short) configuration.getUnitIdentifier();
+        this.characterTimeNanos = ModbusRequestScheduler.getCharacterTimeNanos(
+            configuration.getBaudRate(), configuration.getBitsPerCharacter());
+        this.interFrameDelayNanos = getInterFrameDelayNanos(configuration);
+        this.turnaroundDelayNanos = TimeUnit.MILLISECONDS.toNanos(configuration.getTurnaroundDelay());
+    }
+
+    @Override
+    public void setContext(ConversationContext<T> context) {
+        super.setContext(context);
+        // The requests are started from the event-loop of the channel, as this is the thread
+        // which is also processing the responses and it allows scheduling with a sub-millisecond delay.
+        // There can only be one request on the line at a time.
+        this.scheduler = new ModbusRequestScheduler(
+            context.getChannel().eventLoop(), 1, 1, characterTimeNanos, interFrameDelayNanos);
+    }
+
+    @Override
+    public void close(ConversationContext<T> context) {
+        // Nothing to do here ...
+    }
+
+    /**
+     * @param configuration configuration of the line
+     * @return minimum time the line has to be silent between two frames
+     */
+    protected abstract long getInterFrameDelayNanos(ModbusSerialConfiguration configuration);
+
+    protected abstract T createAdu(short address, ModbusPDU pdu);
+
+    protected abstract short getAddress(T adu);
+
+    @Override
+    protected int getCorrelationId(T adu) {
+        // Only one request can be on the line at a time, so the response is identified by the address of the slave.
+        return getAddress(adu);
+    }
+
+    /**
+     * @param adu application data unit
+     * @return number of characters it takes to transfer the adu over the line
+     */
+    protected abstract int getNumCharacters(T adu);
+
+    /**
+     * @return number of characters it takes to transfer an adu of the maximum size over the line
+     */
+    protected abstract int getMaxNumCharacters();
+
+    /**
+     * A slave which didn't answer in time might still be answering. The line is only used again after the time
+     * a response of the maximum size takes (and the silent interval), so the late response can't collide
+     * with the next request or be taken for its response.
+     */
+    @Override
+    protected long getTimeoutRecoveryNanos() {
+        return scheduler.getFrameTimeNanos(getMaxNumCharacters());
+    }
+
+    /**
+     * As responses are only identified by the address of the slave, a late response to a request which already
+     * timed out could be taken for the response of the next request to the same slave. So the response also
+     * has to have the function code of the request and contain the requested amount of data.
+     */
+    @Override
+    protected boolean isResponseTo(ModbusPDU requestPdu, ModbusPDU responsePdu) {
+        if (responsePdu instanceof ModbusPDUError) {
+            // Error responses only contain the exception code.
+            return true;
+        }
+        if (!requestPdu.getFunction().equals(responsePdu.getFunction())) {
+            return false;
+        }
+        if (requestPdu instanceof ModbusPDUReadCoilsRequest) {
+            return ((ModbusPDUReadCoilsResponse) responsePdu).getValue().length ==
+                getByteCount(((ModbusPDUReadCoilsRequest) requestPdu).getQuantity());
+        } else if (requestPdu instanceof ModbusPDUReadDiscreteInputsRequest) {
+            return ((ModbusPDUReadDiscreteInputsResponse) responsePdu).getValue().length ==
+                getByteCount(((ModbusPDUReadDiscreteInputsRequest) requestPdu).getQuantity());
+        } else if (requestPdu instanceof ModbusPDUReadHoldingRegistersRequest) {
+            return ((ModbusPDUReadHoldingRegistersResponse) responsePdu).getValue().length ==
+                ((ModbusPDUReadHoldingRegistersRequest) requestPdu).getQuantity() * 2;
+        } else if (requestPdu instanceof ModbusPDUReadInputRegistersRequest) {
+            return ((ModbusPDUReadInputRegistersResponse) responsePdu).getValue().length ==
+                ((ModbusPDUReadInputRegistersRequest) requestPdu).getQuantity() * 2;
+        } else if (requestPdu instanceof ModbusPDUWriteMultipleCoilsRequest) {
+            ModbusPDUWriteMultipleCoilsRequest request = (ModbusPDUWriteMultipleCoilsRequest) requestPdu;
+            ModbusPDUWriteMultipleCoilsResponse response = (ModbusPDUWriteMultipleCoilsResponse) responsePdu;
+            return (response.getStartingAddress() == request.getStartingAddress()) &&
+                (response.getQuantity() == request.getQuantity());
+        } else if (requestPdu instanceof ModbusPDUWriteMultipleHoldingRegistersRequest) {
+            ModbusPDUWriteMultipleHoldingRegistersRequest request =
+                (ModbusPDUWriteMultipleHoldingRegistersRequest) requestPdu;
+            ModbusPDUWriteMultipleHoldingRegistersResponse response =
+                (ModbusPDUWriteMultipleHoldingRegistersResponse) responsePdu;
+            return (response.getStartingAddress() == request.getStartingAddress()) &&
+                (response.getQuantity() == request.getQuantity());
+        }
+        return true;
+    }
+
+    private static int getByteCount(int numBits) {
+        return (numBits + 7) / 8;
+    }
+
+    @Override
+    public CompletableFuture<PlcReadResponse> read(PlcReadRequest readRequest) {
+        CompletableFuture<PlcReadResponse> future = new CompletableFuture<>();
+        DefaultPlcReadRequest request = (DefaultPlcReadRequest) readRequest;
+        final short address;
+        final ModbusPDU requestPdu;
+        try {
+            address = getUnitIdentifier(request.getFields(), unitIdentifier);
+            requestPdu = getReadRequestPdu(request);
+        } catch (PlcRuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        if (address == BROADCAST_ADDRESS) {
+            future.completeExceptionally(new PlcRuntimeException("Reading is not possible using broadcasts"));
+            return future;
+        }
+        T requestAdu = createAdu(address, requestPdu);
+        ModbusRequestScheduler.RequestTransaction transaction = scheduler.startRequest(address);
+        // A slave which doesn't answer only blocks the line till the request has timed out.
+        transaction.submit(() -> sendRequest(requestAdu, address, transaction, requestTimeout,
+            future::completeExceptionally,
+            responsePdu -> future.complete(getReadResponse(request, requestPdu, responsePdu))));
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<PlcWriteResponse> write(PlcWriteRequest writeRequest) {
+        CompletableFuture<PlcWriteResponse> future = new CompletableFuture<>();
+        DefaultPlcWriteRequest request = (DefaultPlcWriteRequest) writeRequest;
+        if (request.getFieldNames().size() != 1) {
+            future.completeExceptionally(new PlcRuntimeException("Modbus only supports single filed requests"));
+            return future;
+        }
+
+        String fieldName = request.getFieldNames().iterator().next();
+        PlcField field = request.getField(fieldName);
+        final ModbusPDU requestPdu = getWriteRequestPdu(field, request.getPlcValue(fieldName));
+        final short address = getUnitIdentifier(Collections.singletonList(field), unitIdentifier);
+        T requestAdu = createAdu(address, requestPdu);
+        ModbusRequestScheduler.RequestTransaction transaction = scheduler.startRequest(address);
+        if (address == BROADCAST_ADDRESS) {
+            // Broadcasts are never answered, so the request is finished as soon as it is sent,
+            // however the slaves have to be given some time for processing the request.
+            transaction.submit(() -> {
+                context.sendToWire(requestAdu);
+                transaction.endRequest(
+                    scheduler.getFrameTimeNanos(getNumCharacters(requestAdu)) + turnaroundDelayNanos);
+                future.complete(new DefaultPlcWriteResponse(request,
+                    Collections.singletonMap(fieldName, PlcResponseCode.OK)));
+            });
+            return future;
+        }
+        transaction.submit(() -> sendRequest(requestAdu, address, transaction, requestTimeout,
+            future::completeExceptionally, responsePdu -> {
+                PlcResponseCode responseCode = (responsePdu instanceof ModbusPDUError) ?
+                    getErrorCode((ModbusPDUError) responsePdu) : PlcResponseCode.OK;
+                future.complete(new DefaultPlcWriteResponse(request,
+                    Collections.singletonMap(fieldName, responseCode)));
+            }));
+        return future;
+    }
+
+}
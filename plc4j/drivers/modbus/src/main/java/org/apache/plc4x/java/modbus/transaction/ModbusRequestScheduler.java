@@ -0,0 +1,258 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.modbus.transaction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules the requests sent to multiple Modbus units over one single connection.
+ * <p>
+ * If requests for multiple units (unit identifiers) are pending, the units are served round-robin,
+ * so one unit with a lot of pending requests can't block the others. The number of requests in flight
+ * is limited in total as well as per unit (Gateways usually forward only one request at a time to every
+ * unit behind them).
+ * <p>
+ * On a serial line (Usually a RS-485 multi-drop bus) only one request can be in flight at a time and between
+ * two frames the line has to stay silent for at least 3.5 character times (t3.5), as this is what delimits
+ * the frames in Modbus RTU. In this case the next request is started as soon as this silent interval has
+ * elapsed, but not earlier.
+ */
+public class ModbusRequestScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModbusRequestScheduler.class);
+
+    // For baud rates above 19200 the "Modbus over serial line" specification recommends a fixed t3.5 of 1.75ms.
+    private static final int FIXED_TIMING_BAUD_RATE = 19200;
+    private static final long FIXED_INTER_FRAME_DELAY_NANOS = 1_750_000;
+
+    private final ScheduledExecutorService executor;
+    private final long characterTimeNanos;
+    private final long interFrameDelayNanos;
+    private int maxInFlight;
+    private final int maxInFlightPerUnit;
+
+    /** Pending requests for every unit identifier (FIFO for every unit) */
+    private final Map<Short, Queue<RequestTransaction>> pendingRequests = new HashMap<>();
+    /** Unit identifiers which have pending requests, in the order in which they will be served */
+    private final Queue<Short> pendingUnits = new ArrayDeque<>();
+    /** Number of requests in flight for every unit identifier */
+    private final Map<Short, Integer> inFlightRequests = new HashMap<>();
+    private int numInFlight;
+    /** Point in time (System.nanoTime()) from which on the next frame may be sent */
+    private long busIdleAt;
+
+    /**
+     * Create a scheduler for a connection, which allows multiple requests in flight (Modbus TCP).
+     * @param executor executor used for starting the requests
+     * @param maxInFlight maximum number of requests in flight
+     * @param maxInFlightPerUnit maximum number of requests in flight for every single unit (0 = no limit per unit)
+     */
+    public ModbusRequestScheduler(ScheduledExecutorService executor, int maxInFlight, int maxInFlightPerUnit) {
+        this(executor, maxInFlight, maxInFlightPerUnit, 0, 0);
+    }
+
+    /**
+     * Create a scheduler, which additionally keeps the line silent between two frames (Modbus RTU and ASCII).
+     * @param executor executor used for starting the requests
+     * @param maxInFlight maximum number of requests in flight
+     * @param maxInFlightPerUnit maximum number of requests in flight for every single unit (0 = no limit per unit)
+     * @param characterTimeNanos time it takes to transfer one character over the line
+     * @param interFrameDelayNanos minimum time the line has to be silent between two frames
+     */
+    public ModbusRequestScheduler(ScheduledExecutorService executor, int maxInFlight, int maxInFlightPerUnit,
+                                  long characterTimeNanos, long interFrameDelayNanos) {
+        this.executor = executor;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.maxInFlightPerUnit = (maxInFlightPerUnit > 0) ? maxInFlightPerUnit : Integer.MAX_VALUE;
+        this.characterTimeNanos = characterTimeNanos;
+        this.interFrameDelayNanos = interFrameDelayNanos;
+        this.busIdleAt = System.nanoTime();
+    }
+
+    /**
+     * @param baudRate baud rate of the line
+     * @param bitsPerCharacter number of bits transferred for every character (start-, data-, parity- and stop-bits)
+     * @return time it takes to transfer one character
+     */
+    public static long getCharacterTimeNanos(int baudRate, int bitsPerCharacter) {
+        return (bitsPerCharacter * 1_000_000_000L) / baudRate;
+    }
+
+    /**
+     * @param baudRate baud rate of the line
+     * @param bitsPerCharacter number of bits transferred for every character (start-, data-, parity- and stop-bits)
+     * @return t3.5 for the given line settings
+     */
+    public static long getInterFrameDelayNanos(int baudRate, int bitsPerCharacter) {
+        if (baudRate > FIXED_TIMING_BAUD_RATE) {
+            return FIXED_INTER_FRAME_DELAY_NANOS;
+        }
+        return (getCharacterTimeNanos(baudRate, bitsPerCharacter) * 7) / 2;
+    }
+
+    /**
+     * @param numCharacters number of characters of a frame
+     * @return time it takes to transfer the frame over the line
+     */
+    public long getFrameTimeNanos(int numCharacters) {
+        return numCharacters * characterTimeNanos;
+    }
+
+    public RequestTransaction startRequest(short unitIdentifier) {
+        return new RequestTransaction(unitIdentifier);
+    }
+
+    public synchronized int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public synchronized void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+        // As we might have increased the number, try to send some more requests.
+        processQueue();
+    }
+
+    public synchronized int getNumberOfPendingRequests() {
+        int numPendingRequests = 0;
+        for (Queue<RequestTransaction> queue : pendingRequests.values()) {
+            numPendingRequests += queue.size();
+        }
+        return numPendingRequests;
+    }
+
+    public synchronized int getNumberOfActiveRequests() {
+        return numInFlight;
+    }
+
+    private synchronized void submit(RequestTransaction transaction) {
+        Queue<RequestTransaction> queue = pendingRequests.computeIfAbsent(transaction.unitIdentifier, unit -> new ArrayDeque<>());
+        if (queue.isEmpty()) {
+            pendingUnits.add(transaction.unitIdentifier);
+        }
+        queue.add(transaction);
+        processQueue();
+    }
+
+    private synchronized void endRequest(RequestTransaction transaction, long busBusyNanos) {
+        if (!transaction.active) {
+            throw new IllegalArgumentException("Unknown Transaction or Transaction already finished!");
+        }
+        transaction.active = false;
+        numInFlight--;
+        inFlightRequests.merge(transaction.unitIdentifier, -1, Integer::sum);
+        busIdleAt = System.nanoTime() + busBusyNanos + interFrameDelayNanos;
+        processQueue();
+    }
+
+    /** Must only be called while holding the lock */
+    private void processQueue() {
+        // Go through the units round-robin. Units which already have the maximum number of requests in flight
+        // are skipped, but keep their position, so they are the first to be served as soon as possible.
+        int numSkipped = 0;
+        while ((numInFlight < maxInFlight) && (numSkipped < pendingUnits.size())) {
+            short unitIdentifier = pendingUnits.remove();
+            if (inFlightRequests.getOrDefault(unitIdentifier, 0) >= maxInFlightPerUnit) {
+                pendingUnits.add(unitIdentifier);
+                numSkipped++;
+                continue;
+            }
+            Queue<RequestTransaction> queue = pendingRequests.get(unitIdentifier);
+            RequestTransaction next = queue.remove();
+            // If there are more requests for this unit, it has to queue up behind all the other units.
+            if (!queue.isEmpty()) {
+                pendingUnits.add(unitIdentifier);
+            }
+            numSkipped = 0;
+            start(next);
+        }
+    }
+
+    private void start(RequestTransaction transaction) {
+        transaction.active = true;
+        numInFlight++;
+        inFlightRequests.merge(transaction.unitIdentifier, 1, Integer::sum);
+        Runnable operation = () -> {
+            try {
+                transaction.operation.run();
+            } catch (RuntimeException e) {
+                logger.warn("Error starting request for unit {}", transaction.unitIdentifier, e);
+                endRequest(transaction, 0);
+            }
+        };
+        long delayNanos = busIdleAt - System.nanoTime();
+        if (delayNanos > 0) {
+            executor.schedule(operation, delayNanos, TimeUnit.NANOSECONDS);
+        } else {
+            executor.execute(operation);
+        }
+    }
+
+    public class RequestTransaction {
+
+        private final short unitIdentifier;
+
+        private Runnable operation;
+
+        private boolean active;
+
+        private RequestTransaction(short unitIdentifier) {
+            this.unitIdentifier = unitIdentifier;
+        }
+
+        public short getUnitIdentifier() {
+            return unitIdentifier;
+        }
+
+        /**
+         * Queue the request. The operation is executed as soon as it's the requests turn (and in case of a
+         * serial line, the line has been silent for long enough).
+         * @param operation operation sending the request
+         */
+        public void submit(Runnable operation) {
+            this.operation = operation;
+            ModbusRequestScheduler.this.submit(this);
+        }
+
+        /**
+         * Has to be called as soon as the response to the request has been received (or the request failed).
+         */
+        public void endRequest() {
+            ModbusRequestScheduler.this.endRequest(this, 0);
+        }
+
+        /**
+         * Has to be called when ending a request which is not answered (broadcast) as here the frame might
+         * not even have been completely transferred over the line, when ending the request.
+         * @param busBusyNanos time the line will still be busy
+         */
+        public void endRequest(long busBusyNanos) {
+            ModbusRequestScheduler.this.endRequest(this, busBusyNanos);
+        }
+
+    }
+
+}
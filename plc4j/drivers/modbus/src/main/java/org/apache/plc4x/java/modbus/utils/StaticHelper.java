@@ -0,0 +1,75 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.modbus.utils;
+
+public class StaticHelper {
+
+    private static final int[] CRC_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i;
+            for (int j = 0; j < 8; j++) {
+                crc = ((crc & 0x0001) != 0) ? (crc >>> 1) ^ 0xA001 : crc >>> 1;
+            }
+            CRC_TABLE[i] = crc;
+        }
+    }
+
+    /**
+     * Calculate the CRC of a Modbus RTU frame.
+     * As the CRC is transferred low-order byte first, but is written as big-endian uint 16,
+     * the bytes of the result are swapped.
+     * @param data raw data of the frame (address and pdu)
+     * @return crc in the order it is transferred on the wire
+     */
+    public static int rtuCrcCheck(byte[] data) {
+        int crc = crc16(data, 0, data.length);
+        return ((crc & 0xFF) << 8) | ((crc >> 8) & 0xFF);
+    }
+
+    /**
+     * Calculate the LRC of a Modbus ASCII frame.
+     * @param data raw (binary) data of the frame (address and pdu)
+     * @return two's complement of the sum of all bytes
+     */
+    public static short asciiLrcCheck(byte[] data) {
+        int sum = 0;
+        for (byte b : data) {
+            sum += b & 0xFF;
+        }
+        return (short) ((-sum) & 0xFF);
+    }
+
+    /**
+     * CRC-16/MODBUS (Polynomial 0xA001 (reversed 0x8005), initial value 0xFFFF).
+     * @param data data
+     * @param offset offset of the first byte to include
+     * @param length number of bytes to include
+     * @return crc
+     */
+    public static int crc16(byte[] data, int offset, int length) {
+        int crc = 0xFFFF;
+        for (int i = offset; i < offset + length; i++) {
+            crc = (crc >>> 8) ^ CRC_TABLE[(crc ^ data[i]) & 0xFF];
+        }
+        return crc;
+    }
+
+}
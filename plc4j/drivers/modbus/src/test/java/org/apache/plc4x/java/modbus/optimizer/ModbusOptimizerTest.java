@@ -0,0 +1,114 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.modbus.optimizer;
+
+import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.apache.plc4x.java.api.messages.PlcRequest;
+import org.apache.plc4x.java.modbus.config.ModbusConfiguration;
+import org.apache.plc4x.java.modbus.context.ModbusDriverContext;
+import org.apache.plc4x.java.modbus.field.ModbusField;
+import org.apache.plc4x.java.modbus.field.ModbusFieldHandler;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ModbusOptimizerTest {
+
+    @Test
+    public void contiguousRegistersAreMerged() {
+        PlcReadRequest readRequest = new DefaultPlcReadRequest.Builder(null, new ModbusFieldHandler())
+            .addItem("a", "holding-register:1[2]")
+            .addItem("b", "holding-register:3[4]")
+            .addItem("c", "holding-register:7")
+            .build();
+        List<PlcRequest> subRequests = new ModbusOptimizer().processReadRequest(readRequest, null);
+        assertEquals(1, subRequests.size());
+        assertEquals(3, ((PlcReadRequest) subRequests.get(0)).getNumberOfFields());
+    }
+
+    @Test
+    public void differentTablesAreNotMerged() {
+        PlcReadRequest readRequest = new DefaultPlcReadRequest.Builder(null, new ModbusFieldHandler())
+            .addItem("a", "holding-register:1")
+            .addItem("b", "input-register:2")
+            .addItem("c", "coil:1")
+            .addItem("d", "coil:2[8]")
+            .build();
+        List<PlcRequest> subRequests = new ModbusOptimizer().processReadRequest(readRequest, null);
+        assertEquals(3, subRequests.size());
+    }
+
+    @Test
+    public void gapsAndProtocolLimitsSplitRequests() {
+        PlcReadRequest readRequest = new DefaultPlcReadRequest.Builder(null, new ModbusFieldHandler())
+            .addItem("a", "holding-register:1[100]")
+            .addItem("b", "holding-register:101[50]")
+            .addItem("c", "holding-register:200")
+            .build();
+        // "b" would exceed the 125 registers limit, "c" isn't contiguous to "b".
+        List<PlcRequest> subRequests = new ModbusOptimizer().processReadRequest(readRequest, null);
+        assertEquals(3, subRequests.size());
+    }
+
+    @Test
+    public void differentUnitsAreNotMerged() {
+        PlcReadRequest readRequest = new DefaultPlcReadRequest.Builder(null, new ModbusFieldHandler())
+            .addItem("a", "holding-register:1")
+            .addItem("b", "3/holding-register:2")
+            .addItem("c", "3/holding-register:3")
+            .addItem("d", "4/400004")
+            .build();
+        List<PlcRequest> subRequests = new ModbusOptimizer().processReadRequest(readRequest, null);
+        assertEquals(3, subRequests.size());
+        for (PlcRequest subRequest : subRequests) {
+            PlcReadRequest subReadRequest = (PlcReadRequest) subRequest;
+            ModbusField field = (ModbusField) subReadRequest.getFields().get(0);
+            if (field.getUnitIdentifier() == null) {
+                assertEquals(1, subReadRequest.getNumberOfFields());
+            } else if (field.getUnitIdentifier() == 3) {
+                assertEquals(2, subReadRequest.getNumberOfFields());
+            } else {
+                assertEquals(4, (short) field.getUnitIdentifier());
+                assertEquals(3, field.getAddress());
+            }
+        }
+    }
+
+    @Test
+    public void fieldsWithoutUnitBelongToTheConfiguredUnit() {
+        ModbusConfiguration configuration = new ModbusConfiguration();
+        configuration.setUnitIdentifier(3);
+        configuration.setMaxCoilsPerRequest(ModbusDriverContext.MAX_COILS_PER_REQUEST);
+        configuration.setMaxRegistersPerRequest(ModbusDriverContext.MAX_REGISTERS_PER_REQUEST);
+        ModbusDriverContext driverContext = new ModbusDriverContext();
+        driverContext.setConfiguration(configuration);
+        PlcReadRequest readRequest = new DefaultPlcReadRequest.Builder(null, new ModbusFieldHandler())
+            .addItem("a", "holding-register:1")
+            .addItem("b", "3/holding-register:2")
+            .addItem("c", "4/holding-register:3")
+            .build();
+        List<PlcRequest> subRequests = new ModbusOptimizer().processReadRequest(readRequest, driverContext);
+        assertEquals(2, subRequests.size());
+        assertEquals(2, ((PlcReadRequest) subRequests.get(0)).getNumberOfFields());
+    }
+
+}
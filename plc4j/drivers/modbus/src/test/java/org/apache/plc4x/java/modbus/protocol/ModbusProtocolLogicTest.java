@@ -0,0 +1,144 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.modbus.protocol;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.apache.plc4x.java.api.messages.PlcReadResponse;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.modbus.config.ModbusConfiguration;
+import org.apache.plc4x.java.modbus.field.ModbusFieldHandler;
+import org.apache.plc4x.java.modbus.readwrite.ModbusPDUReadHoldingRegistersResponse;
+import org.apache.plc4x.java.modbus.readwrite.ModbusTcpADU;
+import org.apache.plc4x.java.spi.Plc4xNettyWrapper;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ModbusProtocolLogicTest {
+
+    private static final int REQUEST_TIMEOUT = 200;
+
+    private EmbeddedChannel channel;
+
+    @Test
+    public void unansweredRequestTimesOut() throws Exception {
+        ModbusProtocolLogic logic = createLogic(1);
+        CompletableFuture<PlcReadResponse> first = logic.read(readRequest("holding-register:1"));
+        assertNotNull(nextRequest());
+        awaitTimeout();
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> first.get(0, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof TimeoutException);
+
+        // The timed out request must not keep blocking the connection.
+        CompletableFuture<PlcReadResponse> second = logic.read(readRequest("holding-register:2"));
+        ModbusTcpADU request = nextRequest();
+        assertNotNull(request);
+        channel.writeInbound(response(request));
+        assertEquals(PlcResponseCode.OK, second.get(0, TimeUnit.SECONDS).getResponseCode("value"));
+    }
+
+    @Test
+    public void responsesAreMatchedByTransactionIdentifier() throws Exception {
+        ModbusProtocolLogic logic = createLogic(2);
+        CompletableFuture<PlcReadResponse> first = logic.read(readRequest("holding-register:1"));
+        CompletableFuture<PlcReadResponse> second = logic.read(readRequest("holding-register:2"));
+        ModbusTcpADU firstRequest = nextRequest();
+        ModbusTcpADU secondRequest = nextRequest();
+        assertNotNull(firstRequest);
+        assertNotNull(secondRequest);
+
+        channel.writeInbound(response(secondRequest));
+        assertEquals(PlcResponseCode.OK, second.get(0, TimeUnit.SECONDS).getResponseCode("value"));
+        assertFalse(first.isDone());
+        channel.writeInbound(response(firstRequest));
+        assertEquals(PlcResponseCode.OK, first.get(0, TimeUnit.SECONDS).getResponseCode("value"));
+    }
+
+    @Test
+    public void timeoutFallsBackToOneRequestInFlight() throws Exception {
+        ModbusProtocolLogic logic = createLogic(2);
+        CompletableFuture<PlcReadResponse> first = logic.read(readRequest("holding-register:1"));
+        CompletableFuture<PlcReadResponse> second = logic.read(readRequest("holding-register:2"));
+        assertNotNull(nextRequest());
+        assertNotNull(nextRequest());
+        awaitTimeout();
+        assertThrows(ExecutionException.class, () -> first.get(0, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> second.get(0, TimeUnit.SECONDS));
+
+        // After the timeouts only one request is sent at a time.
+        CompletableFuture<PlcReadResponse> third = logic.read(readRequest("holding-register:3"));
+        CompletableFuture<PlcReadResponse> fourth = logic.read(readRequest("holding-register:4"));
+        ModbusTcpADU thirdRequest = nextRequest();
+        assertNotNull(thirdRequest);
+        assertNull(channel.readOutbound());
+        channel.writeInbound(response(thirdRequest));
+        assertEquals(PlcResponseCode.OK, third.get(0, TimeUnit.SECONDS).getResponseCode("value"));
+        ModbusTcpADU fourthRequest = nextRequest();
+        assertNotNull(fourthRequest);
+        channel.writeInbound(response(fourthRequest));
+        assertEquals(PlcResponseCode.OK, fourth.get(0, TimeUnit.SECONDS).getResponseCode("value"));
+    }
+
+    private ModbusProtocolLogic createLogic(int maxInFlight) {
+        ModbusConfiguration configuration = new ModbusConfiguration();
+        configuration.setRequestTimeout(REQUEST_TIMEOUT);
+        configuration.setUnitIdentifier(1);
+        configuration.setMaxInFlight(maxInFlight);
+        configuration.setMaxInFlightPerUnit(maxInFlight);
+        ModbusProtocolLogic logic = new ModbusProtocolLogic();
+        logic.setConfiguration(configuration);
+        channel = new EmbeddedChannel();
+        channel.pipeline().addLast(new Plc4xNettyWrapper<>(channel.pipeline(), false, logic, ModbusTcpADU.class));
+        return logic;
+    }
+
+    private ModbusTcpADU nextRequest() {
+        channel.runPendingTasks();
+        return channel.readOutbound();
+    }
+
+    private void awaitTimeout() throws InterruptedException {
+        Thread.sleep(REQUEST_TIMEOUT + 50);
+        channel.runPendingTasks();
+    }
+
+    private static PlcReadRequest readRequest(String address) {
+        return new DefaultPlcReadRequest.Builder(null, new ModbusFieldHandler())
+            .addItem("value", address)
+            .build();
+    }
+
+    private static ModbusTcpADU response(ModbusTcpADU request) {
+        return new ModbusTcpADU(request.getTransactionIdentifier(), request.getUnitIdentifier(),
+            new ModbusPDUReadHoldingRegistersResponse(new byte[] {0x00, 0x2A}));
+    }
+
+}
@@ -0,0 +1,192 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.modbus.protocol;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.apache.plc4x.java.api.messages.PlcReadResponse;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.modbus.config.ModbusSerialConfiguration;
+import org.apache.plc4x.java.modbus.field.ModbusFieldHandler;
+import org.apache.plc4x.java.modbus.readwrite.ModbusPDUReadCoilsResponse;
+import org.apache.plc4x.java.modbus.readwrite.ModbusPDUReadHoldingRegistersResponse;
+import org.apache.plc4x.java.modbus.readwrite.ModbusSerialADU;
+import org.apache.plc4x.java.spi.Plc4xNettyWrapper;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ModbusRtuProtocolLogicTest {
+
+    private static final int REQUEST_TIMEOUT = 200;
+
+    private EmbeddedChannel channel;
+
+    @Test
+    public void deadUnitDoesNotBlockTheLine() throws Exception {
+        ModbusRtuProtocolLogic logic = createLogic();
+        CompletableFuture<PlcReadResponse> deadUnit = logic.read(readRequest("1/holding-register:1"));
+        CompletableFuture<PlcReadResponse> liveUnit = logic.read(readRequest("2/holding-register:1"));
+
+        // Unit 1 never answers, so the request for unit 2 has to wait for the timeout.
+        ModbusSerialADU deadRequest = nextRequest();
+        assertNotNull(deadRequest);
+        assertEquals(1, deadRequest.getAddress());
+        assertNull(nextRequest(50));
+
+        awaitTimeout();
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> deadUnit.get(0, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof TimeoutException);
+
+        ModbusSerialADU liveRequest = nextRequest();
+        assertNotNull(liveRequest);
+        assertEquals(2, liveRequest.getAddress());
+        channel.writeInbound(response(liveRequest));
+        assertEquals(PlcResponseCode.OK, liveUnit.get(0, TimeUnit.SECONDS).getResponseCode("value"));
+    }
+
+    @Test
+    public void lateResponseOfTimedOutRequestIsIgnored() throws Exception {
+        ModbusRtuProtocolLogic logic = createLogic();
+        CompletableFuture<PlcReadResponse> first = logic.read(readRequest("1/holding-register:1"));
+        ModbusSerialADU firstRequest = nextRequest();
+        assertNotNull(firstRequest);
+        awaitTimeout();
+        assertThrows(ExecutionException.class, () -> first.get(0, TimeUnit.SECONDS));
+
+        CompletableFuture<PlcReadResponse> second = logic.read(readRequest("2/holding-register:1"));
+        ModbusSerialADU secondRequest = nextRequest();
+        assertNotNull(secondRequest);
+        // The response of unit 1 arriving after the timeout must not complete the request of unit 2.
+        channel.writeInbound(response(firstRequest));
+        assertFalse(second.isDone());
+        channel.writeInbound(response(secondRequest));
+        assertEquals(PlcResponseCode.OK, second.get(0, TimeUnit.SECONDS).getResponseCode("value"));
+    }
+
+    @Test
+    public void lineStaysSilentForALateResponseAfterATimeout() throws Exception {
+        ModbusRtuProtocolLogic logic = createLogic();
+        CompletableFuture<PlcReadResponse> first = logic.read(readRequest("1/holding-register:1"));
+        CompletableFuture<PlcReadResponse> second = logic.read(readRequest("1/holding-register:1"));
+        assertNotNull(nextRequest());
+        awaitTimeout();
+        assertThrows(ExecutionException.class, () -> first.get(0, TimeUnit.SECONDS));
+
+        // A response of the maximum size takes about 150 ms at 19200 baud.
+        assertNull(nextRequest(100));
+        ModbusSerialADU secondRequest = nextRequest();
+        assertNotNull(secondRequest);
+        channel.writeInbound(response(secondRequest));
+        assertEquals(PlcResponseCode.OK, second.get(0, TimeUnit.SECONDS).getResponseCode("value"));
+    }
+
+    @Test
+    public void lateResponseOfTheSameUnitIsIgnored() throws Exception {
+        ModbusRtuProtocolLogic logic = createLogic();
+        CompletableFuture<PlcReadResponse> first = logic.read(readRequest("1/holding-register:1"));
+        ModbusSerialADU firstRequest = nextRequest();
+        assertNotNull(firstRequest);
+        awaitTimeout();
+        assertThrows(ExecutionException.class, () -> first.get(0, TimeUnit.SECONDS));
+
+        // Other function code ...
+        CompletableFuture<PlcReadResponse> coils = logic.read(readRequest("1/coil:1"));
+        ModbusSerialADU coilsRequest = nextRequest();
+        assertNotNull(coilsRequest);
+        channel.writeInbound(response(firstRequest));
+        assertFalse(coils.isDone());
+        channel.writeInbound(new ModbusSerialADU(coilsRequest.getAddress(),
+            new ModbusPDUReadCoilsResponse(new byte[] {0x01})));
+        assertEquals(true, coils.get(0, TimeUnit.SECONDS).getBoolean("value"));
+
+        // ... or other amount of data than requested.
+        CompletableFuture<PlcReadResponse> registers = logic.read(readRequest("1/holding-register:1[2]"));
+        ModbusSerialADU registersRequest = nextRequest();
+        assertNotNull(registersRequest);
+        channel.writeInbound(response(firstRequest));
+        assertFalse(registers.isDone());
+        channel.writeInbound(new ModbusSerialADU(registersRequest.getAddress(),
+            new ModbusPDUReadHoldingRegistersResponse(new byte[] {0x00, 0x01, 0x00, 0x02})));
+        assertEquals(PlcResponseCode.OK, registers.get(0, TimeUnit.SECONDS).getResponseCode("value"));
+    }
+
+    private ModbusRtuProtocolLogic createLogic() {
+        ModbusSerialConfiguration configuration = new ModbusSerialConfiguration();
+        configuration.setRequestTimeout(REQUEST_TIMEOUT);
+        configuration.setUnitIdentifier(1);
+        configuration.setBaudRate(19200);
+        configuration.setDataBits(8);
+        configuration.setStopBits(1);
+        configuration.setParity("EVEN");
+        ModbusRtuProtocolLogic logic = new ModbusRtuProtocolLogic();
+        logic.setConfiguration(configuration);
+        channel = new EmbeddedChannel();
+        channel.pipeline().addLast(new Plc4xNettyWrapper<>(channel.pipeline(), false, logic, ModbusSerialADU.class));
+        return logic;
+    }
+
+    private ModbusSerialADU nextRequest() throws InterruptedException {
+        return nextRequest(1000);
+    }
+
+    /**
+     * The scheduler keeps the line silent between two frames, so the request might only be sent after a delay.
+     */
+    private ModbusSerialADU nextRequest(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        do {
+            channel.runPendingTasks();
+            ModbusSerialADU request = channel.readOutbound();
+            if (request != null) {
+                return request;
+            }
+            Thread.sleep(1);
+        } while (System.currentTimeMillis() < deadline);
+        return null;
+    }
+
+    private void awaitTimeout() throws InterruptedException {
+        Thread.sleep(REQUEST_TIMEOUT + 50);
+        channel.runPendingTasks();
+    }
+
+    private static PlcReadRequest readRequest(String address) {
+        return new DefaultPlcReadRequest.Builder(null, new ModbusFieldHandler())
+            .addItem("value", address)
+            .build();
+    }
+
+    private static ModbusSerialADU response(ModbusSerialADU request) {
+        return new ModbusSerialADU(request.getAddress(),
+            new ModbusPDUReadHoldingRegistersResponse(new byte[] {0x00, 0x2A}));
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.modbus.transaction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ModbusRequestSchedulerTest {
+
+    private ScheduledExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void interFrameDelay() {
+        // 9600 baud 8E1 = 11 bits per character: t3.5 = 3.5 * 11 / 9600 s
+        assertEquals(4_010_415, ModbusRequestScheduler.getInterFrameDelayNanos(9600, 11));
+        // Above 19200 baud the fixed value is used.
+        assertEquals(1_750_000, ModbusRequestScheduler.getInterFrameDelayNanos(115200, 11));
+    }
+
+    @Test
+    public void unitsAreServedRoundRobin() throws Exception {
+        ModbusRequestScheduler scheduler = new ModbusRequestScheduler(executor, 1, 1);
+        List<Short> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(5);
+        short[] units = {1, 1, 1, 2, 3};
+        // Block the bus till all requests are queued.
+        ModbusRequestScheduler.RequestTransaction blocker = scheduler.startRequest((short) 9);
+        blocker.submit(() -> {});
+        for (short unit : units) {
+            ModbusRequestScheduler.RequestTransaction transaction = scheduler.startRequest(unit);
+            transaction.submit(() -> {
+                order.add(unit);
+                transaction.endRequest();
+                done.countDown();
+            });
+        }
+        assertEquals(5, scheduler.getNumberOfPendingRequests());
+        blocker.endRequest();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList((short) 1, (short) 2, (short) 3, (short) 1, (short) 1), order);
+    }
+
+    @Test
+    public void busIsSilentForTheInterFrameDelay() throws Exception {
+        long interFrameDelay = TimeUnit.MILLISECONDS.toNanos(20);
+        ModbusRequestScheduler scheduler = new ModbusRequestScheduler(executor, 1, 1, 0, interFrameDelay);
+        long[] times = new long[2];
+        CountDownLatch done = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            int index = i;
+            ModbusRequestScheduler.RequestTransaction transaction = scheduler.startRequest((short) 1);
+            transaction.submit(() -> {
+                transaction.endRequest();
+                times[index] = System.nanoTime();
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(times[1] - times[0] >= interFrameDelay);
+    }
+
+    @Test
+    public void inFlightRequestsAreLimitedPerUnit() throws Exception {
+        ModbusRequestScheduler scheduler = new ModbusRequestScheduler(executor, 4, 1);
+        List<ModbusRequestScheduler.RequestTransaction> started = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch firstBatch = new CountDownLatch(3);
+        short[] units = {1, 1, 1, 2, 3};
+        for (short unit : units) {
+            ModbusRequestScheduler.RequestTransaction transaction = scheduler.startRequest(unit);
+            transaction.submit(() -> {
+                started.add(transaction);
+                firstBatch.countDown();
+            });
+        }
+        // Only one request per unit may be in flight, even if four would be allowed in total.
+        assertTrue(firstBatch.await(5, TimeUnit.SECONDS));
+        assertEquals(3, scheduler.getNumberOfActiveRequests());
+        assertEquals(2, scheduler.getNumberOfPendingRequests());
+
+        // Finishing the request of unit 1 allows the next request of unit 1 to be sent.
+        started.get(0).endRequest();
+        executor.submit(() -> {}).get(5, TimeUnit.SECONDS);
+        assertEquals(3, scheduler.getNumberOfActiveRequests());
+        assertEquals(1, scheduler.getNumberOfPendingRequests());
+        assertEquals(4, started.size());
+        assertEquals(1, started.get(3).getUnitIdentifier());
+    }
+
+    @Test
+    public void noLimitPerUnitIfZero() throws Exception {
+        ModbusRequestScheduler scheduler = new ModbusRequestScheduler(executor, 3, 0);
+        CountDownLatch started = new CountDownLatch(3);
+        for (int i = 0; i < 4; i++) {
+            scheduler.startRequest((short) 1).submit(started::countDown);
+        }
+        // Only the total limit applies.
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(3, scheduler.getNumberOfActiveRequests());
+        assertEquals(1, scheduler.getNumberOfPendingRequests());
+    }
+
+}
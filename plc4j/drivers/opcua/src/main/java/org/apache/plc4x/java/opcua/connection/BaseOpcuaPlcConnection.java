@@ -35,6 +35,9 @@ public abstract class BaseOpcuaPlcConnection extends AbstractPlcConnection imple
 
     private static final Logger logger = LoggerFactory.getLogger(BaseOpcuaPlcConnection.class);
     protected boolean skipDiscovery = false;
+    protected int queueSize = 1;
+    protected int maxConcurrentRequests = 4;
+    protected int nodeIdCacheSize = 10000;
 
     /**
      * @param params
@@ -51,6 +54,15 @@ public abstract class BaseOpcuaPlcConnection extends AbstractPlcConnection imple
                         case "discovery":
                             skipDiscovery = !Boolean.valueOf(paramValue);
                             break;
+                        case "queueSize":
+                            queueSize = Integer.valueOf(paramValue);
+                            break;
+                        case "maxConcurrentRequests":
+                            maxConcurrentRequests = Integer.valueOf(paramValue);
+                            break;
+                        case "nodeIdCacheSize":
+                            nodeIdCacheSize = Integer.valueOf(paramValue);
+                            break;
                         default:
                             logger.debug("Unknown parameter {} with value {}", paramName, paramValue);
                     }
@@ -99,4 +111,16 @@ public abstract class BaseOpcuaPlcConnection extends AbstractPlcConnection imple
     public boolean isSkipDiscovery() {
         return skipDiscovery;
     }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public int getNodeIdCacheSize() {
+        return nodeIdCacheSize;
+    }
 }
@@ -0,0 +1,301 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+
+ */
+package org.apache.plc4x.java.opcua.connection;
+
+import org.apache.plc4x.java.opcua.protocol.OpcuaField;
+import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaMonitoredItem;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.FilterOperator;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MonitoringMode;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowsePath;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowsePathResult;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowsePathTarget;
+import org.eclipse.milo.opcua.stack.core.types.structured.ContentFilter;
+import org.eclipse.milo.opcua.stack.core.types.structured.ContentFilterElement;
+import org.eclipse.milo.opcua.stack.core.types.structured.EventFilter;
+import org.eclipse.milo.opcua.stack.core.types.structured.LiteralOperand;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoredItemCreateRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoringParameters;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.RelativePath;
+import org.eclipse.milo.opcua.stack.core.types.structured.RelativePathElement;
+import org.eclipse.milo.opcua.stack.core.types.structured.SimpleAttributeOperand;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+
+/**
+ * Resolves {@link OpcuaField}s into the {@link NodeId}s used in the service calls.
+ * <p>
+ * NodeIds given directly in the address are simply converted. Browse paths have to be translated by
+ * the server: all browse paths of one request which are not yet known are translated with one
+ * "TranslateBrowsePathsToNodeIds" call (split into chunks respecting the server's
+ * "MaxNodesPerTranslateBrowsePathsToNodeIds" limit). The translated NodeIds are kept in a bounded LRU cache.
+ * <p>
+ * As soon as the first browse path is translated, the namespace array of the server and its model change
+ * events are monitored. The cache is cleared whenever one of them signals a change of the address space.
+ */
+class OpcuaNodeIdResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpcuaNodeIdResolver.class);
+
+    // A path element is either "{name}" or "{namespace-index}:{name}"
+    private static final Pattern PATH_ELEMENT_PATTERN = Pattern.compile("^(?<namespace>\\d{1,5}):(?<name>.+)$");
+
+    private static final double WATCH_PUBLISHING_INTERVAL = 1000.0;
+
+    private final OpcUaClient client;
+    private final AtomicLong clientHandles;
+    private final int maxNodesPerTranslate;
+    private final int maxConcurrentRequests;
+    private final Map<OpcuaField, NodeId> cache;
+    // Incremented on every invalidation, so translations started before it aren't cached.
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicBoolean watching = new AtomicBoolean(false);
+    private volatile String[] namespaceArray;
+
+    OpcuaNodeIdResolver(OpcUaClient client, AtomicLong clientHandles, int cacheSize, int maxNodesPerTranslate,
+                        int maxConcurrentRequests) {
+        this.client = client;
+        this.clientHandles = clientHandles;
+        this.maxNodesPerTranslate = maxNodesPerTranslate;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<OpcuaField, NodeId>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<OpcuaField, NodeId> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * @param fields fields to resolve
+     * @return future completed with one NodeId per field (in the same order). The NodeId is null for browse
+     * paths the server couldn't translate.
+     */
+    CompletableFuture<List<NodeId>> resolve(List<OpcuaField> fields) {
+        List<NodeId> nodeIds = new ArrayList<>(Collections.nCopies(fields.size(), null));
+        // Browse paths not in the cache together with the indexes of the fields using them
+        Map<OpcuaField, List<Integer>> untranslated = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            OpcuaField field = fields.get(i);
+            if (!field.isBrowsePath()) {
+                nodeIds.set(i, generateNodeId(field));
+                continue;
+            }
+            NodeId nodeId = cache.get(field);
+            if (nodeId != null) {
+                nodeIds.set(i, nodeId);
+            } else {
+                untranslated.computeIfAbsent(field, key -> new ArrayList<>()).add(i);
+            }
+        }
+        if (untranslated.isEmpty()) {
+            return CompletableFuture.completedFuture(nodeIds);
+        }
+
+        startWatching();
+        final long translationGeneration = generation.get();
+        List<OpcuaField> browsePathFields = new ArrayList<>(untranslated.keySet());
+        List<BrowsePath> browsePaths = new ArrayList<>(browsePathFields.size());
+        for (OpcuaField browsePathField : browsePathFields) {
+            browsePaths.add(toBrowsePath(browsePathField));
+        }
+        return OpcuaRequestChunker.execute(browsePaths.size(), maxNodesPerTranslate, maxConcurrentRequests,
+            (fromIndex, toIndex) -> client.translateBrowsePaths(browsePaths.subList(fromIndex, toIndex))
+                .thenApply(response -> Arrays.asList(response.getResults())))
+            .thenApply(results -> {
+                for (int i = 0; i < browsePathFields.size(); i++) {
+                    OpcuaField browsePathField = browsePathFields.get(i);
+                    NodeId nodeId = getTargetNodeId(results.get(i));
+                    if (nodeId == null) {
+                        logger.debug("Unable to translate browse path {}", browsePathField.getIdentifier());
+                        continue;
+                    }
+                    if (generation.get() == translationGeneration) {
+                        cache.put(browsePathField, nodeId);
+                    }
+                    for (Integer index : untranslated.get(browsePathField)) {
+                        nodeIds.set(index, nodeId);
+                    }
+                }
+                return nodeIds;
+            });
+    }
+
+    /**
+     * Forget all translated browse paths.
+     */
+    void invalidate() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    static NodeId generateNodeId(OpcuaField uaField) {
+        NodeId idNode = null;
+        switch (uaField.getIdentifierType()) {
+            case STRING_IDENTIFIER:
+                idNode = new NodeId(uaField.getNamespace(), uaField.getIdentifier());
+                break;
+            case NUMBER_IDENTIFIER:
+                idNode = new NodeId(uaField.getNamespace(), UInteger.valueOf(uaField.getIdentifier()));
+                break;
+            case GUID_IDENTIFIER:
+                idNode = new NodeId(uaField.getNamespace(), UUID.fromString(uaField.getIdentifier()));
+                break;
+            case BINARY_IDENTIFIER:
+                idNode = new NodeId(uaField.getNamespace(), new ByteString(uaField.getIdentifier().getBytes()));
+                break;
+
+            default:
+                idNode = new NodeId(uaField.getNamespace(), uaField.getIdentifier());
+        }
+
+        return idNode;
+    }
+
+    /**
+     * Build the browse path for a field. The path is relative to the "Objects" folder and its elements are
+     * separated by '/'. Elements without a namespace index use the namespace of the field.
+     */
+    static BrowsePath toBrowsePath(OpcuaField field) {
+        List<RelativePathElement> pathElements = new ArrayList<>();
+        for (String element : field.getIdentifier().split("/")) {
+            if (element.isEmpty()) {
+                continue;
+            }
+            Matcher matcher = PATH_ELEMENT_PATTERN.matcher(element);
+            QualifiedName targetName = matcher.matches() ?
+                new QualifiedName(Integer.parseInt(matcher.group("namespace")), matcher.group("name")) :
+                new QualifiedName(field.getNamespace(), element);
+            pathElements.add(new RelativePathElement(Identifiers.HierarchicalReferences, false, true, targetName));
+        }
+        return new BrowsePath(Identifiers.ObjectsFolder,
+            new RelativePath(pathElements.toArray(new RelativePathElement[0])));
+    }
+
+    private static NodeId getTargetNodeId(BrowsePathResult result) {
+        if ((result == null) || !result.getStatusCode().isGood()) {
+            return null;
+        }
+        BrowsePathTarget[] targets = result.getTargets();
+        if ((targets == null) || (targets.length == 0)) {
+            return null;
+        }
+        return targets[0].getTargetId().local().orElse(null);
+    }
+
+    /**
+     * Monitor the namespace array and the model change events of the server, in order to invalidate the
+     * cache as soon as the address space changes.
+     */
+    private void startWatching() {
+        if (!watching.compareAndSet(false, true)) {
+            return;
+        }
+        List<MonitoredItemCreateRequest> requests;
+        try {
+            ReadValueId namespaceArrayId = new ReadValueId(
+                Identifiers.Server_NamespaceArray, AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE);
+            ReadValueId serverEventsId = new ReadValueId(
+                Identifiers.Server, AttributeId.EventNotifier.uid(), null, QualifiedName.NULL_VALUE);
+            EventFilter modelChangeFilter = new EventFilter(
+                new SimpleAttributeOperand[]{new SimpleAttributeOperand(Identifiers.BaseEventType,
+                    new QualifiedName[]{new QualifiedName(0, "EventType")}, AttributeId.Value.uid(), null)},
+                new ContentFilter(new ContentFilterElement[]{new ContentFilterElement(FilterOperator.OfType,
+                    new ExtensionObject[]{ExtensionObject.encode(
+                        new LiteralOperand(new Variant(Identifiers.BaseModelChangeEventType)))})}));
+            requests = Arrays.asList(
+                new MonitoredItemCreateRequest(namespaceArrayId, MonitoringMode.Reporting, new MonitoringParameters(
+                    uint(clientHandles.getAndIncrement()), WATCH_PUBLISHING_INTERVAL, null, uint(1), true)),
+                new MonitoredItemCreateRequest(serverEventsId, MonitoringMode.Reporting, new MonitoringParameters(
+                    uint(clientHandles.getAndIncrement()), 0.0, ExtensionObject.encode(modelChangeFilter), uint(10), true)));
+        } catch (RuntimeException e) {
+            logger.warn("Unable to monitor the address space of the server. Translated browse paths will not be invalidated.", e);
+            return;
+        }
+
+        client.getSubscriptionManager().createSubscription(WATCH_PUBLISHING_INTERVAL)
+            .thenCompose(subscription -> subscription.createMonitoredItems(TimestampsToReturn.Neither, requests,
+                (item, index) -> {
+                    if (index == 0) {
+                        item.setValueConsumer(this::onNamespaceArray);
+                    } else {
+                        item.setEventConsumer((eventItem, eventValues) -> onModelChange());
+                    }
+                }))
+            .whenComplete((items, e) -> {
+                if (e != null) {
+                    logger.warn("Unable to monitor the address space of the server. Translated browse paths will not be invalidated: {}",
+                        e.getMessage());
+                    return;
+                }
+                for (UaMonitoredItem item : items) {
+                    if (!item.getStatusCode().isGood()) {
+                        logger.debug("Unable to monitor {}: {}", item.getReadValueId().getNodeId(), item.getStatusCode());
+                    }
+                }
+            });
+    }
+
+    private void onNamespaceArray(UaMonitoredItem item, DataValue value) {
+        Object namespaces = value.getValue().getValue();
+        if (!(namespaces instanceof String[])) {
+            return;
+        }
+        String[] previousNamespaces = namespaceArray;
+        namespaceArray = (String[]) namespaces;
+        // The first notification only reports the current state.
+        if ((previousNamespaces != null) && !Arrays.equals(previousNamespaces, (String[]) namespaces)) {
+            logger.debug("Namespace array of the server changed, invalidating translated browse paths");
+            invalidate();
+        }
+    }
+
+    private void onModelChange() {
+        logger.debug("Address space of the server changed, invalidating translated browse paths");
+        invalidate();
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+
+ */
+package org.apache.plc4x.java.opcua.connection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits a bulk operation into chunks no bigger than the limit of the server (for example "MaxNodesPerRead")
+ * and executes them with at most a given number of chunks being processed at the same time.
+ * <p>
+ * The results of all chunks are merged in the order of the original items. If a chunk fails (or returns
+ * fewer results than expected), the corresponding results are left {@code null}.
+ *
+ * @param <R> type of the result of a single item
+ */
+final class OpcuaRequestChunker<R> {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpcuaRequestChunker.class);
+
+    /**
+     * Operation processing the items from (inclusive) to (exclusive) a given index.
+     */
+    @FunctionalInterface
+    interface ChunkOperation<R> {
+        CompletableFuture<List<R>> execute(int fromIndex, int toIndex);
+    }
+
+    private final int numItems;
+    private final int chunkSize;
+    private final int numChunks;
+    private final ChunkOperation<R> operation;
+    private final List<R> results;
+    private final AtomicInteger nextChunk = new AtomicInteger();
+    private final AtomicInteger remainingChunks;
+    private final CompletableFuture<List<R>> future = new CompletableFuture<>();
+
+    private OpcuaRequestChunker(int numItems, int chunkSize, ChunkOperation<R> operation) {
+        this.numItems = numItems;
+        this.chunkSize = chunkSize;
+        this.numChunks = (numItems + chunkSize - 1) / chunkSize;
+        this.operation = operation;
+        this.results = new ArrayList<>(Collections.nCopies(numItems, null));
+        this.remainingChunks = new AtomicInteger(numChunks);
+    }
+
+    /**
+     * @param numItems       total number of items
+     * @param chunkSize      maximum number of items per chunk (values smaller than 1 disable chunking)
+     * @param maxConcurrency maximum number of chunks processed at the same time
+     * @param operation      operation processing one chunk
+     * @return future completed with one result per item as soon as all chunks are processed
+     */
+    static <R> CompletableFuture<List<R>> execute(int numItems, int chunkSize, int maxConcurrency,
+                                                  ChunkOperation<R> operation) {
+        if (numItems == 0) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        OpcuaRequestChunker<R> chunker = new OpcuaRequestChunker<>(
+            numItems, (chunkSize > 0) ? Math.min(chunkSize, numItems) : numItems, operation);
+        int numWorkers = Math.min(Math.max(maxConcurrency, 1), chunker.numChunks);
+        for (int i = 0; i < numWorkers; i++) {
+            chunker.startNextChunk();
+        }
+        return chunker.future;
+    }
+
+    private void startNextChunk() {
+        int chunk = nextChunk.getAndIncrement();
+        if (chunk >= numChunks) {
+            return;
+        }
+        final int fromIndex = chunk * chunkSize;
+        final int toIndex = Math.min(fromIndex + chunkSize, numItems);
+        CompletableFuture<List<R>> chunkFuture;
+        try {
+            chunkFuture = operation.execute(fromIndex, toIndex);
+        } catch (RuntimeException e) {
+            chunkFuture = new CompletableFuture<>();
+            chunkFuture.completeExceptionally(e);
+        }
+        chunkFuture.whenComplete((chunkResults, e) -> {
+            if (e != null) {
+                logger.warn("Unable to process items {} to {} because of: {}", fromIndex, toIndex - 1, e.getMessage());
+            } else if (chunkResults != null) {
+                int count = Math.min(chunkResults.size(), toIndex - fromIndex);
+                for (int i = 0; i < count; i++) {
+                    results.set(fromIndex + i, chunkResults.get(i));
+                }
+            }
+            if (remainingChunks.decrementAndGet() == 0) {
+                future.complete(results);
+            } else {
+                startNextChunk();
+            }
+        });
+    }
+
+}
@@ -0,0 +1,399 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+
+ */
+package org.apache.plc4x.java.opcua.connection;
+
+import org.apache.plc4x.java.api.model.PlcSubscriptionHandle;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.api.types.PlcSubscriptionType;
+import org.apache.plc4x.java.opcua.protocol.OpcuaField;
+import org.apache.plc4x.java.opcua.protocol.OpcuaSubsriptionHandle;
+import org.apache.plc4x.java.spi.messages.utils.ResponseItem;
+import org.apache.plc4x.java.spi.model.SubscriptionPlcField;
+import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaMonitoredItem;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaSubscription;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MonitoringMode;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoredItemCreateRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoringParameters;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+
+/**
+ * Manages the server-side subscriptions of an OPC UA connection.
+ * <p>
+ * Instead of creating one subscription per field, all fields sharing the same publishing interval and
+ * queue size are monitored by one shared {@link UaSubscription}. The monitored items are created in
+ * batches of at most "MaxMonitoredItemsPerCall" items (as reported by the server) and all server
+ * round trips are chained asynchronously, so no thread is blocked while subscribing.
+ * <p>
+ * Incoming values are dispatched to the {@link OpcuaSubsriptionHandle}s via one map from client handle
+ * to subscription handle. A subscription is deleted as soon as its last monitored item is removed.
+ */
+class OpcuaSubscriptionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpcuaSubscriptionManager.class);
+
+    private final OpcUaClient client;
+    private final AtomicLong clientHandles;
+    private final OpcuaNodeIdResolver nodeIdResolver;
+    private final int maxMonitoredItemsPerCall;
+
+    // Guarded by "this"
+    private final Map<GroupKey, Group> groups = new HashMap<>();
+
+    // Dispatch map: client handle to the handle of the field
+    private final Map<UInteger, OpcuaSubsriptionHandle> handles = new ConcurrentHashMap<>();
+    private final Map<UInteger, MonitoredItem> monitoredItems = new ConcurrentHashMap<>();
+
+    OpcuaSubscriptionManager(OpcUaClient client, AtomicLong clientHandles, OpcuaNodeIdResolver nodeIdResolver,
+                             int maxMonitoredItemsPerCall) {
+        this.client = client;
+        this.clientHandles = clientHandles;
+        this.nodeIdResolver = nodeIdResolver;
+        this.maxMonitoredItemsPerCall = maxMonitoredItemsPerCall;
+    }
+
+    /**
+     * Create monitored items for all given fields.
+     *
+     * @param fields    fields to subscribe to, by name
+     * @param queueSize queue size to be used for the monitored items
+     * @return future completed with one response item per field as soon as all monitored items are created
+     */
+    CompletableFuture<Map<String, ResponseItem<PlcSubscriptionHandle>>> subscribe(
+        Map<String, SubscriptionPlcField> fields, int queueSize) {
+        List<String> fieldNames = new ArrayList<>(fields.keySet());
+        List<OpcuaField> opcuaFields = new ArrayList<>(fieldNames.size());
+        for (String fieldName : fieldNames) {
+            opcuaFields.add((OpcuaField) Objects.requireNonNull(fields.get(fieldName).getPlcField()));
+        }
+        return nodeIdResolver.resolve(opcuaFields).thenCompose(nodeIds -> {
+            Map<String, ResponseItem<PlcSubscriptionHandle>> responseItems = new ConcurrentHashMap<>();
+            Map<GroupKey, List<PendingItem>> itemsByGroup = new LinkedHashMap<>();
+            for (int i = 0; i < fieldNames.size(); i++) {
+                final String fieldName = fieldNames.get(i);
+                final SubscriptionPlcField subscriptionPlcField = fields.get(fieldName);
+                if (nodeIds.get(i) == null) {
+                    responseItems.put(fieldName, new ResponseItem<>(PlcResponseCode.NOT_FOUND, null));
+                    continue;
+                }
+                long cycleTime = subscriptionPlcField.getDuration().orElse(Duration.ofSeconds(1)).toMillis();
+                UInteger clientHandle = uint(clientHandles.getAndIncrement());
+
+                ReadValueId readValueId = new ReadValueId(
+                    nodeIds.get(i), AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE);
+                MonitoringParameters parameters = new MonitoringParameters(
+                    clientHandle,
+                    (double) cycleTime,     // sampling interval
+                    null,                   // filter, null means use default
+                    uint(queueSize),        // queue size
+                    true                    // discard oldest
+                );
+                MonitoredItemCreateRequest request = new MonitoredItemCreateRequest(
+                    readValueId, getMonitoringMode(subscriptionPlcField.getPlcSubscriptionType()), parameters);
+
+                itemsByGroup.computeIfAbsent(new GroupKey(cycleTime, queueSize), key -> new ArrayList<>())
+                    .add(new PendingItem(new OpcuaSubsriptionHandle(fieldName, clientHandle), request));
+            }
+
+            List<CompletableFuture<Void>> futures = new ArrayList<>(itemsByGroup.size());
+            itemsByGroup.forEach((key, items) -> futures.add(subscribeGroup(key, items, responseItems)));
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(done -> responseItems);
+        });
+    }
+
+    /**
+     * Delete the monitored items of the given handles. Subscriptions left without monitored items are
+     * deleted instead of only deleting their items.
+     *
+     * @param subscriptionHandles handles returned by {@link #subscribe(Map, int)}
+     * @return future completed as soon as the server processed all deletions
+     */
+    CompletableFuture<Void> unsubscribe(Collection<?> subscriptionHandles) {
+        Map<Group, List<UaMonitoredItem>> itemsByGroup = new HashMap<>();
+        for (Object subscriptionHandle : subscriptionHandles) {
+            if (!(subscriptionHandle instanceof OpcuaSubsriptionHandle)) {
+                continue;
+            }
+            UInteger clientHandle = ((OpcuaSubsriptionHandle) subscriptionHandle).getClientHandle();
+            handles.remove(clientHandle);
+            MonitoredItem monitoredItem = monitoredItems.remove(clientHandle);
+            if (monitoredItem != null) {
+                itemsByGroup.computeIfAbsent(monitoredItem.group, group -> new ArrayList<>()).add(monitoredItem.item);
+            }
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(itemsByGroup.size());
+        itemsByGroup.forEach((group, items) -> {
+            if (release(group, items.size())) {
+                futures.add(deleteSubscription(group));
+            } else {
+                futures.add(group.subscription
+                    .thenCompose(subscription -> subscription.deleteMonitoredItems(items))
+                    .handle((statusCodes, e) -> {
+                        if (e != null) {
+                            logger.warn("Unable to delete monitored items because of: {}", e.getMessage());
+                        }
+                        return null;
+                    }));
+            }
+        });
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Forget about all subscriptions (The server removes them together with the session).
+     */
+    synchronized void clear() {
+        groups.clear();
+        handles.clear();
+        monitoredItems.clear();
+    }
+
+    private CompletableFuture<Void> subscribeGroup(GroupKey key, List<PendingItem> items,
+                                                   Map<String, ResponseItem<PlcSubscriptionHandle>> responseItems) {
+        final Group group = acquire(key, items.size());
+        // Register the handles before creating the items, so the first notifications are not lost.
+        items.forEach(item -> handles.put(item.handle.getClientHandle(), item.handle));
+        return group.subscription
+            .thenCompose(subscription -> {
+                List<CompletableFuture<Void>> batches = new ArrayList<>();
+                for (int i = 0; i < items.size(); i += maxMonitoredItemsPerCall) {
+                    List<PendingItem> batch = items.subList(i, Math.min(i + maxMonitoredItemsPerCall, items.size()));
+                    batches.add(createMonitoredItems(group, subscription, batch, responseItems));
+                }
+                return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]));
+            })
+            .exceptionally(e -> {
+                // Only happens if the subscription itself couldn't be created.
+                logger.warn("Unable to create subscription with publishing interval {}ms because of: {}",
+                    key.publishingInterval, e.getMessage());
+                failItems(group, items, PlcResponseCode.ACCESS_DENIED, responseItems);
+                return null;
+            });
+    }
+
+    private CompletableFuture<Void> createMonitoredItems(Group group, UaSubscription subscription, List<PendingItem> batch,
+                                                         Map<String, ResponseItem<PlcSubscriptionHandle>> responseItems) {
+        List<MonitoredItemCreateRequest> requests = new ArrayList<>(batch.size());
+        batch.forEach(item -> requests.add(item.request));
+        return subscription.createMonitoredItems(TimestampsToReturn.Both, requests,
+            (item, index) -> item.setValueConsumer(this::onSubscriptionValue))
+            .handle((createdItems, e) -> {
+                if (e != null) {
+                    logger.warn("Unable to create monitored items because of: {}", e.getMessage());
+                    failItems(group, batch, PlcResponseCode.ACCESS_DENIED, responseItems);
+                    return null;
+                }
+                List<PendingItem> failedItems = new ArrayList<>();
+                // The created items are returned in the same order as the requests.
+                for (int i = 0; i < batch.size(); i++) {
+                    PendingItem pendingItem = batch.get(i);
+                    UaMonitoredItem createdItem = (i < createdItems.size()) ? createdItems.get(i) : null;
+                    if ((createdItem != null) && createdItem.getStatusCode().isGood()) {
+                        monitoredItems.put(pendingItem.handle.getClientHandle(), new MonitoredItem(group, createdItem));
+                        responseItems.put(pendingItem.handle.getFieldName(),
+                            new ResponseItem<>(PlcResponseCode.OK, pendingItem.handle));
+                    } else {
+                        if (createdItem != null) {
+                            logger.debug("Unable to create monitored item for {}: {}",
+                                pendingItem.handle.getFieldName(), createdItem.getStatusCode());
+                        }
+                        failedItems.add(pendingItem);
+                        handles.remove(pendingItem.handle.getClientHandle());
+                        responseItems.put(pendingItem.handle.getFieldName(),
+                            new ResponseItem<>(getResponseCode(createdItem), null));
+                    }
+                }
+                if (!failedItems.isEmpty() && release(group, failedItems.size())) {
+                    deleteSubscription(group);
+                }
+                return null;
+            });
+    }
+
+    private void failItems(Group group, List<PendingItem> items, PlcResponseCode responseCode,
+                           Map<String, ResponseItem<PlcSubscriptionHandle>> responseItems) {
+        for (PendingItem item : items) {
+            handles.remove(item.handle.getClientHandle());
+            responseItems.put(item.handle.getFieldName(), new ResponseItem<>(responseCode, null));
+        }
+        if (release(group, items.size())) {
+            deleteSubscription(group);
+        }
+    }
+
+    private void onSubscriptionValue(UaMonitoredItem item, DataValue value) {
+        OpcuaSubsriptionHandle handle = handles.get(item.getClientHandle());
+        if (handle != null) {
+            handle.onSubscriptionValue(item, value);
+        }
+    }
+
+    /**
+     * Get the group for the given settings (creating it and its subscription if needed) and reserve
+     * room for the given number of items, so it isn't deleted while items are still being created.
+     */
+    private synchronized Group acquire(GroupKey key, int numItems) {
+        Group group = groups.get(key);
+        if (group == null) {
+            group = new Group(key, client.getSubscriptionManager().createSubscription((double) key.publishingInterval));
+            groups.put(key, group);
+            final Group newGroup = group;
+            group.subscription.whenComplete((subscription, e) -> {
+                if (e != null) {
+                    forget(newGroup);
+                }
+            });
+        }
+        group.numItems += numItems;
+        return group;
+    }
+
+    /**
+     * @return true if the group doesn't contain any more items and has been removed.
+     */
+    private synchronized boolean release(Group group, int numItems) {
+        group.numItems -= numItems;
+        return (group.numItems <= 0) && groups.remove(group.key, group);
+    }
+
+    private synchronized void forget(Group group) {
+        groups.remove(group.key, group);
+    }
+
+    private CompletableFuture<Void> deleteSubscription(Group group) {
+        return group.subscription
+            .thenCompose(subscription -> client.getSubscriptionManager().deleteSubscription(subscription.getSubscriptionId()))
+            .handle((subscription, e) -> {
+                if (e != null) {
+                    logger.warn("Unable to delete subscription because of: {}", e.getMessage());
+                }
+                return null;
+            });
+    }
+
+    private static MonitoringMode getMonitoringMode(PlcSubscriptionType subscriptionType) {
+        switch (subscriptionType) {
+            case CYCLIC:
+                return MonitoringMode.Sampling;
+            case CHANGE_OF_STATE:
+            case EVENT:
+            default:
+                return MonitoringMode.Reporting;
+        }
+    }
+
+    private static PlcResponseCode getResponseCode(UaMonitoredItem createdItem) {
+        if (createdItem == null) {
+            return PlcResponseCode.ACCESS_DENIED;
+        }
+        StatusCode statusCode = createdItem.getStatusCode();
+        if ((statusCode.getValue() == StatusCodes.Bad_NodeIdUnknown)
+            || (statusCode.getValue() == StatusCodes.Bad_NodeIdInvalid)) {
+            return PlcResponseCode.NOT_FOUND;
+        }
+        return PlcResponseCode.ACCESS_DENIED;
+    }
+
+    private static final class GroupKey {
+        private final long publishingInterval;
+        private final int queueSize;
+
+        private GroupKey(long publishingInterval, int queueSize) {
+            this.publishingInterval = publishingInterval;
+            this.queueSize = queueSize;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof GroupKey)) {
+                return false;
+            }
+            GroupKey that = (GroupKey) o;
+            return publishingInterval == that.publishingInterval && queueSize == that.queueSize;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(publishingInterval, queueSize);
+        }
+    }
+
+    private static final class Group {
+        private final GroupKey key;
+        private final CompletableFuture<UaSubscription> subscription;
+        // Guarded by the OpcuaSubscriptionManager
+        private int numItems;
+
+        private Group(GroupKey key, CompletableFuture<UaSubscription> subscription) {
+            this.key = key;
+            this.subscription = subscription;
+        }
+    }
+
+    private static final class PendingItem {
+        private final OpcuaSubsriptionHandle handle;
+        private final MonitoredItemCreateRequest request;
+
+        private PendingItem(OpcuaSubsriptionHandle handle, MonitoredItemCreateRequest request) {
+            this.handle = handle;
+            this.request = request;
+        }
+    }
+
+    private static final class MonitoredItem {
+        private final Group group;
+        private final UaMonitoredItem item;
+
+        private MonitoredItem(Group group, UaMonitoredItem item) {
+            this.group = group;
+            this.item = item;
+        }
+    }
+
+}
@@ -19,11 +19,9 @@
  */
 package org.apache.plc4x.java.opcua.connection;
 
-import org.apache.commons.lang3.tuple.Pair;
 import org.apache.plc4x.java.api.exceptions.PlcConnectionException;
 import org.apache.plc4x.java.api.messages.*;
 import org.apache.plc4x.java.api.model.PlcConsumerRegistration;
-import org.apache.plc4x.java.api.model.PlcField;
 import org.apache.plc4x.java.api.model.PlcSubscriptionHandle;
 import org.apache.plc4x.java.api.types.PlcResponseCode;
 import org.apache.plc4x.java.api.value.*;
@@ -31,22 +29,17 @@ import org.apache.plc4x.java.opcua.protocol.OpcuaField;
 import org.apache.plc4x.java.opcua.protocol.OpcuaSubsriptionHandle;
 import org.apache.plc4x.java.spi.messages.*;
 import org.apache.plc4x.java.spi.messages.utils.ResponseItem;
-import org.apache.plc4x.java.spi.model.SubscriptionPlcField;
 import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
 import org.eclipse.milo.opcua.sdk.client.api.config.OpcUaClientConfig;
 import org.eclipse.milo.opcua.sdk.client.api.identity.AnonymousProvider;
 import org.eclipse.milo.opcua.sdk.client.api.identity.IdentityProvider;
-import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaMonitoredItem;
-import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaSubscription;
 import org.eclipse.milo.opcua.stack.client.DiscoveryClient;
-import org.eclipse.milo.opcua.stack.core.AttributeId;
 import org.eclipse.milo.opcua.stack.core.Identifiers;
 import org.eclipse.milo.opcua.stack.core.UaException;
 import org.eclipse.milo.opcua.stack.core.security.SecurityPolicy;
 import org.eclipse.milo.opcua.stack.core.types.builtin.*;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
-import org.eclipse.milo.opcua.stack.core.types.enumerated.MonitoringMode;
 import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
 import org.eclipse.milo.opcua.stack.core.types.structured.*;
 import org.slf4j.Logger;
@@ -54,17 +47,13 @@ import org.slf4j.LoggerFactory;
 
 import java.math.BigInteger;
 import java.net.InetAddress;
-import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
-import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
 import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ulong;
 
 /**
@@ -75,6 +64,8 @@ import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.
 public class OpcuaTcpPlcConnection extends BaseOpcuaPlcConnection {
 
     private static final int OPCUA_DEFAULT_TCP_PORT = 4840;
+    // Used if the server doesn't report one of the "OperationLimits"
+    private static final int DEFAULT_OPERATION_LIMIT = 1000;
 
     private static final Logger logger = LoggerFactory.getLogger(OpcuaTcpPlcConnection.class);
     private final AtomicLong clientHandles = new AtomicLong(1L);
@@ -83,6 +74,10 @@ public class OpcuaTcpPlcConnection extends BaseOpcuaPlcConnection {
     private int port;
     private String params;
     private OpcUaClient client;
+    private OpcuaNodeIdResolver nodeIdResolver;
+    private OpcuaSubscriptionManager subscriptionManager;
+    private int maxNodesPerRead = DEFAULT_OPERATION_LIMIT;
+    private int maxNodesPerWrite = DEFAULT_OPERATION_LIMIT;
     private boolean isConnected = false;
 
     private OpcuaTcpPlcConnection(InetAddress address, String params, int requestTimeout) {
@@ -253,6 +248,17 @@ public class OpcuaTcpPlcConnection extends BaseOpcuaPlcConnection {
         try {
             this.client = OpcUaClient.create(config);
             this.client.connect().get();
+            List<Integer> operationLimits = readOperationLimits(Arrays.asList(
+                Identifiers.Server_ServerCapabilities_OperationLimits_MaxNodesPerRead,
+                Identifiers.Server_ServerCapabilities_OperationLimits_MaxNodesPerWrite,
+                Identifiers.Server_ServerCapabilities_OperationLimits_MaxMonitoredItemsPerCall,
+                Identifiers.Server_ServerCapabilities_OperationLimits_MaxNodesPerTranslateBrowsePathsToNodeIds));
+            this.maxNodesPerRead = operationLimits.get(0);
+            this.maxNodesPerWrite = operationLimits.get(1);
+            this.nodeIdResolver = new OpcuaNodeIdResolver(
+                client, clientHandles, nodeIdCacheSize, operationLimits.get(3), maxConcurrentRequests);
+            this.subscriptionManager = new OpcuaSubscriptionManager(
+                client, clientHandles, nodeIdResolver, operationLimits.get(2));
             isConnected = true;
         } catch (UaException e) {
             isConnected = false;
@@ -276,6 +282,9 @@ public class OpcuaTcpPlcConnection extends BaseOpcuaPlcConnection {
     @Override
     public void close() throws Exception {
         if (client != null) {
+            if (subscriptionManager != null) {
+                subscriptionManager.clear();
+            }
             client.disconnect().get();
             isConnected = false;
         }
@@ -284,95 +293,15 @@ public class OpcuaTcpPlcConnection extends BaseOpcuaPlcConnection {
     @Override
     public CompletableFuture<PlcSubscriptionResponse> subscribe(PlcSubscriptionRequest subscriptionRequest) {
         InternalPlcSubscriptionRequest internalPlcSubscriptionRequest = checkInternal(subscriptionRequest, InternalPlcSubscriptionRequest.class);
-        CompletableFuture<PlcSubscriptionResponse> future = CompletableFuture.supplyAsync(() -> {
-            Map<String, ResponseItem<PlcSubscriptionHandle>> responseItems = internalPlcSubscriptionRequest.getSubscriptionPlcFieldMap().entrySet().stream()
-                .map(subscriptionPlcFieldEntry -> {
-                    final String plcFieldName = subscriptionPlcFieldEntry.getKey();
-                    final SubscriptionPlcField subscriptionPlcField = subscriptionPlcFieldEntry.getValue();
-                    final OpcuaField field = (OpcuaField) Objects.requireNonNull(subscriptionPlcField.getPlcField());
-                    long cycleTime = subscriptionPlcField.getDuration().orElse(Duration.ofSeconds(1)).toMillis();
-                    NodeId idNode = generateNodeId(field);
-                    ReadValueId readValueId = new ReadValueId(
-                        idNode,
-                        AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE);
-                    UInteger clientHandle = uint(clientHandles.getAndIncrement());
-
-                    MonitoringParameters parameters = new MonitoringParameters(
-                        clientHandle,
-                        (double) cycleTime,     // sampling interval
-                        null,       // filter, null means use default
-                        uint(1),   // queue size
-                        true        // discard oldest
-                    );
-                    MonitoringMode monitoringMode;
-                    switch (subscriptionPlcField.getPlcSubscriptionType()) {
-                        case CYCLIC:
-                            monitoringMode = MonitoringMode.Sampling;
-                            break;
-                        case CHANGE_OF_STATE:
-                            monitoringMode = MonitoringMode.Reporting;
-                            break;
-                        case EVENT:
-                            monitoringMode = MonitoringMode.Reporting;
-                            break;
-                        default:
-                            monitoringMode = MonitoringMode.Reporting;
-                    }
-
-                    PlcSubscriptionHandle subHandle = null;
-                    PlcResponseCode responseCode = PlcResponseCode.ACCESS_DENIED;
-                    try {
-                        UaSubscription subscription = client.getSubscriptionManager().createSubscription(cycleTime).get();
-
-                        MonitoredItemCreateRequest request = new MonitoredItemCreateRequest(
-                            readValueId, monitoringMode, parameters);
-                        List<MonitoredItemCreateRequest> requestList = new LinkedList<>();
-                        requestList.add(request);
-                        OpcuaSubsriptionHandle subsriptionHandle = new OpcuaSubsriptionHandle(plcFieldName, clientHandle);
-                        BiConsumer<UaMonitoredItem, Integer> onItemCreated =
-                            (item, id) -> item.setValueConsumer(subsriptionHandle::onSubscriptionValue);
-
-                        List<UaMonitoredItem> items = subscription.createMonitoredItems(
-                            TimestampsToReturn.Both,
-                            requestList,
-                            onItemCreated
-                        ).get();
-
-                        subHandle = subsriptionHandle;
-                        responseCode = PlcResponseCode.OK;
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        logger.warn("Unable to subscribe Elements because of: {}", e.getMessage());
-                    } catch (ExecutionException e) {
-                        logger.warn("Unable to subscribe Elements because of: {}", e.getMessage());
-                    }
-
-
-                    return Pair.of(plcFieldName, new ResponseItem(responseCode, subHandle));
-                })
-                .collect(Collectors.toMap(Pair::getKey, Pair::getValue));
-            return new DefaultPlcSubscriptionResponse(internalPlcSubscriptionRequest, responseItems);
-        });
-
-        return future;
+        return subscriptionManager.subscribe(internalPlcSubscriptionRequest.getSubscriptionPlcFieldMap(), queueSize)
+            .thenApply(responseItems -> new DefaultPlcSubscriptionResponse(internalPlcSubscriptionRequest, responseItems));
     }
 
     @Override
     public CompletableFuture<PlcUnsubscriptionResponse> unsubscribe(PlcUnsubscriptionRequest unsubscriptionRequest) {
         InternalPlcUnsubscriptionRequest internalPlcUnsubscriptionRequest = checkInternal(unsubscriptionRequest, InternalPlcUnsubscriptionRequest.class);
-        internalPlcUnsubscriptionRequest.getInternalPlcSubscriptionHandles().forEach(o -> {
-            OpcuaSubsriptionHandle opcSubHandle = (OpcuaSubsriptionHandle) o;
-            try {
-                client.getSubscriptionManager().deleteSubscription(opcSubHandle.getClientHandle()).get();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.warn("Unable to unsubscribe Elements because of: {}", e.getMessage());
-            } catch (ExecutionException e) {
-                logger.warn("Unable to unsubscribe Elements because of: {}", e.getMessage());
-            }
-        });
-
-        return null;
+        return subscriptionManager.unsubscribe(internalPlcUnsubscriptionRequest.getInternalPlcSubscriptionHandles())
+            .thenApply(done -> new DefaultPlcUnsubscriptionResponse(internalPlcUnsubscriptionRequest));
     }
 
     @Override
@@ -390,139 +319,129 @@ public class OpcuaTcpPlcConnection extends BaseOpcuaPlcConnection {
 
     @Override
     public CompletableFuture<PlcReadResponse> read(PlcReadRequest readRequest) {
-        CompletableFuture<PlcReadResponse> future = CompletableFuture.supplyAsync(() -> {
-            readRequest.getFields();
-            Map<String, ResponseItem<PlcValue>> fields = new HashMap<>();
-            List<NodeId> readValueIds = new LinkedList<>();
-            List<PlcField> readPLCValues = readRequest.getFields();
-            for (PlcField field : readPLCValues) {
-                NodeId idNode = generateNodeId((OpcuaField) field);
-                readValueIds.add(idNode);
-            }
-
-            CompletableFuture<List<DataValue>> dataValueCompletableFuture = client.readValues(0.0, TimestampsToReturn.Both, readValueIds);
-            List<DataValue> readValues = null;
-            try {
-                readValues = dataValueCompletableFuture.get();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.warn("Unable to read Elements because of: {}", e.getMessage());
-            } catch (ExecutionException e) {
-                logger.warn("Unable to read Elements because of: {}", e.getMessage());
-            }
-            for (int counter = 0; counter < readValueIds.size(); counter++) {
-                PlcResponseCode resultCode = PlcResponseCode.OK;
-                PlcValue stringItem = null;
-                if (readValues == null || readValues.size() <= counter ||
-                    !readValues.get(counter).getStatusCode().equals(StatusCode.GOOD)) {
-                    resultCode = PlcResponseCode.NOT_FOUND;
-                } else {
-                    stringItem = encodePlcValue(readValues.get(counter));
+        InternalPlcReadRequest internalPlcReadRequest = checkInternal(readRequest, InternalPlcReadRequest.class);
+        List<String> fieldNames = new ArrayList<>(readRequest.getFieldNames());
+        List<OpcuaField> uaFields = new ArrayList<>(fieldNames.size());
+        for (String fieldName : fieldNames) {
+            uaFields.add((OpcuaField) readRequest.getField(fieldName));
+        }
 
+        return nodeIdResolver.resolve(uaFields).thenCompose(nodeIds -> {
+            // Only the fields with a known NodeId are sent to the server.
+            List<Integer> indexes = new ArrayList<>(nodeIds.size());
+            List<NodeId> readValueIds = new ArrayList<>(nodeIds.size());
+            for (int counter = 0; counter < nodeIds.size(); counter++) {
+                if (nodeIds.get(counter) != null) {
+                    indexes.add(counter);
+                    readValueIds.add(nodeIds.get(counter));
                 }
-                ResponseItem<PlcValue> newPair = new ResponseItem<>(resultCode, stringItem);
-                fields.put((String) readRequest.getFieldNames().toArray()[counter], newPair);
-
-
             }
-            InternalPlcReadRequest internalPlcReadRequest = checkInternal(readRequest, InternalPlcReadRequest.class);
-            return new DefaultPlcReadResponse(internalPlcReadRequest, fields);
-        });
 
-        return future;
+            // Split the request into chunks the server accepts and merge the results in order.
+            return OpcuaRequestChunker.execute(readValueIds.size(), maxNodesPerRead, maxConcurrentRequests,
+                (fromIndex, toIndex) -> client.readValues(0.0, TimestampsToReturn.Both, readValueIds.subList(fromIndex, toIndex)))
+                .thenApply(readValues -> {
+                    Map<String, ResponseItem<PlcValue>> fields = new HashMap<>();
+                    for (String fieldName : fieldNames) {
+                        fields.put(fieldName, new ResponseItem<>(PlcResponseCode.NOT_FOUND, null));
+                    }
+                    for (int counter = 0; counter < indexes.size(); counter++) {
+                        DataValue readValue = readValues.get(counter);
+                        if (readValue != null && readValue.getStatusCode().equals(StatusCode.GOOD)) {
+                            fields.put(fieldNames.get(indexes.get(counter)),
+                                new ResponseItem<>(PlcResponseCode.OK, encodePlcValue(readValue)));
+                        }
+                    }
+                    return new DefaultPlcReadResponse(internalPlcReadRequest, fields);
+                });
+        });
     }
 
 
     @Override
     public CompletableFuture<PlcWriteResponse> write(PlcWriteRequest writeRequest) {
-        CompletableFuture<PlcWriteResponse> future;
-        future = CompletableFuture.supplyAsync(() -> {
-
-            InternalPlcWriteRequest internalPlcWriteRequest = (InternalPlcWriteRequest) writeRequest;
-
-            List<PlcField> writePLCValues = writeRequest.getFields();
-            LinkedList<DataValue> values = new LinkedList<>();
-            LinkedList<NodeId> ids = new LinkedList<>();
-            LinkedList<String> names = new LinkedList<>();
-            Map<String, PlcResponseCode> fieldResponse = new HashMap<>();
-            for (String fieldName : writeRequest.getFieldNames()) {
-                OpcuaField uaField = (OpcuaField) writeRequest.getField(fieldName);
-                NodeId idNode = generateNodeId(uaField);
+        InternalPlcWriteRequest internalPlcWriteRequest = checkInternal(writeRequest, InternalPlcWriteRequest.class);
+        List<String> fieldNames = new ArrayList<>(writeRequest.getFieldNames());
+        List<OpcuaField> uaFields = new ArrayList<>(fieldNames.size());
+        for (String fieldName : fieldNames) {
+            uaFields.add((OpcuaField) writeRequest.getField(fieldName));
+        }
+
+        return nodeIdResolver.resolve(uaFields).thenCompose(nodeIds -> {
+            // Only the fields with a known NodeId are sent to the server.
+            List<String> names = new ArrayList<>(nodeIds.size());
+            List<NodeId> ids = new ArrayList<>(nodeIds.size());
+            List<DataValue> values = new ArrayList<>(nodeIds.size());
+            for (int counter = 0; counter < nodeIds.size(); counter++) {
+                if (nodeIds.get(counter) == null) {
+                    continue;
+                }
+                String fieldName = fieldNames.get(counter);
                 Object valueObject = internalPlcWriteRequest.getPlcValue(fieldName).getObject();
                 // Added small work around for handling BigIntegers as input type for UInt64
                 if (valueObject instanceof BigInteger) valueObject = ulong((BigInteger) valueObject);
                 Variant var = new Variant(valueObject);
                 DataValue value = new DataValue(var, null, null, null);
-                ids.add(idNode);
+                ids.add(nodeIds.get(counter));
                 names.add(fieldName);
                 values.add(value);
             }
-            CompletableFuture<List<StatusCode>> opcRequest =
-                client.writeValues(ids, values);
-            List<StatusCode> statusCodes = null;
-            try {
-                statusCodes = opcRequest.get();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                statusCodes = new LinkedList<>();
-                for (int counter = 0; counter < ids.size(); counter++) {
-                    ((LinkedList<StatusCode>) statusCodes).push(StatusCode.BAD);
-                }
-            } catch (ExecutionException e) {
-                statusCodes = new LinkedList<>();
-                for (int counter = 0; counter < ids.size(); counter++) {
-                    ((LinkedList<StatusCode>) statusCodes).push(StatusCode.BAD);
-                }
-            }
 
-            for (int counter = 0; counter < names.size(); counter++) {
-                PlcResponseCode resultCode;
-                if (statusCodes != null && statusCodes.size() > counter) {
-                    if (statusCodes.get(counter).isGood()) {
-                        resultCode = PlcResponseCode.OK;
-                    } else if (statusCodes.get(counter).isUncertain()) {
-                        resultCode = PlcResponseCode.NOT_FOUND;
-                    } else if (statusCodes.get(counter).isBad() && statusCodes.get(counter).getValue() == 2155085824L) {
-                        resultCode = PlcResponseCode.INVALID_DATATYPE;
-                    } else {
-                        resultCode = PlcResponseCode.ACCESS_DENIED;
+            // Split the request into chunks the server accepts and merge the results in order.
+            return OpcuaRequestChunker.execute(ids.size(), maxNodesPerWrite, maxConcurrentRequests,
+                (fromIndex, toIndex) -> client.writeValues(ids.subList(fromIndex, toIndex), values.subList(fromIndex, toIndex)))
+                .thenApply(statusCodes -> {
+                    Map<String, PlcResponseCode> fieldResponse = new HashMap<>();
+                    for (String fieldName : fieldNames) {
+                        fieldResponse.put(fieldName, PlcResponseCode.NOT_FOUND);
                     }
-                } else {
-                    resultCode = PlcResponseCode.ACCESS_DENIED;
-                }
-                fieldResponse.put(names.get(counter), resultCode);
-            }
-            InternalPlcWriteRequest internalPlcReadRequest = checkInternal(writeRequest, InternalPlcWriteRequest.class);
-            PlcWriteResponse response = new DefaultPlcWriteResponse(internalPlcReadRequest, fieldResponse);
-            return response;
+                    for (int counter = 0; counter < names.size(); counter++) {
+                        StatusCode statusCode = statusCodes.get(counter);
+                        PlcResponseCode resultCode;
+                        if (statusCode == null) {
+                            resultCode = PlcResponseCode.ACCESS_DENIED;
+                        } else if (statusCode.isGood()) {
+                            resultCode = PlcResponseCode.OK;
+                        } else if (statusCode.isUncertain()) {
+                            resultCode = PlcResponseCode.NOT_FOUND;
+                        } else if (statusCode.isBad() && statusCode.getValue() == 2155085824L) {
+                            resultCode = PlcResponseCode.INVALID_DATATYPE;
+                        } else {
+                            resultCode = PlcResponseCode.ACCESS_DENIED;
+                        }
+                        fieldResponse.put(names.get(counter), resultCode);
+                    }
+                    return new DefaultPlcWriteResponse(internalPlcWriteRequest, fieldResponse);
+                });
         });
-
-
-        return future;
     }
 
-
-    private NodeId generateNodeId(OpcuaField uaField) {
-        NodeId idNode = null;
-        switch (uaField.getIdentifierType()) {
-            case STRING_IDENTIFIER:
-                idNode = new NodeId(uaField.getNamespace(), uaField.getIdentifier());
-                break;
-            case NUMBER_IDENTIFIER:
-                idNode = new NodeId(uaField.getNamespace(), UInteger.valueOf(uaField.getIdentifier()));
-                break;
-            case GUID_IDENTIFIER:
-                idNode = new NodeId(uaField.getNamespace(), UUID.fromString(uaField.getIdentifier()));
-                break;
-            case BINARY_IDENTIFIER:
-                idNode = new NodeId(uaField.getNamespace(), new ByteString(uaField.getIdentifier().getBytes()));
-                break;
-
-            default:
-                idNode = new NodeId(uaField.getNamespace(), uaField.getIdentifier());
+    /**
+     * Read the given "OperationLimits" of the server in one request.
+     *
+     * @param limitNodes nodes of the limits in the "ServerCapabilities" of the server
+     * @return limits in the same order as the nodes. {@link #DEFAULT_OPERATION_LIMIT} is used for every limit
+     * the server doesn't provide or reports as 0 (no limit).
+     */
+    private List<Integer> readOperationLimits(List<NodeId> limitNodes) {
+        List<Integer> limits = new ArrayList<>(Collections.nCopies(limitNodes.size(), DEFAULT_OPERATION_LIMIT));
+        try {
+            List<DataValue> dataValues = client.readValues(0.0, TimestampsToReturn.Neither, limitNodes).get();
+            for (int i = 0; (i < dataValues.size()) && (i < limits.size()); i++) {
+                DataValue dataValue = dataValues.get(i);
+                Object limit = dataValue.getValue().getValue();
+                if (dataValue.getStatusCode().isGood() && (limit instanceof UInteger) && (((UInteger) limit).longValue() > 0)) {
+                    limits.set(i, (int) Math.min(((UInteger) limit).longValue(), Integer.MAX_VALUE));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.debug("Interrupted while reading the operation limits");
+        } catch (ExecutionException e) {
+            logger.debug("Unable to read the operation limits because of: {}", e.getMessage());
         }
-
-        return idNode;
+        logger.debug("Using operation limits {} for {}", limits, limitNodes);
+        return limits;
     }
 
     private String getEndpointUrl(InetAddress address, Integer port, String params) {
@@ -30,7 +30,7 @@ import java.util.regex.Pattern;
  */
 public class OpcuaField implements PlcField {
 
-    public static final Pattern ADDRESS_PATTERN = Pattern.compile("^ns=(?<namespace>\\d+);(?<identifierType>[isgb])=((?<identifier>.+))?");
+    public static final Pattern ADDRESS_PATTERN = Pattern.compile("^ns=(?<namespace>\\d+);(?<identifierType>[isgb]|path)=((?<identifier>.+))?");
 
     private final OpcuaIdentifierType identifierType;
 
@@ -89,6 +89,14 @@ public class OpcuaField implements PlcField {
         return identifierType;
     }
 
+    /**
+     * @return true if the identifier is a browse path (relative to the "Objects" folder) which has to be
+     * translated into a NodeId by the server.
+     */
+    public boolean isBrowsePath() {
+        return identifierType == OpcuaIdentifierType.BROWSE_PATH;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -103,7 +111,7 @@ public class OpcuaField implements PlcField {
 
     @Override
     public int hashCode() {
-        return Objects.hash(namespace);
+        return Objects.hash(namespace, identifierType, identifier);
     }
 
     @Override
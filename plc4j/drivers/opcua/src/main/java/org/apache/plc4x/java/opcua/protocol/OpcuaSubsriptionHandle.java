@@ -33,15 +33,15 @@ import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
 
 import java.time.Instant;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.function.Consumer;
 
 /**
  */
 public class OpcuaSubsriptionHandle implements PlcSubscriptionHandle {
-    private Set<Consumer<PlcSubscriptionEvent>> consumers = new HashSet<>();
+    private Set<Consumer<PlcSubscriptionEvent>> consumers = new CopyOnWriteArraySet<>();
     private String fieldName;
     private UInteger clientHandle;
 
@@ -54,6 +54,10 @@ public class OpcuaSubsriptionHandle implements PlcSubscriptionHandle {
         this.clientHandle = clientHandle;
     }
 
+    public String getFieldName() {
+        return fieldName;
+    }
+
     public UInteger getClientHandle() {
         return clientHandle;
     }
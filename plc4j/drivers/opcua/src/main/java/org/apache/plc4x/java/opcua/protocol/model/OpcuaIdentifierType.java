@@ -24,7 +24,8 @@ public enum OpcuaIdentifierType {
     STRING_IDENTIFIER("s"),
     NUMBER_IDENTIFIER("i"),
     GUID_IDENTIFIER("g"),
-    BINARY_IDENTIFIER("BINARY_IDENTIFIER");
+    BINARY_IDENTIFIER("BINARY_IDENTIFIER"),
+    BROWSE_PATH("path");
 
     private String text;
 
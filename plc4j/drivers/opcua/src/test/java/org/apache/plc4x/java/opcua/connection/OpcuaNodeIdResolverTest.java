@@ -0,0 +1,262 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+
+ */
+package org.apache.plc4x.java.opcua.connection;
+
+import org.apache.plc4x.java.api.exceptions.PlcInvalidFieldException;
+import org.apache.plc4x.java.opcua.protocol.OpcuaField;
+import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaMonitoredItem;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaSubscription;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaSubscriptionManager;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowsePath;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowsePathResult;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowsePathTarget;
+import org.eclipse.milo.opcua.stack.core.types.structured.RelativePathElement;
+import org.eclipse.milo.opcua.stack.core.types.structured.TranslateBrowsePathsToNodeIdsResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OpcuaNodeIdResolverTest {
+
+    private OpcUaClient client;
+    private UaSubscriptionManager subscriptionManager;
+
+    // Browse paths (as "a/b") of every TranslateBrowsePathsToNodeIds call
+    private List<List<String>> translations;
+    // If set, the translations aren't answered right away but have to be completed by the test.
+    private boolean deferTranslations;
+    private List<Runnable> deferredTranslations;
+
+    private BiConsumer<UaMonitoredItem, DataValue> namespaceArrayConsumer;
+    private BiConsumer<UaMonitoredItem, Variant[]> modelChangeConsumer;
+
+    @BeforeEach
+    public void setUp() {
+        translations = new ArrayList<>();
+        deferTranslations = false;
+        deferredTranslations = new ArrayList<>();
+
+        client = mock(OpcUaClient.class);
+        when(client.translateBrowsePaths(anyList())).thenAnswer(invocation -> {
+            List<BrowsePath> browsePaths = invocation.getArgument(0);
+            List<String> paths = browsePaths.stream().map(OpcuaNodeIdResolverTest::toPath).collect(Collectors.toList());
+            translations.add(paths);
+            CompletableFuture<TranslateBrowsePathsToNodeIdsResponse> future = new CompletableFuture<>();
+            Runnable answer = () -> future.complete(translate(paths));
+            if (deferTranslations) {
+                deferredTranslations.add(answer);
+            } else {
+                answer.run();
+            }
+            return future;
+        });
+
+        UaMonitoredItem namespaceArrayItem = mock(UaMonitoredItem.class);
+        when(namespaceArrayItem.getStatusCode()).thenReturn(StatusCode.GOOD);
+        doAnswer(invocation -> {
+            namespaceArrayConsumer = invocation.getArgument(0);
+            return null;
+        }).when(namespaceArrayItem).setValueConsumer(any());
+        UaMonitoredItem serverEventsItem = mock(UaMonitoredItem.class);
+        when(serverEventsItem.getStatusCode()).thenReturn(StatusCode.GOOD);
+        doAnswer(invocation -> {
+            modelChangeConsumer = invocation.getArgument(0);
+            return null;
+        }).when(serverEventsItem).setEventConsumer(any());
+
+        UaSubscription subscription = mock(UaSubscription.class);
+        when(subscription.createMonitoredItems(any(), anyList(), any())).thenAnswer(invocation -> {
+            List<UaMonitoredItem> items = Arrays.asList(namespaceArrayItem, serverEventsItem);
+            BiConsumer<UaMonitoredItem, Integer> onItemCreated = invocation.getArgument(2);
+            for (int i = 0; i < items.size(); i++) {
+                onItemCreated.accept(items.get(i), i);
+            }
+            return CompletableFuture.completedFuture(items);
+        });
+        subscriptionManager = mock(UaSubscriptionManager.class);
+        when(subscriptionManager.createSubscription(anyDouble()))
+            .thenReturn(CompletableFuture.completedFuture(subscription));
+        when(client.getSubscriptionManager()).thenReturn(subscriptionManager);
+    }
+
+    @Test
+    public void browsePathElementsMayHaveANamespaceIndex() {
+        BrowsePath browsePath = OpcuaNodeIdResolver.toBrowsePath(OpcuaField.of("ns=2;path=a/1:b"));
+        assertEquals(Identifiers.ObjectsFolder, browsePath.getStartingNode());
+        RelativePathElement[] elements = browsePath.getRelativePath().getElements();
+        assertEquals(2, elements.length);
+        assertEquals(Identifiers.HierarchicalReferences, elements[0].getReferenceTypeId());
+        assertEquals(new QualifiedName(2, "a"), elements[0].getTargetName());
+        assertEquals(new QualifiedName(1, "b"), elements[1].getTargetName());
+
+        // Empty elements are skipped, prefixes which aren't a namespace index are part of the name.
+        elements = OpcuaNodeIdResolver.toBrowsePath(OpcuaField.of("ns=3;path=/x:y//123456:z/"))
+            .getRelativePath().getElements();
+        assertEquals(2, elements.length);
+        assertEquals(new QualifiedName(3, "x:y"), elements[0].getTargetName());
+        assertEquals(new QualifiedName(3, "123456:z"), elements[1].getTargetName());
+
+        assertThrows(PlcInvalidFieldException.class, () -> OpcuaField.of("ns=2;path"));
+        assertThrows(PlcInvalidFieldException.class, () -> OpcuaField.of("ns=x;path=a/b"));
+    }
+
+    @Test
+    public void allMissesOfARequestAreTranslatedWithOneCall() {
+        OpcuaNodeIdResolver resolver = new OpcuaNodeIdResolver(client, new AtomicLong(1), 10, 100, 1);
+
+        List<NodeId> nodeIds = resolver.resolve(Arrays.asList(field("ns=2;path=a"), field("ns=2;s=direct"),
+            field("ns=2;path=b"), field("ns=2;path=a"), field("ns=2;path=missing"))).join();
+
+        assertEquals(Collections.singletonList(Arrays.asList("a", "b", "missing")), translations);
+        assertEquals(Arrays.asList(new NodeId(2, "a"), new NodeId(2, "direct"), new NodeId(2, "b"),
+            new NodeId(2, "a"), null), nodeIds);
+
+        // Only the paths which aren't cached yet are translated.
+        nodeIds = resolver.resolve(Arrays.asList(field("ns=2;path=a"), field("ns=2;path=c"))).join();
+        assertEquals(Arrays.asList(new NodeId(2, "a"), new NodeId(2, "c")), nodeIds);
+        assertEquals(Collections.singletonList("c"), translations.get(1));
+        assertEquals(2, translations.size());
+        // The address space is only watched once.
+        verify(subscriptionManager, times(1)).createSubscription(anyDouble());
+    }
+
+    @Test
+    public void leastRecentlyUsedPathsAreEvicted() {
+        OpcuaNodeIdResolver resolver = new OpcuaNodeIdResolver(client, new AtomicLong(1), 2, 100, 1);
+        resolve(resolver, "a", "b");
+        // Use "a", so "b" is the least recently used path.
+        resolve(resolver, "a");
+        resolve(resolver, "c");
+        resolve(resolver, "a");
+        resolve(resolver, "b");
+
+        assertEquals(Arrays.asList(Arrays.asList("a", "b"), Collections.singletonList("c"),
+            Collections.singletonList("b")), translations);
+    }
+
+    @Test
+    public void changedNamespaceArrayInvalidatesTheCache() {
+        OpcuaNodeIdResolver resolver = new OpcuaNodeIdResolver(client, new AtomicLong(1), 10, 100, 1);
+        resolve(resolver, "a");
+
+        // The first notification only reports the current namespaces, same as an unchanged array.
+        namespaceArrayConsumer.accept(null, namespaces("urn:a", "urn:b"));
+        namespaceArrayConsumer.accept(null, namespaces("urn:a", "urn:b"));
+        resolve(resolver, "a");
+        assertEquals(1, translations.size());
+
+        namespaceArrayConsumer.accept(null, namespaces("urn:a", "urn:c", "urn:b"));
+        resolve(resolver, "a");
+        assertEquals(2, translations.size());
+    }
+
+    @Test
+    public void modelChangeEventInvalidatesTheCache() {
+        OpcuaNodeIdResolver resolver = new OpcuaNodeIdResolver(client, new AtomicLong(1), 10, 100, 1);
+        resolve(resolver, "a");
+
+        modelChangeConsumer.accept(null, new Variant[0]);
+        resolve(resolver, "a");
+        assertEquals(2, translations.size());
+    }
+
+    @Test
+    public void translationStartedBeforeAnInvalidationIsNotCached() {
+        OpcuaNodeIdResolver resolver = new OpcuaNodeIdResolver(client, new AtomicLong(1), 10, 100, 1);
+        deferTranslations = true;
+        CompletableFuture<List<NodeId>> future = resolver.resolve(Collections.singletonList(field("ns=2;path=a")));
+
+        modelChangeConsumer.accept(null, new Variant[0]);
+        deferredTranslations.forEach(Runnable::run);
+        // The request still gets its result ...
+        assertEquals(Collections.singletonList(new NodeId(2, "a")), future.join());
+
+        // ... but the next one has to translate the path again.
+        deferTranslations = false;
+        resolve(resolver, "a");
+        assertEquals(2, translations.size());
+    }
+
+    private static void resolve(OpcuaNodeIdResolver resolver, String... paths) {
+        List<OpcuaField> fields = new ArrayList<>();
+        for (String path : paths) {
+            fields.add(field("ns=2;path=" + path));
+        }
+        resolver.resolve(fields).join();
+    }
+
+    private static OpcuaField field(String address) {
+        return OpcuaField.of(address);
+    }
+
+    private static DataValue namespaces(String... namespaces) {
+        return new DataValue(new Variant(namespaces));
+    }
+
+    private static String toPath(BrowsePath browsePath) {
+        return Arrays.stream(browsePath.getRelativePath().getElements())
+            .map(element -> element.getTargetName().getName())
+            .collect(Collectors.joining("/"));
+    }
+
+    /**
+     * Every path is translated to a string NodeId with the path as identifier, except for "missing".
+     */
+    private static TranslateBrowsePathsToNodeIdsResponse translate(List<String> paths) {
+        BrowsePathResult[] results = new BrowsePathResult[paths.size()];
+        for (int i = 0; i < paths.size(); i++) {
+            if ("missing".equals(paths.get(i))) {
+                results[i] = new BrowsePathResult(StatusCode.BAD, new BrowsePathTarget[0]);
+            } else {
+                results[i] = new BrowsePathResult(StatusCode.GOOD, new BrowsePathTarget[]{
+                    new BrowsePathTarget(new NodeId(2, paths.get(i)).expanded(), uint(0xFFFFFFFFL))});
+            }
+        }
+        return new TranslateBrowsePathsToNodeIdsResponse(null, results, null);
+    }
+
+}
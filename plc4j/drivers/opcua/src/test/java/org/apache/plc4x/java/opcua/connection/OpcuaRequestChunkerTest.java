@@ -0,0 +1,95 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+*/
+package org.apache.plc4x.java.opcua.connection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OpcuaRequestChunkerTest {
+
+    @Test
+    public void resultsAreMergedInOrderAndConcurrencyIsLimited() {
+        List<int[]> chunks = new ArrayList<>();
+        List<CompletableFuture<List<Integer>>> pending = new ArrayList<>();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        CompletableFuture<List<Integer>> future = OpcuaRequestChunker.execute(10, 3, 2, (fromIndex, toIndex) -> {
+            chunks.add(new int[]{fromIndex, toIndex});
+            CompletableFuture<List<Integer>> chunkFuture = new CompletableFuture<>();
+            pending.add(chunkFuture);
+            maxInFlight.set(Math.max(maxInFlight.get(), (int) pending.stream().filter(f -> !f.isDone()).count()));
+            return chunkFuture;
+        });
+
+        // Complete the chunks in reverse order of their start.
+        while (!future.isDone()) {
+            for (int i = pending.size() - 1; i >= 0; i--) {
+                if (!pending.get(i).isDone()) {
+                    int[] chunk = chunks.get(i);
+                    List<Integer> values = new ArrayList<>();
+                    for (int j = chunk[0]; j < chunk[1]; j++) {
+                        values.add(j * 10);
+                    }
+                    pending.get(i).complete(values);
+                    break;
+                }
+            }
+        }
+
+        assertEquals(4, chunks.size());
+        assertEquals(2, maxInFlight.get());
+        assertEquals(Arrays.asList(0, 10, 20, 30, 40, 50, 60, 70, 80, 90), future.join());
+    }
+
+    @Test
+    public void failedChunksLeaveEmptyResults() {
+        CompletableFuture<List<String>> future = OpcuaRequestChunker.execute(5, 2, 4, (fromIndex, toIndex) -> {
+            CompletableFuture<List<String>> chunkFuture = new CompletableFuture<>();
+            if (fromIndex == 2) {
+                chunkFuture.completeExceptionally(new RuntimeException("Bad_TooManyOperations"));
+            } else {
+                List<String> values = new ArrayList<>();
+                for (int i = fromIndex; i < toIndex; i++) {
+                    values.add("value-" + i);
+                }
+                chunkFuture.complete(values);
+            }
+            return chunkFuture;
+        });
+
+        assertTrue(future.isDone());
+        assertFalse(future.isCompletedExceptionally());
+        List<String> results = future.join();
+        assertEquals(5, results.size());
+        assertEquals("value-1", results.get(1));
+        assertNull(results.get(2));
+        assertNull(results.get(3));
+        assertEquals("value-4", results.get(4));
+    }
+
+}
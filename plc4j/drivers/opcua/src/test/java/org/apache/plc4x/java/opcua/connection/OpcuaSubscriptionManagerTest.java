@@ -0,0 +1,161 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+
+ */
+package org.apache.plc4x.java.opcua.connection;
+
+import org.apache.plc4x.java.api.model.PlcSubscriptionHandle;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.api.types.PlcSubscriptionType;
+import org.apache.plc4x.java.opcua.protocol.OpcuaField;
+import org.apache.plc4x.java.opcua.protocol.OpcuaSubsriptionHandle;
+import org.apache.plc4x.java.spi.messages.utils.ResponseItem;
+import org.apache.plc4x.java.spi.model.SubscriptionPlcField;
+import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaMonitoredItem;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaSubscription;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaSubscriptionManager;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoredItemCreateRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OpcuaSubscriptionManagerTest {
+
+    private OpcUaClient client;
+    private OpcuaNodeIdResolver nodeIdResolver;
+
+    // Publishing interval of every created subscription
+    private List<Double> publishingIntervals;
+    // Number of monitored items requested by every CreateMonitoredItems call
+    private List<Integer> batchSizes;
+
+    @BeforeEach
+    public void setUp() {
+        publishingIntervals = new ArrayList<>();
+        batchSizes = new ArrayList<>();
+
+        nodeIdResolver = mock(OpcuaNodeIdResolver.class);
+        when(nodeIdResolver.resolve(anyList())).thenAnswer(invocation -> {
+            List<OpcuaField> fields = invocation.getArgument(0);
+            List<NodeId> nodeIds = new ArrayList<>();
+            for (OpcuaField field : fields) {
+                nodeIds.add(new NodeId(field.getNamespace(), field.getIdentifier()));
+            }
+            return CompletableFuture.completedFuture(nodeIds);
+        });
+
+        UaSubscriptionManager subscriptionManager = mock(UaSubscriptionManager.class);
+        when(subscriptionManager.createSubscription(anyDouble())).thenAnswer(invocation -> {
+            publishingIntervals.add(invocation.getArgument(0));
+            return CompletableFuture.completedFuture(createSubscription());
+        });
+        client = mock(OpcUaClient.class);
+        when(client.getSubscriptionManager()).thenReturn(subscriptionManager);
+    }
+
+    @Test
+    public void fieldsAreGroupedByPublishingIntervalAndQueueSize() {
+        OpcuaSubscriptionManager subscriptionManager =
+            new OpcuaSubscriptionManager(client, new AtomicLong(1), nodeIdResolver, 100);
+
+        Map<String, SubscriptionPlcField> fields = new LinkedHashMap<>();
+        fields.put("a", field("ns=2;s=a", 100));
+        fields.put("b", field("ns=2;s=b", 500));
+        fields.put("c", field("ns=2;s=c", 100));
+        assertAllOk(subscriptionManager.subscribe(fields, 1).join(), 3);
+        assertEquals(Arrays.asList(100.0, 500.0), publishingIntervals);
+        assertEquals(Arrays.asList(2, 1), batchSizes);
+
+        // Joins the existing subscription with the same publishing interval and queue size ...
+        fields.clear();
+        fields.put("d", field("ns=2;s=d", 100));
+        assertAllOk(subscriptionManager.subscribe(fields, 1).join(), 1);
+        assertEquals(2, publishingIntervals.size());
+
+        // ... but a different queue size needs a subscription of its own.
+        assertAllOk(subscriptionManager.subscribe(fields, 10).join(), 1);
+        assertEquals(Arrays.asList(100.0, 500.0, 100.0), publishingIntervals);
+    }
+
+    @Test
+    public void monitoredItemsAreCreatedInBatches() {
+        OpcuaSubscriptionManager subscriptionManager =
+            new OpcuaSubscriptionManager(client, new AtomicLong(1), nodeIdResolver, 2);
+
+        Map<String, SubscriptionPlcField> fields = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            fields.put("field" + i, field("ns=2;s=item" + i, 250));
+        }
+        Map<String, ResponseItem<PlcSubscriptionHandle>> responseItems = subscriptionManager.subscribe(fields, 1).join();
+
+        assertAllOk(responseItems, 5);
+        assertEquals(Arrays.asList(250.0), publishingIntervals);
+        assertEquals(Arrays.asList(2, 2, 1), batchSizes);
+        Set<Object> clientHandles = new HashSet<>();
+        responseItems.values().forEach(responseItem ->
+            clientHandles.add(((OpcuaSubsriptionHandle) responseItem.getValue()).getClientHandle()));
+        assertEquals(5, clientHandles.size());
+    }
+
+    private UaSubscription createSubscription() {
+        UaSubscription subscription = mock(UaSubscription.class);
+        when(subscription.createMonitoredItems(any(), anyList(), any())).thenAnswer(invocation -> {
+            List<MonitoredItemCreateRequest> requests = invocation.getArgument(1);
+            batchSizes.add(requests.size());
+            List<UaMonitoredItem> items = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                UaMonitoredItem item = mock(UaMonitoredItem.class);
+                when(item.getStatusCode()).thenReturn(StatusCode.GOOD);
+                items.add(item);
+            }
+            return CompletableFuture.completedFuture(items);
+        });
+        return subscription;
+    }
+
+    private static SubscriptionPlcField field(String address, long publishingInterval) {
+        return new SubscriptionPlcField(PlcSubscriptionType.CHANGE_OF_STATE, OpcuaField.of(address),
+            Duration.ofMillis(publishingInterval));
+    }
+
+    private static void assertAllOk(Map<String, ResponseItem<PlcSubscriptionHandle>> responseItems, int numItems) {
+        assertEquals(numItems, responseItems.size());
+        responseItems.values().forEach(responseItem -> assertEquals(PlcResponseCode.OK, responseItem.getCode()));
+    }
+
+}
@@ -52,6 +52,9 @@ public class OpcuaFieldTest {
         assertMatching(ADDRESS_PATTERN, "ns=2;g=09087e75-8e5e-499b-954f-f2a8624db28a");
         // binary encoded addresses
         assertMatching(ADDRESS_PATTERN, "ns=2;b=asvaewavarahreb==");
+        // browse paths
+        assertMatching(ADDRESS_PATTERN, "ns=2;path=HelloWorld/ScalarTypes/Boolean");
+        assertMatching(ADDRESS_PATTERN, "ns=2;path=/3:Device/Temperature");
 
     }
 }
@@ -19,6 +19,9 @@ under the License.
 package org.apache.plc4x.java.s7.readwrite;
 
 import io.netty.buffer.ByteBuf;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryItem;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryItemHandler;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryRequest;
 import org.apache.plc4x.java.s7.readwrite.configuration.S7Configuration;
 import org.apache.plc4x.java.s7.readwrite.context.S7DriverContext;
 import org.apache.plc4x.java.s7.readwrite.field.S7Field;
@@ -30,12 +33,15 @@ import org.apache.plc4x.java.spi.configuration.Configuration;
 import org.apache.plc4x.java.spi.connection.ProtocolStackConfigurer;
 import org.apache.plc4x.java.spi.connection.GeneratedDriverBase;
 import org.apache.plc4x.java.spi.connection.SingleProtocolStackConfigurer;
+import org.apache.plc4x.java.spi.discovery.ActiveDiscovery;
+import org.apache.plc4x.java.spi.discovery.TcpPortScanner;
 import org.apache.plc4x.java.spi.optimizer.BaseOptimizer;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import java.util.function.ToIntFunction;
 
-public class S7Driver extends GeneratedDriverBase<TPKTPacket> {
+public class S7Driver extends GeneratedDriverBase<TPKTPacket> implements ActiveDiscovery {
 
     public static final int ISO_ON_TCP_PORT = 102;
 
@@ -79,6 +85,21 @@ public class S7Driver extends GeneratedDriverBase<TPKTPacket> {
         return new S7PlcFieldHandler();
     }
 
+    /**
+     * S7 devices are found by probing the ISO on TCP port of all hosts of the requested subnets.
+     */
+    @Override
+    public boolean canDiscover() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Void> discover(PlcDiscoveryRequest discoveryRequest, PlcDiscoveryItemHandler handler) {
+        return TcpPortScanner.scan(discoveryRequest, ISO_ON_TCP_PORT, address ->
+            handler.handle(new PlcDiscoveryItem(getProtocolCode(), getDefaultTransport(),
+                address.getAddress().getHostAddress() + ":" + address.getPort(), null, null)));
+    }
+
     @Override
     protected ProtocolStackConfigurer<TPKTPacket> getStackConfigurer() {
         return SingleProtocolStackConfigurer.builder(TPKTPacket.class, TPKTPacketIO.class)
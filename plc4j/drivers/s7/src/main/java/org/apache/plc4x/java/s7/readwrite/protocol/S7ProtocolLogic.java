@@ -18,8 +18,6 @@
  */
 package org.apache.plc4x.java.s7.readwrite.protocol;
 
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import org.apache.plc4x.java.api.exceptions.PlcProtocolException;
 import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
 import org.apache.plc4x.java.api.messages.PlcReadRequest;
@@ -71,6 +69,7 @@ import org.apache.plc4x.java.s7.readwrite.context.S7DriverContext;
 import org.apache.plc4x.java.s7.readwrite.field.S7StringField;
 import org.apache.plc4x.java.s7.readwrite.io.DataItemIO;
 import org.apache.plc4x.java.s7.readwrite.types.*;
+import org.apache.plc4x.java.s7.readwrite.utils.S7ArrayDecoder;
 import org.apache.plc4x.java.s7.readwrite.field.S7Field;
 import org.apache.plc4x.java.spi.ConversationContext;
 import org.apache.plc4x.java.spi.Plc4xProtocolBase;
@@ -97,7 +96,6 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * The S7 Protocol states that there can not be more then {min(maxAmqCaller, maxAmqCallee} "ongoing" requests.
@@ -402,9 +400,8 @@ public class S7ProtocolLogic extends Plc4xProtocolBase<TPKTPacket> {
 
             PlcResponseCode responseCode = decodeResponseCode(payloadItem.getReturnCode());
             PlcValue plcValue = null;
-            ByteBuf data = Unpooled.wrappedBuffer(payloadItem.getData());
             if (responseCode == PlcResponseCode.OK) {
-                plcValue = parsePlcValue(field, data);
+                plcValue = parsePlcValue(field, payloadItem.getData());
             }
             ResponseItem<PlcValue> result = new ResponseItem<>(responseCode, plcValue);
             values.put(fieldName, result);
@@ -455,24 +452,26 @@ public class S7ProtocolLogic extends Plc4xProtocolBase<TPKTPacket> {
         return null;
     }
 
-    private PlcValue parsePlcValue(S7Field field, ByteBuf data) {
-        ReadBuffer readBuffer = new ReadBuffer(data.array());
+    private PlcValue parsePlcValue(S7Field field, byte[] data) {
+        int stringLength = (field instanceof S7StringField) ? ((S7StringField) field).getStringLength() : 254;
+        short dataProtocolId = field.getDataType().getDataProtocolId();
+        if (field.getNumElements() > 1) {
+            // For the common types decode the array in one go, instead of parsing element by element.
+            PlcValue bulkValue = S7ArrayDecoder.decode(dataProtocolId, data, field.getNumElements(), stringLength);
+            if (bulkValue != null) {
+                return bulkValue;
+            }
+        }
+        ReadBuffer readBuffer = new ReadBuffer(data);
         try {
-            int stringLength = (field instanceof S7StringField) ? ((S7StringField) field).getStringLength() : 254;
             if (field.getNumElements() == 1) {
-                return DataItemIO.staticParse(readBuffer, field.getDataType().getDataProtocolId(),
-                    stringLength);
+                return DataItemIO.staticParse(readBuffer, dataProtocolId, stringLength);
             } else {
                 // Fetch all
-                final PlcValue[] resultItems = IntStream.range(0, field.getNumElements()).mapToObj(i -> {
-                    try {
-                        return DataItemIO.staticParse(readBuffer, field.getDataType().getDataProtocolId(),
-                            stringLength);
-                    } catch (ParseException e) {
-                        LOGGER.warn("Error parsing field item of type: '{}' (at position {}})", field.getDataType().name(), i, e);
-                    }
-                    return null;
-                }).toArray(PlcValue[]::new);
+                final PlcValue[] resultItems = new PlcValue[field.getNumElements()];
+                for (int i = 0; i < resultItems.length; i++) {
+                    resultItems[i] = DataItemIO.staticParse(readBuffer, dataProtocolId, stringLength);
+                }
                 return PlcValues.of(resultItems);
             }
         } catch (ParseException e) {
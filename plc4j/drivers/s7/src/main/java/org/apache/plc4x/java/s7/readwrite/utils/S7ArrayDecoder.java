@@ -0,0 +1,185 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.s7.readwrite.utils;
+
+import org.apache.plc4x.java.api.value.PlcBoolean;
+import org.apache.plc4x.java.api.value.PlcDouble;
+import org.apache.plc4x.java.api.value.PlcFloat;
+import org.apache.plc4x.java.api.value.PlcInteger;
+import org.apache.plc4x.java.api.value.PlcList;
+import org.apache.plc4x.java.api.value.PlcLong;
+import org.apache.plc4x.java.api.value.PlcString;
+import org.apache.plc4x.java.api.value.PlcValue;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Decodes arrays of the most common S7 data-types directly from the raw big-endian payload
+ * of a read response. Compared to running the generated DataItemIO once for every element,
+ * this avoids setting up a bit-level ReadBuffer and the per-element exception handling.
+ *
+ * The data-types are identified by the same "dataProtocolId" the generated DataItemIO uses,
+ * so the values produced here are the same as the ones the generated code would produce.
+ */
+public class S7ArrayDecoder {
+
+    // Data protocol ids as defined in the 'DataItem' type of s7.mspec
+    private static final int BOOL = 1;
+    private static final int SINT = 21;
+    private static final int USINT = 22;
+    private static final int INT = 23;
+    private static final int UINT = 24;
+    private static final int DINT = 25;
+    private static final int UDINT = 26;
+    private static final int LINT = 27;
+    private static final int REAL = 31;
+    private static final int LREAL = 32;
+    private static final int STRING = 43;
+
+    private static final Charset STRING_CHARSET = StandardCharsets.UTF_8;
+
+    private S7ArrayDecoder() {
+        // Prevent this from being instantiated.
+    }
+
+    /**
+     * Decode an array of elements.
+     *
+     * @param dataProtocolId data protocol id of the element type (as in TransportSize.getDataProtocolId())
+     * @param data           raw payload of the read response item
+     * @param numElements    number of elements that were requested
+     * @param stringLength   maximum length of a single string element (only used for strings)
+     * @return list of decoded values or null if this data-type is not supported by the bulk decoder
+     * (or the payload is shorter than expected), in which case the generic parser should be used.
+     */
+    public static PlcValue decode(int dataProtocolId, byte[] data, int numElements, int stringLength) {
+        int elementSize = getElementSize(dataProtocolId, stringLength);
+        if ((elementSize <= 0) || (data == null) || (data.length < elementSize * numElements)) {
+            return null;
+        }
+        final PlcValue[] items = new PlcValue[numElements];
+        int offset = 0;
+        switch (dataProtocolId) {
+            case BOOL:
+                for (int i = 0; i < numElements; i++, offset++) {
+                    items[i] = new PlcBoolean((data[offset] & 0x01) != 0);
+                }
+                break;
+            case SINT:
+                for (int i = 0; i < numElements; i++, offset++) {
+                    items[i] = new PlcInteger((int) data[offset]);
+                }
+                break;
+            case USINT:
+                for (int i = 0; i < numElements; i++, offset++) {
+                    items[i] = new PlcInteger(data[offset] & 0xFF);
+                }
+                break;
+            case INT:
+                for (int i = 0; i < numElements; i++, offset += 2) {
+                    items[i] = new PlcInteger((int) (short) readUint16(data, offset));
+                }
+                break;
+            case UINT:
+                for (int i = 0; i < numElements; i++, offset += 2) {
+                    items[i] = new PlcInteger(readUint16(data, offset));
+                }
+                break;
+            case DINT:
+                for (int i = 0; i < numElements; i++, offset += 4) {
+                    items[i] = new PlcInteger(readInt32(data, offset));
+                }
+                break;
+            case UDINT:
+                for (int i = 0; i < numElements; i++, offset += 4) {
+                    items[i] = new PlcLong(readInt32(data, offset) & 0xFFFFFFFFL);
+                }
+                break;
+            case LINT:
+                for (int i = 0; i < numElements; i++, offset += 8) {
+                    items[i] = new PlcLong(readInt64(data, offset));
+                }
+                break;
+            case REAL:
+                for (int i = 0; i < numElements; i++, offset += 4) {
+                    items[i] = new PlcFloat(Float.intBitsToFloat(readInt32(data, offset)));
+                }
+                break;
+            case LREAL:
+                for (int i = 0; i < numElements; i++, offset += 8) {
+                    items[i] = new PlcDouble(Double.longBitsToDouble(readInt64(data, offset)));
+                }
+                break;
+            case STRING:
+                for (int i = 0; i < numElements; i++, offset += elementSize) {
+                    // First byte is the maximum length, the second the actual length of the string.
+                    int actualLength = Math.min(data[offset + 1] & 0xFF, stringLength);
+                    items[i] = new PlcString(new String(data, offset + 2, actualLength, STRING_CHARSET));
+                }
+                break;
+            default:
+                return null;
+        }
+        return new PlcList(Arrays.asList(items));
+    }
+
+    /**
+     * @param dataProtocolId data protocol id of the element type
+     * @param stringLength   maximum length of a single string element
+     * @return number of bytes a single element occupies in the payload or -1 if the type isn't supported.
+     */
+    static int getElementSize(int dataProtocolId, int stringLength) {
+        switch (dataProtocolId) {
+            case BOOL:
+            case SINT:
+            case USINT:
+                return 1;
+            case INT:
+            case UINT:
+                return 2;
+            case DINT:
+            case UDINT:
+            case REAL:
+                return 4;
+            case LINT:
+            case LREAL:
+                return 8;
+            case STRING:
+                return stringLength + 2;
+            default:
+                return -1;
+        }
+    }
+
+    private static int readUint16(byte[] data, int offset) {
+        return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+    }
+
+    private static int readInt32(byte[] data, int offset) {
+        return ((data[offset] & 0xFF) << 24) | ((data[offset + 1] & 0xFF) << 16)
+            | ((data[offset + 2] & 0xFF) << 8) | (data[offset + 3] & 0xFF);
+    }
+
+    private static long readInt64(byte[] data, int offset) {
+        return ((long) readInt32(data, offset) << 32) | (readInt32(data, offset + 4) & 0xFFFFFFFFL);
+    }
+
+}
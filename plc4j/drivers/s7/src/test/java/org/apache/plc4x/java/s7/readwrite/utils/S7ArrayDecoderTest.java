@@ -0,0 +1,61 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.s7.readwrite.utils;
+
+import org.apache.plc4x.java.api.value.PlcValue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class S7ArrayDecoderTest {
+
+    @Test
+    public void testDecodeIntArray() {
+        PlcValue value = S7ArrayDecoder.decode(23, new byte[] {0x00, 0x01, (byte) 0xFF, (byte) 0xFE}, 2, 254);
+        Assertions.assertNotNull(value);
+        Assertions.assertEquals(2, value.getLength());
+        Assertions.assertEquals(1, value.getIndex(0).getInteger());
+        Assertions.assertEquals(-2, value.getIndex(1).getInteger());
+    }
+
+    @Test
+    public void testDecodeRealArray() {
+        PlcValue value = S7ArrayDecoder.decode(31, new byte[] {0x3F, (byte) 0x80, 0x00, 0x00, 0x40, 0x49, 0x0F, (byte) 0xDB}, 2, 254);
+        Assertions.assertNotNull(value);
+        Assertions.assertEquals(1.0f, value.getIndex(0).getFloat());
+        Assertions.assertEquals((float) Math.PI, value.getIndex(1).getFloat());
+    }
+
+    @Test
+    public void testDecodeStringArray() {
+        byte[] data = new byte[] {4, 2, 'H', 'i', 0, 0, 4, 3, 'Y', 'o', 'u', 0};
+        PlcValue value = S7ArrayDecoder.decode(43, data, 2, 4);
+        Assertions.assertNotNull(value);
+        Assertions.assertEquals("Hi", value.getIndex(0).getString());
+        Assertions.assertEquals("You", value.getIndex(1).getString());
+    }
+
+    @Test
+    public void testUnsupportedOrShortPayload() {
+        // Dates are not handled by the bulk decoder.
+        Assertions.assertNull(S7ArrayDecoder.decode(54, new byte[4], 2, 254));
+        // Not enough data for two DINT values.
+        Assertions.assertNull(S7ArrayDecoder.decode(25, new byte[6], 2, 254));
+    }
+
+}
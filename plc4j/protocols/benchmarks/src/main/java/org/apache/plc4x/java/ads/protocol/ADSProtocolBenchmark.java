@@ -19,146 +19,190 @@
 
 package org.apache.plc4x.java.ads.protocol;
 
-import io.netty.buffer.Unpooled;
-import org.apache.plc4x.java.ads.api.commands.AdsReadRequest;
-import org.apache.plc4x.java.ads.api.commands.AdsReadResponse;
-import org.apache.plc4x.java.ads.api.commands.AdsWriteRequest;
-import org.apache.plc4x.java.ads.api.commands.AdsWriteResponse;
-import org.apache.plc4x.java.ads.api.commands.types.*;
-import org.apache.plc4x.java.ads.api.generic.types.AmsNetId;
-import org.apache.plc4x.java.ads.api.generic.types.AmsPort;
-import org.apache.plc4x.java.ads.api.generic.types.Invoke;
+import org.apache.plc4x.java.ads.model.AdsSymbolTable;
+import org.apache.plc4x.java.ads.readwrite.AdsData;
+import org.apache.plc4x.java.ads.readwrite.AdsMultiRequestItem;
+import org.apache.plc4x.java.ads.readwrite.AdsMultiRequestItemRead;
+import org.apache.plc4x.java.ads.readwrite.AdsMultiRequestItemReadWrite;
+import org.apache.plc4x.java.ads.readwrite.AdsMultiRequestItemWrite;
+import org.apache.plc4x.java.ads.readwrite.AdsReadWriteRequest;
+import org.apache.plc4x.java.ads.readwrite.AdsReadWriteResponse;
+import org.apache.plc4x.java.ads.readwrite.AmsNetId;
+import org.apache.plc4x.java.ads.readwrite.AmsPacket;
+import org.apache.plc4x.java.ads.readwrite.AmsTCPPacket;
+import org.apache.plc4x.java.ads.readwrite.io.AmsTCPPacketIO;
+import org.apache.plc4x.java.ads.readwrite.types.CommandId;
+import org.apache.plc4x.java.ads.readwrite.types.ReservedIndexGroups;
+import org.apache.plc4x.java.ads.readwrite.types.ReturnCode;
+import org.apache.plc4x.java.spi.generation.ParseException;
+import org.apache.plc4x.java.spi.generation.ReadBuffer;
+import org.apache.plc4x.java.spi.generation.WriteBuffer;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
 
-import java.util.LinkedList;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Benchmarks of the generated ADS/AMS code (AmsTCPPacketIO), as used by the ADS driver.
+ * <p>
+ * All packets are serialized and parsed the same way the driver does: one AmsTCPPacket per message in little endian.
+ * See README.md of this module for how to run them and how to record a baseline to compare the results against.
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
 public class ADSProtocolBenchmark {
 
+    private static final AmsNetId TARGET_AMS_NET_ID = new AmsNetId((short) 192, (short) 168, (short) 23, (short) 20, (short) 1, (short) 1);
+    private static final int TARGET_AMS_PORT = 851;
+    private static final AmsNetId SOURCE_AMS_NET_ID = new AmsNetId((short) 192, (short) 168, (short) 23, (short) 200, (short) 1, (short) 1);
+    private static final int SOURCE_AMS_PORT = 800;
+
+    // The jmh State annotation shadows the ADS State type.
+    private static final org.apache.plc4x.java.ads.readwrite.State REQUEST_STATE =
+        new org.apache.plc4x.java.ads.readwrite.State(false, false, false, false, false, true, false, false, false);
+    private static final org.apache.plc4x.java.ads.readwrite.State RESPONSE_STATE =
+        new org.apache.plc4x.java.ads.readwrite.State(false, false, false, false, false, true, false, true, false);
+
+    // Device notification containing one stamp with one sample (Taken from AdsParserSerializerTest.xml).
+    private static final String DEVICE_NOTIFICATION = "00003e000000c0a817c801015303c0a8171401015303080004001e00000000000000000000001a000000010000000000056936c0d5010100000001000000020000002a00";
+
     @State(Scope.Benchmark)
     public static class MyState {
-        Ads2PayloadProtocol SUT = new Ads2PayloadProtocol();
-        AdsWriteRequest adsWriteRequest = buildAdsWriteRequest();
-        byte[] adsWriteResponse = buildADSWriteResponse();
-        AdsReadRequest adsReadRequest = buildAdsReadRequest();
-        byte[] adsReadResponse = buildADSReadResponse();
+
+        // Number of items in every sum-request
+        @Param({"1", "100"})
+        int numberOfItems;
+
+        AmsTCPPacket sumReadRequest;
+        byte[] sumReadResponse;
+        AmsTCPPacket sumWriteRequest;
+        byte[] sumWriteResponse;
+        AmsTCPPacket resolveSymbolsRequest;
+        byte[] resolveSymbolsResponse;
+        byte[] deviceNotification;
+        AdsSymbolTable symbolTable;
+        String[] symbolNames;
 
         @Setup(Level.Trial)
-        public void doSetup() {
-            System.out.println("Do Setup");
+        public void doSetup() throws ParseException {
+            // Every item is a DINT
+            List<AdsMultiRequestItem> readItems = new ArrayList<>();
+            List<AdsMultiRequestItem> writeItems = new ArrayList<>();
+            List<AdsMultiRequestItem> resolveItems = new ArrayList<>();
+            List<AdsSymbolTable.AdsSymbol> symbols = new ArrayList<>();
+            symbolNames = new String[numberOfItems];
+            StringBuilder names = new StringBuilder();
+            for (int i = 0; i < numberOfItems; i++) {
+                readItems.add(new AdsMultiRequestItemRead(0x4020, i * 4L, 4));
+                writeItems.add(new AdsMultiRequestItemWrite(0x4020, i * 4L, 4));
+                symbolNames[i] = "MAIN.nCounter" + i;
+                names.append(symbolNames[i]);
+                resolveItems.add(new AdsMultiRequestItemReadWrite(
+                    ReservedIndexGroups.ADSIGRP_SYM_HNDBYNAME.getValue(), 0, 4, symbolNames[i].length()));
+                symbols.add(new AdsSymbolTable.AdsSymbol(symbolNames[i], 0x4020, i * 4L, 4, "DINT"));
+            }
+
+            sumReadRequest = request(CommandId.ADS_READ_WRITE, new AdsReadWriteRequest(
+                ReservedIndexGroups.ADSIGRP_MULTIPLE_READ.getValue(), numberOfItems, numberOfItems * 8L,
+                readItems.toArray(new AdsMultiRequestItem[0]), new byte[0]));
+            // One return code and one value per item.
+            sumReadResponse = serialize(response(CommandId.ADS_READ_WRITE,
+                new AdsReadWriteResponse(ReturnCode.OK, new byte[numberOfItems * 8])));
+
+            sumWriteRequest = request(CommandId.ADS_READ_WRITE, new AdsReadWriteRequest(
+                ReservedIndexGroups.ADSIGRP_MULTIPLE_WRITE.getValue(), numberOfItems, numberOfItems * 4L,
+                writeItems.toArray(new AdsMultiRequestItem[0]), new byte[numberOfItems * 4]));
+            // One return code per item.
+            sumWriteResponse = serialize(response(CommandId.ADS_READ_WRITE,
+                new AdsReadWriteResponse(ReturnCode.OK, new byte[numberOfItems * 4])));
+
+            resolveSymbolsRequest = request(CommandId.ADS_READ_WRITE, new AdsReadWriteRequest(
+                ReservedIndexGroups.ADSIGRP_MULTIPLE_READ_WRITE.getValue(), numberOfItems, numberOfItems * 12L,
+                resolveItems.toArray(new AdsMultiRequestItem[0]), names.toString().getBytes(StandardCharsets.US_ASCII)));
+            // Return code, length and handle per item.
+            resolveSymbolsResponse = serialize(response(CommandId.ADS_READ_WRITE,
+                new AdsReadWriteResponse(ReturnCode.OK, new byte[numberOfItems * 12])));
+
+            deviceNotification = hexToBytes(DEVICE_NOTIFICATION);
+            symbolTable = new AdsSymbolTable(1, numberOfItems, 0, symbols);
         }
 
-        @TearDown(Level.Iteration)
-        public void doTearDown() {
-            System.out.println("Do TearDown");
-            SUT.reset();
-        }
+    }
 
+    @Benchmark
+    public void measureEncodingSumReadRequest(Blackhole blackhole, MyState myState) throws ParseException {
+        blackhole.consume(serialize(myState.sumReadRequest));
     }
 
     @Benchmark
-    @Warmup(iterations = 5, time = 1)
-    @Measurement(iterations = 5, time = 1)
-    @Fork(3)
-    @BenchmarkMode(Mode.AverageTime)
-    @OutputTimeUnit(TimeUnit.NANOSECONDS)
-    public void measureEncodingAdsWriteRequest(Blackhole blackhole, MyState myState) {
-        LinkedList<Object> out = new LinkedList<>();
-        myState.SUT.encode(null, myState.adsWriteRequest, out);
-        blackhole.consume(out.remove());
+    public void measureDecodingSumReadResponse(Blackhole blackhole, MyState myState) throws ParseException {
+        blackhole.consume(parse(myState.sumReadResponse));
     }
 
     @Benchmark
-    @Warmup(iterations = 5, time = 1)
-    @Measurement(iterations = 5, time = 1)
-    @Fork(3)
-    @BenchmarkMode(Mode.AverageTime)
-    @OutputTimeUnit(TimeUnit.NANOSECONDS)
-    public void measureDecodingAdsWriteResponse(Blackhole blackhole, MyState myState) {
-        LinkedList<Object> out = new LinkedList<>();
-        myState.SUT.decode(null, Unpooled.wrappedBuffer(myState.adsWriteResponse), out);
-        blackhole.consume(out.remove());
+    public void measureEncodingSumWriteRequest(Blackhole blackhole, MyState myState) throws ParseException {
+        blackhole.consume(serialize(myState.sumWriteRequest));
     }
 
     @Benchmark
-    @Warmup(iterations = 5, time = 1)
-    @Measurement(iterations = 5, time = 1)
-    @Fork(3)
-    @BenchmarkMode(Mode.AverageTime)
-    @OutputTimeUnit(TimeUnit.NANOSECONDS)
-    public void measureEncodingAdsReadRequest(Blackhole blackhole, MyState myState) {
-        LinkedList<Object> out = new LinkedList<>();
-        myState.SUT.encode(null, myState.adsReadRequest, out);
-        blackhole.consume(out.remove());
+    public void measureDecodingSumWriteResponse(Blackhole blackhole, MyState myState) throws ParseException {
+        blackhole.consume(parse(myState.sumWriteResponse));
     }
 
     @Benchmark
-    @Warmup(iterations = 5, time = 1)
-    @Measurement(iterations = 5, time = 1)
-    @Fork(3)
-    @BenchmarkMode(Mode.AverageTime)
-    @OutputTimeUnit(TimeUnit.NANOSECONDS)
-    public void measureDecodingAdsReadResponse(Blackhole blackhole, MyState myState) {
-        LinkedList<Object> out = new LinkedList<>();
-        myState.SUT.decode(null, Unpooled.wrappedBuffer(myState.adsReadResponse), out);
-        blackhole.consume(out.remove());
+    public void measureDecodingDeviceNotification(Blackhole blackhole, MyState myState) throws ParseException {
+        blackhole.consume(parse(myState.deviceNotification));
     }
 
-    private static AdsWriteRequest buildAdsWriteRequest() {
-        AmsNetId targetAmsNetId = AmsNetId.of("1.2.3.4.5.6");
-        AmsPort targetAmsPort = AmsPort.of(7);
-        AmsNetId sourceAmsNetId = AmsNetId.of("8.9.10.11.12.13");
-        AmsPort sourceAmsPort = AmsPort.of(14);
-        Invoke invokeId = Invoke.of(15);
-        Data data = Data.of("Hello World!".getBytes());
-        return AdsWriteRequest.of(
-            targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, invokeId,
-            IndexGroup.of(1),
-            IndexOffset.of(1),
-            data
-        );
+    @Benchmark
+    public void measureEncodingResolveSymbolsRequest(Blackhole blackhole, MyState myState) throws ParseException {
+        blackhole.consume(serialize(myState.resolveSymbolsRequest));
     }
 
-    private static byte[] buildADSWriteResponse() {
-        AmsNetId targetAmsNetId = AmsNetId.of("1.2.3.4.5.6");
-        AmsPort targetAmsPort = AmsPort.of(7);
-        AmsNetId sourceAmsNetId = AmsNetId.of("8.9.10.11.12.13");
-        AmsPort sourceAmsPort = AmsPort.of(14);
-        Invoke invokeId = Invoke.of(15);
-        Result result = Result.of(AdsReturnCode.ADS_CODE_0);
-        return AdsWriteResponse.of(
-            targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, invokeId,
-            result
-        ).getBytes();
+    @Benchmark
+    public void measureDecodingResolveSymbolsResponse(Blackhole blackhole, MyState myState) throws ParseException {
+        blackhole.consume(parse(myState.resolveSymbolsResponse));
     }
 
-    private static AdsReadRequest buildAdsReadRequest() {
-        AmsNetId targetAmsNetId = AmsNetId.of("1.2.3.4.5.6");
-        AmsPort targetAmsPort = AmsPort.of(7);
-        AmsNetId sourceAmsNetId = AmsNetId.of("8.9.10.11.12.13");
-        AmsPort sourceAmsPort = AmsPort.of(14);
-        Invoke invokeId = Invoke.of(15);
-        return AdsReadRequest.of(
-            targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, invokeId,
-            IndexGroup.of(1),
-            IndexOffset.of(1),
-            Length.of(1)
-        );
+    @Benchmark
+    public void measureResolvingSymbolsFromSymbolTable(Blackhole blackhole, MyState myState) {
+        for (String symbolName : myState.symbolNames) {
+            blackhole.consume(myState.symbolTable.getSymbol(symbolName));
+        }
+    }
+
+    private static AmsTCPPacket request(CommandId commandId, AdsData adsData) {
+        return new AmsTCPPacket(new AmsPacket(TARGET_AMS_NET_ID, TARGET_AMS_PORT, SOURCE_AMS_NET_ID, SOURCE_AMS_PORT,
+            commandId, REQUEST_STATE, 0, 1, adsData));
     }
 
-    private static byte[] buildADSReadResponse() {
-        AmsNetId targetAmsNetId = AmsNetId.of("1.2.3.4.5.6");
-        AmsPort targetAmsPort = AmsPort.of(7);
-        AmsNetId sourceAmsNetId = AmsNetId.of("8.9.10.11.12.13");
-        AmsPort sourceAmsPort = AmsPort.of(14);
-        Invoke invokeId = Invoke.of(15);
-        Result result = Result.of(AdsReturnCode.ADS_CODE_0);
-        Data data = Data.of("Hello World!".getBytes());
-        return AdsReadResponse.of(
-            targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, invokeId,
-            result,
-            data
-        ).getBytes();
+    private static AmsTCPPacket response(CommandId commandId, AdsData adsData) {
+        return new AmsTCPPacket(new AmsPacket(SOURCE_AMS_NET_ID, SOURCE_AMS_PORT, TARGET_AMS_NET_ID, TARGET_AMS_PORT,
+            commandId, RESPONSE_STATE, 0, 1, adsData));
     }
+
+    private static byte[] serialize(AmsTCPPacket packet) throws ParseException {
+        WriteBuffer writeBuffer = new WriteBuffer(packet.getLengthInBytes(), true);
+        AmsTCPPacketIO.staticSerialize(writeBuffer, packet);
+        return writeBuffer.getData();
+    }
+
+    private static AmsTCPPacket parse(byte[] data) throws ParseException {
+        return AmsTCPPacketIO.staticParse(new ReadBuffer(data, true));
+    }
+
+    private static byte[] hexToBytes(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+
 }
@@ -0,0 +1,211 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.knxnetip.protocol;
+
+import org.apache.plc4x.java.api.messages.PlcSubscriptionEvent;
+import org.apache.plc4x.java.api.model.PlcSubscriptionHandle;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.api.value.PlcString;
+import org.apache.plc4x.java.api.value.PlcStruct;
+import org.apache.plc4x.java.api.value.PlcValue;
+import org.apache.plc4x.java.knxnetip.context.KnxNetIpDriverContext;
+import org.apache.plc4x.java.knxnetip.ets5.model.AddressType;
+import org.apache.plc4x.java.knxnetip.ets5.model.Ets5Model;
+import org.apache.plc4x.java.knxnetip.ets5.model.Function;
+import org.apache.plc4x.java.knxnetip.ets5.model.GroupAddress;
+import org.apache.plc4x.java.knxnetip.field.KnxNetIpField;
+import org.apache.plc4x.java.knxnetip.model.KnxNetIpSubscriptionHandle;
+import org.apache.plc4x.java.knxnetip.readwrite.CEMIDataFrame;
+import org.apache.plc4x.java.knxnetip.readwrite.KNXAddress;
+import org.apache.plc4x.java.knxnetip.readwrite.io.KnxDatapointIO;
+import org.apache.plc4x.java.knxnetip.readwrite.types.APCI;
+import org.apache.plc4x.java.knxnetip.readwrite.types.CEMIPriority;
+import org.apache.plc4x.java.knxnetip.readwrite.types.TPCI;
+import org.apache.plc4x.java.spi.generation.ReadBuffer;
+import org.apache.plc4x.java.spi.messages.DefaultPlcSubscriptionEvent;
+import org.apache.plc4x.java.spi.messages.utils.ResponseItem;
+import org.apache.plc4x.java.spi.model.DefaultPlcConsumerRegistration;
+import org.apache.plc4x.java.spi.model.InternalPlcSubscriptionHandle;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Benchmarks of dispatching a flood of KNX group telegrams to the subscriptions of a connection.
+ * <p>
+ * "processCemiData" feeds prebuilt CEMI frames into KnxNetIpProtocolLogic.processCemiData, the same way
+ * it's done for every telegram seen on the bus. "legacyDispatch" is the baseline of how it used to be done
+ * (decoding the payload, assembling a HashMap based data-point and matching every subscribed field against
+ * every telegram), it doesn't include updating the value cache, which didn't exist back then.
+ * See README.md of this module for how to run them and how to record a baseline to compare the results against.
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KnxNetIpTelegramFloodBenchmark {
+
+    private static final byte GROUP_ADDRESS_TYPE = 3;
+    // Number of telegrams processed per benchmark invocation.
+    private static final int FLOOD_SIZE = 1024;
+    private static final String SOURCE_ADDRESS = "1.1.10";
+
+    @State(Scope.Benchmark)
+    public static class MyState {
+
+        // Number of subscriptions (a mix of exact addresses and wildcards)
+        @Param({"10", "100", "1000"})
+        int numberOfSubscriptions;
+
+        Ets5Model ets5Model;
+        Map<DefaultPlcConsumerRegistration, Consumer<PlcSubscriptionEvent>> consumers;
+        KnxNetIpProtocolLogic protocolLogic;
+        CEMIDataFrame[] telegrams;
+        long receivedEvents;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            final Random random = new Random(42);
+
+            // 2048 switches in 8 floors with 8 rooms each.
+            final AddressType type = new AddressType("DPST-1-1", 1, 1, "switch");
+            Map<String, GroupAddress> groupAddresses = new HashMap<>();
+            for (int main = 0; main < 8; main++) {
+                for (int middle = 0; middle < 8; middle++) {
+                    final Function function = new Function("F-" + main + "-" + middle, "Light",
+                        "FT-1", "Room " + main + "." + middle);
+                    for (int sub = 0; sub < 32; sub++) {
+                        final String address = main + "/" + middle + "/" + sub;
+                        groupAddresses.put(address, new GroupAddress(address, "Switch " + address, type, function));
+                    }
+                }
+            }
+            ets5Model = new Ets5Model(GROUP_ADDRESS_TYPE, groupAddresses);
+
+            // The driver context usually loads the ETS5 model from the "knxproj-file-path".
+            protocolLogic = new KnxNetIpProtocolLogic();
+            protocolLogic.setDriverContext(new KnxNetIpDriverContext() {
+                @Override
+                public byte getGroupAddressType() {
+                    return GROUP_ADDRESS_TYPE;
+                }
+
+                @Override
+                public Ets5Model getEts5Model() {
+                    return ets5Model;
+                }
+            });
+
+            consumers = new HashMap<>();
+            for (int i = 0; i < numberOfSubscriptions; i++) {
+                final String address;
+                switch (i % 4) {
+                    case 0:
+                        address = random.nextInt(8) + "/" + random.nextInt(8) + "/" + random.nextInt(32);
+                        break;
+                    case 1:
+                        address = random.nextInt(8) + "/*/*";
+                        break;
+                    case 2:
+                        address = random.nextInt(8) + "/" + random.nextInt(8) + "/*";
+                        break;
+                    default:
+                        address = "*/*/" + random.nextInt(32);
+                        break;
+                }
+                // Every subscription gets its own consumer instance.
+                final int subscription = i;
+                Consumer<PlcSubscriptionEvent> consumer = event -> receivedEvents += subscription;
+                final KnxNetIpSubscriptionHandle handle = new KnxNetIpSubscriptionHandle(null, KnxNetIpField.of(address));
+                consumers.put(new DefaultPlcConsumerRegistration(null, consumer, handle), consumer);
+                protocolLogic.register(consumer, Collections.<PlcSubscriptionHandle>singletonList(handle));
+            }
+
+            // GroupValueWrite telegrams of random switches.
+            telegrams = new CEMIDataFrame[FLOOD_SIZE];
+            final KNXAddress sourceAddress = new KNXAddress((byte) 1, (byte) 1, (short) 10);
+            for (int i = 0; i < FLOOD_SIZE; i++) {
+                final byte[] destinationAddress = new byte[]{
+                    (byte) ((random.nextInt(8) << 3) | random.nextInt(8)), (byte) random.nextInt(32)};
+                telegrams[i] = new CEMIDataFrame(true, false, true, true, CEMIPriority.LOW, false, false, true,
+                    (byte) 6, (byte) 0, sourceAddress, destinationAddress, (short) 1, TPCI.UNNUMBERED_DATA_PACKET,
+                    (byte) 0, APCI.GROUP_VALUE_WRITE_PDU, (byte) (random.nextBoolean() ? 1 : 0), new byte[0]);
+            }
+        }
+
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FLOOD_SIZE)
+    public void legacyDispatch(MyState state, Blackhole blackhole) throws Exception {
+        for (int i = 0; i < FLOOD_SIZE; i++) {
+            final CEMIDataFrame telegram = state.telegrams[i];
+            final String destinationAddress =
+                Ets5Model.parseGroupAddress(GROUP_ADDRESS_TYPE, telegram.getDestinationAddress());
+            final GroupAddress groupAddress = state.ets5Model.getGroupAddresses().get(destinationAddress);
+
+            byte[] payload = new byte[1 + telegram.getData().length];
+            payload[0] = telegram.getDataFirstByte();
+            System.arraycopy(telegram.getData(), 0, payload, 1, telegram.getData().length);
+            final PlcValue value = KnxDatapointIO.staticParse(new ReadBuffer(payload),
+                groupAddress.getType().getMainType(), groupAddress.getType().getSubType());
+
+            Map<String, PlcValue> dataPointMap = new HashMap<>();
+            dataPointMap.put("sourceAddress", new PlcString(SOURCE_ADDRESS));
+            dataPointMap.put("targetAddress", new PlcString(groupAddress.getGroupAddress()));
+            dataPointMap.put("location", new PlcString(groupAddress.getFunction().getSpaceName()));
+            dataPointMap.put("function", new PlcString(groupAddress.getFunction().getName()));
+            dataPointMap.put("description", new PlcString(groupAddress.getName()));
+            dataPointMap.put("unitOfMeasurement", new PlcString(groupAddress.getType().getName()));
+            dataPointMap.put("value", value);
+            final PlcSubscriptionEvent event = createEvent(new PlcStruct(dataPointMap));
+
+            for (Map.Entry<DefaultPlcConsumerRegistration, Consumer<PlcSubscriptionEvent>> entry : state.consumers.entrySet()) {
+                for (InternalPlcSubscriptionHandle handle : entry.getKey().getAssociatedHandles()) {
+                    if (((KnxNetIpSubscriptionHandle) handle).getField().matchesGroupAddress(groupAddress)) {
+                        entry.getValue().accept(event);
+                    }
+                }
+            }
+        }
+        blackhole.consume(state.receivedEvents);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FLOOD_SIZE)
+    public void processCemiData(MyState state, Blackhole blackhole) throws Exception {
+        for (int i = 0; i < FLOOD_SIZE; i++) {
+            final CEMIDataFrame telegram = state.telegrams[i];
+            state.protocolLogic.processCemiData(telegram.getSourceAddress(), telegram.getDestinationAddress(),
+                telegram.getApci(), telegram.getDataFirstByte(), telegram.getData());
+        }
+        blackhole.consume(state.receivedEvents);
+    }
+
+    private static PlcSubscriptionEvent createEvent(PlcValue dataPoint) {
+        return new DefaultPlcSubscriptionEvent(Instant.now(),
+            Collections.singletonMap("knxData", new ResponseItem<>(PlcResponseCode.OK, dataPoint)));
+    }
+
+}
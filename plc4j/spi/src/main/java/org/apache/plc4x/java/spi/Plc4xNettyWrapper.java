@@ -42,6 +42,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -91,7 +93,7 @@ public class Plc4xNettyWrapper<T> extends MessageToMessageCodec<T, Object> {
             public SendRequestContext<T> sendRequest(T packet) {
                 return new DefaultSendRequestContext<>(handler -> {
                     logger.trace("Adding Response Handler ...");
-                    registeredHandlers.add(handler);
+                    register(pipeline.channel(), handler);
                 }, packet, this);
             }
 
@@ -99,7 +101,7 @@ public class Plc4xNettyWrapper<T> extends MessageToMessageCodec<T, Object> {
             public ExpectRequestContext<T> expectRequest(Class<T> clazz, Duration timeout) {
                 return new DefaultExpectRequestContext<>(handler -> {
                     logger.trace("Adding Request Handler ...");
-                    registeredHandlers.add(handler);
+                    register(pipeline.channel(), handler);
                 }, clazz, timeout, this);
             }
 
@@ -136,10 +138,9 @@ public class Plc4xNettyWrapper<T> extends MessageToMessageCodec<T, Object> {
                 iter.remove();
                 continue;
             }
-            // Timeout?
+            // Timeout? (the timeout task might just not have run yet)
             if (registration.getTimeout().isBefore(Instant.now())) {
-                logger.debug("Removing {} as its timed out (was set till {})", registration, registration.getTimeout());
-                iter.remove();
+                timeout(registration, "No response until " + registration.getTimeout());
                 continue;
             }
             logger.trace("Checking handler {} for Object of type {}", registration, t.getClass().getSimpleName());
@@ -175,6 +176,40 @@ public class Plc4xNettyWrapper<T> extends MessageToMessageCodec<T, Object> {
         protocolBase.decode(new DefaultConversationContext<>(channelHandlerContext, passive), t);
     }
 
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        // No response will arrive for any of the registered handlers anymore.
+        for (HandlerRegistration registration : this.registeredHandlers) {
+            timeout(registration, "Connection closed");
+        }
+        super.channelInactive(ctx);
+    }
+
+    /**
+     * Registers the handler and schedules its timeout on the event loop of the channel. This way the timeout
+     * consumer is called as soon as the timeout has elapsed, even if no further message arrives, and as the
+     * handlers are called on the event loop too, a handler is either called or timed out, never both.
+     */
+    private void register(Channel channel, HandlerRegistration registration) {
+        this.registeredHandlers.add(registration);
+        long delay = Math.max(0, Duration.between(Instant.now(), registration.getTimeout()).toMillis());
+        registration.setTimeoutFuture(channel.eventLoop().schedule(
+            () -> timeout(registration, "No response until " + registration.getTimeout()), delay, TimeUnit.MILLISECONDS));
+    }
+
+    private void timeout(HandlerRegistration registration, String message) {
+        // Only the one removing the handler may time it out.
+        if (!this.registeredHandlers.remove(registration) || registration.isCancelled()) {
+            return;
+        }
+        logger.debug("Removing {} as its timed out (was set till {})", registration, registration.getTimeout());
+        registration.cancel();
+        Consumer<TimeoutException> onTimeoutConsumer = registration.getOnTimeoutConsumer();
+        if (onTimeoutConsumer != null) {
+            onTimeoutConsumer.accept(new TimeoutException(message));
+        }
+    }
+
     @Override
     public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
         // If the connection has just been established, start setting up the connection
@@ -231,7 +266,7 @@ public class Plc4xNettyWrapper<T> extends MessageToMessageCodec<T, Object> {
         public SendRequestContext<T1> sendRequest(T1 packet) {
             return new DefaultSendRequestContext<>(handler -> {
                 logger.trace("Adding Response Handler ...");
-                registeredHandlers.add(handler);
+                register(channelHandlerContext.channel(), handler);
             }, packet, this);
         }
 
@@ -239,7 +274,7 @@ public class Plc4xNettyWrapper<T> extends MessageToMessageCodec<T, Object> {
         public ExpectRequestContext<T1> expectRequest(Class<T1> clazz, Duration timeout) {
             return new DefaultExpectRequestContext<>(handler -> {
                 logger.trace("Adding Request Handler ...");
-                registeredHandlers.add(handler);
+                register(channelHandlerContext.channel(), handler);
             }, clazz, timeout, this);
         }
     }
@@ -0,0 +1,108 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.spi.discovery;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Expands subnets given in CIDR notation (For example "192.168.23.0/24") into the addresses of their hosts.
+ */
+public class Ipv4Subnet {
+
+    // Larger subnets would take far too long to probe.
+    public static final int MIN_PREFIX_LENGTH = 16;
+
+    private Ipv4Subnet() {
+        // Prevent this from being instantiated.
+    }
+
+    /**
+     * @param cidr subnet in CIDR notation (A single address is treated as /32).
+     * @return addresses of all hosts of the subnet (without the network and broadcast address).
+     */
+    public static List<InetAddress> getHostAddresses(String cidr) {
+        int separator = cidr.indexOf('/');
+        String address = (separator >= 0) ? cidr.substring(0, separator) : cidr;
+        int prefixLength;
+        try {
+            prefixLength = (separator >= 0) ? Integer.parseInt(cidr.substring(separator + 1)) : 32;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid prefix length in subnet " + cidr, e);
+        }
+        if ((prefixLength < MIN_PREFIX_LENGTH) || (prefixLength > 32)) {
+            throw new IllegalArgumentException(String.format(
+                "Prefix length of subnet %s has to be between %d and 32", cidr, MIN_PREFIX_LENGTH));
+        }
+        final int network = toInt(parse(address)) & mask(prefixLength);
+        final int size = 1 << (32 - prefixLength);
+        List<InetAddress> hostAddresses = new ArrayList<>(size);
+        // /31 and /32 subnets don't have a network and broadcast address.
+        int first = (prefixLength < 31) ? 1 : 0;
+        int last = (prefixLength < 31) ? size - 2 : size - 1;
+        for (int i = first; i <= last; i++) {
+            hostAddresses.add(toAddress(network + i));
+        }
+        return hostAddresses;
+    }
+
+    private static byte[] parse(String address) {
+        String[] octets = address.split("\\.");
+        if (octets.length != 4) {
+            throw new IllegalArgumentException("Invalid IPv4 address " + address);
+        }
+        byte[] bytes = new byte[4];
+        for (int i = 0; i < 4; i++) {
+            int octet;
+            try {
+                octet = Integer.parseInt(octets[i]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid IPv4 address " + address, e);
+            }
+            if ((octet < 0) || (octet > 255)) {
+                throw new IllegalArgumentException("Invalid IPv4 address " + address);
+            }
+            bytes[i] = (byte) octet;
+        }
+        return bytes;
+    }
+
+    private static int mask(int prefixLength) {
+        return (prefixLength == 0) ? 0 : (0xFFFFFFFF << (32 - prefixLength));
+    }
+
+    private static int toInt(byte[] address) {
+        return ((address[0] & 0xFF) << 24) | ((address[1] & 0xFF) << 16) | ((address[2] & 0xFF) << 8) |
+            (address[3] & 0xFF);
+    }
+
+    private static InetAddress toAddress(int address) {
+        try {
+            return Inet4Address.getByAddress(new byte[]{
+                (byte) (address >>> 24), (byte) (address >>> 16), (byte) (address >>> 8), (byte) address});
+        } catch (UnknownHostException e) {
+            // Only thrown for addresses of illegal length.
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.spi.discovery;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Finds hosts accepting TCP connections on a given port. The connections are established asynchronously, so
+ * thousands of hosts are probed within a few seconds: Up to max-concurrent-probes connections are pending at the
+ * same time and every one of them is given up after the probe timeout.
+ */
+public class TcpPortScanner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TcpPortScanner.class);
+
+    private final EventLoopGroup workerGroup;
+    private final Bootstrap bootstrap;
+    private final Iterator<InetSocketAddress> targets;
+    private final Consumer<InetSocketAddress> openPortHandler;
+    private final int maxConcurrentProbes;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    // Only accessed from the event loop.
+    private int pendingProbes;
+
+    /**
+     * Probes the given port of all hosts of the subnets of the discovery request.
+     *
+     * @param discoveryRequest subnets, timeout and concurrency of the probes.
+     * @param port             port to probe.
+     * @param openPortHandler  called for every host accepting the connection.
+     * @return future completed as soon as all hosts are probed.
+     */
+    public static CompletableFuture<Void> scan(PlcDiscoveryRequest discoveryRequest, int port,
+                                               Consumer<InetSocketAddress> openPortHandler) {
+        List<InetSocketAddress> targets = new ArrayList<>();
+        for (String subnet : discoveryRequest.getSubnets()) {
+            for (InetAddress hostAddress : Ipv4Subnet.getHostAddresses(subnet)) {
+                targets.add(new InetSocketAddress(hostAddress, port));
+            }
+        }
+        return scan(targets, discoveryRequest, openPortHandler);
+    }
+
+    public static CompletableFuture<Void> scan(List<InetSocketAddress> targets, PlcDiscoveryRequest discoveryRequest,
+                                               Consumer<InetSocketAddress> openPortHandler) {
+        if (targets.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return new TcpPortScanner(targets, discoveryRequest, openPortHandler).start();
+    }
+
+    private TcpPortScanner(List<InetSocketAddress> targets, PlcDiscoveryRequest discoveryRequest,
+                           Consumer<InetSocketAddress> openPortHandler) {
+        // One thread is enough, as it never blocks.
+        this.workerGroup = new NioEventLoopGroup(1);
+        this.bootstrap = new Bootstrap()
+            .group(workerGroup)
+            .channel(NioSocketChannel.class)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) discoveryRequest.getProbeTimeout().toMillis())
+            .handler(new ChannelInboundHandlerAdapter());
+        this.targets = targets.iterator();
+        this.openPortHandler = openPortHandler;
+        this.maxConcurrentProbes = discoveryRequest.getMaxConcurrentProbes();
+    }
+
+    private CompletableFuture<Void> start() {
+        future.whenComplete((ignore, throwable) -> workerGroup.shutdownGracefully());
+        workerGroup.execute(() -> {
+            for (int i = 0; (i < maxConcurrentProbes) && targets.hasNext(); i++) {
+                probeNext();
+            }
+        });
+        return future;
+    }
+
+    private void probeNext() {
+        final InetSocketAddress target = targets.next();
+        pendingProbes++;
+        bootstrap.connect(target).addListener((ChannelFuture connectFuture) -> {
+            pendingProbes--;
+            if (connectFuture.isSuccess()) {
+                connectFuture.channel().close();
+                LOGGER.debug("Port {} open on {}", target.getPort(), target.getAddress().getHostAddress());
+                try {
+                    openPortHandler.accept(target);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Error handling open port on {}", target, e);
+                }
+            }
+            if (targets.hasNext()) {
+                probeNext();
+            } else if (pendingProbes == 0) {
+                future.complete(null);
+            }
+        });
+    }
+
+}
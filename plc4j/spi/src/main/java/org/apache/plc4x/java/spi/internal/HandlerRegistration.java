@@ -23,6 +23,7 @@ import io.vavr.control.Either;
 
 import java.time.Instant;
 import java.util.Deque;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
@@ -50,6 +51,8 @@ public class HandlerRegistration {
     private volatile boolean cancelled = false;
     private volatile boolean handled = false;
 
+    private volatile Future<?> timeoutFuture;
+
     public HandlerRegistration(Deque<Either<Function<?, ?>, Predicate<?>>> commands, Class<?> expectClazz, Consumer<?> packetConsumer, Consumer<TimeoutException> onTimeoutConsumer, BiConsumer<?, ? extends Throwable> errorConsumer, Instant timeout) {
         this.commands = commands;
         this.expectClazz = expectClazz;
@@ -83,8 +86,16 @@ public class HandlerRegistration {
         return timeout;
     }
 
+    /**
+     * @param timeoutFuture task which times out this registration, cancelled as soon as the registration is done.
+     */
+    public void setTimeoutFuture(Future<?> timeoutFuture) {
+        this.timeoutFuture = timeoutFuture;
+    }
+
     public void cancel() {
         this.cancelled = true;
+        cancelTimeout();
     }
 
     public boolean isCancelled() {
@@ -93,12 +104,20 @@ public class HandlerRegistration {
 
     public void confirmHandled() {
         this.handled = true;
+        cancelTimeout();
     }
 
     public boolean hasHandled() {
         return this.handled;
     }
 
+    private void cancelTimeout() {
+        Future<?> currentTimeoutFuture = timeoutFuture;
+        if (currentTimeoutFuture != null) {
+            currentTimeoutFuture.cancel(false);
+        }
+    }
+
     @Override
     public String toString() {
         return "HandlerRegistration#" + id;
@@ -154,7 +154,8 @@ public abstract class BaseOptimizer {
             }
 
             // As soon as all sub-futures are done, merge the individual responses back to one big response.
-            CompletableFuture.allOf(subFutures.values().toArray(new CompletableFuture[0])).thenApply(aVoid -> {
+            // (Failed sub-futures are reported as failed items, so this has to run even if some of them failed)
+            CompletableFuture.allOf(subFutures.values().toArray(new CompletableFuture[0])).handle((aVoid, throwable) -> {
                 Map<PlcRequest, Either<PlcResponse, Exception>> results = new HashMap<>();
                 for (Map.Entry<PlcRequest, CompletableFuture<PlcResponse>> subFutureEntry : subFutures.entrySet()) {
                     PlcRequest subRequest = subFutureEntry.getKey();
@@ -0,0 +1,128 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.spi.optimizer;
+
+import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.apache.plc4x.java.api.messages.PlcRequest;
+import org.apache.plc4x.java.api.model.PlcField;
+import org.apache.plc4x.java.spi.context.DriverContext;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
+
+import java.util.*;
+
+/**
+ * Optimizer for protocols, which are able to read a contiguous range of one memory area (e.g. one data file of
+ * a PCCC processor) with one single request.
+ *
+ * Groups the fields of a read request by memory area and merges fields with contiguous (or overlapping) ranges
+ * into one sub-request, as long as the resulting range doesn't exceed the maximum size of one read. The protocol
+ * logic then reads the range covering all fields of a sub-request and slices the result back up per field.
+ *
+ * Fields without memory area as well as write requests are still processed one field at a time.
+ */
+public abstract class RangeMergingOptimizer extends SingleFieldOptimizer {
+
+    @Override
+    protected List<PlcRequest> processReadRequest(PlcReadRequest readRequest, DriverContext driverContext) {
+        if (readRequest.getNumberOfFields() == 1) {
+            return Collections.singletonList(readRequest);
+        }
+        int maxRangeSize = getMaxRangeSize(driverContext);
+
+        // Sort the fields by memory area.
+        List<PlcRequest> processedRequests = new LinkedList<>();
+        Map<Object, List<String>> fieldNamesByArea = new LinkedHashMap<>();
+        for (String fieldName : readRequest.getFieldNames()) {
+            PlcField field = readRequest.getField(fieldName);
+            Object area = getArea(field);
+            if (area == null) {
+                processedRequests.add(createSubRequest(readRequest, Collections.singletonMap(fieldName, field)));
+                continue;
+            }
+            fieldNamesByArea.computeIfAbsent(area, key -> new ArrayList<>()).add(fieldName);
+        }
+
+        for (List<String> fieldNames : fieldNamesByArea.values()) {
+            processedRequests.addAll(mergeFields(readRequest, fieldNames, maxRangeSize));
+        }
+        return processedRequests;
+    }
+
+    /**
+     * @return maximum size of the range, which can be read with one single request.
+     */
+    protected abstract int getMaxRangeSize(DriverContext driverContext);
+
+    /**
+     * @return key identifying the memory area of the field (Only fields with equal keys are merged)
+     * or null, if the field has to be read on its own.
+     */
+    protected abstract Object getArea(PlcField field);
+
+    /**
+     * @return offset of the start of the field within its memory area.
+     */
+    protected abstract int getStartOffset(PlcField field);
+
+    /**
+     * @return size of the field (in the same unit as the offset and the maximum range size).
+     */
+    protected abstract int getSize(PlcField field);
+
+    /**
+     * Merge the fields of one memory area as long as they are contiguous and the total length of the range
+     * doesn't exceed the maximum range size.
+     */
+    private List<PlcRequest> mergeFields(PlcReadRequest readRequest, List<String> fieldNames, int maxRangeSize) {
+        List<PlcRequest> subRequests = new LinkedList<>();
+        // Sort the fields of one memory area by their start.
+        fieldNames.sort(Comparator.comparingInt(fieldName -> getStartOffset(readRequest.getField(fieldName))));
+
+        Map<String, PlcField> curFields = new LinkedHashMap<>();
+        int curStart = 0;
+        int curEnd = 0;
+        for (String fieldName : fieldNames) {
+            PlcField field = readRequest.getField(fieldName);
+            int fieldStart = getStartOffset(field);
+            int fieldEnd = fieldStart + getSize(field);
+            if (!curFields.isEmpty() && (fieldStart <= curEnd) &&
+                (Math.max(curEnd, fieldEnd) - curStart <= maxRangeSize)) {
+                curEnd = Math.max(curEnd, fieldEnd);
+            } else {
+                if (!curFields.isEmpty()) {
+                    subRequests.add(createSubRequest(readRequest, curFields));
+                }
+                curFields = new LinkedHashMap<>();
+                curStart = fieldStart;
+                curEnd = fieldEnd;
+            }
+            curFields.put(fieldName, field);
+        }
+        if (!curFields.isEmpty()) {
+            subRequests.add(createSubRequest(readRequest, curFields));
+        }
+        return subRequests;
+    }
+
+    private PlcReadRequest createSubRequest(PlcReadRequest readRequest, Map<String, PlcField> fields) {
+        return new DefaultPlcReadRequest(((DefaultPlcReadRequest) readRequest).getReader(),
+            new LinkedHashMap<>(fields));
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.plc4x.java.spi;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Plc4xNettyWrapperTest {
+
+    private EmbeddedChannel channel;
+    private TestProtocol protocol;
+    private List<String> responses;
+    private List<TimeoutException> timeouts;
+
+    @BeforeEach
+    void setUp() {
+        channel = new EmbeddedChannel();
+        protocol = new TestProtocol();
+        channel.pipeline().addLast(new Plc4xNettyWrapper<>(channel.pipeline(), false, protocol, String.class));
+        responses = new ArrayList<>();
+        timeouts = new ArrayList<>();
+    }
+
+    @Test
+    void handlerTimesOutWithoutFurtherMessages() throws Exception {
+        sendRequest("request", Duration.ofMillis(50));
+        assertEquals("request", channel.readOutbound());
+
+        Thread.sleep(100);
+        channel.runScheduledPendingTasks();
+        assertEquals(1, timeouts.size());
+
+        // The handler is gone, so a late response goes to the protocol.
+        channel.writeInbound("response");
+        assertTrue(responses.isEmpty());
+        assertEquals(1, protocol.decoded.size());
+    }
+
+    @Test
+    void handledRequestDoesNotTimeOut() throws Exception {
+        sendRequest("request", Duration.ofMillis(50));
+        channel.writeInbound("response");
+        assertEquals(1, responses.size());
+
+        Thread.sleep(100);
+        channel.runScheduledPendingTasks();
+        assertTrue(timeouts.isEmpty());
+        assertTrue(protocol.decoded.isEmpty());
+    }
+
+    @Test
+    void pendingHandlersTimeOutWhenTheConnectionIsClosed() {
+        sendRequest("request", Duration.ofSeconds(10));
+        channel.close();
+        assertEquals(1, timeouts.size());
+        assertEquals("Connection closed", timeouts.get(0).getMessage());
+    }
+
+    private void sendRequest(String request, Duration timeout) {
+        protocol.getContext().sendRequest(request)
+            .expectResponse(String.class, timeout)
+            .onTimeout(timeouts::add)
+            .handle(responses::add);
+    }
+
+    private static class TestProtocol extends Plc4xProtocolBase<String> {
+
+        private final List<String> decoded = new ArrayList<>();
+
+        private ConversationContext<String> getContext() {
+            return context;
+        }
+
+        @Override
+        protected void decode(ConversationContext<String> context, String msg) {
+            decoded.add(msg);
+        }
+
+        @Override
+        public void close(ConversationContext<String> context) {
+            // Nothing to do here ...
+        }
+
+    }
+
+}
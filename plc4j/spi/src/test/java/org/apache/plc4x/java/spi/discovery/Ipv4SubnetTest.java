@@ -0,0 +1,53 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.spi.discovery;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class Ipv4SubnetTest {
+
+    @Test
+    public void hostsOfSubnetWithoutNetworkAndBroadcastAddress() {
+        List<InetAddress> hostAddresses = Ipv4Subnet.getHostAddresses("192.168.23.42/24");
+        assertEquals(254, hostAddresses.size());
+        assertEquals("192.168.23.1", hostAddresses.get(0).getHostAddress());
+        assertEquals("192.168.23.254", hostAddresses.get(253).getHostAddress());
+    }
+
+    @Test
+    public void singleAddress() {
+        assertEquals(1, Ipv4Subnet.getHostAddresses("10.0.0.1").size());
+        assertEquals(1, Ipv4Subnet.getHostAddresses("10.0.0.1/32").size());
+        assertEquals(2, Ipv4Subnet.getHostAddresses("10.0.0.1/31").size());
+    }
+
+    @Test
+    public void invalidSubnets() {
+        assertThrows(IllegalArgumentException.class, () -> Ipv4Subnet.getHostAddresses("10.0.0.0/8"));
+        assertThrows(IllegalArgumentException.class, () -> Ipv4Subnet.getHostAddresses("10.0.0/24"));
+        assertThrows(IllegalArgumentException.class, () -> Ipv4Subnet.getHostAddresses("10.0.0.256/24"));
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.spi.discovery;
+
+import org.apache.plc4x.java.api.discovery.PlcDiscoveryRequest;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TcpPortScannerTest {
+
+    @Test
+    public void onlyOpenPortsAreReported() throws Exception {
+        PlcDiscoveryRequest discoveryRequest = new PlcDiscoveryRequest.Builder()
+            .addSubnet("127.0.0.1/32")
+            .withProbeTimeout(Duration.ofMillis(200))
+            .build();
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getByName("127.0.0.1"))) {
+            int openPort = serverSocket.getLocalPort();
+            List<InetSocketAddress> openPorts = new CopyOnWriteArrayList<>();
+            TcpPortScanner.scan(discoveryRequest, openPort, openPorts::add).get(5, TimeUnit.SECONDS);
+            assertEquals(1, openPorts.size());
+            assertEquals(openPort, openPorts.get(0).getPort());
+
+            openPorts.clear();
+            // Nobody is listening on the port just closed.
+            int closedPort;
+            try (ServerSocket closedSocket = new ServerSocket(0, 1, InetAddress.getByName("127.0.0.1"))) {
+                closedPort = closedSocket.getLocalPort();
+            }
+            TcpPortScanner.scan(discoveryRequest, closedPort, openPorts::add).get(5, TimeUnit.SECONDS);
+            assertEquals(0, openPorts.size());
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.spi.optimizer;
+
+import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.apache.plc4x.java.api.messages.PlcRequest;
+import org.apache.plc4x.java.api.model.PlcField;
+import org.apache.plc4x.java.spi.context.DriverContext;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class RangeMergingOptimizerTest {
+
+    @Test
+    public void singleFieldIsNotTouched() {
+        PlcReadRequest readRequest = readRequest(
+            "a", new TestField("N7", 0, 2));
+        List<PlcRequest> subRequests = new TestOptimizer().processReadRequest(readRequest, null);
+        assertEquals(1, subRequests.size());
+        assertSame(readRequest, subRequests.get(0));
+    }
+
+    @Test
+    public void contiguousAndOverlappingFieldsAreMerged() {
+        PlcReadRequest readRequest = readRequest(
+            "c", new TestField("N7", 6, 4),
+            "a", new TestField("N7", 0, 2),
+            "b", new TestField("N7", 2, 4),
+            "d", new TestField("N7", 8, 2));
+        List<PlcRequest> subRequests = new TestOptimizer().processReadRequest(readRequest, null);
+        assertEquals(1, subRequests.size());
+        // The fields are ordered by their offset.
+        assertEquals(Arrays.asList("a", "b", "c", "d"),
+            new ArrayList<>(((PlcReadRequest) subRequests.get(0)).getFieldNames()));
+    }
+
+    @Test
+    public void gapsAndAreasAreNotMerged() {
+        PlcReadRequest readRequest = readRequest(
+            "a", new TestField("N7", 0, 2),
+            "b", new TestField("N7", 4, 2),
+            "c", new TestField("N8", 2, 2),
+            "d", new TestField(null, 0, 2),
+            "e", new TestField(null, 2, 2));
+        List<PlcRequest> subRequests = new TestOptimizer().processReadRequest(readRequest, null);
+        assertEquals(5, subRequests.size());
+    }
+
+    @Test
+    public void maxRangeSizeSplitsRequests() {
+        PlcReadRequest readRequest = readRequest(
+            "a", new TestField("N7", 0, 60),
+            "b", new TestField("N7", 60, 40),
+            "c", new TestField("N7", 100, 1),
+            "d", new TestField("N7", 101, 100));
+        List<PlcRequest> subRequests = new TestOptimizer().processReadRequest(readRequest, null);
+        assertEquals(3, subRequests.size());
+        assertEquals(2, ((PlcReadRequest) subRequests.get(0)).getNumberOfFields());
+        assertEquals(1, ((PlcReadRequest) subRequests.get(1)).getNumberOfFields());
+        assertEquals(1, ((PlcReadRequest) subRequests.get(2)).getNumberOfFields());
+    }
+
+    private static PlcReadRequest readRequest(Object... namesAndFields) {
+        LinkedHashMap<String, PlcField> fields = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndFields.length; i += 2) {
+            fields.put((String) namesAndFields[i], (PlcField) namesAndFields[i + 1]);
+        }
+        return new DefaultPlcReadRequest(null, fields);
+    }
+
+    private static class TestOptimizer extends RangeMergingOptimizer {
+
+        @Override
+        protected int getMaxRangeSize(DriverContext driverContext) {
+            return 100;
+        }
+
+        @Override
+        protected Object getArea(PlcField field) {
+            return ((TestField) field).area;
+        }
+
+        @Override
+        protected int getStartOffset(PlcField field) {
+            return ((TestField) field).offset;
+        }
+
+        @Override
+        protected int getSize(PlcField field) {
+            return ((TestField) field).size;
+        }
+
+    }
+
+    private static class TestField implements PlcField {
+
+        private final String area;
+        private final int offset;
+        private final int size;
+
+        private TestField(String area, int offset, int size) {
+            this.area = area;
+            this.offset = offset;
+            this.size = size;
+        }
+
+    }
+
+}
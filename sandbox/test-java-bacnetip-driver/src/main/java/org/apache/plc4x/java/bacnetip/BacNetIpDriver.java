@@ -21,7 +21,9 @@ package org.apache.plc4x.java.bacnetip;
 import io.netty.buffer.ByteBuf;
 import org.apache.plc4x.java.api.PlcDriver;
 import org.apache.plc4x.java.bacnetip.configuration.BacNetIpConfiguration;
+import org.apache.plc4x.java.bacnetip.context.BacNetIpDriverContext;
 import org.apache.plc4x.java.bacnetip.field.BacNetIpFieldHandler;
+import org.apache.plc4x.java.bacnetip.optimizer.BacNetIpOptimizer;
 import org.apache.plc4x.java.bacnetip.protocol.BacNetIpProtocolLogic;
 import org.apache.plc4x.java.bacnetip.readwrite.BVLC;
 import org.apache.plc4x.java.bacnetip.readwrite.io.BVLCIO;
@@ -29,6 +31,7 @@ import org.apache.plc4x.java.spi.configuration.Configuration;
 import org.apache.plc4x.java.spi.connection.GeneratedDriverBase;
 import org.apache.plc4x.java.spi.connection.ProtocolStackConfigurer;
 import org.apache.plc4x.java.spi.connection.SingleProtocolStackConfigurer;
+import org.apache.plc4x.java.spi.optimizer.BaseOptimizer;
 import org.osgi.service.component.annotations.Component;
 
 import java.util.function.Consumer;
@@ -61,7 +64,7 @@ public class BacNetIpDriver extends GeneratedDriverBase<BVLC> {
 
     @Override
     protected boolean canRead() {
-        return false;
+        return true;
     }
 
     @Override
@@ -74,6 +77,11 @@ public class BacNetIpDriver extends GeneratedDriverBase<BVLC> {
         return true;
     }
 
+    @Override
+    protected BaseOptimizer getOptimizer() {
+        return new BacNetIpOptimizer();
+    }
+
     @Override
     protected BacNetIpFieldHandler getFieldHandler() {
         return new BacNetIpFieldHandler();
@@ -83,6 +91,7 @@ public class BacNetIpDriver extends GeneratedDriverBase<BVLC> {
     protected ProtocolStackConfigurer<BVLC> getStackConfigurer() {
         return SingleProtocolStackConfigurer.builder(BVLC.class, BVLCIO.class)
             .withProtocol(BacNetIpProtocolLogic.class)
+            .withDriverContext(BacNetIpDriverContext.class)
             .withPacketSizeEstimator(ByteLengthEstimator.class)
             .withCorruptPacketRemover(CorruptPackageCleaner.class)
             .build();
@@ -22,6 +22,7 @@ import org.apache.plc4x.java.bacnetip.BacNetIpDriver;
 import org.apache.plc4x.java.spi.configuration.Configuration;
 import org.apache.plc4x.java.spi.configuration.annotations.ConfigurationParameter;
 import org.apache.plc4x.java.spi.configuration.annotations.defaults.DoubleDefaultValue;
+import org.apache.plc4x.java.spi.configuration.annotations.defaults.IntDefaultValue;
 import org.apache.plc4x.java.transport.pcapreplay.PcapReplayTransportConfiguration;
 import org.apache.plc4x.java.transport.rawsocket.RawSocketTransportConfiguration;
 import org.apache.plc4x.java.transport.udp.UdpTransportConfiguration;
@@ -47,6 +48,26 @@ public class BacNetIpConfiguration implements Configuration, UdpTransportConfigu
     @DoubleDefaultValue(1.0F)
     private double pcapReplaySpeed;
 
+    // Maximum APDU length the device accepts (As long as it can't be read from the device itself).
+    @ConfigurationParameter("max-apdu-length-accepted")
+    @IntDefaultValue(1476)
+    private int maxApduLengthAccepted;
+
+    // Time to wait for the response to a confirmed request (in ms).
+    @ConfigurationParameter("request-timeout")
+    @IntDefaultValue(3000)
+    private int requestTimeout;
+
+    // Maximum number of confirmed requests sent without waiting for their responses.
+    @ConfigurationParameter("max-in-flight")
+    @IntDefaultValue(8)
+    private int maxInFlight;
+
+    // Lifetime of COV subscriptions (in s). They are renewed before they expire.
+    @ConfigurationParameter("cov-lifetime")
+    @IntDefaultValue(300)
+    private int covLifetime;
+
     public String getEdeFilePath() {
         return edeFilePath;
     }
@@ -63,6 +84,38 @@ public class BacNetIpConfiguration implements Configuration, UdpTransportConfigu
         this.edeDirectoryPath = edeDirectoryPath;
     }
 
+    public int getMaxApduLengthAccepted() {
+        return maxApduLengthAccepted;
+    }
+
+    public void setMaxApduLengthAccepted(int maxApduLengthAccepted) {
+        this.maxApduLengthAccepted = maxApduLengthAccepted;
+    }
+
+    public int getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(int requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getCovLifetime() {
+        return covLifetime;
+    }
+
+    public void setCovLifetime(int covLifetime) {
+        this.covLifetime = covLifetime;
+    }
+
     public void setPcapReplaySpeed(double pcapReplaySpeed) {
         this.pcapReplaySpeed = pcapReplaySpeed;
     }
@@ -0,0 +1,58 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.bacnetip.context;
+
+import org.apache.plc4x.java.bacnetip.configuration.BacNetIpConfiguration;
+import org.apache.plc4x.java.spi.configuration.HasConfiguration;
+import org.apache.plc4x.java.spi.context.DriverContext;
+
+public class BacNetIpDriverContext implements DriverContext, HasConfiguration<BacNetIpConfiguration> {
+
+    // Largest APDU which fits into one BACnet/IP datagram.
+    public static final int MAX_APDU_LENGTH = 1476;
+
+    // Smallest APDU every BACnet device has to accept.
+    public static final int MIN_APDU_LENGTH = 50;
+
+    private volatile int maxApduLengthAccepted = MAX_APDU_LENGTH;
+
+    @Override
+    public void setConfiguration(BacNetIpConfiguration configuration) {
+        this.maxApduLengthAccepted = limit(configuration.getMaxApduLengthAccepted());
+    }
+
+    /**
+     * @return maximum length of an APDU the device accepts (and sends without segmenting it).
+     */
+    public int getMaxApduLengthAccepted() {
+        return maxApduLengthAccepted;
+    }
+
+    /**
+     * Called as soon as the device told us the real maximum APDU length it accepts.
+     */
+    public void setMaxApduLengthAccepted(int maxApduLengthAccepted) {
+        this.maxApduLengthAccepted = limit(maxApduLengthAccepted);
+    }
+
+    private static int limit(int maxApduLengthAccepted) {
+        return Math.max(MIN_APDU_LENGTH, Math.min(maxApduLengthAccepted, MAX_APDU_LENGTH));
+    }
+
+}
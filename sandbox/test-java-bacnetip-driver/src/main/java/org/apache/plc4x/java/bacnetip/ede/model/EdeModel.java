@@ -20,6 +20,7 @@ package org.apache.plc4x.java.bacnetip.ede.model;
 
 import org.apache.plc4x.java.bacnetip.field.BacNetIpField;
 
+import java.util.Collection;
 import java.util.Map;
 
 public class EdeModel {
@@ -34,4 +35,8 @@ public class EdeModel {
         return datapoints.get(field);
     }
 
+    public Collection<Datapoint> getDatapoints() {
+        return datapoints.values();
+    }
+
 }
@@ -30,14 +30,18 @@ import java.util.regex.Pattern;
 public class BacNetIpField implements PlcField {
 
     private static final Pattern ADDRESS_PATTERN =
-        Pattern.compile("^(?<deviceIdentifier>(\\d|\\*))/(?<objectType>(\\d|\\*))/(?<objectInstance>(\\d|\\*))");
+        Pattern.compile("^(?<deviceIdentifier>(\\d+|\\*))/(?<objectType>(\\d+|\\*))/(?<objectInstance>(\\d+|\\*))(/(?<propertyIdentifier>\\d+))?");
 
     public static final int INT_WILDCARD = -1;
     public static final long LONG_WILDCARD = -1;
 
+    // Property used, if none is given in the address.
+    public static final int PRESENT_VALUE = 85;
+
     private final long deviceIdentifier;
     private final int objectType;
     private final long objectInstance;
+    private final int propertyIdentifier;
 
     public static boolean matches(String fieldString) {
         return ADDRESS_PATTERN.matcher(fieldString).matches();
@@ -52,15 +56,22 @@ public class BacNetIpField implements PlcField {
                 INT_WILDCARD : Integer.parseInt(matcher.group("objectType"));
             long objectInstance = matcher.group("objectInstance").equals("*") ?
                 LONG_WILDCARD : Long.parseLong(matcher.group("objectInstance"));
-            return new BacNetIpField(deviceIdentifier, objectType, objectInstance);
+            int propertyIdentifier = (matcher.group("propertyIdentifier") != null) ?
+                Integer.parseInt(matcher.group("propertyIdentifier")) : PRESENT_VALUE;
+            return new BacNetIpField(deviceIdentifier, objectType, objectInstance, propertyIdentifier);
         }
         throw new PlcInvalidFieldException("Unable to parse address: " + fieldString);
     }
 
     public BacNetIpField(long deviceIdentifier, int objectType, long objectInstance) {
+        this(deviceIdentifier, objectType, objectInstance, PRESENT_VALUE);
+    }
+
+    public BacNetIpField(long deviceIdentifier, int objectType, long objectInstance, int propertyIdentifier) {
         this.deviceIdentifier = deviceIdentifier;
         this.objectType = objectType;
         this.objectInstance = objectInstance;
+        this.propertyIdentifier = propertyIdentifier;
     }
 
     public long getDeviceIdentifier() {
@@ -75,6 +86,18 @@ public class BacNetIpField implements PlcField {
         return objectInstance;
     }
 
+    public int getPropertyIdentifier() {
+        return propertyIdentifier;
+    }
+
+    /**
+     * @return true if none of the parts of the address is a wildcard.
+     */
+    public boolean isConcrete() {
+        return (deviceIdentifier != LONG_WILDCARD) && (objectType != INT_WILDCARD) &&
+            (objectInstance != LONG_WILDCARD);
+    }
+
     public boolean matches(BacNetIpField otherField) {
         return ((deviceIdentifier == LONG_WILDCARD) || (deviceIdentifier == otherField.deviceIdentifier)) &&
             ((objectType == INT_WILDCARD) || (objectType == otherField.objectType)) &&
@@ -97,6 +120,7 @@ public class BacNetIpField implements PlcField {
             .append(getDeviceIdentifier(), that.getDeviceIdentifier())
             .append(getObjectType(), that.getObjectType())
             .append(getObjectInstance(), that.getObjectInstance())
+            .append(getPropertyIdentifier(), that.getPropertyIdentifier())
             .isEquals();
     }
 
@@ -106,6 +130,7 @@ public class BacNetIpField implements PlcField {
             .append(getDeviceIdentifier())
             .append(getObjectType())
             .append(getObjectInstance())
+            .append(getPropertyIdentifier())
             .toHashCode();
     }
 
@@ -115,6 +140,7 @@ public class BacNetIpField implements PlcField {
             .append("deviceIdentifier", deviceIdentifier)
             .append("objectType", objectType)
             .append("objectInstance", objectInstance)
+            .append("propertyIdentifier", propertyIdentifier)
             .toString();
     }
 
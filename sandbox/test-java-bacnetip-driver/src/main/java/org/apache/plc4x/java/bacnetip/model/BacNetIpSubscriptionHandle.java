@@ -0,0 +1,76 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.bacnetip.model;
+
+import org.apache.plc4x.java.bacnetip.field.BacNetIpField;
+import org.apache.plc4x.java.spi.messages.PlcSubscriber;
+import org.apache.plc4x.java.spi.model.DefaultPlcSubscriptionHandle;
+
+import java.util.Objects;
+
+public class BacNetIpSubscriptionHandle extends DefaultPlcSubscriptionHandle {
+
+    private final String plcFieldName;
+
+    private final BacNetIpField field;
+
+    public BacNetIpSubscriptionHandle(PlcSubscriber plcSubscriber, String plcFieldName, BacNetIpField field) {
+        super(plcSubscriber);
+        this.plcFieldName = plcFieldName;
+        this.field = field;
+    }
+
+    public String getPlcFieldName() {
+        return plcFieldName;
+    }
+
+    public BacNetIpField getField() {
+        return field;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BacNetIpSubscriptionHandle)) {
+            return false;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+        BacNetIpSubscriptionHandle that = (BacNetIpSubscriptionHandle) o;
+        return Objects.equals(plcFieldName, that.plcFieldName) &&
+            Objects.equals(field, that.field);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), plcFieldName, field);
+    }
+
+    @Override
+    public String toString() {
+        return "BacNetIpSubscriptionHandle{" +
+            "plcFieldName='" + plcFieldName + '\'' +
+            ", field=" + field +
+            "} " + super.toString();
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.bacnetip.optimizer;
+
+import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.apache.plc4x.java.api.messages.PlcRequest;
+import org.apache.plc4x.java.api.model.PlcField;
+import org.apache.plc4x.java.bacnetip.context.BacNetIpDriverContext;
+import org.apache.plc4x.java.bacnetip.field.BacNetIpField;
+import org.apache.plc4x.java.spi.context.DriverContext;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
+import org.apache.plc4x.java.spi.optimizer.SingleFieldOptimizer;
+
+import java.util.*;
+
+/**
+ * Packs the fields of a read request into as few ReadPropertyMultiple requests as possible, each of them only
+ * containing the properties of one device. As the size of the values isn't known in advance, the size of the
+ * response is estimated and every sub-request is limited to responses fitting into one APDU of the maximum length
+ * the device accepts. If the response turns out to be larger, the device sends it segmented.
+ *
+ * Write requests are still processed one field at a time.
+ */
+public class BacNetIpOptimizer extends SingleFieldOptimizer {
+
+    // Header of the complex ack APDU (PDU type, invoke id and service choice).
+    static final int ACK_HEADER_SIZE = 3;
+
+    // Object identifier and the opening and closing tag of the list of results of one object.
+    static final int OBJECT_RESULT_SIZE = 7;
+
+    // Estimated size of a primitive value (Tag and up to 5 bytes of data, fits REAL, ENUMERATED, UNSIGNED, ...).
+    static final int VALUE_SIZE = 6;
+
+    // Estimated size of a character string value.
+    static final int STRING_VALUE_SIZE = 66;
+
+    // Properties with character string values.
+    private static final Set<Integer> STRING_PROPERTIES = new HashSet<>(Arrays.asList(
+        4,   // active-text
+        12,  // application-software-version
+        28,  // description
+        31,  // device-type
+        44,  // firmware-revision
+        46,  // inactive-text
+        58,  // location
+        70,  // model-name
+        77,  // object-name
+        121, // vendor-name
+        168  // profile-name
+    ));
+
+    @Override
+    protected List<PlcRequest> processReadRequest(PlcReadRequest readRequest, DriverContext driverContext) {
+        int maxApduLength = BacNetIpDriverContext.MAX_APDU_LENGTH;
+        if (driverContext instanceof BacNetIpDriverContext) {
+            maxApduLength = ((BacNetIpDriverContext) driverContext).getMaxApduLengthAccepted();
+        }
+        final int maxResultSize = maxApduLength - ACK_HEADER_SIZE;
+
+        // Sort the fields by device, as every ReadPropertyMultiple request goes to one device only, and by
+        // object, as the properties of one object share the object identifier.
+        Map<Long, Map<BacNetIpField, List<String>>> fieldNamesByDeviceAndObject = new LinkedHashMap<>();
+        for (String fieldName : readRequest.getFieldNames()) {
+            BacNetIpField field = (BacNetIpField) readRequest.getField(fieldName);
+            BacNetIpField object = new BacNetIpField(
+                field.getDeviceIdentifier(), field.getObjectType(), field.getObjectInstance());
+            fieldNamesByDeviceAndObject.computeIfAbsent(field.getDeviceIdentifier(), key -> new LinkedHashMap<>())
+                .computeIfAbsent(object, key -> new ArrayList<>()).add(fieldName);
+        }
+
+        List<PlcRequest> processedRequests = new LinkedList<>();
+        for (Map<BacNetIpField, List<String>> fieldNamesByObject : fieldNamesByDeviceAndObject.values()) {
+            processedRequests.addAll(processDeviceFields(readRequest, fieldNamesByObject, maxResultSize));
+        }
+        return processedRequests;
+    }
+
+    /**
+     * Packs the fields of the objects of one device into sub-requests with results of up to the given size.
+     */
+    private List<PlcRequest> processDeviceFields(PlcReadRequest readRequest,
+                                                 Map<BacNetIpField, List<String>> fieldNamesByObject,
+                                                 int maxResultSize) {
+        List<PlcRequest> processedRequests = new LinkedList<>();
+        Map<String, PlcField> curFields = new LinkedHashMap<>();
+        int curSize = 0;
+        for (List<String> fieldNames : fieldNamesByObject.values()) {
+            boolean objectInCurrentRequest = false;
+            for (String fieldName : fieldNames) {
+                BacNetIpField field = (BacNetIpField) readRequest.getField(fieldName);
+                int size = estimatePropertyResultSize(field.getPropertyIdentifier());
+                if (!curFields.isEmpty() && (curSize + size +
+                    (objectInCurrentRequest ? 0 : OBJECT_RESULT_SIZE) > maxResultSize)) {
+                    processedRequests.add(createSubRequest(readRequest, curFields));
+                    curFields = new LinkedHashMap<>();
+                    curSize = 0;
+                    // The object identifier has to be repeated in the next request.
+                    objectInCurrentRequest = false;
+                }
+                if (!objectInCurrentRequest) {
+                    curSize += OBJECT_RESULT_SIZE;
+                    objectInCurrentRequest = true;
+                }
+                curSize += size;
+                curFields.put(fieldName, field);
+            }
+        }
+        if (!curFields.isEmpty()) {
+            processedRequests.add(createSubRequest(readRequest, curFields));
+        }
+        return processedRequests;
+    }
+
+    /**
+     * @return estimated number of bytes the result of reading the given property occupies in the response.
+     */
+    static int estimatePropertyResultSize(int propertyIdentifier) {
+        // Context tag with the property identifier and the opening and closing tag enclosing the value.
+        int size = ((propertyIdentifier > 0xFF) ? 3 : 2) + 2;
+        return size + (STRING_PROPERTIES.contains(propertyIdentifier) ? STRING_VALUE_SIZE : VALUE_SIZE);
+    }
+
+    private PlcReadRequest createSubRequest(PlcReadRequest readRequest, Map<String, PlcField> fields) {
+        return new DefaultPlcReadRequest(((DefaultPlcReadRequest) readRequest).getReader(),
+            new LinkedHashMap<>(fields));
+    }
+
+}
@@ -19,6 +19,8 @@ under the License.
 package org.apache.plc4x.java.bacnetip.protocol;
 
 import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.apache.plc4x.java.api.messages.PlcReadResponse;
 import org.apache.plc4x.java.api.messages.PlcSubscriptionEvent;
 import org.apache.plc4x.java.api.messages.PlcSubscriptionRequest;
 import org.apache.plc4x.java.api.messages.PlcSubscriptionResponse;
@@ -27,45 +29,107 @@ import org.apache.plc4x.java.api.model.PlcSubscriptionHandle;
 import org.apache.plc4x.java.api.types.PlcResponseCode;
 import org.apache.plc4x.java.api.value.*;
 import org.apache.plc4x.java.bacnetip.configuration.BacNetIpConfiguration;
+import org.apache.plc4x.java.bacnetip.context.BacNetIpDriverContext;
 import org.apache.plc4x.java.bacnetip.ede.EdeParser;
 import org.apache.plc4x.java.bacnetip.ede.model.Datapoint;
 import org.apache.plc4x.java.bacnetip.ede.model.EdeModel;
 import org.apache.plc4x.java.bacnetip.field.BacNetIpField;
+import org.apache.plc4x.java.bacnetip.model.BacNetIpSubscriptionHandle;
 import org.apache.plc4x.java.bacnetip.readwrite.*;
+import org.apache.plc4x.java.bacnetip.readwrite.io.BACnetServiceAckIO;
 import org.apache.plc4x.java.spi.ConversationContext;
 import org.apache.plc4x.java.spi.Plc4xProtocolBase;
 import org.apache.plc4x.java.spi.configuration.HasConfiguration;
+import org.apache.plc4x.java.spi.generation.ParseException;
+import org.apache.plc4x.java.spi.generation.ReadBuffer;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadResponse;
 import org.apache.plc4x.java.spi.messages.DefaultPlcSubscriptionEvent;
 import org.apache.plc4x.java.spi.messages.DefaultPlcSubscriptionResponse;
+import org.apache.plc4x.java.spi.messages.InternalPlcReadRequest;
 import org.apache.plc4x.java.spi.messages.InternalPlcSubscriptionRequest;
 import org.apache.plc4x.java.spi.messages.PlcSubscriber;
 import org.apache.plc4x.java.spi.messages.utils.ResponseItem;
 import org.apache.plc4x.java.spi.model.DefaultPlcConsumerRegistration;
-import org.apache.plc4x.java.spi.model.DefaultPlcSubscriptionHandle;
 import org.apache.plc4x.java.spi.model.InternalPlcSubscriptionHandle;
+import org.apache.plc4x.java.spi.transaction.RequestTransactionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 public class BacNetIpProtocolLogic extends Plc4xProtocolBase<BVLC> implements HasConfiguration<BacNetIpConfiguration>, PlcSubscriber {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BacNetIpProtocolLogic.class);
 
+    // Process identifier all our COV subscriptions are registered with.
+    private static final short SUBSCRIBER_PROCESS_IDENTIFIER = 1;
+
+    // Object type and the "wildcard" instance addressing the device object of the device we're connected to.
+    private static final int OBJECT_TYPE_DEVICE = 8;
+    private static final long WILDCARD_DEVICE_INSTANCE = 0x3FFFFF;
+
+    // Properties
+    private static final int PROPERTY_MAX_APDU_LENGTH_ACCEPTED = 62;
+
+    // Service choices
+    private static final short SERVICE_CHOICE_CONFIRMED_COV_NOTIFICATION = 0x01;
+
+    // Encoded values of the max-segments-accepted (64) and max-APDU-length-accepted (1476) we announce.
+    private static final byte MAX_SEGMENTS_ACCEPTED = 6;
+    private static final byte MAX_APDU_LENGTH_ACCEPTED = 5;
+
+    // Reasons for aborting or rejecting a request.
+    private static final int ABORT_REASON_BUFFER_OVERFLOW = 1;
+    private static final int ABORT_REASON_SEGMENTATION_NOT_SUPPORTED = 4;
+    private static final int ABORT_REASON_APDU_TOO_LONG = 11;
+    private static final int REJECT_REASON_UNRECOGNIZED_SERVICE = 9;
+
+    // The invoke id is transferred as uint 8.
+    private static final int MAX_INVOKE_IDS = 256;
+
+    private BacNetIpConfiguration configuration;
+
     private EdeModel edeModel;
 
-    private Map<Integer, Consumer<PlcSubscriptionEvent>> consumerIdMap = new ConcurrentHashMap<>();
+    private final RequestTransactionManager tm = new RequestTransactionManager(1);
+
+    private final AtomicInteger invokeIdGenerator = new AtomicInteger(0);
+
+    // Invoke ids of the requests, which are still waiting for their response.
+    private final Set<Short> invokeIdsInUse = ConcurrentHashMap.newKeySet();
+
+    // Devices not supporting ReadPropertyMultiple are read one property at a time.
+    private volatile boolean readPropertyMultipleSupported = true;
+
+    // Objects (and property) we're subscribed to with the number of subscription handles using them (All share the
+    // same lifetime and are renewed together). Access to this map and covHandles is synchronized on this map.
+    private final Map<BacNetIpField, Integer> covSubscriptions = new HashMap<>();
+
+    // Objects every subscription handle holds a reference to (Handles are compared by identity, as two subscriptions
+    // of the same field produce equal handles).
+    private final Map<BacNetIpSubscriptionHandle, List<BacNetIpField>> covHandles = new IdentityHashMap<>();
+
+    private ScheduledFuture<?> covRenewal;
+
+    private final Map<DefaultPlcConsumerRegistration, Consumer<PlcSubscriptionEvent>> consumers = new ConcurrentHashMap<>();
 
     @Override
     public void setConfiguration(BacNetIpConfiguration configuration) {
+        this.configuration = configuration;
+        // The invoke ids limit the number of requests in flight.
+        this.tm.setNumberOfConcurrentRequests(
+            Math.max(1, Math.min(configuration.getMaxInFlight(), MAX_INVOKE_IDS - 1)));
         if (configuration.getEdeFilePath() != null) {
             File edeFile = new File(configuration.getEdeFilePath());
             if (edeFile.exists() && edeFile.isFile()) {
@@ -91,13 +155,25 @@ public class BacNetIpProtocolLogic extends Plc4xProtocolBase<BVLC> implements Ha
 
     @Override
     public void onConnect(ConversationContext<BVLC> context) {
-        if(context.isPassive()) {
-            context.fireConnected();
-        } else {
-            throw new PlcRuntimeException("Active connections not yet supported");
+        context.fireConnected();
+        if (!context.isPassive()) {
+            // The size of the ReadPropertyMultiple requests depends on the max APDU length the device accepts.
+            readMaxApduLengthAccepted();
         }
     }
 
+    @Override
+    public void onDisconnect(ConversationContext<BVLC> context) {
+        super.onDisconnect(context);
+        stopCovRenewal();
+        // The subscriptions expire on the device as soon as they're not renewed anymore.
+        synchronized (covSubscriptions) {
+            covSubscriptions.clear();
+            covHandles.clear();
+        }
+        consumers.clear();
+    }
+
     @Override
     public void close(ConversationContext<BVLC> context) {
         // Nothing to do here ...
@@ -105,17 +181,7 @@ public class BacNetIpProtocolLogic extends Plc4xProtocolBase<BVLC> implements Ha
 
     @Override
     protected void decode(ConversationContext<BVLC> context, BVLC msg) throws Exception {
-        NPDU npdu = null;
-        if(msg instanceof BVLCOriginalUnicastNPDU) {
-            BVLCOriginalUnicastNPDU bvlcOriginalUnicastNPDU = (BVLCOriginalUnicastNPDU) msg;
-            npdu = bvlcOriginalUnicastNPDU.getNpdu();
-        } else if (msg instanceof BVLCForwardedNPDU) {
-            BVLCForwardedNPDU bvlcForwardedNPDU = (BVLCForwardedNPDU) msg;
-            npdu = bvlcForwardedNPDU.getNpdu();
-        } else if (msg instanceof BVLCOriginalBroadcastNPDU) {
-            BVLCOriginalBroadcastNPDU bvlcOriginalBroadcastNPDU = (BVLCOriginalBroadcastNPDU) msg;
-            npdu = bvlcOriginalBroadcastNPDU.getNpdu();
-        }
+        NPDU npdu = getNpdu(msg);
 
         if(npdu != null) {
             if(npdu.getApdu() instanceof APDUConfirmedRequest) {
@@ -125,39 +191,49 @@ public class BacNetIpProtocolLogic extends Plc4xProtocolBase<BVLC> implements Ha
                 if(serviceRequest instanceof BACnetConfirmedServiceRequestConfirmedCOVNotification) {
                     BACnetConfirmedServiceRequestConfirmedCOVNotification valueChange =
                         (BACnetConfirmedServiceRequestConfirmedCOVNotification) serviceRequest;
+                    // If we subscribed to the notifications, we have to confirm them.
+                    if(!context.isPassive()) {
+                        sendToDevice(new APDUSimpleAck(apduConfirmedRequest.getInvokeId(),
+                            SERVICE_CHOICE_CONFIRMED_COV_NOTIFICATION), false);
+                    }
 
                     long deviceIdentifier = valueChange.getMonitoredObjectInstanceNumber();
                     int objectType = valueChange.getIssueConfirmedNotificationsType();
                     long objectInstance = valueChange.getIssueConfirmedNotificationsInstanceNumber();
-                    BacNetIpField curField = new BacNetIpField(deviceIdentifier, objectType, objectInstance);
+                    BacNetIpField curObject = new BacNetIpField(deviceIdentifier, objectType, objectInstance);
 
                     // The actual value change is in the notifications ... iterate throught them to get it.
                     for (BACnetTagWithContent notification : valueChange.getNotifications()) {
-                        // These are value change notifications. Ignore the rest.
-                        if(notification.getPropertyIdentifier()[0] == (short) 0x55) {
-                            final BACnetTag baCnetTag = notification.getValue();
-                            final PlcValue plcValue = baCnetTag.toPlcValue();
-
-                            // Initialize an enriched version of the PlcStruct.
-                            final Map<String, PlcValue> enrichedPlcValue = new HashMap<>();
-                            enrichedPlcValue.put("deviceIdentifier", new PlcLong(deviceIdentifier));
-                            enrichedPlcValue.put("objectType", new PlcInteger(objectType));
-                            enrichedPlcValue.put("objectInstance", new PlcLong(objectInstance));
-                            enrichedPlcValue.put("address", new PlcString(toString(curField)));
-                            // Add all of the existing attributes.
-                            enrichedPlcValue.putAll(plcValue.getStruct());
-
-                            // Use the information in the edeModel to enrich the information.
-                            if(edeModel != null) {
-                                final Datapoint datapoint = edeModel.getDatapoint(curField);
-                                if(datapoint != null) {
-                                    // Add all the attributes from the ede file.
-                                    enrichedPlcValue.putAll(datapoint.toPlcValues());
-                                }
+                        int propertyIdentifier = toPropertyIdentifier(notification.getPropertyIdentifier());
+                        final BacNetIpField curField = new BacNetIpField(
+                            deviceIdentifier, objectType, objectInstance, propertyIdentifier);
+                        // Only forward the properties somebody subscribed to (By default only the present value).
+                        if(!isSubscribed(curField)) {
+                            continue;
+                        }
+                        final BACnetTag baCnetTag = notification.getValue();
+                        final PlcValue plcValue = baCnetTag.toPlcValue();
+
+                        // Initialize an enriched version of the PlcStruct.
+                        final Map<String, PlcValue> enrichedPlcValue = new HashMap<>();
+                        enrichedPlcValue.put("deviceIdentifier", new PlcLong(deviceIdentifier));
+                        enrichedPlcValue.put("objectType", new PlcInteger(objectType));
+                        enrichedPlcValue.put("objectInstance", new PlcLong(objectInstance));
+                        enrichedPlcValue.put("propertyIdentifier", new PlcInteger(propertyIdentifier));
+                        enrichedPlcValue.put("address", new PlcString(toString(curField)));
+                        // Add all of the existing attributes.
+                        enrichedPlcValue.putAll(plcValue.getStruct());
+
+                        // Use the information in the edeModel to enrich the information.
+                        if(edeModel != null) {
+                            final Datapoint datapoint = edeModel.getDatapoint(curObject);
+                            if(datapoint != null) {
+                                // Add all the attributes from the ede file.
+                                enrichedPlcValue.putAll(datapoint.toPlcValues());
                             }
-                            // Send out the enriched event.
-                            publishEvent(curField, new PlcStruct(enrichedPlcValue));
                         }
+                        // Send out the enriched event.
+                        publishEvent(curField, new PlcStruct(enrichedPlcValue));
                     }
                 }
                 // Someone read a value.
@@ -180,18 +256,20 @@ public class BacNetIpProtocolLogic extends Plc4xProtocolBase<BVLC> implements Ha
                 } else if(serviceRequest instanceof BACnetUnconfirmedServiceRequestWhoIs){
                     // Ignore this ...
                 } else if(serviceRequest instanceof BACnetUnconfirmedServiceRequestIAm){
-                    // Ignore this ...
+                    // Active connections only receive the messages of the device they're connected to.
+                    if(!context.isPassive()) {
+                        BACnetUnconfirmedServiceRequestIAm iAm = (BACnetUnconfirmedServiceRequestIAm) serviceRequest;
+                        updateMaxApduLengthAccepted(
+                            BacNetIpValueDecoder.decodeUnsigned(iAm.getMaximumApduLengthAccepted()));
+                    }
                 } else if(serviceRequest instanceof BACnetUnconfirmedServiceRequestUnconfirmedPrivateTransfer){
                     // Ignore this ...
                 } else {
                     LOGGER.debug(String.format("Unexpected UnconfirmedServiceRequest type: %s", serviceRequest.getClass().getName()));
                 }
-            } else if(npdu.getApdu() instanceof APDUError) {
-                APDUError apduError = (APDUError) npdu.getApdu();
-            } else if(npdu.getApdu() instanceof APDUSimpleAck) {
-                // Ignore this ...
-            } else if(npdu.getApdu() instanceof APDUComplexAck) {
-                // Ignore this ...
+            } else if(getOriginalInvokeId(npdu.getApdu()) >= 0) {
+                // Responses of pending requests are taken by their response handlers.
+                LOGGER.debug("Got response for unknown invoke id {}", getOriginalInvokeId(npdu.getApdu()));
             } else if((npdu.getApdu() == null) && (npdu.getNlm() != null)){
                 // "Who is router?" & "I am router" messages.
                 // Ignore this ...
@@ -201,44 +279,662 @@ public class BacNetIpProtocolLogic extends Plc4xProtocolBase<BVLC> implements Ha
         }
     }
 
+    @Override
+    public CompletableFuture<PlcReadResponse> read(PlcReadRequest readRequest) {
+        if (context.isPassive()) {
+            CompletableFuture<PlcReadResponse> future = new CompletableFuture<>();
+            future.completeExceptionally(new PlcRuntimeException("Passive connections can't read"));
+            return future;
+        }
+        // Every property is only read once, even if it's part of the request more than once.
+        Map<BacNetIpField, List<String>> fieldNamesByProperty = new LinkedHashMap<>();
+        Map<String, ResponseItem<PlcValue>> values = new HashMap<>();
+        for (String fieldName : readRequest.getFieldNames()) {
+            BacNetIpField field = (BacNetIpField) readRequest.getField(fieldName);
+            if (!field.isConcrete()) {
+                values.put(fieldName, new ResponseItem<>(PlcResponseCode.INVALID_ADDRESS, null));
+                continue;
+            }
+            fieldNamesByProperty.computeIfAbsent(field, key -> new ArrayList<>()).add(fieldName);
+        }
+        return readProperties(new ArrayList<>(fieldNamesByProperty.keySet())).thenApply(results -> {
+            for (Map.Entry<BacNetIpField, List<String>> entry : fieldNamesByProperty.entrySet()) {
+                ResponseItem<PlcValue> result = results.getOrDefault(entry.getKey(),
+                    new ResponseItem<>(PlcResponseCode.REMOTE_ERROR, null));
+                for (String fieldName : entry.getValue()) {
+                    values.put(fieldName, result);
+                }
+            }
+            return new DefaultPlcReadResponse((InternalPlcReadRequest) readRequest, values);
+        });
+    }
+
+    /**
+     * Reads the given properties with one ReadPropertyMultiple request. The optimizer already limited the number
+     * of properties to the ones of one device fitting into one APDU, if the response still doesn't fit and the
+     * device can't segment it, the request is split in halves.
+     */
+    protected CompletableFuture<Map<BacNetIpField, ResponseItem<PlcValue>>> readProperties(List<BacNetIpField> properties) {
+        if (properties.isEmpty()) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+        if (!readPropertyMultipleSupported) {
+            return readPropertiesIndividually(properties);
+        }
+
+        // Group the properties by object.
+        Map<BacNetIpField, List<BACnetPropertyReference>> referencesByObject = new LinkedHashMap<>();
+        for (BacNetIpField property : properties) {
+            BacNetIpField object = new BacNetIpField(
+                property.getDeviceIdentifier(), property.getObjectType(), property.getObjectInstance());
+            byte[] propertyIdentifier = BacNetIpValueDecoder.encodeUnsigned(property.getPropertyIdentifier());
+            referencesByObject.computeIfAbsent(object, key -> new ArrayList<>()).add(
+                new BACnetPropertyReference((byte) propertyIdentifier.length, propertyIdentifier));
+        }
+        List<BACnetReadAccessSpecification> specifications = new ArrayList<>(referencesByObject.size());
+        for (Map.Entry<BacNetIpField, List<BACnetPropertyReference>> entry : referencesByObject.entrySet()) {
+            specifications.add(new BACnetReadAccessSpecification(entry.getKey().getObjectType(),
+                entry.getKey().getObjectInstance(), entry.getValue().toArray(new BACnetPropertyReference[0])));
+        }
+        final long deviceIdentifier = properties.get(0).getDeviceIdentifier();
+
+        CompletableFuture<Map<BacNetIpField, ResponseItem<PlcValue>>> future = new CompletableFuture<>();
+        sendConfirmedRequest(new BACnetConfirmedServiceRequestReadPropertyMultiple(
+            specifications.toArray(new BACnetReadAccessSpecification[0])), future::completeExceptionally, apdu -> {
+            if ((apdu instanceof APDUComplexAck) &&
+                (((APDUComplexAck) apdu).getServiceAck() instanceof BACnetServiceAckReadPropertyMultiple)) {
+                BACnetServiceAckReadPropertyMultiple serviceAck =
+                    (BACnetServiceAckReadPropertyMultiple) ((APDUComplexAck) apdu).getServiceAck();
+                future.complete(decodeReadAccessResults(deviceIdentifier, serviceAck.getListOfReadAccessResults()));
+            } else if ((apdu instanceof APDUAbort) && (properties.size() > 1) &&
+                isResponseTooLarge(((APDUAbort) apdu).getAbortReason())) {
+                // Read the two halves separately.
+                List<BacNetIpField> firstHalf = properties.subList(0, properties.size() / 2);
+                List<BacNetIpField> secondHalf = properties.subList(properties.size() / 2, properties.size());
+                readProperties(firstHalf).thenCombine(readProperties(secondHalf), (first, second) -> {
+                    first.putAll(second);
+                    return first;
+                }).whenComplete((results, throwable) -> {
+                    if (throwable != null) {
+                        future.completeExceptionally(throwable);
+                    } else {
+                        future.complete(results);
+                    }
+                });
+            } else if ((apdu instanceof APDUReject) &&
+                (((APDUReject) apdu).getRejectReason() == REJECT_REASON_UNRECOGNIZED_SERVICE)) {
+                LOGGER.info("Device doesn't support ReadPropertyMultiple, reading one property at a time");
+                readPropertyMultipleSupported = false;
+                readPropertiesIndividually(properties).whenComplete((results, throwable) -> {
+                    if (throwable != null) {
+                        future.completeExceptionally(throwable);
+                    } else {
+                        future.complete(results);
+                    }
+                });
+            } else {
+                // The whole request failed.
+                PlcResponseCode responseCode = getResponseCode(apdu);
+                Map<BacNetIpField, ResponseItem<PlcValue>> results = new HashMap<>();
+                for (BacNetIpField property : properties) {
+                    results.put(property, new ResponseItem<>(responseCode, null));
+                }
+                future.complete(results);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Fallback for devices not supporting ReadPropertyMultiple (The requests are still sent in parallel).
+     */
+    protected CompletableFuture<Map<BacNetIpField, ResponseItem<PlcValue>>> readPropertiesIndividually(List<BacNetIpField> properties) {
+        Map<BacNetIpField, ResponseItem<PlcValue>> results = new ConcurrentHashMap<>();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[properties.size()];
+        for (int i = 0; i < properties.size(); i++) {
+            final BacNetIpField property = properties.get(i);
+            futures[i] = readProperty(property).thenAccept(result -> results.put(property, result));
+        }
+        return CompletableFuture.allOf(futures).thenApply(ignore -> results);
+    }
+
+    protected CompletableFuture<ResponseItem<PlcValue>> readProperty(BacNetIpField property) {
+        CompletableFuture<ResponseItem<PlcValue>> future = new CompletableFuture<>();
+        byte[] propertyIdentifier = BacNetIpValueDecoder.encodeUnsigned(property.getPropertyIdentifier());
+        sendConfirmedRequest(new BACnetConfirmedServiceRequestReadProperty(property.getObjectType(),
+            property.getObjectInstance(), (byte) propertyIdentifier.length, propertyIdentifier),
+            future::completeExceptionally, apdu -> {
+                if ((apdu instanceof APDUComplexAck) &&
+                    (((APDUComplexAck) apdu).getServiceAck() instanceof BACnetServiceAckReadProperty)) {
+                    BACnetServiceAckReadProperty serviceAck =
+                        (BACnetServiceAckReadProperty) ((APDUComplexAck) apdu).getServiceAck();
+                    future.complete(new ResponseItem<>(PlcResponseCode.OK,
+                        BacNetIpValueDecoder.decodeValue(serviceAck.getValue())));
+                } else {
+                    future.complete(new ResponseItem<>(getResponseCode(apdu), null));
+                }
+            });
+        return future;
+    }
+
+    private Map<BacNetIpField, ResponseItem<PlcValue>> decodeReadAccessResults(long deviceIdentifier,
+                                                                             BACnetReadAccessResult[] readAccessResults) {
+        Map<BacNetIpField, ResponseItem<PlcValue>> results = new HashMap<>();
+        for (BACnetReadAccessResult readAccessResult : readAccessResults) {
+            for (BACnetReadAccessPropertyResult propertyResult : readAccessResult.getListOfResults()) {
+                BacNetIpField property = new BacNetIpField(deviceIdentifier, readAccessResult.getObjectType(),
+                    readAccessResult.getObjectInstanceNumber(),
+                    (int) BacNetIpValueDecoder.decodeUnsigned(propertyResult.getPropertyIdentifier()));
+                if (propertyResult instanceof BACnetReadAccessPropertyResultValue) {
+                    results.put(property, new ResponseItem<>(PlcResponseCode.OK, BacNetIpValueDecoder.decodeValues(
+                        ((BACnetReadAccessPropertyResultValue) propertyResult).getValues())));
+                } else if (propertyResult instanceof BACnetReadAccessPropertyResultError) {
+                    BACnetReadAccessPropertyResultError error = (BACnetReadAccessPropertyResultError) propertyResult;
+                    results.put(property, new ResponseItem<>(
+                        BacNetIpValueDecoder.decodeError(error.getErrorClass(), error.getErrorCode()), null));
+                }
+            }
+        }
+        return results;
+    }
+
+    private boolean isResponseTooLarge(int abortReason) {
+        return (abortReason == ABORT_REASON_SEGMENTATION_NOT_SUPPORTED) ||
+            (abortReason == ABORT_REASON_BUFFER_OVERFLOW) || (abortReason == ABORT_REASON_APDU_TOO_LONG);
+    }
+
+    private void readMaxApduLengthAccepted() {
+        BacNetIpField property = new BacNetIpField(BacNetIpField.LONG_WILDCARD, OBJECT_TYPE_DEVICE,
+            WILDCARD_DEVICE_INSTANCE, PROPERTY_MAX_APDU_LENGTH_ACCEPTED);
+        readProperty(property).whenComplete((result, throwable) -> {
+            if ((throwable == null) && (result.getCode() == PlcResponseCode.OK)) {
+                updateMaxApduLengthAccepted(result.getValue().getLong());
+            } else {
+                LOGGER.debug("Unable to read the max APDU length accepted by the device, using the configured one");
+            }
+        });
+    }
+
+    private void updateMaxApduLengthAccepted(long maxApduLengthAccepted) {
+        if (driverContext instanceof BacNetIpDriverContext) {
+            LOGGER.debug("Device accepts APDUs of up to {} bytes", maxApduLengthAccepted);
+            ((BacNetIpDriverContext) driverContext).setMaxApduLengthAccepted((int) maxApduLengthAccepted);
+        }
+    }
+
     @Override
     public CompletableFuture<PlcSubscriptionResponse> subscribe(PlcSubscriptionRequest subscriptionRequest) {
-        Map<String, ResponseItem<PlcSubscriptionHandle>> values = new HashMap<>();
+        InternalPlcSubscriptionRequest internalRequest = (InternalPlcSubscriptionRequest) subscriptionRequest;
+        Map<String, ResponseItem<PlcSubscriptionHandle>> values = new ConcurrentHashMap<>();
+        // Passive connections just listen to the notifications of the subscriptions of others.
+        if (context.isPassive()) {
+            for (String fieldName : subscriptionRequest.getFieldNames()) {
+                values.put(fieldName, new ResponseItem<>(PlcResponseCode.OK, new BacNetIpSubscriptionHandle(
+                    this, fieldName, (BacNetIpField) subscriptionRequest.getField(fieldName))));
+            }
+            return CompletableFuture.completedFuture(new DefaultPlcSubscriptionResponse(internalRequest, values));
+        }
+
+        // Every object is only subscribed once, even if more than one field covers it.
+        Map<BacNetIpField, CompletableFuture<PlcResponseCode>> subscriptions = new HashMap<>();
+        List<CompletableFuture<?>> futures = new ArrayList<>();
         for (String fieldName : subscriptionRequest.getFieldNames()) {
-            values.put(fieldName, new ResponseItem<>(PlcResponseCode.OK, new DefaultPlcSubscriptionHandle(this)));
+            final BacNetIpField field = (BacNetIpField) subscriptionRequest.getField(fieldName);
+            final List<BacNetIpField> objects = resolveCovObjects(field);
+            if (objects.isEmpty()) {
+                values.put(fieldName, new ResponseItem<>(PlcResponseCode.NOT_FOUND, null));
+                continue;
+            }
+            List<CompletableFuture<PlcResponseCode>> fieldSubscriptions = new ArrayList<>(objects.size());
+            for (BacNetIpField object : objects) {
+                fieldSubscriptions.add(subscriptions.computeIfAbsent(object, key -> isCovSubscribed(key) ?
+                    CompletableFuture.completedFuture(PlcResponseCode.OK) : subscribeCov(key)));
+            }
+            // The field is subscribed, as soon as at least one of its objects is.
+            futures.add(CompletableFuture.allOf(fieldSubscriptions.toArray(new CompletableFuture[0])).thenRun(() -> {
+                PlcResponseCode responseCode = fieldSubscriptions.get(0).join();
+                List<BacNetIpField> subscribedObjects = new ArrayList<>(objects.size());
+                for (int i = 0; i < objects.size(); i++) {
+                    if (fieldSubscriptions.get(i).join() == PlcResponseCode.OK) {
+                        responseCode = PlcResponseCode.OK;
+                        subscribedObjects.add(objects.get(i));
+                    }
+                }
+                BacNetIpSubscriptionHandle handle = null;
+                if (responseCode == PlcResponseCode.OK) {
+                    handle = new BacNetIpSubscriptionHandle(this, fieldName, field);
+                    acquireCovSubscriptions(handle, subscribedObjects);
+                }
+                values.put(fieldName, new ResponseItem<>(responseCode, handle));
+            }));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(ignore -> {
+            startCovRenewal();
+            return new DefaultPlcSubscriptionResponse(internalRequest, values);
+        });
+    }
+
+    /**
+     * @return objects to subscribe to for the given field: The objects of the EDE model supporting COV matching the
+     * field or, if there are none, the field itself (if it doesn't contain any wildcards).
+     */
+    protected List<BacNetIpField> resolveCovObjects(BacNetIpField field) {
+        List<BacNetIpField> objects = new ArrayList<>();
+        if (edeModel != null) {
+            for (Datapoint datapoint : edeModel.getDatapoints()) {
+                BacNetIpField address = datapoint.getAddress();
+                if (field.matches(address) && !Boolean.FALSE.equals(datapoint.getSupportsCov())) {
+                    objects.add(new BacNetIpField(address.getDeviceIdentifier(), address.getObjectType(),
+                        address.getObjectInstance(), field.getPropertyIdentifier()));
+                }
+            }
+        }
+        if (objects.isEmpty() && field.isConcrete()) {
+            objects.add(field);
+        }
+        return objects;
+    }
+
+    /**
+     * Subscribes to the changes of the present value (SubscribeCOV) or any other property (SubscribeCOVProperty)
+     * of the given object.
+     */
+    protected CompletableFuture<PlcResponseCode> subscribeCov(BacNetIpField object) {
+        CompletableFuture<PlcResponseCode> future = new CompletableFuture<>();
+        byte[] lifetime = BacNetIpValueDecoder.encodeUnsigned(configuration.getCovLifetime());
+        sendConfirmedRequest(createSubscribeCovRequest(object,
+            new BACnetSubscribeCOVParameters(true, (byte) lifetime.length, lifetime)), throwable -> {
+            LOGGER.warn("Unable to subscribe to {}", toString(object), throwable);
+            future.complete(PlcResponseCode.REMOTE_ERROR);
+        }, apdu -> {
+            PlcResponseCode responseCode = (apdu instanceof APDUSimpleAck) ? PlcResponseCode.OK : getResponseCode(apdu);
+            if (responseCode != PlcResponseCode.OK) {
+                LOGGER.warn("Unable to subscribe to {}: {}", toString(object), responseCode);
+            }
+            future.complete(responseCode);
+        });
+        return future;
+    }
+
+    /**
+     * Cancels the subscription of the given object (A SubscribeCOV or SubscribeCOVProperty request without
+     * parameters). If this fails, the subscription on the device expires after its lifetime.
+     */
+    protected void cancelCov(BacNetIpField object) {
+        sendConfirmedRequest(createSubscribeCovRequest(object, null), throwable ->
+            LOGGER.warn("Unable to cancel the subscription of {}", toString(object), throwable), apdu -> {
+            if (!(apdu instanceof APDUSimpleAck)) {
+                LOGGER.warn("Unable to cancel the subscription of {}: {}", toString(object), getResponseCode(apdu));
+            }
+        });
+    }
+
+    private BACnetConfirmedServiceRequest createSubscribeCovRequest(BacNetIpField object,
+                                                                    BACnetSubscribeCOVParameters parameters) {
+        if (object.getPropertyIdentifier() == BacNetIpField.PRESENT_VALUE) {
+            return new BACnetConfirmedServiceRequestSubscribeCOV(SUBSCRIBER_PROCESS_IDENTIFIER,
+                object.getObjectType(), object.getObjectInstance(), parameters);
+        }
+        byte[] propertyIdentifier = BacNetIpValueDecoder.encodeUnsigned(object.getPropertyIdentifier());
+        return new BACnetConfirmedServiceRequestSubscribeCOVProperty(SUBSCRIBER_PROCESS_IDENTIFIER,
+            object.getObjectType(), object.getObjectInstance(), parameters,
+            (byte) propertyIdentifier.length, propertyIdentifier);
+    }
+
+    private boolean isCovSubscribed(BacNetIpField object) {
+        synchronized (covSubscriptions) {
+            return covSubscriptions.containsKey(object);
+        }
+    }
+
+    private boolean hasCovSubscriptions() {
+        synchronized (covSubscriptions) {
+            return !covSubscriptions.isEmpty();
+        }
+    }
+
+    /**
+     * Every subscription handle holds a reference to the objects it was subscribed to.
+     */
+    private void acquireCovSubscriptions(BacNetIpSubscriptionHandle handle, List<BacNetIpField> objects) {
+        synchronized (covSubscriptions) {
+            covHandles.put(handle, objects);
+            for (BacNetIpField object : objects) {
+                covSubscriptions.merge(object, 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Releases the references of the given handle. Subscriptions of objects no other handle references anymore are
+     * cancelled, and without any subscriptions left, there is nothing to renew anymore.
+     */
+    private void releaseCovSubscriptions(BacNetIpSubscriptionHandle handle) {
+        List<BacNetIpField> unusedObjects = new ArrayList<>();
+        boolean noneLeft;
+        synchronized (covSubscriptions) {
+            List<BacNetIpField> objects = covHandles.remove(handle);
+            if (objects == null) {
+                return;
+            }
+            for (BacNetIpField object : objects) {
+                if (covSubscriptions.merge(object, -1, Integer::sum) <= 0) {
+                    covSubscriptions.remove(object);
+                    unusedObjects.add(object);
+                }
+            }
+            noneLeft = covSubscriptions.isEmpty();
+        }
+        if (noneLeft) {
+            stopCovRenewal();
+        }
+        for (BacNetIpField object : unusedObjects) {
+            cancelCov(object);
+        }
+    }
+
+    /**
+     * All subscriptions share the same lifetime, so a single timer renews all of them (after half of their
+     * lifetime has passed). A lifetime of 0 makes them last "forever".
+     */
+    protected synchronized void startCovRenewal() {
+        final long lifetime = configuration.getCovLifetime();
+        if ((covRenewal != null) || (lifetime <= 0) || !hasCovSubscriptions()) {
+            return;
+        }
+        final long period = Math.max(1, lifetime / 2);
+        covRenewal = context.getChannel().eventLoop().scheduleAtFixedRate(() -> {
+            List<BacNetIpField> objects;
+            synchronized (covSubscriptions) {
+                objects = new ArrayList<>(covSubscriptions.keySet());
+            }
+            for (BacNetIpField object : objects) {
+                subscribeCov(object);
+            }
+        }, period, period, TimeUnit.SECONDS);
+    }
+
+    protected synchronized void stopCovRenewal() {
+        if (covRenewal != null) {
+            covRenewal.cancel(false);
+            covRenewal = null;
         }
-        return CompletableFuture.completedFuture(
-            new DefaultPlcSubscriptionResponse((InternalPlcSubscriptionRequest) subscriptionRequest, values));
     }
 
     @Override
     public PlcConsumerRegistration register(Consumer<PlcSubscriptionEvent> consumer, Collection<PlcSubscriptionHandle> collection) {
         final DefaultPlcConsumerRegistration consumerRegistration =
             new DefaultPlcConsumerRegistration(this, consumer, collection.toArray(new InternalPlcSubscriptionHandle[0]));
-        consumerIdMap.put(consumerRegistration.getConsumerHash(), consumer);
+        consumers.put(consumerRegistration, consumer);
         return consumerRegistration;
     }
 
     @Override
     public void unregister(PlcConsumerRegistration plcConsumerRegistration) {
         DefaultPlcConsumerRegistration consumerRegistration = (DefaultPlcConsumerRegistration) plcConsumerRegistration;
-        consumerIdMap.remove(consumerRegistration.getConsumerHash());
+        consumers.remove(consumerRegistration);
+        // Handles still used by other registrations keep their subscriptions.
+        Set<InternalPlcSubscriptionHandle> usedHandles = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (DefaultPlcConsumerRegistration registration : consumers.keySet()) {
+            usedHandles.addAll(registration.getAssociatedHandles());
+        }
+        for (InternalPlcSubscriptionHandle handle : consumerRegistration.getAssociatedHandles()) {
+            if ((handle instanceof BacNetIpSubscriptionHandle) && !usedHandles.contains(handle)) {
+                releaseCovSubscriptions((BacNetIpSubscriptionHandle) handle);
+            }
+        }
+    }
+
+    private boolean isSubscribed(BacNetIpField field) {
+        for (DefaultPlcConsumerRegistration registration : consumers.keySet()) {
+            for (InternalPlcSubscriptionHandle handle : registration.getAssociatedHandles()) {
+                if ((handle instanceof BacNetIpSubscriptionHandle) &&
+                    matches(((BacNetIpSubscriptionHandle) handle).getField(), field)) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
     protected void publishEvent(BacNetIpField field, PlcValue plcValue) {
-        // Create a subscription event from the input.
-        final PlcSubscriptionEvent event = new DefaultPlcSubscriptionEvent(Instant.now(),
-            Collections.singletonMap("event", new ResponseItem(PlcResponseCode.OK, plcValue)));
+        // Send the subscription event to all listeners subscribed to the current field (using their field names).
+        for (Map.Entry<DefaultPlcConsumerRegistration, Consumer<PlcSubscriptionEvent>> entry : consumers.entrySet()) {
+            Map<String, ResponseItem<PlcValue>> values = new HashMap<>();
+            for (InternalPlcSubscriptionHandle handle : entry.getKey().getAssociatedHandles()) {
+                if (handle instanceof BacNetIpSubscriptionHandle) {
+                    BacNetIpSubscriptionHandle subscriptionHandle = (BacNetIpSubscriptionHandle) handle;
+                    if (matches(subscriptionHandle.getField(), field)) {
+                        values.put(subscriptionHandle.getPlcFieldName(), new ResponseItem<>(PlcResponseCode.OK, plcValue));
+                    }
+                }
+            }
+            if (!values.isEmpty()) {
+                entry.getValue().accept(new DefaultPlcSubscriptionEvent(Instant.now(), values));
+            }
+        }
+    }
 
-        // Send the subscription event to all listeners.
-        for (Consumer<PlcSubscriptionEvent> consumer : consumerIdMap.values()) {
-            // TODO: Check if the subscription matches the current field ..
-            consumer.accept(event);
+    private static boolean matches(BacNetIpField subscribedField, BacNetIpField field) {
+        return subscribedField.matches(field) &&
+            (subscribedField.getPropertyIdentifier() == field.getPropertyIdentifier());
+    }
+
+    /**
+     * Sends a confirmed request to the device and passes the final response (SimpleAck, ComplexAck - reassembled,
+     * if it was segmented - Error, Reject or Abort) to the response handler. Responses are correlated to their
+     * requests by the invoke id, so up to max-in-flight requests are sent without waiting for the previous ones.
+     *
+     * @param serviceRequest  request
+     * @param errorHandler    called if the request times out or the connection is closed
+     * @param responseHandler called with the response
+     */
+    protected void sendConfirmedRequest(BACnetConfirmedServiceRequest serviceRequest,
+                                        Consumer<Throwable> errorHandler, Consumer<APDU> responseHandler) {
+        // Start a new request-transaction (Is ended as soon as the response arrives or the request fails)
+        RequestTransactionManager.RequestTransaction transaction = tm.startRequest();
+        transaction.submit(() -> {
+            short invokeId;
+            do {
+                invokeId = (short) (invokeIdGenerator.getAndIncrement() & 0xFF);
+            } while (!invokeIdsInUse.add(invokeId));
+            expectResponse(new PendingRequest(invokeId, transaction, errorHandler, responseHandler));
+            sendToDevice(new APDUConfirmedRequest(false, false, true, MAX_SEGMENTS_ACCEPTED,
+                MAX_APDU_LENGTH_ACCEPTED, invokeId, null, null, serviceRequest), true);
+        });
+    }
+
+    /**
+     * Registers the handler for the response to the given request or for the next segment of it (Large responses
+     * take longer than small ones, so every segment gets the full request timeout).
+     */
+    private void expectResponse(PendingRequest pendingRequest) {
+        final short invokeId = pendingRequest.invokeId;
+        context.expectRequest(BVLC.class, Duration.ofMillis(configuration.getRequestTimeout()))
+            .onTimeout(e -> pendingRequest.fail(new TimeoutException("No response for invoke id " + invokeId)))
+            .onError((p, e) -> pendingRequest.fail(e))
+            .check(bvlc -> (getNpdu(bvlc) != null) && (getOriginalInvokeId(getNpdu(bvlc).getApdu()) == invokeId))
+            .unwrap(bvlc -> getNpdu(bvlc).getApdu())
+            .handle(apdu -> {
+                if ((apdu instanceof APDUComplexAck) && ((APDUComplexAck) apdu).getSegmentedMessage()) {
+                    handleSegment(pendingRequest, (APDUComplexAck) apdu);
+                } else {
+                    pendingRequest.complete(apdu);
+                }
+            });
+    }
+
+    /**
+     * Collects the segments of a segmented response and acknowledges them, as soon as a window is complete. As
+     * soon as the last segment arrived, the complete response is parsed and passed to the request.
+     */
+    private void handleSegment(PendingRequest pendingRequest, APDUComplexAck segment) {
+        final short invokeId = pendingRequest.invokeId;
+        short sequenceNumber = segment.getSequenceNumber();
+        if (sequenceNumber == 0) {
+            // The first segment starts the response and contains the service choice.
+            pendingRequest.segments = new ByteArrayOutputStream();
+            pendingRequest.segments.write(segment.getSegmentServiceChoice());
+            pendingRequest.nextSequenceNumber = 0;
+            pendingRequest.segmentsInWindow = 0;
+            pendingRequest.windowSize = (short) Math.max(1, segment.getProposedWindowSize());
+        }
+        if ((pendingRequest.segments == null) || (sequenceNumber != pendingRequest.nextSequenceNumber)) {
+            // Ask for the segments following the last one we got in order.
+            expectResponse(pendingRequest);
+            short lastSequenceNumber = (short) ((pendingRequest.nextSequenceNumber - 1) & 0xFF);
+            sendToDevice(new APDUSegmentAck(true, false, invokeId, lastSequenceNumber, pendingRequest.windowSize), false);
+            return;
+        }
+        pendingRequest.segments.write(segment.getSegment(), 0, segment.getSegment().length);
+        pendingRequest.nextSequenceNumber = (sequenceNumber + 1) & 0xFF;
+        pendingRequest.segmentsInWindow++;
+
+        boolean lastSegment = !segment.getMoreFollows();
+        if (!lastSegment) {
+            expectResponse(pendingRequest);
+        }
+        if (lastSegment || (pendingRequest.segmentsInWindow >= pendingRequest.windowSize)) {
+            pendingRequest.segmentsInWindow = 0;
+            sendToDevice(new APDUSegmentAck(false, false, invokeId, sequenceNumber, pendingRequest.windowSize), false);
+        }
+        if (lastSegment) {
+            byte[] serviceAckBytes = pendingRequest.segments.toByteArray();
+            pendingRequest.segments = null;
+            try {
+                BACnetServiceAck serviceAck = BACnetServiceAckIO.staticParse(
+                    new ReadBuffer(serviceAckBytes), serviceAckBytes.length);
+                pendingRequest.complete(new APDUComplexAck(false, false, invokeId, null, null, serviceAck, null, null));
+            } catch (ParseException e) {
+                pendingRequest.fail(e);
+            }
+        }
+    }
+
+    private static NPDU getNpdu(BVLC bvlc) {
+        if (bvlc instanceof BVLCOriginalUnicastNPDU) {
+            return ((BVLCOriginalUnicastNPDU) bvlc).getNpdu();
+        } else if (bvlc instanceof BVLCForwardedNPDU) {
+            return ((BVLCForwardedNPDU) bvlc).getNpdu();
+        } else if (bvlc instanceof BVLCOriginalBroadcastNPDU) {
+            return ((BVLCOriginalBroadcastNPDU) bvlc).getNpdu();
+        }
+        return null;
+    }
+
+    /**
+     * @return invoke id of the request the given apdu is the response to or -1, if it isn't a response.
+     */
+    private static int getOriginalInvokeId(APDU apdu) {
+        if (apdu instanceof APDUError) {
+            return ((APDUError) apdu).getOriginalInvokeId();
+        } else if (apdu instanceof APDUSimpleAck) {
+            return ((APDUSimpleAck) apdu).getOriginalInvokeId();
+        } else if (apdu instanceof APDUComplexAck) {
+            return ((APDUComplexAck) apdu).getOriginalInvokeId();
+        } else if (apdu instanceof APDUReject) {
+            return ((APDUReject) apdu).getOriginalInvokeId();
+        } else if (apdu instanceof APDUAbort) {
+            return ((APDUAbort) apdu).getOriginalInvokeId();
+        }
+        return -1;
+    }
+
+    private void sendToDevice(APDU apdu, boolean expectingReply) {
+        NPDU npdu = new NPDU((short) 1, false, false, false, expectingReply, (byte) 0,
+            null, null, null, null, null, null, null, null, apdu);
+        context.sendToWire(new BVLCOriginalUnicastNPDU(npdu));
+    }
+
+    /**
+     * @return response code for responses other than the expected ack.
+     */
+    private PlcResponseCode getResponseCode(APDU apdu) {
+        if (apdu instanceof APDUError) {
+            BACnetError error = ((APDUError) apdu).getError();
+            if (error instanceof BACnetErrorReadProperty) {
+                return decodeError(((BACnetErrorReadProperty) error).getErrorClass(),
+                    ((BACnetErrorReadProperty) error).getErrorCode());
+            } else if (error instanceof BACnetErrorReadPropertyMultiple) {
+                return decodeError(((BACnetErrorReadPropertyMultiple) error).getErrorClass(),
+                    ((BACnetErrorReadPropertyMultiple) error).getErrorCode());
+            } else if (error instanceof BACnetErrorSubscribeCOV) {
+                return decodeError(((BACnetErrorSubscribeCOV) error).getErrorClass(),
+                    ((BACnetErrorSubscribeCOV) error).getErrorCode());
+            } else if (error instanceof BACnetErrorSubscribeCOVProperty) {
+                return decodeError(((BACnetErrorSubscribeCOVProperty) error).getErrorClass(),
+                    ((BACnetErrorSubscribeCOVProperty) error).getErrorCode());
+            }
+            return PlcResponseCode.REMOTE_ERROR;
+        } else if (apdu instanceof APDUReject) {
+            return (((APDUReject) apdu).getRejectReason() == REJECT_REASON_UNRECOGNIZED_SERVICE) ?
+                PlcResponseCode.UNSUPPORTED : PlcResponseCode.INVALID_DATA;
+        } else if (apdu instanceof APDUAbort) {
+            return PlcResponseCode.REMOTE_ERROR;
         }
+        return PlcResponseCode.INTERNAL_ERROR;
+    }
+
+    private PlcResponseCode decodeError(byte[] errorClass, byte[] errorCode) {
+        return BacNetIpValueDecoder.decodeError(
+            BacNetIpValueDecoder.decodeUnsigned(errorClass), BacNetIpValueDecoder.decodeUnsigned(errorCode));
+    }
+
+    private static int toPropertyIdentifier(short[] propertyIdentifier) {
+        int value = 0;
+        for (short b : propertyIdentifier) {
+            value = (value << 8) | (b & 0xFF);
+        }
+        return value;
     }
 
     private String toString(BacNetIpField field) {
-        return field.getDeviceIdentifier() + "/" + field.getObjectType() + "/" + field.getObjectInstance();
+        return field.getDeviceIdentifier() + "/" + field.getObjectType() + "/" + field.getObjectInstance() +
+            "/" + field.getPropertyIdentifier();
+    }
+
+    /**
+     * Request waiting for its response (and the segments of the response received so far).
+     */
+    private class PendingRequest {
+
+        private final short invokeId;
+        private final RequestTransactionManager.RequestTransaction transaction;
+        private final Consumer<Throwable> errorHandler;
+        private final Consumer<APDU> responseHandler;
+        private ByteArrayOutputStream segments;
+        private int nextSequenceNumber;
+        private int segmentsInWindow;
+        private short windowSize;
+
+        private PendingRequest(short invokeId, RequestTransactionManager.RequestTransaction transaction,
+                               Consumer<Throwable> errorHandler, Consumer<APDU> responseHandler) {
+            this.invokeId = invokeId;
+            this.transaction = transaction;
+            this.errorHandler = errorHandler;
+            this.responseHandler = responseHandler;
+        }
+
+        private void complete(APDU response) {
+            finish();
+            try {
+                responseHandler.accept(response);
+            } catch (RuntimeException e) {
+                errorHandler.accept(e);
+            }
+        }
+
+        private void fail(Throwable throwable) {
+            finish();
+            errorHandler.accept(throwable);
+        }
+
+        private void finish() {
+            invokeIdsInUse.remove(invokeId);
+            // Finish the request-transaction.
+            transaction.endRequest();
+        }
+
     }
 
 }
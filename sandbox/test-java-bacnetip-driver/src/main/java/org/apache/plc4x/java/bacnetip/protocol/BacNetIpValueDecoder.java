@@ -0,0 +1,251 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.bacnetip.protocol;
+
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.api.value.*;
+import org.apache.plc4x.java.bacnetip.readwrite.*;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts the (primitive) values contained in BACnet responses into PlcValues.
+ */
+public class BacNetIpValueDecoder {
+
+    // Error classes
+    private static final int ERROR_CLASS_SECURITY = 4;
+
+    // Error codes
+    private static final int ERROR_CODE_CONFIGURATION_IN_PROGRESS = 2;
+    private static final int ERROR_CODE_DEVICE_BUSY = 3;
+    private static final int ERROR_CODE_INVALID_DATA_TYPE = 9;
+    private static final int ERROR_CODE_READ_ACCESS_DENIED = 27;
+    private static final int ERROR_CODE_UNKNOWN_OBJECT = 31;
+    private static final int ERROR_CODE_UNKNOWN_PROPERTY = 32;
+    private static final int ERROR_CODE_INVALID_ARRAY_INDEX = 42;
+    private static final int ERROR_CODE_SERVICE_REQUEST_DENIED = 29;
+    private static final int ERROR_CODE_OPTIONAL_FUNCTIONALITY_NOT_SUPPORTED = 45;
+    private static final int ERROR_CODE_PROPERTY_IS_NOT_AN_ARRAY = 50;
+    private static final int ERROR_CODE_COV_SUBSCRIPTION_FAILED = 43;
+    private static final int ERROR_CODE_NOT_COV_PROPERTY = 44;
+
+    // Character sets of character strings
+    private static final int CHARACTER_SET_UCS2 = 4;
+    private static final int CHARACTER_SET_ISO_8859_1 = 5;
+
+    private BacNetIpValueDecoder() {
+        // Prevent this from being instantiated.
+    }
+
+    /**
+     * @return value of a property (A list, if the property consists of more than one primitive value).
+     */
+    public static PlcValue decodeValues(BACnetTag[] tags) {
+        if ((tags == null) || (tags.length == 0)) {
+            return new PlcNull();
+        }
+        if (tags.length == 1) {
+            return decodeValue(tags[0]);
+        }
+        List<PlcValue> values = new ArrayList<>(tags.length);
+        for (BACnetTag tag : tags) {
+            values.add(decodeValue(tag));
+        }
+        return new PlcList(values);
+    }
+
+    public static PlcValue decodeValue(BACnetTag tag) {
+        if (tag instanceof BACnetTagApplicationBoolean) {
+            // The value of booleans is encoded in the length field.
+            return new PlcBoolean(tag.getLengthValueType() == 1);
+        } else if (tag instanceof BACnetTagApplicationUnsignedInteger) {
+            return new PlcLong(decodeUnsigned(((BACnetTagApplicationUnsignedInteger) tag).getData()));
+        } else if (tag instanceof BACnetTagApplicationSignedInteger) {
+            return new PlcLong(decodeSigned(((BACnetTagApplicationSignedInteger) tag).getData()));
+        } else if (tag instanceof BACnetTagApplicationReal) {
+            return new PlcFloat(((BACnetTagApplicationReal) tag).getValue());
+        } else if (tag instanceof BACnetTagApplicationDouble) {
+            return new PlcDouble(((BACnetTagApplicationDouble) tag).getValue());
+        } else if (tag instanceof BACnetTagApplicationEnumerated) {
+            return new PlcLong(decodeUnsigned(((BACnetTagApplicationEnumerated) tag).getData()));
+        } else if (tag instanceof BACnetTagApplicationCharacterString) {
+            BACnetTagApplicationCharacterString characterString = (BACnetTagApplicationCharacterString) tag;
+            return new PlcString(new String(characterString.getData(), getCharset(characterString.getEncoding())));
+        } else if (tag instanceof BACnetTagApplicationBitString) {
+            BACnetTagApplicationBitString bitString = (BACnetTagApplicationBitString) tag;
+            byte[] data = bitString.getData();
+            // The first bit is the most significant bit of the first byte.
+            int numBits = (data.length * 8) - bitString.getUnusedBits();
+            List<PlcValue> bits = new ArrayList<>(numBits);
+            for (int i = 0; i < numBits; i++) {
+                bits.add(new PlcBoolean((data[i / 8] & (0x80 >> (i % 8))) != 0));
+            }
+            return new PlcList(bits);
+        } else if (tag instanceof BACnetTagApplicationDate) {
+            return decodeDate(((BACnetTagApplicationDate) tag).getData());
+        } else if (tag instanceof BACnetTagApplicationTime) {
+            return decodeTime(((BACnetTagApplicationTime) tag).getData());
+        } else if (tag instanceof BACnetTagApplicationObjectIdentifier) {
+            BACnetTagApplicationObjectIdentifier objectIdentifier = (BACnetTagApplicationObjectIdentifier) tag;
+            Map<String, PlcValue> values = new HashMap<>();
+            values.put("objectType", new PlcInteger(objectIdentifier.getObjectType()));
+            values.put("objectInstance", new PlcLong(objectIdentifier.getObjectInstanceNumber()));
+            return new PlcStruct(values);
+        } else if (tag instanceof BACnetTagApplicationOctetString) {
+            return toByteList(((BACnetTagApplicationOctetString) tag).getData());
+        } else if (tag instanceof BACnetTagContext) {
+            return toByteList(((BACnetTagContext) tag).getData());
+        }
+        return new PlcNull();
+    }
+
+    /**
+     * @return response code for the given BACnet error class and error code.
+     */
+    public static PlcResponseCode decodeError(long errorClass, long errorCode) {
+        switch ((int) errorCode) {
+            case ERROR_CODE_UNKNOWN_OBJECT:
+            case ERROR_CODE_UNKNOWN_PROPERTY:
+                return PlcResponseCode.NOT_FOUND;
+            case ERROR_CODE_READ_ACCESS_DENIED:
+            case ERROR_CODE_SERVICE_REQUEST_DENIED:
+                return PlcResponseCode.ACCESS_DENIED;
+            case ERROR_CODE_INVALID_ARRAY_INDEX:
+            case ERROR_CODE_PROPERTY_IS_NOT_AN_ARRAY:
+                return PlcResponseCode.INVALID_ADDRESS;
+            case ERROR_CODE_INVALID_DATA_TYPE:
+                return PlcResponseCode.INVALID_DATATYPE;
+            case ERROR_CODE_CONFIGURATION_IN_PROGRESS:
+            case ERROR_CODE_DEVICE_BUSY:
+                return PlcResponseCode.REMOTE_BUSY;
+            case ERROR_CODE_OPTIONAL_FUNCTIONALITY_NOT_SUPPORTED:
+            case ERROR_CODE_COV_SUBSCRIPTION_FAILED:
+            case ERROR_CODE_NOT_COV_PROPERTY:
+                return PlcResponseCode.UNSUPPORTED;
+            default:
+                return (errorClass == ERROR_CLASS_SECURITY) ?
+                    PlcResponseCode.ACCESS_DENIED : PlcResponseCode.REMOTE_ERROR;
+        }
+    }
+
+    /**
+     * @return response code for an error tag pair of a ReadPropertyMultiple result.
+     */
+    public static PlcResponseCode decodeError(BACnetTag errorClass, BACnetTag errorCode) {
+        if (!(errorClass instanceof BACnetTagApplicationEnumerated) ||
+            !(errorCode instanceof BACnetTagApplicationEnumerated)) {
+            return PlcResponseCode.REMOTE_ERROR;
+        }
+        return decodeError(decodeUnsigned(((BACnetTagApplicationEnumerated) errorClass).getData()),
+            decodeUnsigned(((BACnetTagApplicationEnumerated) errorCode).getData()));
+    }
+
+    /**
+     * Unsigned values (and enumerations) are transferred big endian using as few bytes as possible.
+     */
+    public static long decodeUnsigned(byte[] data) {
+        long value = 0;
+        if (data != null) {
+            for (byte b : data) {
+                value = (value << 8) | (b & 0xFF);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Counterpart of {@link #decodeUnsigned(byte[])}.
+     */
+    public static byte[] encodeUnsigned(long value) {
+        int numBytes = 1;
+        while ((numBytes < 4) && ((value >>> (numBytes * 8)) != 0)) {
+            numBytes++;
+        }
+        byte[] data = new byte[numBytes];
+        for (int i = 0; i < numBytes; i++) {
+            data[i] = (byte) (value >>> ((numBytes - 1 - i) * 8));
+        }
+        return data;
+    }
+
+    private static long decodeSigned(byte[] data) {
+        if ((data == null) || (data.length == 0)) {
+            return 0;
+        }
+        // Start with the sign of the first byte.
+        long value = data[0];
+        for (int i = 1; i < data.length; i++) {
+            value = (value << 8) | (data[i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static PlcValue decodeDate(byte[] data) {
+        // Year - 1900, month, day, day of week (0xFF being unspecified)
+        if ((data.length == 4) && ((data[0] & 0xFF) != 0xFF) && (data[1] >= 1) && (data[1] <= 12) &&
+            (data[2] >= 1) && (data[2] <= 31)) {
+            try {
+                return new PlcDate(LocalDate.of(1900 + (data[0] & 0xFF), data[1], data[2]));
+            } catch (DateTimeException e) {
+                // Fall through and return the raw data.
+            }
+        }
+        return toByteList(data);
+    }
+
+    private static PlcValue decodeTime(byte[] data) {
+        // Hour, minute, second, hundredths (0xFF being unspecified)
+        if ((data.length == 4) && (data[0] >= 0) && (data[0] < 24) && (data[1] >= 0) && (data[1] < 60) &&
+            (data[2] >= 0) && (data[2] < 60)) {
+            int hundredths = ((data[3] & 0xFF) < 100) ? data[3] : 0;
+            return new PlcTime(LocalTime.of(data[0], data[1], data[2], hundredths * 10_000_000));
+        }
+        return toByteList(data);
+    }
+
+    private static PlcValue toByteList(byte[] data) {
+        List<PlcValue> values = new ArrayList<>(data.length);
+        for (byte b : data) {
+            values.add(new PlcInteger(b & 0xFF));
+        }
+        return new PlcList(values);
+    }
+
+    private static Charset getCharset(int characterSet) {
+        switch (characterSet) {
+            case CHARACTER_SET_UCS2:
+                return StandardCharsets.UTF_16BE;
+            case CHARACTER_SET_ISO_8859_1:
+                return StandardCharsets.ISO_8859_1;
+            default:
+                // ANSI X3.4 (UTF-8)
+                return StandardCharsets.UTF_8;
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.bacnetip.readwrite.utils;
+
+import org.apache.plc4x.java.spi.generation.ParseException;
+import org.apache.plc4x.java.spi.generation.ReadBuffer;
+
+public class StaticHelper {
+
+    private StaticHelper() {
+        // Prevent this from being instantiated.
+    }
+
+    /**
+     * Lists in BACnet don't have a length, they are enclosed in an opening and a closing context tag instead.
+     *
+     * @param io        buffer
+     * @param tagNumber context tag number the list was opened with
+     * @return true if the next byte is the closing tag with the given tag number.
+     */
+    public static boolean isClosingTag(ReadBuffer io, int tagNumber) {
+        try {
+            return io.peekByte(0) == (byte) ((tagNumber << 4) | 0x0F);
+        } catch (ParseException e) {
+            // If there is no more data, the list is definitely finished.
+            return true;
+        }
+    }
+
+    /**
+     * Used to find out, if optional elements preceding a constructed element are present.
+     *
+     * @param io        buffer
+     * @param tagNumber context tag number of the constructed element
+     * @return true if the next byte is the opening tag with the given tag number.
+     */
+    public static boolean isOpeningTag(ReadBuffer io, int tagNumber) {
+        try {
+            return io.peekByte(0) == (byte) ((tagNumber << 4) | 0x0E);
+        } catch (ParseException e) {
+            return false;
+        }
+    }
+
+}
@@ -16,28 +16,14 @@ KIND, either express or implied.  See the License for the
 specific language governing permissions and limitations
 under the License.
 */
-package org.apache.plc4x.java.df1.protocol;
+package org.apache.plc4x.java.bacnetip;
 
-import org.apache.plc4x.java.df1.configuration.Df1Configuration;
-import org.apache.plc4x.java.df1.readwrite.DF1Command;
-import org.apache.plc4x.java.spi.ConversationContext;
-import org.apache.plc4x.java.spi.Plc4xProtocolBase;
-import org.apache.plc4x.java.spi.configuration.HasConfiguration;
+import org.apache.plc4x.test.parserserializer.ParserSerializerTestsuiteRunner;
 
-public class Df1ProtocolLogic extends Plc4xProtocolBase<DF1Command> implements HasConfiguration<Df1Configuration> {
-
-    private Df1Configuration configuration;
-
-    @Override
-    public void setConfiguration(Df1Configuration configuration) {
-        this.configuration = configuration;
-    }
-
-    @Override
-    public void close(ConversationContext<DF1Command> context) {
+public class BacNetIpParserSerializerTest extends ParserSerializerTestsuiteRunner {
 
+    public BacNetIpParserSerializerTest() {
+        super("/testsuite/BacNetIpTestsuite.xml");
     }
 
-
-
 }
@@ -0,0 +1,91 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.bacnetip.optimizer;
+
+import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.apache.plc4x.java.api.messages.PlcRequest;
+import org.apache.plc4x.java.bacnetip.context.BacNetIpDriverContext;
+import org.apache.plc4x.java.bacnetip.field.BacNetIpFieldHandler;
+import org.apache.plc4x.java.spi.messages.DefaultPlcReadRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BacNetIpOptimizerTest {
+
+    @Test
+    public void propertiesOfManyObjectsAreReadWithOneRequest() {
+        PlcReadRequest readRequest = new DefaultPlcReadRequest.Builder(null, new BacNetIpFieldHandler())
+            .addItem("a", "1234/0/1")
+            .addItem("b", "1234/0/1/77")
+            .addItem("c", "1234/2/3")
+            .addItem("d", "1234/3/4/111")
+            .build();
+        List<PlcRequest> subRequests = new BacNetIpOptimizer().processReadRequest(readRequest, new BacNetIpDriverContext());
+        assertEquals(1, subRequests.size());
+        assertEquals(4, ((PlcReadRequest) subRequests.get(0)).getNumberOfFields());
+    }
+
+    @Test
+    public void propertiesOfDifferentDevicesAreReadWithSeparateRequests() {
+        PlcReadRequest readRequest = new DefaultPlcReadRequest.Builder(null, new BacNetIpFieldHandler())
+            .addItem("a", "1234/0/1")
+            .addItem("b", "5678/0/1")
+            .addItem("c", "1234/2/3")
+            .addItem("d", "5678/0/1/77")
+            .build();
+        List<PlcRequest> subRequests = new BacNetIpOptimizer().processReadRequest(readRequest, new BacNetIpDriverContext());
+        assertEquals(2, subRequests.size());
+        assertEquals(Arrays.asList("a", "c"), ((PlcReadRequest) subRequests.get(0)).getFieldNames().stream()
+            .sorted().collect(Collectors.toList()));
+        assertEquals(Arrays.asList("b", "d"), ((PlcReadRequest) subRequests.get(1)).getFieldNames().stream()
+            .sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void maxApduLengthSplitsRequests() {
+        BacNetIpDriverContext driverContext = new BacNetIpDriverContext();
+        driverContext.setMaxApduLengthAccepted(BacNetIpDriverContext.MIN_APDU_LENGTH);
+        PlcReadRequest readRequest = new DefaultPlcReadRequest.Builder(null, new BacNetIpFieldHandler())
+            .addItem("a", "1234/0/1/85")
+            .addItem("b", "1234/0/1/103")
+            .addItem("c", "1234/0/1/111")
+            .addItem("d", "1234/0/1/117")
+            .addItem("e", "1234/0/1/36")
+            .addItem("f", "1234/0/1/81")
+            .build();
+        // Only four results (and the object identifier) fit into an APDU of 50 bytes.
+        List<PlcRequest> subRequests = new BacNetIpOptimizer().processReadRequest(readRequest, driverContext);
+        assertEquals(2, subRequests.size());
+        assertEquals(4, ((PlcReadRequest) subRequests.get(0)).getNumberOfFields());
+        assertEquals(2, ((PlcReadRequest) subRequests.get(1)).getNumberOfFields());
+    }
+
+    @Test
+    public void resultSizeDependsOnProperty() {
+        assertEquals(10, BacNetIpOptimizer.estimatePropertyResultSize(85));
+        assertEquals(70, BacNetIpOptimizer.estimatePropertyResultSize(77));
+        assertEquals(11, BacNetIpOptimizer.estimatePropertyResultSize(300));
+    }
+
+}
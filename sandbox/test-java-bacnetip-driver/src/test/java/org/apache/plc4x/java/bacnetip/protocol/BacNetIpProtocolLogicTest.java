@@ -0,0 +1,194 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.bacnetip.protocol;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultEventLoop;
+import io.netty.channel.local.LocalChannel;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.apache.plc4x.java.api.messages.PlcSubscriptionResponse;
+import org.apache.plc4x.java.api.model.PlcConsumerRegistration;
+import org.apache.plc4x.java.api.model.PlcSubscriptionHandle;
+import org.apache.plc4x.java.bacnetip.configuration.BacNetIpConfiguration;
+import org.apache.plc4x.java.bacnetip.field.BacNetIpFieldHandler;
+import org.apache.plc4x.java.bacnetip.readwrite.*;
+import org.apache.plc4x.java.spi.Plc4xNettyWrapper;
+import org.apache.plc4x.java.spi.messages.DefaultPlcSubscriptionRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BacNetIpProtocolLogicTest {
+
+    private DefaultEventLoop eventLoop;
+    // Renewal timers scheduled by the protocol logic
+    private List<ScheduledFuture<?>> renewals;
+    private LocalChannel channel;
+    private BlockingQueue<APDUConfirmedRequest> sent;
+    private BacNetIpConfiguration configuration;
+    private BacNetIpProtocolLogic logic;
+
+    @BeforeEach
+    public void setUp() {
+        renewals = new ArrayList<>();
+        eventLoop = new DefaultEventLoop() {
+            @Override
+            public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period,
+                                                          TimeUnit unit) {
+                ScheduledFuture<?> renewal = super.scheduleAtFixedRate(command, initialDelay, period, unit);
+                renewals.add(renewal);
+                return renewal;
+            }
+        };
+        // The requests are sent from the threads of the request-transaction manager, so the pipeline
+        // needs an event loop of its own.
+        channel = new LocalChannel();
+        eventLoop.register(channel).syncUninterruptibly();
+        sent = new LinkedBlockingQueue<>();
+        channel.pipeline().addLast(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                sent.add((APDUConfirmedRequest) ((BVLCOriginalUnicastNPDU) msg).getNpdu().getApdu());
+                promise.setSuccess();
+            }
+        });
+
+        configuration = new BacNetIpConfiguration();
+        configuration.setRequestTimeout(1000);
+        configuration.setMaxInFlight(4);
+        configuration.setCovLifetime(300);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        eventLoop.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void objectIsUnsubscribedWithItsLastHandle() throws Exception {
+        connect();
+        CompletableFuture<PlcSubscriptionResponse> firstSubscription = subscribe("1234/0/1");
+        BACnetConfirmedServiceRequestSubscribeCOV subscribeCov = (BACnetConfirmedServiceRequestSubscribeCOV) ack();
+        assertEquals(0, subscribeCov.getMonitoredObjectType());
+        assertEquals(1, subscribeCov.getMonitoredObjectInstanceNumber());
+        assertTrue(subscribeCov.getParameters().getIssueConfirmedNotifications());
+        PlcConsumerRegistration firstRegistration = register(firstSubscription);
+
+        // The object is only subscribed once ...
+        PlcConsumerRegistration secondRegistration = register(subscribe("1234/0/1"));
+        assertNull(sent.poll(100, TimeUnit.MILLISECONDS));
+
+        // ... and unsubscribed as soon as nobody uses it anymore.
+        logic.unregister(firstRegistration);
+        assertNull(sent.poll(100, TimeUnit.MILLISECONDS));
+        logic.unregister(secondRegistration);
+        BACnetConfirmedServiceRequestSubscribeCOV cancellation = (BACnetConfirmedServiceRequestSubscribeCOV) ack();
+        assertEquals(0, cancellation.getMonitoredObjectType());
+        assertEquals(1, cancellation.getMonitoredObjectInstanceNumber());
+        assertNull(cancellation.getParameters());
+
+        // After that, the next subscription has to subscribe the object again.
+        subscribe("1234/0/1");
+        assertNotNull(((BACnetConfirmedServiceRequestSubscribeCOV) ack()).getParameters());
+    }
+
+    @Test
+    public void handleSharedByRegistrationsKeepsItsSubscription() throws Exception {
+        connect();
+        CompletableFuture<PlcSubscriptionResponse> subscription = subscribe("1234/2/3/77");
+        assertNotNull(((BACnetConfirmedServiceRequestSubscribeCOVProperty) ack()).getParameters());
+        PlcSubscriptionHandle handle = subscription.get(1, TimeUnit.SECONDS).getSubscriptionHandle("value");
+        PlcConsumerRegistration firstRegistration = logic.register(event -> { }, Collections.singletonList(handle));
+        PlcConsumerRegistration secondRegistration = logic.register(event -> { }, Collections.singletonList(handle));
+
+        logic.unregister(firstRegistration);
+        assertNull(sent.poll(100, TimeUnit.MILLISECONDS));
+        logic.unregister(secondRegistration);
+        BACnetConfirmedServiceRequestSubscribeCOVProperty cancellation =
+            (BACnetConfirmedServiceRequestSubscribeCOVProperty) ack();
+        assertEquals(2, cancellation.getMonitoredObjectType());
+        assertEquals(3, cancellation.getMonitoredObjectInstanceNumber());
+        assertArrayEquals(new byte[]{77}, cancellation.getMonitoredPropertyIdentifier());
+        assertNull(cancellation.getParameters());
+    }
+
+    @Test
+    public void renewalIsStoppedWithTheLastSubscription() throws Exception {
+        connect();
+        CompletableFuture<PlcSubscriptionResponse> first = subscribe("1234/0/1");
+        ack();
+        CompletableFuture<PlcSubscriptionResponse> second = subscribe("1234/0/2");
+        ack();
+        PlcConsumerRegistration firstRegistration = register(first);
+        PlcConsumerRegistration secondRegistration = register(second);
+        // One timer renews all subscriptions.
+        assertEquals(1, renewals.size());
+
+        logic.unregister(firstRegistration);
+        ack();
+        assertFalse(renewals.get(0).isCancelled());
+        logic.unregister(secondRegistration);
+        ack();
+        assertTrue(renewals.get(0).isCancelled());
+    }
+
+    private void connect() {
+        logic = new BacNetIpProtocolLogic();
+        logic.setConfiguration(configuration);
+        channel.pipeline().addLast(new Plc4xNettyWrapper<>(channel.pipeline(), false, logic, BVLC.class));
+    }
+
+    private CompletableFuture<PlcSubscriptionResponse> subscribe(String address) {
+        return logic.subscribe(new DefaultPlcSubscriptionRequest.Builder(logic, new BacNetIpFieldHandler())
+            .addChangeOfStateField("value", address)
+            .build());
+    }
+
+    private PlcConsumerRegistration register(CompletableFuture<PlcSubscriptionResponse> subscription) throws Exception {
+        PlcSubscriptionHandle handle = subscription.get(1, TimeUnit.SECONDS).getSubscriptionHandle("value");
+        assertNotNull(handle);
+        return logic.register(event -> { }, Collections.singletonList(handle));
+    }
+
+    /**
+     * Acknowledge the next confirmed request sent to the device.
+     */
+    private BACnetConfirmedServiceRequest ack() throws Exception {
+        APDUConfirmedRequest request = sent.poll(1, TimeUnit.SECONDS);
+        assertNotNull(request);
+        APDUSimpleAck simpleAck = new APDUSimpleAck(request.getInvokeId(), request.getServiceRequest().getServiceChoice());
+        BVLC response = new BVLCOriginalUnicastNPDU(new NPDU((short) 1, false, false, false, false, (byte) 0,
+            null, null, null, null, null, null, null, null, simpleAck));
+        eventLoop.submit(() -> channel.pipeline().fireChannelRead(response)).get(1, TimeUnit.SECONDS);
+        return request.getServiceRequest();
+    }
+
+}